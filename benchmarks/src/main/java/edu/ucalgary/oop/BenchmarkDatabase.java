@@ -0,0 +1,93 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Builds an in-memory H2 database in PostgreSQL mode with the tables of {@code project.sql}
+ * and a population from {@link SyntheticDataGenerator} of the requested size, for the benchmarks.
+ * <p>
+ * The population is fixed by the seed, so every run of a benchmark reads the same rows.
+ * The tables come from the {@code CREATE TABLE} statements of the file named by the
+ * {@code relief.schema} system property, {@code project.sql} in the working directory by default.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+final class BenchmarkDatabase {
+    private static final long SEED = 380L;
+    private static final int BATCH_SIZE = 10_000;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Creates and fills a new in-memory database.
+     *
+     * @param persons The number of people to generate
+     * @return An open connection to the database; closing it discards the database
+     * @throws SQLException If the schema or the data cannot be written
+     * @throws IOException If the schema file cannot be read
+     */
+    static Connection create(int persons) throws SQLException, IOException {
+        Connection connection = DriverManager.getConnection(
+            "jdbc:h2:mem:relief" + persons + "_" + System.nanoTime()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+        try (Statement stmt = connection.createStatement()) {
+            for (String table : schema()) stmt.execute(table);
+        }
+        connection.setAutoCommit(false);
+        populate(connection, new SyntheticDataGenerator(SEED, persons));
+        connection.commit();
+        connection.setAutoCommit(true);
+        return connection;
+    }
+
+    private static String[] schema() throws IOException {
+        String sql = new String(Files.readAllBytes(Paths.get(System.getProperty("relief.schema", "project.sql"))),
+            StandardCharsets.UTF_8).replaceAll("(?m)^(--|\\\\).*$", "");
+        return Arrays.stream(sql.split(";"))
+            .map(String::trim)
+            .filter(statement -> statement.toUpperCase().startsWith("CREATE TABLE"))
+            .toArray(String[]::new);
+    }
+
+    private static void populate(Connection connection, SyntheticDataGenerator generator)
+            throws SQLException, IOException {
+        Map<Table, PreparedStatement> inserts = new EnumMap<>(Table.class);
+        try {
+            for (Table table : Table.values()) {
+                String[] columns = table.getColumns();
+                inserts.put(table, connection.prepareStatement("INSERT INTO " + table.getName()
+                    + " (" + String.join(", ", columns) + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(columns.length, "?")) + ")"));
+            }
+            long[] rows = new long[1];
+            generator.generate((table, values) -> {
+                PreparedStatement ps = inserts.get(table);
+                for (int i = 0; i < values.length; i++) ps.setObject(i + 1, values[i]);
+                ps.addBatch();
+                // Tables are flushed in foreign key order, so referenced rows always go first
+                if (++rows[0] % BATCH_SIZE == 0) {
+                    for (PreparedStatement insert : inserts.values()) insert.executeBatch();
+                }
+            });
+            for (PreparedStatement insert : inserts.values()) insert.executeBatch();
+        } finally {
+            for (PreparedStatement insert : inserts.values()) insert.close();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package edu.ucalgary.oop;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loading a language file and looking up translations in it.
+ * Run from the project root so that {@code data/} is found.
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LanguageSupportBenchmark {
+
+    @Param({"en-CA", "fr-CA"})
+    public String languageCode;
+
+    private LanguageSupport languageSupport;
+
+    @Setup
+    public void setUp() {
+        languageSupport = new LanguageSupport(languageCode);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public LanguageSupport construct() {
+        return new LanguageSupport(languageCode);
+    }
+
+    @Benchmark
+    public String getText() {
+        return languageSupport.getText("victim_list_header");
+    }
+
+    @Benchmark
+    public String getMissingText() {
+        return languageSupport.getText("no_such_key");
+    }
+}
@@ -0,0 +1,58 @@
+package edu.ucalgary.oop;
+
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link DatabaseConnection#loadData()} reading a whole generated population
+ * from an embedded database, from the person rows through the associations.
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LoadDataBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int persons;
+
+    private Connection connection;
+    private DatabaseConnection database;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        connection = BenchmarkDatabase.create(persons);
+        database = new DatabaseConnection(connection);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.closeConnection();
+    }
+
+    @Benchmark
+    public DatabaseConnection loadData() {
+        database.loadData();
+        return database;
+    }
+}
@@ -0,0 +1,69 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures person writes to a {@link LogStore} in a temporary directory, with background
+ * syncs and compaction running, over a working set of a given number of rows.
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogStoreBenchmark {
+
+    @Param({"1000", "100000"})
+    public int persons;
+
+    private Path directory;
+    private LogStore store;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("logstore-benchmark");
+        store = LogStore.open(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public LogStore put() throws IOException {
+        int id = 1 + next++ % persons;
+        store.put(Table.PERSON, id, new Object[] {id, "Freda", "Ng",
+            Date.valueOf("1990-05-01"), "Woman", null, "403-555-0101", null, next});
+        return store;
+    }
+}
@@ -0,0 +1,92 @@
+package edu.ucalgary.oop;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the in-memory paths that grow with the population: copying the person map,
+ * listing victims with their family groups, and the checks made before an allocation.
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ModelBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int persons;
+
+    private DatabaseConnection database;
+    private UserInterfaceImplied ui;
+    private Supply supply;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Connection connection = BenchmarkDatabase.create(persons);
+        database = new DatabaseConnection(connection);
+        ui = new UserInterfaceImplied(new LanguageSupport("en-CA"), new Scanner(""),
+            new PrintStream(OutputStream.nullOutputStream()));
+        ui.setModel(new ReliefModel(database));
+        ui.setTablePageSize(0);
+        supply = new Blanket();
+        random = new SplittableRandom(380L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.closeConnection();
+    }
+
+    @Benchmark
+    public Map<Integer, Person> getPersons() {
+        return database.getPersons();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void viewDisasterVictimInfo() {
+        ui.viewDisasterVictimInfo();
+    }
+
+    @Benchmark
+    public boolean checkLocationMatch() throws SQLException {
+        return supply.checkLocationMatch(1 + random.nextInt(persons), 1 + random.nextInt(persons), database);
+    }
+
+    @Benchmark
+    public String allocateToUnknownPerson() {
+        try {
+            supply.allocateSupplyToPerson(1, -1, database);
+            return null;
+        } catch (SQLException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -16,7 +16,8 @@ CREATE TABLE Person (
     gender VARCHAR,
     comments VARCHAR,
     phone_number VARCHAR,
-    family_group INT
+    family_group INT,
+    version INT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE Location (
@@ -37,7 +38,8 @@ CREATE TABLE Inquiry (
 CREATE TABLE Supply (
     supply_id SERIAL PRIMARY KEY,
     type VARCHAR,
-    comments VARCHAR
+    comments VARCHAR,
+    version INT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE MedicalRecord (
@@ -63,6 +65,15 @@ CREATE TABLE SupplyAllocation (
     PRIMARY KEY (supply_id, allocation_date)
 );
 
+CREATE TABLE ChangeEvent (
+    sequence BIGSERIAL PRIMARY KEY,
+    changed_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    table_name VARCHAR NOT NULL,
+    row_key BIGINT NOT NULL,
+    operation VARCHAR NOT NULL,
+    changes BYTEA
+);
+
 -- Insert example data
 INSERT INTO Person (first_name, last_name, date_of_birth, gender, comments, phone_number, family_group)
 VALUES
@@ -0,0 +1,84 @@
+package edu.ucalgary.oop;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event for one decision to allocate a supply, or not.
+ * <p>
+ * The event's duration covers the checks and the database write. A rejected
+ * allocation carries the reason, such as an unknown person or a supply held at
+ * another location.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+@Name("edu.ucalgary.oop.Allocation")
+@Label("Supply Allocation")
+@Category({"Disaster Relief", "Allocation"})
+@Description("A decision to allocate a supply to a person or location")
+public class AllocationEvent extends Event {
+    @Label("Supply ID")
+    int supplyId;
+
+    @Label("Supply Type")
+    String supplyType;
+
+    @Label("Person ID")
+    @Description("The receiving person, or 0 for an allocation to a location")
+    int personId;
+
+    @Label("Location ID")
+    @Description("The receiving location, or 0 for an allocation to a person")
+    int locationId;
+
+    @Label("Decision")
+    @Description("allocated or rejected")
+    String decision;
+
+    @Label("Reason")
+    String reason;
+
+    /**
+     * Starts timing an allocation.
+     *
+     * @param supplyId   the supply being allocated
+     * @param supplyType the type of the supply
+     * @param personId   the receiving person, or 0
+     * @param locationId the receiving location, or 0
+     * @return the started event, to be finished with {@link #allocated()} or {@link #rejected(String)}
+     */
+    public static AllocationEvent begin(int supplyId, String supplyType, int personId, int locationId) {
+        AllocationEvent event = new AllocationEvent();
+        event.supplyId = supplyId;
+        event.supplyType = supplyType;
+        event.personId = personId;
+        event.locationId = locationId;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Records that the supply was allocated.
+     */
+    public void allocated() {
+        decision = "allocated";
+        commit();
+    }
+
+    /**
+     * Records that the allocation was refused or failed.
+     *
+     * @param reason why the supply was not allocated
+     */
+    public void rejected(String reason) {
+        decision = "rejected";
+        this.reason = reason;
+        commit();
+    }
+}
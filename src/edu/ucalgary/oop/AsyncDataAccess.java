@@ -0,0 +1,241 @@
+package edu.ucalgary.oop;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs database work off the caller's thread and returns {@link CompletableFuture}s.
+ * <p>
+ * Each task borrows its own connection from a {@link ConnectionPool}, so independent
+ * lookups run at the same time instead of one after another. Tasks run on virtual
+ * threads when the JVM provides them (Java 21 and later) and on a cached pool of
+ * daemon threads otherwise; the pool size, not the thread count, bounds the load on
+ * the database.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class AsyncDataAccess implements AutoCloseable {
+    /** Default number of pooled connections. */
+    public static final int DEFAULT_POOL_SIZE = 8;
+
+    /**
+     * Work that needs a database connection.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        /**
+         * Performs the work.
+         *
+         * @param connection a connection borrowed for the duration of the call
+         * @return the result
+         * @throws SQLException if the work fails
+         */
+        T apply(Connection connection) throws SQLException;
+    }
+
+    private final DatabaseConnector db;
+    private final ConnectionPool pool;
+    private final ExecutorService executor;
+    private final boolean pooled;
+
+    /**
+     * Constructs a new AsyncDataAccess over the given connector. Real databases get a
+     * pool of separate connections; other connectors share their single connection.
+     *
+     * @param db       the database connector
+     * @param poolSize the maximum number of pooled connections
+     */
+    public AsyncDataAccess(DatabaseConnector db, int poolSize) {
+        this(db, db instanceof RealDatabaseConnection
+            ? new ConnectionPool(((RealDatabaseConnection) db)::openConnection, poolSize)
+            : new ConnectionPool(new SharedConnection(db), 1), db instanceof RealDatabaseConnection);
+    }
+
+    /**
+     * Constructs a new AsyncDataAccess over an existing pool.
+     *
+     * @param db   the database connector, used for cache invalidation
+     * @param pool the pool tasks borrow connections from
+     */
+    public AsyncDataAccess(DatabaseConnector db, ConnectionPool pool) {
+        this(db, pool, true);
+    }
+
+    private AsyncDataAccess(DatabaseConnector db, ConnectionPool pool, boolean pooled) {
+        this.db = db;
+        this.pool = pool;
+        this.pooled = pooled;
+        this.executor = newVirtualThreadExecutor();
+        Metrics.gauge("pool.size", pool::getMaxSize);
+        Metrics.gauge("pool.available", pool::getAvailable);
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread per task, or a cached pool of
+     * daemon threads when virtual threads are not available.
+     *
+     * @return a new executor
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "async-data-access");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Returns whether tasks get connections of their own. Without a pool they share the
+     * connector's single connection, if it has one, and gain nothing by running early.
+     *
+     * @return true if the connections are pooled
+     */
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    /**
+     * Runs work on a pooled connection.
+     *
+     * @param work the work to run
+     * @param <T>  the type of the result
+     * @return a future completed with the result, or exceptionally with the {@link SQLException}
+     */
+    public <T> CompletableFuture<T> withConnection(SqlWork<T> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            Connection connection = null;
+            try {
+                connection = pool.borrow();
+                return work.apply(connection);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            } finally {
+                if (connection != null) pool.release(connection);
+            }
+        }, executor);
+    }
+
+    /**
+     * Runs work that needs no connection, such as an in-memory search, on the same executor.
+     *
+     * @param work the work to run
+     * @param <T>  the type of the result
+     * @return a future completed with the result
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, executor);
+    }
+
+    /**
+     * Runs a read query.
+     *
+     * @param sql    the query, with {@code ?} placeholders
+     * @param params the query parameters
+     * @return a future completed with the rows
+     */
+    public CompletableFuture<QueryCache.Result> query(String sql, Object... params) {
+        return withConnection(connection -> QueryCache.load(connection, sql, params));
+    }
+
+    /**
+     * Runs an insert, update or delete and invalidates cached reads of the tables it names.
+     *
+     * @param sql    the statement, with {@code ?} placeholders
+     * @param params the statement parameters
+     * @return a future completed with the number of affected rows
+     */
+    public CompletableFuture<Integer> update(String sql, Object... params) {
+        return withConnection(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    ps.setObject(i + 1, params[i]);
+                }
+                int rows = ps.executeUpdate();
+                db.invalidate(QueryCache.tablesOf(sql).toArray(new String[0]));
+                return rows;
+            }
+        });
+    }
+
+    /**
+     * Loads the current list of locations.
+     *
+     * @return a future completed with the locations indexed by ID
+     */
+    public CompletableFuture<Map<Integer, Location>> loadLocations() {
+        return query("SELECT location_id, name, address FROM Location").thenApply(rs -> {
+            Map<Integer, Location> locations = new HashMap<>();
+            for (int row = 0; row < rs.size(); row++) {
+                locations.put(rs.getInt(row, "location_id"),
+                    new Location(rs.getString(row, "name"), rs.getString(row, "address")));
+            }
+            return locations;
+        });
+    }
+
+    /**
+     * Loads the IDs of all family groups that have at least one member.
+     *
+     * @return a future completed with the family group IDs
+     */
+    public CompletableFuture<Set<Integer>> loadFamilyGroupIds() {
+        return query("SELECT DISTINCT family_group FROM Person WHERE family_group IS NOT NULL").thenApply(rs -> {
+            Set<Integer> ids = new HashSet<>();
+            for (int row = 0; row < rs.size(); row++) {
+                ids.add(rs.getInt(row, "family_group"));
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * Stops accepting work and closes the pooled connections.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        pool.close();
+    }
+
+    /**
+     * Hands out the connector's own connection for connectors without a real pool.
+     */
+    private static class SharedConnection implements ConnectionPool.ConnectionFactory {
+        private final DatabaseConnector db;
+
+        SharedConnection(DatabaseConnector db) {
+            this.db = db;
+        }
+
+        @Override
+        public Connection open() throws SQLException {
+            Connection connection = db.getConnection();
+            if (connection == null) throw new SQLException("No database connection");
+            return connection;
+        }
+
+        @Override
+        public void discard(Connection connection) {
+            // The connector owns its connection and closes it itself
+        }
+    }
+}
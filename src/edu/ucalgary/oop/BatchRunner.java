@@ -0,0 +1,369 @@
+package edu.ucalgary.oop;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs a file of commands against the relief model without a human at the keyboard.
+ * <p>
+ * Each non-blank line that does not start with {@code #} is one command followed by
+ * {@code key=value} arguments; values containing spaces are written in double quotes.
+ * The supported commands are:
+ * </p>
+ * <pre>
+ * add-victim  first=Ana last=Diaz phone=403-555-0101 gender=Woman location=1 [dob=1990-01-31] [group=2] [comments="..."]
+ * allocate    supply=3 person=12        (or location=1 instead of person)
+ * log-inquiry seeking=12 location=1 details="..." inquirer=7
+ *             (or first=.. last=.. phone=4035550101 instead of inquirer, for a new caller)
+ * </pre>
+ * <p>
+ * Commands call the same save and allocate methods as the interactive menu. Their
+ * database writes are grouped into one transaction per {@code batchSize} commands;
+ * a failing command is rolled back to a savepoint and reported with its line number
+ * while the rest of its batch goes ahead. The in-memory model is only updated once a
+ * batch has committed.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class BatchRunner {
+    /** Commands per transaction when no batch size is given. */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final ReliefModel model;
+    private final LanguageSupport languageSupport;
+    private final PrintStream out;
+    private final int batchSize;
+
+    /**
+     * Runs one command's database writes and returns the model update to apply once
+     * they are committed.
+     */
+    @FunctionalInterface
+    private interface Command {
+        Runnable execute(Map<String, String> args) throws SQLException;
+    }
+
+    private final Map<String, Command> commands = new HashMap<>();
+
+    /**
+     * The outcome of running a command file.
+     */
+    public static class Result {
+        private final long succeeded;
+        private final long failed;
+        private final long batches;
+        private final long elapsedNanos;
+        private final Map<String, Long> byCommand;
+
+        Result(long succeeded, long failed, long batches, long elapsedNanos, Map<String, Long> byCommand) {
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.batches = batches;
+            this.elapsedNanos = elapsedNanos;
+            this.byCommand = byCommand;
+        }
+
+        /**
+         * Returns the number of commands that were committed.
+         *
+         * @return the succeeded count
+         */
+        public long getSucceeded() {
+            return succeeded;
+        }
+
+        /**
+         * Returns the number of commands that were rejected or rolled back.
+         *
+         * @return the failed count
+         */
+        public long getFailed() {
+            return failed;
+        }
+
+        /**
+         * Returns the number of transactions committed.
+         *
+         * @return the batch count
+         */
+        public long getBatches() {
+            return batches;
+        }
+
+        /**
+         * Returns how long the run took.
+         *
+         * @return the elapsed time in seconds
+         */
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1_000_000_000.0;
+        }
+
+        /**
+         * Returns the throughput of the run.
+         *
+         * @return commands processed per second
+         */
+        public double getCommandsPerSecond() {
+            return elapsedNanos == 0 ? 0 : (succeeded + failed) / getElapsedSeconds();
+        }
+
+        /**
+         * Returns how many commands of each kind were committed.
+         *
+         * @return the succeeded count per command name, sorted by name
+         */
+        public Map<String, Long> getSucceededByCommand() {
+            return byCommand;
+        }
+    }
+
+    /**
+     * Constructs a new BatchRunner.
+     *
+     * @param model           the model to update, which also supplies the database connection
+     * @param languageSupport the language support used for messages
+     * @param out             where errors and progress are reported
+     * @param batchSize       the number of commands per transaction
+     */
+    public BatchRunner(ReliefModel model, LanguageSupport languageSupport, PrintStream out, int batchSize) {
+        this.model = model;
+        this.languageSupport = languageSupport;
+        this.out = out;
+        this.batchSize = Math.max(1, batchSize);
+        commands.put("add-victim", this::addVictim);
+        commands.put("allocate", this::allocate);
+        commands.put("log-inquiry", this::logInquiry);
+    }
+
+    /**
+     * Runs every command in a command file.
+     *
+     * @param commandFile the commands, one per line
+     * @return the outcome of the run
+     * @throws IOException  if the command file cannot be read
+     * @throws SQLException if the database cannot be reached or a transaction cannot be ended
+     */
+    public Result run(Reader commandFile) throws IOException, SQLException {
+        long start = System.nanoTime();
+        Connection connection = model.getDbConnection().getExclusiveConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+
+        List<Runnable> pending = new ArrayList<>();
+        Map<String, Long> pendingByCommand = new HashMap<>();
+        Map<String, Long> byCommand = new TreeMap<>();
+        long succeeded = 0;
+        long failed = 0;
+        long batches = 0;
+        int lineNumber = 0;
+        try {
+            BufferedReader reader = new BufferedReader(commandFile);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    List<String> tokens = tokenize(trimmed);
+                    String name = tokens.get(0).toLowerCase();
+                    Command command = commands.get(name);
+                    if (command == null) throw new IllegalArgumentException("Unknown command " + name);
+                    pending.add(command.execute(parseArguments(tokens)));
+                    pendingByCommand.merge(name, 1L, Long::sum);
+                    connection.releaseSavepoint(savepoint);
+                } catch (SQLException | IllegalArgumentException e) {
+                    connection.rollback(savepoint);
+                    failed++;
+                    out.println(String.format(languageSupport.getText("batch_error"), lineNumber, e.getMessage()));
+                }
+
+                if (pending.size() >= batchSize) {
+                    long committed = commit(connection, pending, pendingByCommand, byCommand);
+                    succeeded += committed;
+                    failed += pending.size() - committed;
+                    batches++;
+                    pending.clear();
+                    pendingByCommand.clear();
+                }
+            }
+            if (!pending.isEmpty()) {
+                long committed = commit(connection, pending, pendingByCommand, byCommand);
+                succeeded += committed;
+                failed += pending.size() - committed;
+                batches++;
+            }
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(autoCommit);
+        }
+        return new Result(succeeded, failed, batches, System.nanoTime() - start, byCommand);
+    }
+
+    /**
+     * Commits a batch and applies its model updates.
+     *
+     * @return the number of commands committed: all of them, or none if the commit failed
+     */
+    private long commit(Connection connection, List<Runnable> pending, Map<String, Long> pendingByCommand,
+                        Map<String, Long> byCommand) throws SQLException {
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            DatabaseConnector.logError("Batch of " + pending.size() + " commands failed to commit", e);
+            out.println(String.format(languageSupport.getText("batch_commit_failed"), pending.size(), e.getMessage()));
+            return 0;
+        }
+        pending.forEach(Runnable::run);
+        pendingByCommand.forEach((name, count) -> byCommand.merge(name, count, Long::sum));
+        return pending.size();
+    }
+
+    private Runnable addVictim(Map<String, String> args) throws SQLException {
+        String firstName = require(args, "first", Validators.NAME);
+        String lastName = require(args, "last", Validators.NAME);
+        String phone = require(args, "phone", Validators.PHONE);
+        String gender = require(args, "gender", Validators.NON_EMPTY);
+        int locationId = locationOf(args);
+        int familyGroupId = args.containsKey("group") ? Integer.parseInt(require(args, "group", Validators.ID)) : 0;
+
+        DisasterVictim victim = new DisasterVictim(firstName, lastName, phone, "Unknown");
+        if (args.containsKey("dob")) victim.setDateOfBirth(require(args, "dob", Validators.DATE));
+        victim.saveNew(model.getDbConnection(), gender, locationId, familyGroupId, args.getOrDefault("comments", ""));
+        return () -> victim.addToModel(model, locationId, familyGroupId);
+    }
+
+    private Runnable allocate(Map<String, String> args) throws SQLException {
+        int supplyId = Integer.parseInt(require(args, "supply", Validators.ID));
+        Supply supply = model.getSupplies().get(supplyId);
+        if (supply == null) throw new IllegalArgumentException("Invalid supply ID: " + supplyId);
+        DatabaseConnector db = model.getDbConnection();
+        if (args.containsKey("person")) {
+            int personId = Integer.parseInt(require(args, "person", Validators.ID));
+            if (!supply.checkLocationMatch(supplyId, personId, db)) {
+                throw new IllegalArgumentException(languageSupport.getText("location_mismatch"));
+            }
+            supply.allocateSupplyToPerson(supplyId, personId, db);
+            return () -> { };
+        }
+        int locationId = locationOf(args);
+        supply.allocateSupplyToLocation(supplyId, locationId, db);
+        return () -> model.addSupplyToLocation(locationId, supply);
+    }
+
+    private Runnable logInquiry(Map<String, String> args) throws SQLException {
+        Inquirer inquirer;
+        if (args.containsKey("inquirer")) {
+            int inquirerId = Integer.parseInt(require(args, "inquirer", Validators.ID));
+            Person person = model.getPersons().get(inquirerId);
+            if (!(person instanceof Inquirer)) throw new IllegalArgumentException("Invalid inquirer ID: " + inquirerId);
+            inquirer = (Inquirer) person;
+        } else {
+            String firstName = require(args, "first", Validators.CALLER_NAME);
+            String lastName = require(args, "last", Validators.CALLER_NAME);
+            String phone = require(args, "phone", Validators.PHONE_DIGITS);
+            inquirer = findExistingInquirer(firstName, lastName, phone);
+            if (inquirer == null) inquirer = new Inquirer(firstName, lastName, phone, "", false);
+        }
+        int seekingId = Integer.parseInt(require(args, "seeking", Validators.ID));
+        if (!model.getPersons().containsKey(seekingId)) {
+            throw new IllegalArgumentException("Invalid person ID: " + seekingId);
+        }
+        String details = require(args, "details", Validators.NON_EMPTY);
+
+        Inquiry inquiry = new Inquiry(inquirer, details);
+        inquiry.setSeekingId(seekingId);
+        inquiry.saveNew(model.getDbConnection(), locationOf(args));
+        Inquirer caller = inquirer;
+        return () -> {
+            caller.setInquiryMessage(details);
+            inquiry.addToModel(model);
+        };
+    }
+
+    private Inquirer findExistingInquirer(String firstName, String lastName, String phone) {
+        for (Person person : model.findPersonsByPhone(phone)) {
+            if (person instanceof Inquirer
+                    && firstName.equalsIgnoreCase(person.getFirstName())
+                    && lastName.equalsIgnoreCase(person.getLastName())) {
+                return (Inquirer) person;
+            }
+        }
+        return null;
+    }
+
+    private int locationOf(Map<String, String> args) {
+        int locationId = Integer.parseInt(require(args, "location", Validators.ID));
+        if (!model.getLocations().containsKey(locationId)) {
+            throw new IllegalArgumentException("Invalid location ID: " + locationId);
+        }
+        return locationId;
+    }
+
+    private static String require(Map<String, String> args, String name, InputValidator validator) {
+        String value = args.get(name);
+        if (value == null) throw new IllegalArgumentException("Missing " + name + "=");
+        if (!validator.isValid(value)) throw new IllegalArgumentException("Invalid " + name + "=" + value);
+        return value;
+    }
+
+    private static Map<String, String> parseArguments(List<String> tokens) {
+        Map<String, String> args = new HashMap<>();
+        for (String token : tokens.subList(1, tokens.size())) {
+            int eq = token.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Expected key=value but found " + token);
+            args.put(token.substring(0, eq).toLowerCase(), token.substring(eq + 1));
+        }
+        return args;
+    }
+
+    /**
+     * Splits a command line into words at spaces outside double quotes. Quotes are
+     * removed, and {@code \"} inside quotes stands for a literal quote.
+     *
+     * @param line the command line
+     * @return the words, at least one
+     */
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted && c == '\\' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                token.append('"');
+                i++;
+            } else if (c == '"') {
+                quoted = !quoted;
+                inToken = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inToken) tokens.add(token.toString());
+                token.setLength(0);
+                inToken = false;
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unclosed quote");
+        if (inToken) tokens.add(token.toString());
+        return tokens;
+    }
+}
@@ -0,0 +1,306 @@
+package edu.ucalgary.oop;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One change to one row, as recorded in a {@link ChangeLog}. Events are immutable.
+ * <p>
+ * The values are the columns the change set, named as in {@code project.sql}; an insert
+ * sets every column it knows and an update only those it changed. Person and supply
+ * changes made through a storage engine also set their {@code version}. Rows are keyed by their ID, a person's stay at
+ * a location by {@link #stayKey(int, int)} and an allocation by its supply. Removing the
+ * expired water allocations is one delete of the allocations with key 0, whose values
+ * give the supply type and the time before which allocations were removed.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public final class ChangeEvent {
+    /** The value naming the time before which a keyless allocation delete removed allocations. */
+    public static final String ALLOCATED_BEFORE = "allocated_before";
+
+    /**
+     * What a change did to its row.
+     */
+    public enum Operation {
+        /** The row was created. */
+        INSERT,
+        /** Some columns of the row were set. */
+        UPDATE,
+        /** The row was removed. */
+        DELETE
+    }
+
+    private static final byte TYPE_NULL = 0;
+
+    private final long sequence;
+    private final LocalDateTime time;
+    private final Table table;
+    private final long key;
+    private final Operation operation;
+    private final Map<String, Object> values;
+
+    /**
+     * Constructs a new ChangeEvent.
+     *
+     * @param sequence  the position of the event in its log, from 1
+     * @param time      when the change was made
+     * @param table     the table of the changed row
+     * @param key       the key of the changed row
+     * @param operation what the change did
+     * @param values    the columns the change set; copied
+     */
+    public ChangeEvent(long sequence, LocalDateTime time, Table table, long key,
+                       Operation operation, Map<String, Object> values) {
+        this.sequence = sequence;
+        this.time = time;
+        this.table = table;
+        this.key = key;
+        this.operation = operation;
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    }
+
+    /**
+     * Returns the position of the event in its log.
+     *
+     * @return the sequence number, from 1
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns when the change was made.
+     *
+     * @return the time of the change
+     */
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the table of the changed row.
+     *
+     * @return the table
+     */
+    public Table getTable() {
+        return table;
+    }
+
+    /**
+     * Returns the key of the changed row.
+     *
+     * @return the key
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Returns what the change did.
+     *
+     * @return the operation
+     */
+    public Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Returns the columns the change set.
+     *
+     * @return the values by column name, in the order they were given; not modifiable
+     */
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Returns the key of a person's stay at a location.
+     *
+     * @param personId   the ID of the person
+     * @param locationId the ID of the location
+     * @return the key of the stay
+     */
+    public static long stayKey(int personId, int locationId) {
+        return ((long) personId << 32) | (locationId & 0xffffffffL);
+    }
+
+    /**
+     * Returns the person of a stay key.
+     *
+     * @param stayKey the key of a stay
+     * @return the ID of the person
+     */
+    public static int stayPersonId(long stayKey) {
+        return (int) (stayKey >>> 32);
+    }
+
+    /**
+     * Returns the location of a stay key.
+     *
+     * @param stayKey the key of a stay
+     * @return the ID of the location
+     */
+    public static int stayLocationId(long stayKey) {
+        return (int) stayKey;
+    }
+
+    /**
+     * Returns the table with a name from {@code project.sql}, in any case.
+     *
+     * @param name the table name
+     * @return the table, or null if no table has the name
+     */
+    public static Table tableNamed(String name) {
+        for (Table table : Table.values()) {
+            if (table.getName().equalsIgnoreCase(name)) return table;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + time + " " + operation + " " + table.getName() + " " + key + " " + values;
+    }
+
+    /**
+     * Writes the event.
+     *
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(sequence);
+        out.writeLong(Timestamp.valueOf(time).getTime());
+        out.writeInt(time.getNano());
+        out.writeUTF(table.getName());
+        out.writeLong(key);
+        out.writeByte(operation.ordinal());
+        writeValues(out, values);
+    }
+
+    /**
+     * Reads an event written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input
+     * @return the event
+     * @throws IOException if reading fails or the event names an unknown table
+     */
+    static ChangeEvent readFrom(DataInput in) throws IOException {
+        long sequence = in.readLong();
+        Timestamp time = new Timestamp(in.readLong());
+        time.setNanos(in.readInt());
+        String name = in.readUTF();
+        Table table = tableNamed(name);
+        if (table == null) throw new IOException("Unknown table " + name);
+        long key = in.readLong();
+        Operation operation = Operation.values()[in.readByte()];
+        return new ChangeEvent(sequence, time.toLocalDateTime(), table, key, operation, readValues(in));
+    }
+
+    /**
+     * Encodes the values of a change, for logs that store them as bytes.
+     *
+     * @param values the values by column name
+     * @return the encoded values
+     */
+    static byte[] encodeValues(Map<String, Object> values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeValues(out, values);
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing to memory failed", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes values encoded by {@link #encodeValues(Map)}.
+     *
+     * @param bytes the encoded values
+     * @return the values by column name
+     * @throws IOException if the bytes are not encoded values
+     */
+    static Map<String, Object> decodeValues(byte[] bytes) throws IOException {
+        return readValues(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    static void writeValues(DataOutput out, Map<String, Object> values) throws IOException {
+        out.writeShort(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            out.writeUTF(entry.getKey());
+            Object value = entry.getValue();
+            if (value == null) {
+                out.writeByte(TYPE_NULL);
+            } else if (value instanceof Integer) {
+                out.writeByte(TableWriter.TYPE_INT);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(TableWriter.TYPE_LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof String) {
+                out.writeByte(TableWriter.TYPE_STRING);
+                out.writeUTF((String) value);
+            } else if (value instanceof Date) {
+                out.writeByte(TableWriter.TYPE_DATE);
+                out.writeLong(((Date) value).toLocalDate().toEpochDay());
+            } else if (value instanceof Timestamp) {
+                out.writeByte(TableWriter.TYPE_TIMESTAMP);
+                out.writeLong(((Timestamp) value).getTime());
+                out.writeInt(((Timestamp) value).getNanos());
+            } else {
+                throw new IllegalArgumentException("Cannot record a " + value.getClass().getSimpleName());
+            }
+        }
+    }
+
+    static Map<String, Object> readValues(DataInput in) throws IOException {
+        int count = in.readShort();
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String column = in.readUTF();
+            byte type = in.readByte();
+            switch (type) {
+                case TYPE_NULL:
+                    values.put(column, null);
+                    break;
+                case TableWriter.TYPE_INT:
+                    values.put(column, in.readInt());
+                    break;
+                case TableWriter.TYPE_LONG:
+                    values.put(column, in.readLong());
+                    break;
+                case TableWriter.TYPE_STRING:
+                    values.put(column, in.readUTF());
+                    break;
+                case TableWriter.TYPE_DATE:
+                    values.put(column, Date.valueOf(LocalDate.ofEpochDay(in.readLong())));
+                    break;
+                case TableWriter.TYPE_TIMESTAMP: {
+                    Timestamp timestamp = new Timestamp(in.readLong());
+                    timestamp.setNanos(in.readInt());
+                    values.put(column, timestamp);
+                    break;
+                }
+                default:
+                    throw new IOException("Unknown value type " + type + " for " + column);
+            }
+        }
+        return values;
+    }
+}
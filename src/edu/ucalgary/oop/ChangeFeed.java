@@ -0,0 +1,278 @@
+package edu.ucalgary.oop;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Keeps a {@link ReliefModel} current with the changes every desk records in a shared
+ * {@link ChangeLog}, so registrations made elsewhere appear without a restart.
+ * <p>
+ * A reader thread reads the events after the last one it has read, a page of
+ * {@value #READ_PAGE} at a time, and hands them, in
+ * sequence order, to an applier thread through a bounded queue. When the model falls
+ * behind the queue fills and the reader stops reading until it drains, so a burst of
+ * changes never holds more than the queue's capacity in memory. Between reads the reader
+ * waits for a {@link Signal}, such as a PostgreSQL notification from
+ * {@link JdbcChangeLog#listen()}, or polls.
+ * </p>
+ * <p>
+ * Sequence numbers of a shared log are assigned before the events commit, so a reader
+ * can see a later event before an earlier one. The reader does not pass such a gap until
+ * the missing event arrives or {@link #GAP_TIMEOUT_MILLIS} has passed, after which the
+ * missing event is taken to have been rolled back.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class ChangeFeed implements AutoCloseable {
+    /** The number of events the queue holds before the reader waits. */
+    public static final int DEFAULT_CAPACITY = 1024;
+    /** How long the reader waits for a missing event before passing it by. */
+    public static final long GAP_TIMEOUT_MILLIS = 5_000;
+    /** How long the reader waits between reads when nothing wakes it, in milliseconds. */
+    public static final long DEFAULT_POLL_MILLIS = 1_000;
+    /** The most events read from the log at once. */
+    public static final int READ_PAGE = JdbcChangeLog.PAGE_SIZE;
+
+    private static final Metrics.Counter APPLIED = Metrics.counter("feed.applied");
+    private static final Metrics.Counter GAPS_SKIPPED = Metrics.counter("feed.gaps_skipped");
+
+    /**
+     * Wakes the reader when new events may have been appended.
+     */
+    public interface Signal extends Closeable {
+        /**
+         * Waits until new events may have been appended, or a timeout passes.
+         *
+         * @param timeoutMillis the longest time to wait, in milliseconds
+         * @return true if woken by new events, false on timeout
+         * @throws IOException          if waiting fails
+         * @throws InterruptedException if the waiting thread is interrupted
+         */
+        boolean await(long timeoutMillis) throws IOException, InterruptedException;
+    }
+
+    private final ChangeLog log;
+    private final ReliefModel model;
+    private final BlockingQueue<ChangeEvent> queue;
+    private final long pollMillis;
+    private Signal signal;
+    private long readSequence;
+    private long gapSince;
+    private long appliedSequence;
+    private Thread reader;
+    private Thread applier;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new ChangeFeed. Nothing is read until {@link #start()}.
+     *
+     * @param log           the shared log, owned by the feed from now on
+     * @param model         the model the events are applied to
+     * @param afterSequence the sequence number of the last event the model already holds
+     * @param capacity      the number of events queued before the reader waits
+     * @param pollMillis    how long the reader waits between reads, in milliseconds
+     */
+    public ChangeFeed(ChangeLog log, ReliefModel model, long afterSequence, int capacity, long pollMillis) {
+        this.log = log;
+        this.model = model;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.pollMillis = pollMillis;
+        this.readSequence = afterSequence;
+        this.appliedSequence = afterSequence;
+    }
+
+    /**
+     * Sets what wakes the reader between reads, instead of polling alone.
+     *
+     * @param signal the signal, owned by the feed from now on, or null to poll
+     * @return this feed
+     */
+    public synchronized ChangeFeed setSignal(Signal signal) {
+        this.signal = signal;
+        return this;
+    }
+
+    /**
+     * Starts the reader and applier threads.
+     *
+     * @return this feed
+     */
+    public synchronized ChangeFeed start() {
+        if (reader != null) return this;
+        Metrics.gauge("feed.queued", queue::size);
+        applier = new Thread(this::applyEvents, "change-feed-apply");
+        applier.setDaemon(true);
+        applier.start();
+        reader = new Thread(this::readEvents, "change-feed-read");
+        reader.setDaemon(true);
+        reader.start();
+        return this;
+    }
+
+    /**
+     * Returns the sequence number of the last event applied to the model.
+     *
+     * @return the sequence number
+     */
+    public synchronized long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * Waits until an event has been applied to the model.
+     *
+     * @param sequence      the sequence number of the event
+     * @param timeoutMillis the longest time to wait, in milliseconds
+     * @return true if the event has been applied, false on timeout
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public synchronized boolean awaitSequence(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (appliedSequence < sequence) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) return false;
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Stops both threads and closes the log and the signal. Events still queued are
+     * not applied.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread[] threads;
+        synchronized (this) {
+            threads = new Thread[] {reader, applier};
+        }
+        for (Thread thread : threads) {
+            if (thread == null) continue;
+            thread.interrupt();
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            if (signal != null) signal.close();
+        } catch (IOException e) {
+            DatabaseConnector.logError("Failed to close the change signal", e);
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            DatabaseConnector.logError("Failed to close the change log", e);
+        }
+    }
+
+    /**
+     * Reads the events after the last one read and queues them in order, waiting while
+     * the queue is full. Stops at a gap in the sequence numbers that is still young,
+     * having read at most one page past it.
+     *
+     * @return the number of events queued
+     * @throws IOException          if the log cannot be read
+     * @throws InterruptedException if interrupted while the queue is full
+     */
+    int poll() throws IOException, InterruptedException {
+        int[] queued = {0};
+        boolean[] stopped = {false};
+        int read;
+        do {
+            read = readPage(queued, stopped);
+        } while (!stopped[0] && read == READ_PAGE);
+        return queued[0];
+    }
+
+    /**
+     * Reads a page of events after the last one read and queues them.
+     *
+     * @return the number of events read, queued or not
+     */
+    private int readPage(int[] queued, boolean[] stopped) throws IOException, InterruptedException {
+        int[] read = {0};
+        InterruptedException[] interrupted = {null};
+        log.replay(readSequence, READ_PAGE, event -> {
+            read[0]++;
+            if (stopped[0]) return;
+            if (event.getSequence() != readSequence + 1) {
+                long now = System.currentTimeMillis();
+                if (gapSince == 0) gapSince = now;
+                if (now - gapSince < GAP_TIMEOUT_MILLIS) {
+                    stopped[0] = true;
+                    return;
+                }
+                DatabaseConnector.logError("Passing change events " + (readSequence + 1) + " to "
+                    + (event.getSequence() - 1) + ", which never arrived", new IOException("Sequence gap"));
+                GAPS_SKIPPED.increment();
+            }
+            try {
+                queue.put(event);
+            } catch (InterruptedException e) {
+                interrupted[0] = e;
+                stopped[0] = true;
+                return;
+            }
+            gapSince = 0;
+            readSequence = event.getSequence();
+            queued[0]++;
+        });
+        if (interrupted[0] != null) throw interrupted[0];
+        return read[0];
+    }
+
+    private void readEvents() {
+        while (!closed) {
+            try {
+                poll();
+                Signal wakeup;
+                synchronized (this) {
+                    wakeup = signal;
+                }
+                if (wakeup == null) {
+                    Thread.sleep(pollMillis);
+                } else {
+                    wakeup.await(pollMillis);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                DatabaseConnector.logError("Failed to read change events", e);
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException stop) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void applyEvents() {
+        while (!closed) {
+            ChangeEvent event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                model.apply(event);
+                APPLIED.increment();
+            } catch (RuntimeException e) {
+                DatabaseConnector.logError("Failed to apply change event " + event, e);
+            }
+            synchronized (this) {
+                appliedSequence = event.getSequence();
+                notifyAll();
+            }
+        }
+    }
+}
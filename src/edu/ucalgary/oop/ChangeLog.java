@@ -0,0 +1,78 @@
+package edu.ucalgary.oop;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * An append-only log of {@link ChangeEvent}s: every change made through a
+ * {@link RecordingStorage} or {@link DatabaseConnection#updateRecord}, and the rows
+ * written by {@link VictimImporter} and {@link DuplicateDetector#applyMerges}, in the
+ * order they were made.
+ * <p>
+ * A {@link ChangeProjection} replays the log onto a snapshot to rebuild the data
+ * without reading every table, and catches up with it incrementally.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see FileChangeLog
+ * @see JdbcChangeLog
+ */
+public interface ChangeLog extends Closeable {
+    /**
+     * Appends a change made now.
+     *
+     * @param table     the table of the changed row
+     * @param key       the key of the changed row
+     * @param operation what the change did
+     * @param values    the columns the change set
+     * @return the appended event, with its sequence number
+     * @throws IOException if the event cannot be appended
+     */
+    ChangeEvent append(Table table, long key, ChangeEvent.Operation operation,
+                       Map<String, Object> values) throws IOException;
+
+    /**
+     * Passes the events after a sequence number to a consumer, in order.
+     *
+     * @param afterSequence the sequence number of the last event already seen, or 0 for all
+     * @param consumer      the receiver of the events
+     * @return the sequence number of the last event passed, or {@code afterSequence} if none
+     * @throws IOException if the events cannot be read
+     */
+    long replay(long afterSequence, Consumer<ChangeEvent> consumer) throws IOException;
+
+    /**
+     * Passes at most a number of the events after a sequence number to a consumer, in
+     * order, so a reader can take a long log a page at a time. A log that cannot stop
+     * early reads past the page and drops the rest.
+     *
+     * @param afterSequence the sequence number of the last event already seen, or 0 for all
+     * @param limit         the most events to pass
+     * @param consumer      the receiver of the events
+     * @return the sequence number of the last event passed, or {@code afterSequence} if none
+     * @throws IOException if the events cannot be read
+     */
+    default long replay(long afterSequence, int limit, Consumer<ChangeEvent> consumer) throws IOException {
+        int[] passed = {0};
+        long[] last = {afterSequence};
+        replay(afterSequence, event -> {
+            if (passed[0] >= limit) return;
+            passed[0]++;
+            last[0] = event.getSequence();
+            consumer.accept(event);
+        });
+        return last[0];
+    }
+
+    /**
+     * Returns the sequence number of the last appended event.
+     *
+     * @return the last sequence number, or 0 if the log is empty
+     * @throws IOException if the log cannot be read
+     */
+    long getLastSequence() throws IOException;
+}
@@ -0,0 +1,289 @@
+package edu.ucalgary.oop;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The rows of {@code project.sql} as they stand after the events of a {@link ChangeLog},
+ * keyed as in {@link ChangeEvent}.
+ * <p>
+ * A projection starts empty, from a copy of a database, or from a snapshot, and applies
+ * the events after its sequence number. Events it has already applied are skipped, so
+ * replaying a log over a projection is safe. Snapshots can be written every so many
+ * events, so a rebuild replays only the events since the last one.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class ChangeProjection {
+    private static final int SNAPSHOT_MAGIC = 0x52435350;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final Map<Table, TreeMap<Long, Map<String, Object>>> rows =
+        new EnumMap<>(Table.class);
+    private long sequence;
+    private Path snapshotFile;
+    private int snapshotEvery;
+    private int sinceSnapshot;
+
+    /**
+     * Constructs a new, empty ChangeProjection.
+     */
+    public ChangeProjection() {
+        for (Table table : Table.values()) {
+            rows.put(table, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Builds a projection from a copy of a database, at the last event of its log. Rows
+     * changed while the copy is read are brought up to date by the events after.
+     *
+     * @param source the connection to the database
+     * @param log    the log of the database's changes
+     * @return the projection
+     * @throws SQLException if the database cannot be read
+     * @throws IOException  if the log cannot be read
+     */
+    public static ChangeProjection load(Connection source, ChangeLog log) throws SQLException, IOException {
+        ChangeProjection projection = new ChangeProjection();
+        projection.sequence = log.getLastSequence();
+        LogDatabaseConnection.copy(source, (table, values) -> {
+            String[] columns = table.getColumns();
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                row.put(i < columns.length ? columns[i] : "version", values[i]);
+            }
+            projection.rows.get(table).put(keyOf(table, row), row);
+        });
+        return projection;
+    }
+
+    /**
+     * Rebuilds a projection from a snapshot, if it exists, and the events of a log after it.
+     *
+     * @param snapshot the snapshot file
+     * @param log      the log
+     * @return the projection, at the last event of the log
+     * @throws IOException if the snapshot or the log cannot be read
+     */
+    public static ChangeProjection rebuild(Path snapshot, ChangeLog log) throws IOException {
+        ChangeProjection projection = Files.exists(snapshot) ? readSnapshot(snapshot) : new ChangeProjection();
+        projection.catchUp(log);
+        return projection;
+    }
+
+    /**
+     * Writes a snapshot every so many applied events.
+     *
+     * @param file   the snapshot file, replaced by each snapshot
+     * @param events the number of events between snapshots
+     * @return this projection
+     */
+    public synchronized ChangeProjection snapshotEvery(Path file, int events) {
+        this.snapshotFile = file;
+        this.snapshotEvery = events;
+        this.sinceSnapshot = 0;
+        return this;
+    }
+
+    /**
+     * Applies the events of a log after the last one applied.
+     *
+     * @param log the log
+     * @return the number of events applied
+     * @throws IOException if the log cannot be read
+     */
+    public long catchUp(ChangeLog log) throws IOException {
+        long[] applied = {0};
+        log.replay(getSequence(), event -> {
+            if (apply(event)) applied[0]++;
+        });
+        return applied[0];
+    }
+
+    /**
+     * Applies an event. An insert or update sets the columns it gives, and an update of a
+     * person or supply that does not give its version moves the version on by one. A
+     * delete removes the row; the keyless allocation delete removes the allocations of
+     * its supply type to people made before its time.
+     *
+     * @param event the event
+     * @return true if the event was applied, false if it had been already
+     */
+    public synchronized boolean apply(ChangeEvent event) {
+        if (event.getSequence() <= sequence) return false;
+        TreeMap<Long, Map<String, Object>> table = rows.get(event.getTable());
+        switch (event.getOperation()) {
+            case INSERT:
+            case UPDATE: {
+                Map<String, Object> row = table.computeIfAbsent(event.getKey(), k -> new LinkedHashMap<>());
+                boolean versioned = event.getTable() == Table.PERSON
+                    || event.getTable() == Table.SUPPLY;
+                if (versioned && event.getOperation() == ChangeEvent.Operation.UPDATE
+                        && !event.getValues().containsKey("version")) {
+                    Object version = row.get("version");
+                    row.put("version", version == null ? 1 : (Integer) version + 1);
+                }
+                row.putAll(event.getValues());
+                break;
+            }
+            case DELETE:
+                if (event.getTable() == Table.SUPPLY_ALLOCATION && event.getKey() == 0) {
+                    removeAllocations(table, event.getValues());
+                } else {
+                    table.remove(event.getKey());
+                }
+                break;
+            default:
+                break;
+        }
+        sequence = event.getSequence();
+        if (snapshotFile != null && ++sinceSnapshot >= snapshotEvery) {
+            try {
+                writeSnapshot(snapshotFile);
+            } catch (IOException e) {
+                DatabaseConnector.logError("Failed to write a snapshot to " + snapshotFile, e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a row.
+     *
+     * @param table the table
+     * @param key   the key of the row
+     * @return the values by column name, or null if there is no such row; not modifiable
+     */
+    public synchronized Map<String, Object> get(Table table, long key) {
+        Map<String, Object> row = rows.get(table).get(key);
+        return row == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(row));
+    }
+
+    /**
+     * Returns the number of rows in a table.
+     *
+     * @param table the table
+     * @return the number of rows
+     */
+    public synchronized int count(Table table) {
+        return rows.get(table).size();
+    }
+
+    /**
+     * Returns the sequence number of the last event applied.
+     *
+     * @return the sequence number, or 0 if none has been
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Writes the rows and the sequence number to a file. The file is replaced only once
+     * the snapshot is complete.
+     *
+     * @param file the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void writeSnapshot(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)), crc);
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(sequence);
+            for (TreeMap<Long, Map<String, Object>> table : rows.values()) {
+                out.writeInt(table.size());
+                for (Map.Entry<Long, Map<String, Object>> row : table.entrySet()) {
+                    out.writeLong(row.getKey());
+                    ChangeEvent.writeValues(out, row.getValue());
+                }
+            }
+            out.flush();
+            out.writeInt((int) crc.getValue());
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        sinceSnapshot = 0;
+    }
+
+    /**
+     * Reads a snapshot written by {@link #writeSnapshot(Path)}.
+     *
+     * @param file the snapshot file
+     * @return the projection the snapshot was taken of
+     * @throws IOException if the file cannot be read or is not a whole snapshot
+     */
+    public static ChangeProjection readSnapshot(Path file) throws IOException {
+        ChangeProjection projection = new ChangeProjection();
+        CRC32C crc = new CRC32C();
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), crc);
+             DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException(file + " is not a snapshot");
+            }
+            projection.sequence = in.readLong();
+            for (TreeMap<Long, Map<String, Object>> table : projection.rows.values()) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    long key = in.readLong();
+                    table.put(key, ChangeEvent.readValues(in));
+                }
+            }
+            int expected = (int) crc.getValue();
+            if (in.readInt() != expected) throw new IOException("Checksum mismatch in snapshot " + file);
+        }
+        return projection;
+    }
+
+    private static long keyOf(Table table, Map<String, Object> row) {
+        switch (table) {
+            case PERSON_LOCATION:
+                return ChangeEvent.stayKey((Integer) row.get("person_id"), (Integer) row.get("location_id"));
+            case SUPPLY_ALLOCATION:
+                return (Integer) row.get("supply_id");
+            default:
+                return (Integer) row.get(table.getColumns()[0]);
+        }
+    }
+
+    private void removeAllocations(TreeMap<Long, Map<String, Object>> allocations, Map<String, Object> values) {
+        Object type = values.get("type");
+        Timestamp before = (Timestamp) values.get(ChangeEvent.ALLOCATED_BEFORE);
+        TreeMap<Long, Map<String, Object>> supplies = rows.get(Table.SUPPLY);
+        Iterator<Map<String, Object>> it = allocations.values().iterator();
+        while (it.hasNext()) {
+            Map<String, Object> allocation = it.next();
+            Map<String, Object> supply = supplies.get(((Integer) allocation.get("supply_id")).longValue());
+            Timestamp date = (Timestamp) allocation.get("allocation_date");
+            if (supply != null && type != null && type.equals(supply.get("type"))
+                    && allocation.get("person_id") != null && date != null && before != null && date.before(before)) {
+                it.remove();
+            }
+        }
+    }
+}
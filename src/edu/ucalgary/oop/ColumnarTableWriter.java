@@ -0,0 +1,302 @@
+package edu.ucalgary.oop;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes an exported table in a compact columnar binary format.
+ * <p>
+ * The file starts with the magic bytes {@code DRX1}, the column count, and each
+ * column's name and type. Rows follow in groups of up to {@value #ROW_GROUP_SIZE};
+ * each group holds its row count and then, per column, a null bitmap and the
+ * column's values packed together. Integers, dates (as epoch days) and timestamps
+ * (as epoch milliseconds) are zig-zag variable-length encoded; text is a
+ * length-prefixed UTF-8 string. A row count of zero ends the file. Only one row
+ * group is held in memory at a time.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see TableWriter
+ */
+public class ColumnarTableWriter implements TableWriter {
+    /** Maximum number of rows per row group. */
+    public static final int ROW_GROUP_SIZE = 4096;
+    private static final byte[] MAGIC = {'D', 'R', 'X', '1'};
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024);
+    private byte[][] columnData;
+    private int[] columnSize;
+    private byte[][] nulls;
+    private int column;
+    private int rows;
+
+    /**
+     * Constructs a new ColumnarTableWriter.
+     *
+     * @param channel the channel to write to
+     */
+    public ColumnarTableWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void begin(String[] columns, byte[] types) throws IOException {
+        put(MAGIC, 0, MAGIC.length);
+        putVarint(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            byte[] name = columns[i].getBytes(StandardCharsets.UTF_8);
+            putVarint(name.length);
+            put(name, 0, name.length);
+            put(new byte[] {types[i]}, 0, 1);
+        }
+        columnData = new byte[columns.length][1024];
+        columnSize = new int[columns.length];
+        nulls = new byte[columns.length][ROW_GROUP_SIZE / 8];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeNull() {
+        nulls[column][rows >> 3] |= (byte) (1 << (rows & 7));
+        column++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeInt(int value) {
+        appendVarint(column++, zigZag(value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeLong(long value) {
+        appendVarint(column++, zigZag(value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        appendVarint(column, bytes.length);
+        ensureCapacity(column, bytes.length);
+        System.arraycopy(bytes, 0, columnData[column], columnSize[column], bytes.length);
+        columnSize[column++] += bytes.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeDate(Date value) {
+        appendVarint(column++, zigZag(value.toLocalDate().toEpochDay()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTimestamp(Timestamp value) {
+        appendVarint(column++, zigZag(value.getTime()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endRow() throws IOException {
+        column = 0;
+        if (++rows == ROW_GROUP_SIZE) flushGroup();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void finish() throws IOException {
+        if (rows > 0) flushGroup();
+        putVarint(0);
+        drain();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void flushGroup() throws IOException {
+        putVarint(rows);
+        int bitmapBytes = (rows + 7) / 8;
+        for (int c = 0; c < columnData.length; c++) {
+            put(nulls[c], 0, bitmapBytes);
+            putVarint(columnSize[c]);
+            put(columnData[c], 0, columnSize[c]);
+            Arrays.fill(nulls[c], (byte) 0);
+            columnSize[c] = 0;
+        }
+        rows = 0;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void appendVarint(int c, long value) {
+        ensureCapacity(c, 10);
+        byte[] data = columnData[c];
+        int size = columnSize[c];
+        while ((value & ~0x7FL) != 0) {
+            data[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[size++] = (byte) value;
+        columnSize[c] = size;
+    }
+
+    private void ensureCapacity(int c, int extra) {
+        if (columnSize[c] + extra > columnData[c].length) {
+            columnData[c] = Arrays.copyOf(columnData[c], Math.max(columnData[c].length * 2, columnSize[c] + extra));
+        }
+    }
+
+    private void putVarint(long value) throws IOException {
+        if (out.remaining() < 10) drain();
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private void put(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!out.hasRemaining()) drain();
+            int n = Math.min(length, out.remaining());
+            out.put(bytes, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    private void drain() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+
+    /**
+     * Reads a whole file written by this class back into memory. Intended for
+     * verification and small files; partners with large extracts should read row
+     * groups as they arrive.
+     *
+     * @param channel the channel to read from
+     * @return the column names as the first element, then one array of values per row
+     * @throws IOException if the data is not in this format
+     */
+    public static List<Object[]> readAll(ReadableByteChannel channel) throws IOException {
+        ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+        in.flip();
+        byte[] magic = readBytes(channel, in, MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a columnar export file");
+        int count = (int) readVarint(channel, in);
+        String[] names = new String[count];
+        byte[] types = new byte[count];
+        for (int c = 0; c < count; c++) {
+            names[c] = new String(readBytes(channel, in, (int) readVarint(channel, in)), StandardCharsets.UTF_8);
+            types[c] = readBytes(channel, in, 1)[0];
+        }
+        List<Object[]> result = new ArrayList<>();
+        result.add(names);
+        int groupRows;
+        while ((groupRows = (int) readVarint(channel, in)) > 0) {
+            Object[][] group = new Object[groupRows][count];
+            for (int c = 0; c < count; c++) {
+                byte[] bitmap = readBytes(channel, in, (groupRows + 7) / 8);
+                ByteBuffer data = ByteBuffer.wrap(readBytes(channel, in, (int) readVarint(channel, in)));
+                for (int r = 0; r < groupRows; r++) {
+                    if ((bitmap[r >> 3] & (1 << (r & 7))) != 0) continue;
+                    group[r][c] = decode(types[c], data);
+                }
+            }
+            result.addAll(Arrays.asList(group));
+        }
+        return result;
+    }
+
+    private static Object decode(byte type, ByteBuffer data) {
+        if (type == TYPE_STRING) {
+            byte[] bytes = new byte[(int) varint(data)];
+            data.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        long raw = varint(data);
+        long value = (raw >>> 1) ^ -(raw & 1);
+        switch (type) {
+            case TYPE_INT: return (int) value;
+            case TYPE_DATE: return Date.valueOf(LocalDate.ofEpochDay(value));
+            case TYPE_TIMESTAMP: return new Timestamp(value);
+            default: return value;
+        }
+    }
+
+    private static long varint(ByteBuffer data) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+
+    private static long readVarint(ReadableByteChannel channel, ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = readBytes(channel, in, 1)[0];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+
+    private static byte[] readBytes(ReadableByteChannel channel, ByteBuffer in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            if (!in.hasRemaining()) {
+                in.clear();
+                int n = channel.read(in);
+                in.flip();
+                if (n < 0) throw new EOFException("Unexpected end of columnar export");
+            }
+            int n = Math.min(length - offset, in.remaining());
+            in.get(bytes, offset, n);
+            offset += n;
+        }
+        return bytes;
+    }
+}
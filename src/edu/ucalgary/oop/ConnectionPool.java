@@ -0,0 +1,154 @@
+package edu.ucalgary.oop;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A fixed-size pool of database connections.
+ * <p>
+ * At most {@code maxSize} connections are open at once; callers that find them all
+ * in use wait until one is released. Connections are opened lazily and reused
+ * until the pool is closed. Broken connections are discarded on release.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class ConnectionPool implements AutoCloseable {
+    /**
+     * Opens a new connection for the pool.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        /**
+         * Opens a connection.
+         *
+         * @return a new open connection
+         * @throws SQLException if the connection cannot be established
+         */
+        Connection open() throws SQLException;
+
+        /**
+         * Closes a connection the pool no longer needs.
+         *
+         * @param connection a connection returned by {@link #open()}
+         * @throws SQLException if closing fails
+         */
+        default void discard(Connection connection) throws SQLException {
+            connection.close();
+        }
+    }
+
+    private static final Metrics.Histogram BORROW_WAIT = Metrics.histogram("pool.borrow_wait");
+
+    private final ConnectionFactory factory;
+    private final Semaphore permits;
+    private final Deque<Connection> idle = new ArrayDeque<>();
+    private final int maxSize;
+    private boolean closed;
+
+    /**
+     * Constructs a new ConnectionPool.
+     *
+     * @param factory opens the pooled connections
+     * @param maxSize the maximum number of open connections
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize) {
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Takes a connection from the pool, waiting if all are in use.
+     *
+     * @return an open connection, to be handed back with {@link #release(Connection)}
+     * @throws SQLException if the pool is closed, the wait is interrupted, or a connection cannot be opened
+     */
+    public Connection borrow() throws SQLException {
+        long start = BORROW_WAIT.start();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            BORROW_WAIT.stop(start);
+        }
+        try {
+            Connection connection;
+            synchronized (this) {
+                if (closed) throw new SQLException("Connection pool is closed");
+                connection = idle.pollFirst();
+            }
+            return connection != null ? connection : factory.open();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands a borrowed connection back to the pool.
+     *
+     * @param connection the connection returned by {@link #borrow()}
+     */
+    public void release(Connection connection) {
+        try {
+            boolean reusable = connection != null && !connection.isClosed() && connection.getAutoCommit();
+            synchronized (this) {
+                if (reusable && !closed) {
+                    idle.addFirst(connection);
+                    return;
+                }
+            }
+            if (connection != null) factory.discard(connection);
+        } catch (SQLException e) {
+            DatabaseConnector.logError("Failed to release pooled connection", e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Returns the maximum number of open connections.
+     *
+     * @return the pool size
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of connections that can be borrowed without waiting.
+     *
+     * @return the available permits
+     */
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Closes all idle connections; connections still borrowed are closed when released.
+     */
+    @Override
+    public void close() {
+        Connection[] toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = idle.toArray(new Connection[0]);
+            idle.clear();
+        }
+        for (Connection connection : toClose) {
+            try {
+                factory.discard(connection);
+            } catch (SQLException e) {
+                DatabaseConnector.logError("Failed to close pooled connection", e);
+            }
+        }
+    }
+}
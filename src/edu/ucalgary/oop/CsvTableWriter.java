@@ -0,0 +1,154 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+/**
+ * Writes an exported table as UTF-8 comma-separated values.
+ * <p>
+ * Each row is formatted into a reusable line buffer and encoded into a fixed-size
+ * byte buffer that is written to the channel whenever it fills.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see TableWriter
+ */
+public class CsvTableWriter implements TableWriter {
+    private final WritableByteChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder line = new StringBuilder(256);
+    private boolean firstColumn = true;
+
+    /**
+     * Constructs a new CsvTableWriter.
+     *
+     * @param channel the channel to write to
+     */
+    public CsvTableWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void begin(String[] columns, byte[] types) throws IOException {
+        for (String column : columns) {
+            separator();
+            CsvReader.appendField(line, column);
+        }
+        endRow();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeNull() {
+        separator();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeInt(int value) {
+        separator();
+        line.append(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeLong(long value) {
+        separator();
+        line.append(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeString(String value) {
+        separator();
+        CsvReader.appendField(line, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeDate(Date value) {
+        separator();
+        line.append(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTimestamp(Timestamp value) {
+        separator();
+        line.append(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endRow() throws IOException {
+        line.append('\n');
+        CharBuffer chars = CharBuffer.wrap(line);
+        while (true) {
+            CoderResult result = encoder.encode(chars, out, true);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        encoder.reset();
+        line.setLength(0);
+        firstColumn = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void finish() throws IOException {
+        drain();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void separator() {
+        if (!firstColumn) line.append(',');
+        firstColumn = false;
+    }
+
+    private void drain() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+}
@@ -0,0 +1,287 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streams tables of the relief dataset to files for partner agencies.
+ * <p>
+ * Each table is read with a server-side cursor of {@value #DEFAULT_FETCH_SIZE} rows
+ * and written through a {@link TableWriter} straight to a file channel, so memory
+ * use stays constant however large the table is. Tables can be exported one after
+ * another on the shared connection, or in parallel with one connection per table.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class DataExporter {
+    /** Rows fetched from the database per round trip. */
+    public static final int DEFAULT_FETCH_SIZE = 5000;
+
+    /**
+     * The tables that can be exported.
+     */
+    public enum Table {
+        /** All persons. */
+        PERSONS("persons", "SELECT person_id, first_name, last_name, date_of_birth, gender, "
+            + "phone_number, family_group, comments FROM Person ORDER BY person_id"),
+        /** Which person is staying at which location. */
+        OCCUPANCY("occupancy", "SELECT pl.person_id, pl.location_id, l.name AS location_name "
+            + "FROM PersonLocation pl JOIN Location l ON l.location_id = pl.location_id "
+            + "ORDER BY pl.location_id, pl.person_id"),
+        /** Supply allocations to persons and locations. */
+        ALLOCATIONS("allocations", "SELECT sa.supply_id, s.type, sa.person_id, sa.location_id, sa.allocation_date "
+            + "FROM SupplyAllocation sa JOIN Supply s ON s.supply_id = sa.supply_id "
+            + "ORDER BY sa.allocation_date, sa.supply_id"),
+        /** Logged inquiries. */
+        INQUIRIES("inquiries", "SELECT inquiry_id, inquirer_id, seeking_id, location_id, date_of_inquiry, comments "
+            + "FROM Inquiry ORDER BY inquiry_id"),
+        /** Medical records. */
+        MEDICAL_RECORDS("medical_records", "SELECT medical_record_id, person_id, location_id, date_of_treatment, "
+            + "treatment_details FROM MedicalRecord ORDER BY medical_record_id");
+
+        private final String fileName;
+        private final String sql;
+
+        Table(String fileName, String sql) {
+            this.fileName = fileName;
+            this.sql = sql;
+        }
+
+        /**
+         * Returns the base name of the file this table is exported to.
+         *
+         * @return the file name without extension
+         */
+        public String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * Returns the query that reads this table.
+         *
+         * @return the SQL query
+         */
+        public String getSql() {
+            return sql;
+        }
+    }
+
+    /**
+     * The supported output formats.
+     */
+    public enum Format {
+        /** UTF-8 comma-separated values with a header row. */
+        CSV("csv"),
+        /** The compact binary format written by {@link ColumnarTableWriter}. */
+        COLUMNAR("drx");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * Returns the file extension for this format.
+         *
+         * @return the extension without a dot
+         */
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Creates a writer in this format.
+         *
+         * @param channel the channel to write to
+         * @return a new table writer
+         */
+        public TableWriter newWriter(WritableByteChannel channel) {
+            return this == CSV ? new CsvTableWriter(channel) : new ColumnarTableWriter(channel);
+        }
+    }
+
+    private final RealDatabaseConnection dbConnection;
+    private final Format format;
+    private final int fetchSize;
+
+    /**
+     * Constructs a new DataExporter.
+     *
+     * @param dbConnection the database to export from
+     * @param format       the output format
+     * @param fetchSize    the number of rows fetched per round trip
+     */
+    public DataExporter(RealDatabaseConnection dbConnection, Format format, int fetchSize) {
+        this.dbConnection = dbConnection;
+        this.format = format;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Exports the given tables into a directory, one file per table.
+     *
+     * @param directory the directory the files are written to
+     * @param tables    the tables to export
+     * @param parallel  whether to export the tables concurrently, each on its own connection
+     * @return the number of rows written per table
+     * @throws SQLException if reading from the database fails
+     * @throws IOException  if writing a file fails
+     */
+    public Map<Table, Long> exportAll(Path directory, List<Table> tables, boolean parallel)
+            throws SQLException, IOException {
+        Map<Table, Long> counts = new EnumMap<>(Table.class);
+        if (!parallel || tables.size() < 2) {
+            for (Table table : tables) {
+                counts.put(table, exportTable(dbConnection.getExclusiveConnection(), table, directory));
+            }
+            return counts;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(tables.size());
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (Table table : tables) {
+                futures.add(executor.submit(() -> {
+                    try (Connection connection = dbConnection.openConnection()) {
+                        return exportTable(connection, table, directory);
+                    }
+                }));
+            }
+            for (int i = 0; i < tables.size(); i++) {
+                counts.put(tables.get(i), futures.get(i).get());
+            }
+            return counts;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException("Export failed", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Exports one table to {@code directory/<name>.<extension>}.
+     *
+     * @param connection the connection to read with
+     * @param table      the table to export
+     * @param directory  the directory the file is written to
+     * @return the number of rows written
+     * @throws SQLException if reading from the database fails
+     * @throws IOException  if writing the file fails
+     */
+    public long exportTable(Connection connection, Table table, Path directory) throws SQLException, IOException {
+        Path file = directory.resolve(table.getFileName() + "." + format.getExtension());
+        // PostgreSQL only honours the fetch size inside a transaction
+        boolean useCursor = connection.getAutoCommit();
+        if (useCursor) connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             TableWriter writer = format.newWriter(FileChannel.open(file, StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+            stmt.setFetchSize(fetchSize);
+            try (ResultSet rs = stmt.executeQuery(table.getSql())) {
+                return copy(rs, writer);
+            }
+        } finally {
+            if (useCursor) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Writes every row of a result set to a table writer.
+     *
+     * @param rs     the result set, positioned before the first row
+     * @param writer the writer to write to
+     * @return the number of rows written
+     * @throws SQLException if reading the result set fails
+     * @throws IOException  if writing fails
+     */
+    static long copy(ResultSet rs, TableWriter writer) throws SQLException, IOException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        String[] columns = new String[columnCount];
+        byte[] types = new byte[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = metaData.getColumnLabel(i + 1).toLowerCase();
+            types[i] = typeOf(metaData.getColumnType(i + 1));
+        }
+        writer.begin(columns, types);
+
+        long rows = 0;
+        while (rs.next()) {
+            for (int i = 0; i < columnCount; i++) {
+                int column = i + 1;
+                switch (types[i]) {
+                    case TableWriter.TYPE_INT:
+                        int intValue = rs.getInt(column);
+                        if (rs.wasNull()) writer.writeNull(); else writer.writeInt(intValue);
+                        break;
+                    case TableWriter.TYPE_LONG:
+                        long longValue = rs.getLong(column);
+                        if (rs.wasNull()) writer.writeNull(); else writer.writeLong(longValue);
+                        break;
+                    case TableWriter.TYPE_DATE:
+                        java.sql.Date date = rs.getDate(column);
+                        if (date == null) writer.writeNull(); else writer.writeDate(date);
+                        break;
+                    case TableWriter.TYPE_TIMESTAMP:
+                        java.sql.Timestamp timestamp = rs.getTimestamp(column);
+                        if (timestamp == null) writer.writeNull(); else writer.writeTimestamp(timestamp);
+                        break;
+                    default:
+                        String text = rs.getString(column);
+                        if (text == null) writer.writeNull(); else writer.writeString(text);
+                }
+            }
+            writer.endRow();
+            rows++;
+        }
+        writer.finish();
+        return rows;
+    }
+
+    private static byte typeOf(int sqlType) {
+        switch (sqlType) {
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                return TableWriter.TYPE_INT;
+            case Types.BIGINT:
+                return TableWriter.TYPE_LONG;
+            case Types.DATE:
+                return TableWriter.TYPE_DATE;
+            case Types.TIMESTAMP:
+                return TableWriter.TYPE_TIMESTAMP;
+            default:
+                return TableWriter.TYPE_STRING;
+        }
+    }
+}
@@ -1,10 +1,8 @@
 package edu.ucalgary.oop;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.sql.*;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -28,6 +26,13 @@ public class DatabaseConnection implements RealDatabaseConnection {
     private static final String USER = "oop";
     private static final String PASSWORD = "ucalgary";
     private boolean isClosed = false;
+    private final QueryCache queryCache = new QueryCache(256, 60_000);
+    private Storage storage = new JdbcStorage(this);
+    private ChangeLog changeLog;
+    private volatile long loadedSequence;
+    private volatile boolean shared;
+    private static final Metrics.Histogram LOAD_DATA = Metrics.histogram("load.data");
+    private static final Metrics.Histogram LOAD_ASSOCIATIONS = Metrics.histogram("load.associations");
 
     private Map<Integer, Person> persons = new HashMap<>();
     private Map<Integer, Location> locations = new HashMap<>();
@@ -41,8 +46,9 @@ public class DatabaseConnection implements RealDatabaseConnection {
      * and loads data from all required tables.
      */
     private DatabaseConnection() {
+        registerGauges();
         try {
-            connection = DriverManager.getConnection(URL, USER, PASSWORD);
+            connection = Metrics.instrument(open());
             loadData();
         } catch (SQLException e) {
             logError("Database connection failed", e);
@@ -50,6 +56,24 @@ public class DatabaseConnection implements RealDatabaseConnection {
         }
     }
 
+    /**
+     * Constructor that loads data over an already open connection, for example to an
+     * embedded database used by benchmarks. The instance is not the shared singleton.
+     *
+     * @param connection The open connection to load from
+     */
+    DatabaseConnection(Connection connection) {
+        registerGauges();
+        this.connection = Metrics.instrument(connection);
+        loadData();
+    }
+
+    private void registerGauges() {
+        Metrics.gauge("query_cache.hits", queryCache::getHits);
+        Metrics.gauge("query_cache.misses", queryCache::getMisses);
+        Metrics.gauge("query_cache.entries", queryCache::size);
+    }
+
     /**
      * Retrieves the singleton instance of the {@code DatabaseConnection}.
      * Re-initializes the instance if it was previously closed.
@@ -69,13 +93,97 @@ public class DatabaseConnection implements RealDatabaseConnection {
     @Override
     public Connection getConnection() throws SQLException {
         if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(URL, USER, PASSWORD);
+            connection = Metrics.instrument(open());
             isClosed = false;
             loadData();
         }
         return connection;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Connection openConnection() throws SQLException {
+        return Metrics.instrument(open());
+    }
+
+    /**
+     * Opens a connection to the database this instance reads from. Subclasses backed by
+     * another database override this; the shared connection is reopened through it too.
+     *
+     * @return A new open connection.
+     * @throws SQLException if the connection cannot be established.
+     */
+    Connection open() throws SQLException {
+        return DriverManager.getConnection(URL, USER, PASSWORD);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Replaces the storage engine the entities write their changes to.
+     *
+     * @param storage The storage engine, for example from {@link Storage#create(String, DatabaseConnector)}
+     */
+    public void setStorage(Storage storage) {
+        this.storage = changeLog == null ? storage : new RecordingStorage(storage, changeLog);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * Returns the sequence number of the last change log event recorded before the data
+     * was last loaded. Every change up to it is in the loaded data; later ones may be too.
+     *
+     * @return The sequence number, or 0 if no change log was set when the data was loaded.
+     */
+    public long getLoadedSequence() {
+        return loadedSequence;
+    }
+
+    /**
+     * Marks the connection as shared by concurrent operator sessions, or no longer shared.
+     * While it is shared, work that needs a transaction of its own is refused.
+     *
+     * @param shared Whether sessions share the connection.
+     */
+    public void setShared(boolean shared) {
+        this.shared = shared;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Records every change made through the storage engine and {@link #updateRecord} in a log.
+     * The log is closed with the connection.
+     *
+     * @param changeLog The log to record changes in, or null to stop recording.
+     */
+    public void setChangeLog(ChangeLog changeLog) {
+        Storage inner = storage instanceof RecordingStorage ? ((RecordingStorage) storage).getStorage() : storage;
+        this.changeLog = changeLog;
+        setStorage(inner);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -91,6 +199,13 @@ public class DatabaseConnection implements RealDatabaseConnection {
                 logError("Failed to close database connection", e);
             }
         }
+        if (changeLog != null) {
+            try {
+                changeLog.close();
+            } catch (IOException e) {
+                logError("Failed to close change log", e);
+            }
+        }
     }
 
     /**
@@ -98,6 +213,10 @@ public class DatabaseConnection implements RealDatabaseConnection {
      */
     @Override
     public void loadData() {
+        queryCache.clear();
+        // Read before the tables, so changes committed during the load are replayed rather than missed
+        loadedSequence = lastLoggedSequence();
+        long start = LOAD_DATA.start();
         try {
             persons.clear();
             locations.clear();
@@ -107,6 +226,7 @@ public class DatabaseConnection implements RealDatabaseConnection {
             familyGroups.clear();
 
             Statement stmt = connection.createStatement();
+            LoadPhaseEvent phase = LoadPhaseEvent.begin("persons");
             ResultSet rs = stmt.executeQuery("SELECT * FROM Person");
             while (rs.next()) {
                 int id = rs.getInt("person_id");
@@ -118,18 +238,22 @@ public class DatabaseConnection implements RealDatabaseConnection {
                 int familyGroupId = rs.getInt("family_group");
                 if (rs.wasNull()) familyGroupId = 0;
 
-                PreparedStatement ps = connection.prepareStatement(
-                    "SELECT COUNT(*) FROM Inquiry WHERE inquirer_id = ?");
+                String inquirerSql = "SELECT COUNT(*) FROM Inquiry WHERE inquirer_id = ?";
+                SqlExecutionEvent inquirerCheck = SqlExecutionEvent.begin("load.inquirer_check", inquirerSql);
+                PreparedStatement ps = connection.prepareStatement(inquirerSql);
                 ps.setInt(1, id);
                 ResultSet rs2 = ps.executeQuery();
                 rs2.next();
                 boolean isInquirer = rs2.getInt(1) > 0;
+                inquirerCheck.end(1);
 
                 Person person = isInquirer ? 
                     new Inquirer(firstName, lastName, phoneNumber, "", true) : 
                     new DisasterVictim(firstName, lastName, phoneNumber, "Unknown");
                 person.setId(id);
                 person.setGender(gender);
+                person.setVersion(rs.getInt("version"));
+                if (dob != null) person.setDateOfBirth(dob.toString());
                 persons.put(id, person);
 
                 if (familyGroupId != 0) {
@@ -137,7 +261,9 @@ public class DatabaseConnection implements RealDatabaseConnection {
                         .addFamilyMember(person);
                 }
             }
+            phase.end(persons.size());
 
+            phase = LoadPhaseEvent.begin("locations");
             rs = stmt.executeQuery("SELECT * FROM Location");
             while (rs.next()) {
                 locations.put(rs.getInt("location_id"), new Location(
@@ -145,24 +271,22 @@ public class DatabaseConnection implements RealDatabaseConnection {
                     rs.getString("address")
                 ));
             }
+            phase.end(locations.size());
 
+            phase = LoadPhaseEvent.begin("supplies");
             rs = stmt.executeQuery("SELECT * FROM Supply");
             while (rs.next()) {
                 int id = rs.getInt("supply_id");
                 String type = rs.getString("type");
                 String comments = rs.getString("comments");
-                Supply supply;
-                switch (type.toLowerCase()) {
-                    case "cot": supply = new Cot(comments); break;
-                    case "blanket": supply = new Blanket(); break;
-                    case "personal item": supply = new PersonalBelonging(comments); break;
-                    case "water": supply = new Water(); break;
-                    default: supply = new Supply(type, 1);
-                }
+                Supply supply = Supply.ofType(type, comments);
                 supply.setId(id);
+                supply.setVersion(rs.getInt("version"));
                 supplies.put(id, supply);
             }
+            phase.end(supplies.size());
 
+            phase = LoadPhaseEvent.begin("inquiries");
             rs = stmt.executeQuery("SELECT * FROM Inquiry");
             while (rs.next()) {
                 int id = rs.getInt("inquiry_id");
@@ -177,7 +301,9 @@ public class DatabaseConnection implements RealDatabaseConnection {
                 inquiry.setSeekingId(seekingId);
                 inquiries.put(id, inquiry);
             }
+            phase.end(inquiries.size());
 
+            phase = LoadPhaseEvent.begin("medical records");
             rs = stmt.executeQuery("SELECT * FROM MedicalRecord");
             while (rs.next()) {
                 int id = rs.getInt("medical_record_id");
@@ -188,12 +314,27 @@ public class DatabaseConnection implements RealDatabaseConnection {
                 );
                 medicalRecords.put(id, record);
             }
+            phase.end(medicalRecords.size());
 
             loadAssociations();
+            phase = LoadPhaseEvent.begin("expired water cleanup");
             cleanupExpiredWater();
+            phase.end(0);
         } catch (SQLException e) {
             logError("Failed to load database data", e);
             throw new RuntimeException("Database loading failed", e);
+        } finally {
+            LOAD_DATA.stop(start);
+        }
+    }
+
+    private long lastLoggedSequence() {
+        if (changeLog == null) return 0;
+        try {
+            return changeLog.getLastSequence();
+        } catch (IOException e) {
+            logError("Failed to read the change log", e);
+            return 0;
         }
     }
 
@@ -202,9 +343,21 @@ public class DatabaseConnection implements RealDatabaseConnection {
      */
     @Override
     public void loadAssociations() throws SQLException {
+        long start = LOAD_ASSOCIATIONS.start();
+        try {
+            loadOccupantsAndAllocations();
+        } finally {
+            LOAD_ASSOCIATIONS.stop(start);
+        }
+    }
+
+    private void loadOccupantsAndAllocations() throws SQLException {
         Statement stmt = connection.createStatement();
+        LoadPhaseEvent phase = LoadPhaseEvent.begin("occupants");
+        long rows = 0;
         ResultSet rs = stmt.executeQuery("SELECT * FROM PersonLocation");
         while (rs.next()) {
+            rows++;
             int personId = rs.getInt("person_id");
             int locationId = rs.getInt("location_id");
             Person person = persons.get(personId);
@@ -214,8 +367,13 @@ public class DatabaseConnection implements RealDatabaseConnection {
             }
         }
 
+        phase.end(rows);
+
+        phase = LoadPhaseEvent.begin("allocations");
+        rows = 0;
         rs = stmt.executeQuery("SELECT * FROM SupplyAllocation");
         while (rs.next()) {
+            rows++;
             int supplyId = rs.getInt("supply_id");
             Integer personId = rs.getInt("person_id");
             Integer locationId = rs.getInt("location_id");
@@ -228,6 +386,7 @@ public class DatabaseConnection implements RealDatabaseConnection {
                 locations.get(locationId).addSupply(supply);
             }
         }
+        phase.end(rows);
     }
 
     /**
@@ -242,12 +401,7 @@ public class DatabaseConnection implements RealDatabaseConnection {
      * {@inheritDoc}
      */
     public static void logError(String message, Exception e) {
-        try (FileWriter writer = new FileWriter("data/errorlog.txt", true)) {
-            writer.write(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
-                    + " - " + message + " - " + e.getMessage() + "\n");
-        } catch (IOException ioException) {
-            System.err.println("Error logging failed: " + ioException.getMessage());
-        }
+        ErrorLogger.getDefault().error("DatabaseConnection", message, e);
     }
 
     /**
@@ -298,35 +452,97 @@ public class DatabaseConnection implements RealDatabaseConnection {
         return new HashMap<>(familyGroups); 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QueryCache.Result query(String sql, Object... params) throws SQLException {
+        return queryCache.get(getConnection(), sql, params);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidate(String... tables) {
+        queryCache.invalidate(tables);
+    }
+
+    /**
+     * Returns the cache that serves {@link #query(String, Object...)}, for its hit-rate metrics.
+     *
+     * @return The query cache.
+     */
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public String executeCustomQuery(String sqlQuery) throws SQLException {
         StringBuilder result = new StringBuilder();
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sqlQuery)) {
-            
-            ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
-            
-            // Add column headers
-            for (int i = 1; i <= columnCount; i++) {
-                result.append(metaData.getColumnName(i));
-                if (i < columnCount) result.append(" | ");
+        executeCustomQuery(sqlQuery, 0, 0, new RowHandler() {
+            @Override
+            public void onColumns(String[] columns) {
+                result.append(String.join(" | ", columns)).append("\n");
             }
-            result.append("\n");
-            
-            // Add data rows
-            while (rs.next()) {
-                for (int i = 1; i <= columnCount; i++) {
-                    result.append(rs.getString(i));
-                    if (i < columnCount) result.append(" | ");
+
+            @Override
+            public boolean onRow(long rowNumber, String[] values) {
+                for (int i = 0; i < values.length; i++) {
+                    result.append(values[i]);
+                    if (i < values.length - 1) result.append(" | ");
                 }
                 result.append("\n");
+                return true;
+            }
+        });
+        return result.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long executeCustomQuery(String sqlQuery, int fetchSize, long rowLimit, RowHandler handler)
+            throws SQLException {
+        // PostgreSQL only uses a cursor for the fetch size inside a transaction
+        Connection connection = fetchSize > 0 ? getExclusiveConnection() : getConnection();
+        boolean useCursor = fetchSize > 0 && connection.getAutoCommit();
+        if (useCursor) connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            if (fetchSize > 0) stmt.setFetchSize(fetchSize);
+            if (rowLimit > 0 && rowLimit <= Integer.MAX_VALUE) stmt.setMaxRows((int) rowLimit);
+            SqlExecutionEvent event = SqlExecutionEvent.begin("custom_query", sqlQuery);
+            long rows = -1;
+            try (ResultSet rs = stmt.executeQuery(sqlQuery)) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                int columnCount = metaData.getColumnCount();
+                String[] columns = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    columns[i] = metaData.getColumnName(i + 1);
+                }
+                handler.onColumns(columns);
+
+                String[] values = new String[columnCount];
+                rows = 0;
+                while ((rowLimit <= 0 || rows < rowLimit) && rs.next()) {
+                    for (int i = 0; i < columnCount; i++) {
+                        values[i] = rs.getString(i + 1);
+                    }
+                    if (!handler.onRow(++rows, values)) break;
+                }
+                return rows;
+            } finally {
+                event.end(rows);
+            }
+        } finally {
+            if (useCursor) {
+                connection.rollback();
+                connection.setAutoCommit(true);
             }
-            
-            return result.toString();
         }
     }
 
@@ -336,7 +552,10 @@ public class DatabaseConnection implements RealDatabaseConnection {
     @Override
     public boolean updateRecord(String tableName, int id, String columnName, Object newValue) throws SQLException {
         String idColumnName = tableName.toLowerCase() + "_id";
-        String sql = "UPDATE " + tableName + " SET " + columnName + " = ? WHERE " + idColumnName + " = ?";
+        // Versioned rows must move on so concurrent edits notice this change
+        String bump = tableName.equalsIgnoreCase("Person") || tableName.equalsIgnoreCase("Supply")
+            ? ", version = version + 1" : "";
+        String sql = "UPDATE " + tableName + " SET " + columnName + " = ?" + bump + " WHERE " + idColumnName + " = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             if (newValue instanceof String) {
@@ -350,9 +569,26 @@ public class DatabaseConnection implements RealDatabaseConnection {
             }
             
             pstmt.setInt(2, id);
-            int rowsAffected = pstmt.executeUpdate();
+            int rowsAffected = SqlExecutionEvent.executeUpdate("update_record." + tableName.toLowerCase(), sql, pstmt);
+            invalidate(tableName);
+            if (rowsAffected > 0) record(tableName, id, columnName, newValue);
             
             return rowsAffected > 0;
         }
     }
+
+    /**
+     * Records a change made by {@link #updateRecord} if changes are recorded. A failure is
+     * logged, since the change has been made.
+     */
+    private void record(String tableName, int id, String columnName, Object newValue) {
+        Table table = ChangeEvent.tableNamed(tableName);
+        if (changeLog == null || table == null) return;
+        try {
+            changeLog.append(table, id, ChangeEvent.Operation.UPDATE,
+                Collections.singletonMap(columnName.toLowerCase(), newValue));
+        } catch (IOException | RuntimeException e) {
+            logError("Failed to record the update of " + tableName + " " + id, e);
+        }
+    }
 }
\ No newline at end of file
@@ -81,12 +81,79 @@ public interface DatabaseConnector {
      * Calls the appropriate method to handle expired water supplies.
      */
     void cleanupExpiredWater();
+
+    /**
+     * Returns whether the connection is shared by concurrent operator sessions, as when
+     * a {@link SessionServer} hosts them. A transaction on a shared connection would take
+     * in the statements the other sessions run meanwhile.
+     *
+     * @return true if sessions share the connection; false by default.
+     */
+    default boolean isShared() {
+        return false;
+    }
+
+    /**
+     * Returns the log changes are recorded in. Work that writes rows with its own
+     * statements instead of through {@link #getStorage()} appends its events here.
+     *
+     * @return The change log, or null if changes are not recorded; null by default.
+     */
+    default ChangeLog getChangeLog() {
+        return null;
+    }
+
+    /**
+     * Returns the connection for work that runs a transaction of its own, such as
+     * merging duplicates or a bulk import.
+     *
+     * @return The connection.
+     * @throws SQLException if the connection is shared by operator sessions, or cannot be established.
+     */
+    default Connection getExclusiveConnection() throws SQLException {
+        if (isShared()) {
+            throw new SQLException("The database connection is shared by operator sessions; "
+                + "run this without the session server");
+        }
+        return getConnection();
+    }
+
+    /**
+     * Runs a read query and returns its rows. Implementations may serve the result
+     * from a cache until {@link #invalidate(String...)} is called for a table it reads.
+     *
+     * @param sql The query, with {@code ?} placeholders for the parameters.
+     * @param params The query parameters.
+     * @return The rows of the result.
+     * @throws SQLException if the query fails.
+     */
+    default QueryCache.Result query(String sql, Object... params) throws SQLException {
+        return QueryCache.load(getConnection(), sql, params);
+    }
+
+    /**
+     * Returns the storage engine the entities write their changes to.
+     *
+     * @return The storage engine; by default one writing over {@link #getConnection()}.
+     */
+    default Storage getStorage() {
+        return new JdbcStorage(this);
+    }
+
+    /**
+     * Signals that the given tables were written, so cached reads of them are stale.
+     *
+     * @param tables The names of the written tables.
+     */
+    default void invalidate(String... tables) { }
     
     /**
-     * Logs an error message and exception.
+     * Logs an error message and exception to the shared error log without waiting for the disk.
      *
      * @param message The custom error message to log.
      * @param e The exception that was thrown.
      */
-    static void logError(String message, Exception e) {}; 
+    static void logError(String message, Exception e) {
+        ErrorLogger.getDefault().error("DatabaseConnector", message, e);
+    }
 }
\ No newline at end of file
@@ -1,6 +1,11 @@
 package edu.ucalgary.oop;
 
 import java.sql.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Represents a victim of a disaster in the disaster management system.
@@ -13,6 +18,9 @@ import java.sql.*;
  * @see Person
  */
 public class DisasterVictim extends Person {
+    /** How many times an edit is merged and retried before giving up on a busy row. */
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
     private String disasterType;
 
     /**
@@ -60,32 +68,49 @@ public class DisasterVictim extends Person {
         try {
             String firstName = ui.getValidatedInput(
                 ui.getLanguageSupport().getText("input_firstname"),
-                "^[A-Za-z\\s-]{2,}$",
+                Validators.NAME,
                 ui.getLanguageSupport().getText("invalid_input")
             );
             if (firstName == null) return;
 
             String lastName = ui.getValidatedInput(
                 ui.getLanguageSupport().getText("input_lastname"),
-                "^[A-Za-z\\s-]{2,}$",
+                Validators.NAME,
                 ui.getLanguageSupport().getText("invalid_input")
             );
             if (lastName == null) return;
 
             String phone = ui.getValidatedInput(
                 ui.getLanguageSupport().getText("input_phone"),
-                "^\\(?(\\d{3})\\)?[-.\\s]?(\\d{3})[-.\\s]?(\\d{4})$",
+                Validators.PHONE,
                 ui.getLanguageSupport().getText("invalid_phone")
             );
             if (phone == null) return;
 
             String dateOfBirth = ui.getValidatedInput(
                 ui.getLanguageSupport().getText("input_dob"),
-                "^\\d{4}-\\d{2}-\\d{2}$",
+                Validators.DATE,
                 ui.getLanguageSupport().getText("invalid_dob")
             );
             if (dateOfBirth == null) return;
 
+            DisasterVictim victim = new DisasterVictim(firstName, lastName, phone, "Unknown");
+            victim.setDateOfBirth(dateOfBirth);
+
+            // Search for duplicates while the location and family group lists are re-read on
+            // pooled connections, so entries added by other sessions can be chosen below
+            AsyncDataAccess async = ui.getAsyncDataAccess();
+            DuplicateDetector detector = ui.getDuplicateDetector();
+            CompletableFuture<List<MergeProposal>> matches = async.supply(() -> detector.findMatches(victim));
+            CompletableFuture<Map<Integer, Location>> freshLocations = null;
+            CompletableFuture<Set<Integer>> freshFamilyGroups = null;
+            if (async.isPooled()) {
+                freshLocations = async.loadLocations();
+                freshFamilyGroups = async.loadFamilyGroupIds();
+            }
+            if (!DuplicateDetector.confirmNotDuplicate(ui, matches.join())) return;
+            if (freshLocations != null) mergeFreshLists(ui, async, freshLocations, freshFamilyGroups);
+
             String gender = selectGender(ui);
             if (gender == null) return;
 
@@ -98,18 +123,8 @@ public class DisasterVictim extends Person {
                 ui.getLanguageSupport().getText("input_comments")
             );
 
-            DisasterVictim victim = new DisasterVictim(firstName, lastName, phone, "Unknown");
-            victim.setDateOfBirth(dateOfBirth);
-            victim.setGender(gender);
-            
-            int personId = savePersonToDatabase(victim, gender, familyGroupId, locationId, comments, ui.getDbConnection());
-            victim.setId(personId);
-            ui.getPersons().put(personId, victim);
-            ui.getLocations().get(locationId).addOccupant(victim);
-            if (familyGroupId != 0) {
-                ui.getFamilyGroups().computeIfAbsent(familyGroupId, k -> new FamilyGroup("Group", String.valueOf(k), null))
-                    .addFamilyMember(victim);
-            }
+            victim.saveNew(ui.getDbConnection(), gender, locationId, familyGroupId, comments);
+            victim.addToModel(ui.getModel(), locationId, familyGroupId);
             
             printVictimTable(victim, locationId, familyGroupId, comments, ui);
             
@@ -120,6 +135,91 @@ public class DisasterVictim extends Person {
         }
     }
 
+    /**
+     * Saves this new victim and the location they stay at to the database, without
+     * prompting. Shared by the interactive menu and batch mode.
+     *
+     * @param db            The database connection to write to
+     * @param gender        The victim's gender
+     * @param locationId    The ID of the location the victim stays at, or 0 for none
+     * @param familyGroupId The ID of the victim's family group, or 0 for none
+     * @param comments      Additional comments about the victim
+     * @return The ID of the saved person record
+     * @throws SQLException If there's an error accessing the database
+     */
+    public int saveNew(DatabaseConnector db, String gender, int locationId, int familyGroupId, String comments)
+            throws SQLException {
+        setGender(gender);
+        PersonRepository repository = db.getStorage().persons();
+        int personId = repository.insert(this, familyGroupId, comments);
+        setId(personId);
+        if (locationId != 0) {
+            repository.addToLocation(personId, locationId);
+        }
+        return personId;
+    }
+
+    /**
+     * Adds this saved victim to the in-memory model, at their location and in their family group.
+     *
+     * @param model         The model to add the victim to
+     * @param locationId    The ID of the location the victim stays at, or 0 for none
+     * @param familyGroupId The ID of the victim's family group, or 0 for none
+     */
+    public void addToModel(ReliefModel model, int locationId, int familyGroupId) {
+        model.addPerson(getId(), this);
+        if (locationId != 0) model.addOccupant(locationId, this);
+        if (familyGroupId != 0) model.addFamilyMember(familyGroupId, this);
+    }
+
+    /**
+     * Adds locations and family groups that were created since this session loaded its
+     * data, with the known victims and supplies they hold. Locations and groups already
+     * loaded are kept as they are. If the lists could not be re-read, the session keeps
+     * the lists it has.
+     *
+     * @param ui                The user interface implementation holding the session's data
+     * @param async             The data access the lists are re-read through
+     * @param freshLocations    The pending re-read of the location list
+     * @param freshFamilyGroups The pending re-read of the family group IDs
+     */
+    private void mergeFreshLists(UserInterfaceImplied ui, AsyncDataAccess async,
+                                 CompletableFuture<Map<Integer, Location>> freshLocations,
+                                 CompletableFuture<Set<Integer>> freshFamilyGroups) {
+        ReliefModel model = ui.getModel();
+        try {
+            for (Map.Entry<Integer, Location> fresh : freshLocations.join().entrySet()) {
+                int locationId = fresh.getKey();
+                if (model.getLocations().containsKey(locationId)) continue;
+                QueryCache.Result occupants = async.query(
+                    "SELECT person_id FROM PersonLocation WHERE location_id = ?", locationId).join();
+                QueryCache.Result stored = async.query(
+                    "SELECT supply_id FROM SupplyAllocation WHERE location_id = ?", locationId).join();
+                if (model.getLocations().putIfAbsent(locationId, fresh.getValue()) != null) continue;
+                for (int row = 0; row < occupants.size(); row++) {
+                    Person occupant = model.getPersons().get(occupants.getInt(row, "person_id"));
+                    if (occupant instanceof DisasterVictim) model.addOccupant(locationId, (DisasterVictim) occupant);
+                }
+                for (int row = 0; row < stored.size(); row++) {
+                    Supply supply = model.getSupplies().get(stored.getInt(row, "supply_id"));
+                    if (supply != null) model.addSupplyToLocation(locationId, supply);
+                }
+            }
+            for (int groupId : freshFamilyGroups.join()) {
+                if (model.getFamilyGroups().containsKey(groupId)) continue;
+                QueryCache.Result members = async.query(
+                    "SELECT person_id FROM Person WHERE family_group = ?", groupId).join();
+                for (int row = 0; row < members.size(); row++) {
+                    Person member = model.getPersons().get(members.getInt(row, "person_id"));
+                    if (member != null) model.addFamilyMember(groupId, member);
+                }
+                model.getFamilyGroups().computeIfAbsent(groupId, k -> new FamilyGroup("Group", String.valueOf(k), null));
+            }
+        } catch (CompletionException e) {
+            ui.logError("Failed to refresh locations and family groups", e);
+        }
+    }
+
     /**
      * Prints victim information in a formatted table.
      * 
@@ -130,8 +230,8 @@ public class DisasterVictim extends Person {
      * @param ui           The user interface implementation to use for input/output
      */
     private void printVictimTable(DisasterVictim victim, int locationId, int familyGroupId, String comments, UserInterfaceImplied ui) {
-        System.out.println("\n" + ui.getLanguageSupport().getText("victim_details_header"));
-        System.out.println("+" + "-".repeat(20) + "+" + "-".repeat(40) + "+");
+        ui.getOut().println("\n" + ui.getLanguageSupport().getText("victim_details_header"));
+        ui.getOut().println("+" + "-".repeat(20) + "+" + "-".repeat(40) + "+");
         printTableRow(ui.getLanguageSupport().getText("table_id"), String.valueOf(victim.getId()), ui);
         printTableRow(ui.getLanguageSupport().getText("table_name"), victim.getFullName(), ui);
         printTableRow(ui.getLanguageSupport().getText("table_phone"), victim.getPhoneNumber(), ui);
@@ -150,23 +250,23 @@ public class DisasterVictim extends Person {
         }
         printTableRow(ui.getLanguageSupport().getText("table_family_group"), familyGroupName, ui);
         
-        System.out.println("+" + "-".repeat(20) + "+" + "-".repeat(40) + "+");
-        System.out.println(ui.getLanguageSupport().getText("table_comments_header"));
-        System.out.println("+" + "-".repeat(62) + "+");
+        ui.getOut().println("+" + "-".repeat(20) + "+" + "-".repeat(40) + "+");
+        ui.getOut().println(ui.getLanguageSupport().getText("table_comments_header"));
+        ui.getOut().println("+" + "-".repeat(62) + "+");
         
         if (comments != null && !comments.isEmpty()) {
             String[] commentLines = comments.split("\n");
             for (String line : commentLines) {
                 for (int i = 0; i < line.length(); i += 60) {
                     int end = Math.min(i + 60, line.length());
-                    System.out.println("| " + line.substring(i, end) + " ".repeat(Math.max(0, 60 - (end - i))) + " |");
+                    ui.getOut().println("| " + line.substring(i, end) + " ".repeat(Math.max(0, 60 - (end - i))) + " |");
                 }
             }
         } else {
-            System.out.println("| " + ui.getLanguageSupport().getText("no_comments") + " ".repeat(49) + " |");
+            ui.getOut().println("| " + ui.getLanguageSupport().getText("no_comments") + " ".repeat(49) + " |");
         }
         
-        System.out.println("+" + "-".repeat(62) + "+");
+        ui.getOut().println("+" + "-".repeat(62) + "+");
     }
     
     /**
@@ -177,7 +277,7 @@ public class DisasterVictim extends Person {
      * @param ui    The user interface implementation to use for input/output
      */
     private void printTableRow(String title, String value, UserInterfaceImplied ui) {
-        System.out.println("| " + title + " ".repeat(Math.max(0, 19 - title.length())) + 
+        ui.getOut().println("| " + title + " ".repeat(Math.max(0, 19 - title.length())) + 
                           "| " + value + " ".repeat(Math.max(0, 39 - value.length())) + "|");
     }
 
@@ -189,9 +289,9 @@ public class DisasterVictim extends Person {
      */
     private String selectGender(UserInterfaceImplied ui) {
         for (int retries = ui.getMaxRetries(); retries > 0; retries--) {
-            System.out.println("1. " + ui.getLanguageSupport().getText("gender_man"));
-            System.out.println("2. " + ui.getLanguageSupport().getText("gender_woman"));
-            System.out.println("3. " + ui.getLanguageSupport().getText("gender_nb"));
+            ui.getOut().println("1. " + ui.getLanguageSupport().getText("gender_man"));
+            ui.getOut().println("2. " + ui.getLanguageSupport().getText("gender_woman"));
+            ui.getOut().println("3. " + ui.getLanguageSupport().getText("gender_nb"));
             ui.showPrompt(ui.getLanguageSupport().getText("select_gender"));
             String choice = ui.getInput();
             switch (choice) {
@@ -216,7 +316,7 @@ public class DisasterVictim extends Person {
         for (int retries = ui.getMaxRetries(); retries > 0; retries--) {
             String choice = ui.getValidatedInput(
                 ui.getLanguageSupport().getText("join_family_group"),
-                "^[YyNn]$",
+                Validators.Y_N,
                 ui.getLanguageSupport().getText("invalid_y_n")
             );
             
@@ -235,7 +335,7 @@ public class DisasterVictim extends Person {
                 displayFamilyGroups(ui);
                 String familyInput = ui.getValidatedInput(
                     ui.getLanguageSupport().getText("select_family_group"),
-                    "^[0-9]+$",
+                    Validators.ID,
                     ui.getLanguageSupport().getText("invalid_family_group")
                 );
                 
@@ -248,7 +348,7 @@ public class DisasterVictim extends Person {
                     } else {
                         String createNew = ui.getValidatedInput(
                             ui.getLanguageSupport().getText("create_new_group"),
-                            "^[YyNn]$",
+                            Validators.Y_N,
                             ui.getLanguageSupport().getText("invalid_y_n")
                         );
                         
@@ -276,13 +376,13 @@ public class DisasterVictim extends Person {
      */
     private void displayFamilyGroups(UserInterfaceImplied ui) {
         if (ui.getFamilyGroups().isEmpty()) {
-            System.out.println(ui.getLanguageSupport().getText("no_family_groups"));
+            ui.getOut().println(ui.getLanguageSupport().getText("no_family_groups"));
             return;
         }
         
-        System.out.println(ui.getLanguageSupport().getText("available_family_groups"));
+        ui.getOut().println(ui.getLanguageSupport().getText("available_family_groups"));
         ui.getFamilyGroups().forEach((id, group) -> 
-            System.out.println(id + ". Family Group " + id + " (" + group.getFamilySize() + " members)"));
+            ui.getOut().println(id + ". Family Group " + id + " (" + group.getFamilySize() + " members)"));
     }
 
     /**
@@ -296,7 +396,7 @@ public class DisasterVictim extends Person {
         for (int retries = ui.getMaxRetries(); retries > 0; retries--) {
             String locationInput = ui.getValidatedInput(
                 ui.getLanguageSupport().getText("select_location"),
-                "^[0-9]+$",
+                Validators.ID,
                 ui.getLanguageSupport().getText("invalid_location")
             );
             
@@ -325,65 +425,9 @@ public class DisasterVictim extends Person {
      * @param ui The user interface implementation to use for input/output
      */
     private void displayLocations(UserInterfaceImplied ui) {
-        System.out.println(ui.getLanguageSupport().getText("available_locations"));
+        ui.getOut().println(ui.getLanguageSupport().getText("available_locations"));
         ui.getLocations().forEach((id, loc) -> 
-            System.out.println(id + ". " + loc.getName() + " (" + loc.getAddress() + ")"));
-    }
-
-    /**
-     * Saves a person's information to the database.
-     * 
-     * @param person        The person to save
-     * @param gender        The gender of the person
-     * @param familyGroupId The ID of the person's family group
-     * @param locationId    The ID of the person's location
-     * @param comments      Additional comments about the person
-     * @param db           The database connection to use
-     * @return The ID of the saved person record
-     * @throws SQLException If there's an error accessing the database
-     */
-    private int savePersonToDatabase(Person person, String gender, int familyGroupId, int locationId, String comments, DatabaseConnector db) throws SQLException {
-        boolean hasCommentsColumn = false;
-        ResultSet columns = db.getConnection().getMetaData().getColumns(null, null, "Person", "comments");
-        hasCommentsColumn = columns.next();
-        columns.close();
-        
-        String sql;
-        if (hasCommentsColumn) {
-            sql = "INSERT INTO Person (first_name, last_name, gender, phone_number, date_of_birth, family_group, comments) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING person_id";
-        } else {
-            sql = "INSERT INTO Person (first_name, last_name, gender, phone_number, date_of_birth, family_group) " +
-                "VALUES (?, ?, ?, ?, ?, ?) RETURNING person_id";
-        }
-        
-        try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
-            ps.setString(1, person.getFirstName());
-            ps.setString(2, person.getLastName());
-            ps.setString(3, gender);
-            ps.setString(4, person.getPhoneNumber());
-            
-            try {
-                Date sqlDate = Date.valueOf(person.getDateOfBirth());
-                ps.setDate(5, sqlDate);
-            } catch (IllegalArgumentException e) {
-                ps.setNull(5, Types.DATE);
-            }
-            
-            if (familyGroupId == 0) {
-                ps.setNull(6, Types.INTEGER);
-            } else {
-                ps.setInt(6, familyGroupId);
-            }
-            
-            if (hasCommentsColumn) {
-                ps.setString(7, comments);
-            }
-            
-            ResultSet rs = ps.executeQuery();
-            rs.next();
-            return rs.getInt("person_id");
-        }
+            ui.getOut().println(id + ". " + loc.getName() + " (" + loc.getAddress() + ")"));
     }
 
     /**
@@ -434,14 +478,14 @@ public class DisasterVictim extends Person {
      */
     public void performEdit(UserInterfaceImplied ui) {
         try {
-            System.out.println("\n" + ui.getLanguageSupport().getText("edit_victim_menu"));
-            System.out.println("1. " + ui.getLanguageSupport().getText("edit_name"));
-            System.out.println("2. " + ui.getLanguageSupport().getText("edit_phone"));
-            System.out.println("3. " + ui.getLanguageSupport().getText("edit_dob"));
-            System.out.println("4. " + ui.getLanguageSupport().getText("edit_gender"));
-            System.out.println("5. " + ui.getLanguageSupport().getText("edit_location"));
-            System.out.println("6. " + ui.getLanguageSupport().getText("edit_family"));
-            System.out.println("0. " + ui.getLanguageSupport().getText("return_main_menu"));
+            ui.getOut().println("\n" + ui.getLanguageSupport().getText("edit_victim_menu"));
+            ui.getOut().println("1. " + ui.getLanguageSupport().getText("edit_name"));
+            ui.getOut().println("2. " + ui.getLanguageSupport().getText("edit_phone"));
+            ui.getOut().println("3. " + ui.getLanguageSupport().getText("edit_dob"));
+            ui.getOut().println("4. " + ui.getLanguageSupport().getText("edit_gender"));
+            ui.getOut().println("5. " + ui.getLanguageSupport().getText("edit_location"));
+            ui.getOut().println("6. " + ui.getLanguageSupport().getText("edit_family"));
+            ui.getOut().println("0. " + ui.getLanguageSupport().getText("return_main_menu"));
 
             String choice = ui.getValidatedInput(
                 ui.getLanguageSupport().getText("select_edit_field"),
@@ -450,6 +494,9 @@ public class DisasterVictim extends Person {
             );
             if (choice == null || choice.equals("0"))
                 return;
+            // Remember what the edit started from so a concurrent change can be merged
+            String[] base = rowValues();
+            int baseVersion = getVersion();
             switch (choice) {
                 case "1":
                     updateName(ui);
@@ -473,8 +520,11 @@ public class DisasterVictim extends Person {
                     ui.displayError(ui.getLanguageSupport().getText("invalid_option"));
                     return;
             }
-            updateDatabase(ui);
+            updateDatabase(ui, base, baseVersion);
             ui.showSuccess(ui.getLanguageSupport().getText("update_successful"));
+        } catch (VersionConflictException e) {
+            ui.displayError(ui.getLanguageSupport().getText("edit_conflict_retry"));
+            Person.logError(e);
         } catch (SQLException e) {
             ui.displayError(ui.getLanguageSupport().getText("update_failed"));
             Person.logError(e);
@@ -489,7 +539,7 @@ public class DisasterVictim extends Person {
     private void updateName(UserInterfaceImplied ui) {
         String firstName = ui.getValidatedInput(
             ui.getLanguageSupport().getText("input_firstname"),
-            "^[A-Za-z\\s-]{2,}$",
+            Validators.NAME,
             ui.getLanguageSupport().getText("invalid_input")
         );
         if (firstName != null) {
@@ -497,12 +547,13 @@ public class DisasterVictim extends Person {
         }
         String lastName = ui.getValidatedInput(
             ui.getLanguageSupport().getText("input_lastname"),
-            "^[A-Za-z\\s-]{2,}$",
+            Validators.NAME,
             ui.getLanguageSupport().getText("invalid_input")
         );
         if (lastName != null) {
             setLastName(lastName);
         }
+        ui.reindexPerson(this, getPhoneKey());
     }
 
     /**
@@ -513,11 +564,13 @@ public class DisasterVictim extends Person {
     private void updatePhone(UserInterfaceImplied ui) {
         String phone = ui.getValidatedInput(
             ui.getLanguageSupport().getText("input_phone"),
-            "^\\(?(\\d{3})\\)?[-.\\s]?(\\d{3})[-.\\s]?(\\d{4})$",
+            Validators.PHONE,
             ui.getLanguageSupport().getText("invalid_phone")
         );
         if (phone != null) {
+            long previousKey = getPhoneKey();
             setPhoneNumber(phone);
+            ui.reindexPerson(this, previousKey);
         }
     }
 
@@ -529,11 +582,12 @@ public class DisasterVictim extends Person {
     private void updateDateOfBirth(UserInterfaceImplied ui) {
         String dob = ui.getValidatedInput(
             ui.getLanguageSupport().getText("input_dob"),
-            "^\\d{4}-\\d{2}-\\d{2}$",
+            Validators.DATE,
             ui.getLanguageSupport().getText("invalid_dob")
         );
         if (dob != null) {
             setDateOfBirth(dob);
+            ui.reindexPerson(this, getPhoneKey());
         }
     }
 
@@ -558,8 +612,7 @@ public class DisasterVictim extends Person {
     private void updateLocation(UserInterfaceImplied ui) {
         int locationId = selectLocation(ui);
         if (locationId != 0) {
-            ui.getLocations().values().forEach(loc -> loc.removeOccupant(this));
-            ui.getLocations().get(locationId).addOccupant(this);
+            ui.getModel().moveOccupant(this, locationId);
         }
     }
 
@@ -573,34 +626,61 @@ public class DisasterVictim extends Person {
     private void updateFamilyGroup(UserInterfaceImplied ui) throws SQLException {
         int familyGroupId = selectFamilyGroup(ui);
         if (familyGroupId != 0) {
-            ui.getFamilyGroups().values().forEach(group -> group.removeFamilyMember(this));
-            ui.getFamilyGroups().get(familyGroupId).addFamilyMember(this);
+            ui.getModel().moveToFamilyGroup(this, familyGroupId);
         }
     }
 
     /**
-     * Updates the disaster victim's information in the database.
+     * Writes the disaster victim's information to the database if the row is still at
+     * the version the edit started from. If another operator changed it in the meantime,
+     * the current row is read back, merged field by field with this edit, and the write
+     * is retried. If the write fails, the edit is undone; if the row kept changing, the
+     * values and version last read back are kept, so the model shows what is stored.
      * 
      * @param ui The user interface implementation to use for input/output
+     * @param base The row values the edit started from
+     * @param baseVersion The row version the edit started from
+     * @throws VersionConflictException If the row kept changing through every retry
      * @throws SQLException If there's an error accessing the database
      */
-    private void updateDatabase(UserInterfaceImplied ui) throws SQLException {
-        String sql = "UPDATE Person SET first_name=?, last_name=?, phone_number=?, gender=?, date_of_birth=? WHERE person_id=?";
-        
-        try (PreparedStatement ps = ui.getDbConnection().getConnection().prepareStatement(sql)) {
-            ps.setString(1, getFirstName());
-            ps.setString(2, getLastName());
-            ps.setString(3, getPhoneNumber());
-            ps.setString(4, getGender());
-            try {
-                Date sqlDate = Date.valueOf(getDateOfBirth());
-                ps.setDate(5, sqlDate);
-            } catch (IllegalArgumentException e) {
-                ps.setNull(5, Types.DATE);
+    private void updateDatabase(UserInterfaceImplied ui, String[] base, int baseVersion) throws SQLException {
+        PersonRepository repository = ui.getDbConnection().getStorage().persons();
+        String[] original = base;
+        int version = baseVersion;
+        try {
+            for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS; attempt++) {
+                if (repository.update(this, version)) {
+                    setVersion(version + 1);
+                    return;
+                }
+                String[] theirs = new String[PersonRepository.ROW_FIELDS.length];
+                version = repository.read(getId(), theirs);
+                applyRowValues(RecordMerge.resolveWithUser(ui, PersonRepository.ROW_FIELDS,
+                    new RecordMerge(base, rowValues(), theirs)), ui);
+                base = theirs;
             }
-            ps.setInt(6, getId());
-            
-            ps.executeUpdate();
+        } catch (SQLException e) {
+            applyRowValues(original, ui);
+            setVersion(baseVersion);
+            throw e;
         }
+        // Give up with the other operator's values, which base now holds
+        applyRowValues(base, ui);
+        setVersion(version);
+        throw new VersionConflictException("Person", getId(), version);
+    }
+
+    private String[] rowValues() {
+        return new String[] {getFirstName(), getLastName(), getPhoneNumber(), getGender(), getDateOfBirth()};
+    }
+
+    private void applyRowValues(String[] values, UserInterfaceImplied ui) {
+        setFirstName(values[0]);
+        setLastName(values[1]);
+        long previousKey = getPhoneKey();
+        setPhoneNumber(values[2]);
+        setGender(values[3]);
+        setDateOfBirth(values[4]);
+        ui.reindexPerson(this, previousKey);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,579 @@
+package edu.ucalgary.oop;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Detects person records that likely refer to the same individual.
+ * <p>
+ * Records are grouped into blocks by cheap keys (phonetic last name, phone number,
+ * date of birth) so that only records sharing a block are compared. Each candidate
+ * pair is scored on name, date of birth and phone similarity. The detector can scan
+ * the full person map in parallel or check a single new registration against the
+ * indexed records, and produces {@link MergeProposal}s that can be applied to the
+ * database in one batch.
+ * </p>
+ * <p>
+ * The detector is safe to share between sessions: lookups and scans run under a
+ * shared read lock, so they proceed concurrently, while indexing and removal take
+ * the write lock.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see MergeProposal
+ */
+public class DuplicateDetector {
+    /** Minimum score for two records to be reported as duplicates. */
+    public static final double MATCH_THRESHOLD = 0.85;
+    /** Blocks larger than this are skipped, as their keys are too common to be useful. */
+    private static final int MAX_BLOCK_SIZE = 500;
+
+    private static final double NAME_WEIGHT = 0.6;
+    private static final double DOB_WEIGHT = 0.25;
+    private static final double PHONE_WEIGHT = 0.15;
+
+    private final Map<Integer, Person> persons = new HashMap<>();
+    private final Map<String, Set<Integer>> blocks = new HashMap<>();
+    private final Map<Integer, List<String>> keys = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructs a new DuplicateDetector and indexes all given persons.
+     *
+     * @param persons the persons to index, keyed by their ID
+     */
+    public DuplicateDetector(Map<Integer, Person> persons) {
+        persons.forEach((id, person) -> index(id, person));
+    }
+
+    /**
+     * Adds a person to the index so later registrations are checked against it. A
+     * person already indexed under the ID is moved to the blocks of their current name,
+     * phone number and date of birth, so this is also called after those are edited.
+     *
+     * @param id     the ID of the person
+     * @param person the person to index
+     */
+    public void index(int id, Person person) {
+        if (person == null || person instanceof FamilyGroup) return;
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+            persons.put(id, person);
+            List<String> personKeys = blockingKeys(person);
+            keys.put(id, personKeys);
+            for (String key : personKeys) {
+                blocks.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a person from the index.
+     *
+     * @param id the ID of the person to remove
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a person from the blocks they were indexed under, which may no longer be
+     * their current keys if they were edited since. The caller holds the write lock.
+     */
+    private void unindex(int id) {
+        persons.remove(id);
+        List<String> personKeys = keys.remove(id);
+        if (personKeys == null) return;
+        for (String key : personKeys) {
+            Set<Integer> block = blocks.get(key);
+            if (block != null) {
+                block.remove(id);
+                if (block.isEmpty()) blocks.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Finds indexed persons that likely match a new, not yet saved registration.
+     *
+     * @param candidate the person about to be registered
+     * @return the matching records as proposals, best match first
+     */
+    public List<MergeProposal> findMatches(Person candidate) {
+        Set<Integer> compared = new HashSet<>();
+        List<MergeProposal> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String key : blockingKeys(candidate)) {
+                Set<Integer> block = blocks.get(key);
+                if (block == null) continue;
+                for (int id : block) {
+                    if (id == candidate.getId() || !compared.add(id)) continue;
+                    double score = score(candidate, persons.get(id));
+                    if (score >= MATCH_THRESHOLD) {
+                        // An unsaved candidate has no ID yet; it is recorded as duplicate 0
+                        matches.add(new MergeProposal(id, candidate.getId(), score));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingDouble(MergeProposal::getScore).reversed());
+        return matches;
+    }
+
+    /**
+     * Scans all indexed persons for duplicates, comparing blocks in parallel.
+     * The lower ID of each pair (the earlier registration) is kept.
+     *
+     * @return the merge proposals found, ordered by survivor and duplicate ID
+     */
+    public List<MergeProposal> findAllDuplicates() {
+        // The parallel workers only read; the calling thread's read lock keeps writers out
+        lock.readLock().lock();
+        try {
+            return scanBlocks();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<MergeProposal> scanBlocks() {
+        return blocks.values().parallelStream()
+            .filter(block -> block.size() > 1 && block.size() <= MAX_BLOCK_SIZE)
+            .flatMap(block -> compareBlock(block).stream())
+            .collect(Collectors.toMap(
+                p -> ((long) p.getSurvivorId() << 32) | p.getDuplicateId(),
+                p -> p,
+                (a, b) -> a))
+            .values().stream()
+            .sorted(Comparator.comparingInt(MergeProposal::getSurvivorId)
+                .thenComparingInt(MergeProposal::getDuplicateId))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Compares every pair of persons within a single block.
+     *
+     * @param block the IDs of the persons in the block
+     * @return the pairs that score above the match threshold
+     */
+    private List<MergeProposal> compareBlock(Set<Integer> block) {
+        Integer[] ids = block.toArray(new Integer[0]);
+        Arrays.sort(ids);
+        List<MergeProposal> result = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            for (int j = i + 1; j < ids.length; j++) {
+                double score = score(persons.get(ids[i]), persons.get(ids[j]));
+                if (score >= MATCH_THRESHOLD) {
+                    result.add(new MergeProposal(ids[i], ids[j], score));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the similarity of two persons on name, date of birth and phone number.
+     * Fields missing on either side are left out of the weighting; a date of birth
+     * present on both sides but different rules the pair out.
+     *
+     * @param a the first person
+     * @param b the second person
+     * @return a score between 0.0 (different) and 1.0 (identical)
+     */
+    public static double score(Person a, Person b) {
+        String firstA = normalizeName(a.getFirstName()), firstB = normalizeName(b.getFirstName());
+        String lastA = normalizeName(a.getLastName()), lastB = normalizeName(b.getLastName());
+        if (lastA.isEmpty() || lastB.isEmpty()) return 0.0;
+
+        double direct = (jaroWinkler(firstA, firstB) + jaroWinkler(lastA, lastB)) / 2;
+        double swapped = (jaroWinkler(firstA, lastB) + jaroWinkler(lastA, firstB)) / 2;
+        double total = NAME_WEIGHT * Math.max(direct, swapped);
+        double weight = NAME_WEIGHT;
+
+        String dobA = a.getDateOfBirth(), dobB = b.getDateOfBirth();
+        if (dobA != null && dobB != null && !dobA.isEmpty() && !dobB.isEmpty()) {
+            if (!dobA.equals(dobB)) return 0.0;
+            total += DOB_WEIGHT;
+            weight += DOB_WEIGHT;
+        }
+
+        long phoneA = a.getPhoneKey(), phoneB = b.getPhoneKey();
+        if (phoneA != PhoneIndex.NO_KEY && phoneB != PhoneIndex.NO_KEY) {
+            total += phoneA == phoneB ? PHONE_WEIGHT : 0.0;
+            weight += PHONE_WEIGHT;
+        }
+        return total / weight;
+    }
+
+    /**
+     * Applies merge proposals to the database in a single transaction. Inquiry,
+     * MedicalRecord, PersonLocation and SupplyAllocation rows are re-pointed to the
+     * surviving person and the duplicate Person rows are deleted. Chained proposals
+     * (A kept over B, B kept over C) are resolved so every row ends up on A. Each
+     * changed row is recorded in the connection's change log before the transaction
+     * commits, so other desks following the log see the merge.
+     *
+     * @param proposals the proposals to apply
+     * @param db        the database connection to use
+     * @return the number of duplicate person records removed
+     * @throws SQLException if any statement fails; the whole batch is rolled back
+     */
+    public static int applyMerges(List<MergeProposal> proposals, DatabaseConnector db) throws SQLException {
+        Map<Integer, Integer> survivors = resolveSurvivors(proposals);
+        if (survivors.isEmpty()) return 0;
+
+        String[] statements = {
+            "UPDATE Inquiry SET inquirer_id = ? WHERE inquirer_id = ?",
+            "UPDATE Inquiry SET seeking_id = ? WHERE seeking_id = ?",
+            "UPDATE MedicalRecord SET person_id = ? WHERE person_id = ?",
+            "INSERT INTO PersonLocation (person_id, location_id) " +
+                "SELECT DISTINCT CAST(? AS INTEGER), d.location_id FROM PersonLocation d WHERE d.person_id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM PersonLocation s WHERE s.person_id = ? AND s.location_id = d.location_id)",
+            "DELETE FROM PersonLocation WHERE person_id = ?",
+            "UPDATE SupplyAllocation SET person_id = ? WHERE person_id = ?",
+            "DELETE FROM Person WHERE person_id = ?"
+        };
+
+        Connection connection = db.getExclusiveConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            List<Runnable> events = mergeEvents(connection, db.getChangeLog(), survivors);
+            for (int s = 0; s < statements.length; s++) {
+                try (PreparedStatement ps = connection.prepareStatement(statements[s])) {
+                    for (Map.Entry<Integer, Integer> merge : survivors.entrySet()) {
+                        int duplicateId = merge.getKey(), survivorId = merge.getValue();
+                        if (s == 3) {
+                            // Copy only the stays the survivor lacks, which earlier duplicates may have added
+                            ps.setInt(1, survivorId);
+                            ps.setInt(2, duplicateId);
+                            ps.setInt(3, survivorId);
+                        } else if (s == 4 || s == statements.length - 1) {
+                            ps.setInt(1, duplicateId);
+                        } else {
+                            ps.setInt(1, survivorId);
+                            ps.setInt(2, duplicateId);
+                        }
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+            events.forEach(Runnable::run);
+            connection.commit();
+            db.invalidate("Inquiry", "MedicalRecord", "PersonLocation", "SupplyAllocation", "Person");
+            return survivors.size();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Reads the rows a merge is about to change and returns the appends that record
+     * their changes, to run once the merge statements have run.
+     *
+     * @param connection the connection of the merge transaction
+     * @param log        the change log, or null if changes are not recorded
+     * @param survivors  the surviving person ID of each duplicate person ID
+     * @return the appends, in the order the changes are made
+     * @throws SQLException if the rows cannot be read
+     */
+    private static List<Runnable> mergeEvents(Connection connection, ChangeLog log, Map<Integer, Integer> survivors)
+            throws SQLException {
+        List<Runnable> events = new ArrayList<>();
+        if (log == null) return events;
+        Map<Integer, Set<Integer>> survivorStays = new HashMap<>();
+        for (Map.Entry<Integer, Integer> merge : survivors.entrySet()) {
+            int duplicateId = merge.getKey(), survivorId = merge.getValue();
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT inquiry_id, inquirer_id, seeking_id FROM Inquiry WHERE inquirer_id = ? OR seeking_id = ?")) {
+                ps.setInt(1, duplicateId);
+                ps.setInt(2, duplicateId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Map<String, Object> values = new LinkedHashMap<>();
+                        if (rs.getInt(2) == duplicateId) values.put("inquirer_id", survivorId);
+                        if (rs.getInt(3) == duplicateId) values.put("seeking_id", survivorId);
+                        events.add(update(log, Table.INQUIRY, rs.getInt(1), values));
+                    }
+                }
+            }
+            for (int recordId : idsOf(connection,
+                    "SELECT medical_record_id FROM MedicalRecord WHERE person_id = ?", duplicateId)) {
+                events.add(update(log, Table.MEDICAL_RECORD, recordId,
+                    Collections.singletonMap("person_id", survivorId)));
+            }
+            Set<Integer> stays = survivorStays.get(survivorId);
+            if (stays == null) {
+                stays = new HashSet<>(idsOf(connection,
+                    "SELECT location_id FROM PersonLocation WHERE person_id = ?", survivorId));
+                survivorStays.put(survivorId, stays);
+            }
+            for (int locationId : idsOf(connection,
+                    "SELECT location_id FROM PersonLocation WHERE person_id = ?", duplicateId)) {
+                events.add(() -> RecordingStorage.record(log, Table.PERSON_LOCATION,
+                    ChangeEvent.stayKey(duplicateId, locationId), ChangeEvent.Operation.DELETE,
+                    Collections.emptyMap()));
+                if (stays.add(locationId)) {
+                    events.add(() -> RecordingStorage.record(log, Table.PERSON_LOCATION,
+                        ChangeEvent.stayKey(survivorId, locationId), ChangeEvent.Operation.INSERT,
+                        RecordingStorage.stay(survivorId, locationId)));
+                }
+            }
+            for (int supplyId : idsOf(connection,
+                    "SELECT supply_id FROM SupplyAllocation WHERE person_id = ?", duplicateId)) {
+                events.add(update(log, Table.SUPPLY_ALLOCATION, supplyId,
+                    Collections.singletonMap("person_id", survivorId)));
+            }
+            events.add(() -> RecordingStorage.record(log, Table.PERSON, duplicateId, ChangeEvent.Operation.DELETE,
+                Collections.emptyMap()));
+        }
+        return events;
+    }
+
+    private static Runnable update(ChangeLog log, Table table, int key, Map<String, Object> values) {
+        return () -> RecordingStorage.record(log, table, key, ChangeEvent.Operation.UPDATE, values);
+    }
+
+    private static List<Integer> idsOf(Connection connection, String sql, int id) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Maps each duplicate ID to its final surviving ID, following chains of proposals.
+     *
+     * @param proposals the merge proposals
+     * @return a map of duplicate ID to surviving ID
+     */
+    static Map<Integer, Integer> resolveSurvivors(List<MergeProposal> proposals) {
+        Map<Integer, Integer> parent = new HashMap<>();
+        for (MergeProposal p : proposals) {
+            int root = find(parent, p.getSurvivorId());
+            int dupRoot = find(parent, p.getDuplicateId());
+            if (root == dupRoot) continue;
+            // The earliest registration wins so the result does not depend on proposal order
+            if (dupRoot < root) {
+                int t = root; root = dupRoot; dupRoot = t;
+            }
+            parent.put(dupRoot, root);
+        }
+        Map<Integer, Integer> survivors = new TreeMap<>();
+        for (Integer id : parent.keySet()) {
+            survivors.put(id, find(parent, id));
+        }
+        return survivors;
+    }
+
+    private static int find(Map<Integer, Integer> parent, int id) {
+        while (parent.containsKey(id)) id = parent.get(id);
+        return id;
+    }
+
+    /**
+     * Scans all persons for duplicates, lists the proposals and applies them
+     * after the user confirms. The merged records are then folded into their
+     * survivors in the shared model too.
+     *
+     * @param ui the user interface implementation used to interact with the user
+     */
+    public static void reviewDuplicates(UserInterfaceImplied ui) {
+        List<MergeProposal> proposals = ui.getDuplicateDetector().findAllDuplicates();
+        if (proposals.isEmpty()) {
+            ui.showSuccess(ui.getLanguageSupport().getText("duplicate_none"));
+            return;
+        }
+        for (MergeProposal p : proposals) {
+            ui.showSuccess(String.format(ui.getLanguageSupport().getText("duplicate_pair_row"),
+                p.getDuplicateId(), ui.getPersons().get(p.getDuplicateId()).getFullName(),
+                p.getSurvivorId(), ui.getPersons().get(p.getSurvivorId()).getFullName(),
+                p.getScore() * 100));
+        }
+        String confirm = ui.getValidatedInput(
+            String.format(ui.getLanguageSupport().getText("duplicate_merge_confirm"), proposals.size()),
+            Validators.Y_N,
+            ui.getLanguageSupport().getText("invalid_y_n")
+        );
+        if (confirm == null || !"y".equals(confirm.toLowerCase())) return;
+        try {
+            int merged = applyMerges(proposals, ui.getDbConnection());
+            ui.getModel().mergePersons(resolveSurvivors(proposals));
+            ui.showSuccess(String.format(ui.getLanguageSupport().getText("duplicate_merged"), merged));
+        } catch (SQLException e) {
+            ui.displayError(ui.getLanguageSupport().getText("update_failed"));
+            ui.logError("Failed to merge duplicate persons", e);
+        }
+    }
+
+    /**
+     * Checks a new registration against existing records and, if likely matches
+     * are found, lists them and asks the user whether to register anyway.
+     *
+     * @param ui        the user interface implementation used to interact with the user
+     * @param candidate the person about to be registered
+     * @return true if registration should continue, false if the user cancelled it
+     */
+    public static boolean confirmNotDuplicate(UserInterfaceImplied ui, Person candidate) {
+        return confirmNotDuplicate(ui, ui.getDuplicateDetector().findMatches(candidate));
+    }
+
+    /**
+     * Shows already computed matches for a person about to be registered and asks
+     * whether to register them anyway.
+     *
+     * @param ui      the user interface implementation used to interact with the user
+     * @param matches the matches found by {@link #findMatches(Person)}
+     * @return true if registration should continue, false if the user cancelled it
+     */
+    public static boolean confirmNotDuplicate(UserInterfaceImplied ui, List<MergeProposal> matches) {
+        if (matches.isEmpty()) return true;
+        ui.displayError(ui.getLanguageSupport().getText("duplicate_warning"));
+        for (MergeProposal match : matches) {
+            Person existing = ui.getPersons().get(match.getSurvivorId());
+            ui.showSuccess(String.format(ui.getLanguageSupport().getText("duplicate_match_row"),
+                match.getSurvivorId(), existing.getFullName(), match.getScore() * 100));
+        }
+        String choice = ui.getValidatedInput(
+            ui.getLanguageSupport().getText("duplicate_continue"),
+            Validators.Y_N,
+            ui.getLanguageSupport().getText("invalid_y_n")
+        );
+        return choice != null && "y".equals(choice.toLowerCase());
+    }
+
+    /**
+     * Returns the blocking keys of a person. Two persons are compared only if they
+     * share at least one key.
+     *
+     * @param person the person
+     * @return the blocking keys
+     */
+    static List<String> blockingKeys(Person person) {
+        List<String> keys = new ArrayList<>(3);
+        String first = normalizeName(person.getFirstName());
+        String last = normalizeName(person.getLastName());
+        if (!last.isEmpty()) {
+            keys.add("N:" + soundex(last) + (first.isEmpty() ? "" : first.charAt(0)));
+        }
+        if (person.getPhoneKey() != PhoneIndex.NO_KEY) {
+            keys.add("P:" + person.getPhoneKey());
+        }
+        String dob = person.getDateOfBirth();
+        if (dob != null && !dob.isEmpty() && !last.isEmpty()) {
+            keys.add("D:" + dob + last.charAt(0));
+        }
+        return keys;
+    }
+
+    /**
+     * Lower-cases a name and strips accents and anything that is not a letter.
+     *
+     * @param name the name to normalize, may be null
+     * @return the normalized name, empty if none
+     */
+    static String normalizeName(String name) {
+        if (name == null) return "";
+        String folded = Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetter(c)) sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Computes the American Soundex code of a normalized name. Letters outside a-z,
+     * such as the Ø or Ł that remain after accents are stripped, or letters of other
+     * scripts, have no code: they are skipped, or kept as is when first.
+     *
+     * @param name a non-empty, lower-case, letters-only name
+     * @return the four character Soundex code
+     */
+    static String soundex(String name) {
+        final String codes = "01230120022455012623010202";
+        char first = name.charAt(0);
+        char[] out = {Character.toUpperCase(first), '0', '0', '0'};
+        char last = first >= 'a' && first <= 'z' ? codes.charAt(first - 'a') : '0';
+        int count = 1;
+        for (int i = 1; i < name.length() && count < 4; i++) {
+            char c = name.charAt(i);
+            if (c < 'a' || c > 'z') continue;
+            char code = codes.charAt(c - 'a');
+            if (code != '0' && code != last) out[count++] = code;
+            // 'h' and 'w' do not separate letters with the same code
+            if (c != 'h' && c != 'w') last = code;
+        }
+        return new String(out);
+    }
+
+    /**
+     * Computes the Jaro-Winkler similarity of two strings.
+     *
+     * @param s1 the first string
+     * @param s2 the second string
+     * @return the similarity, between 0.0 and 1.0
+     */
+    static double jaroWinkler(String s1, String s2) {
+        if (s1.equals(s2)) return 1.0;
+        if (s1.isEmpty() || s2.isEmpty()) return 0.0;
+        int range = Math.max(0, Math.max(s1.length(), s2.length()) / 2 - 1);
+        boolean[] matched1 = new boolean[s1.length()];
+        boolean[] matched2 = new boolean[s2.length()];
+        int matches = 0;
+        for (int i = 0; i < s1.length(); i++) {
+            int from = Math.max(0, i - range), to = Math.min(s2.length() - 1, i + range);
+            for (int j = from; j <= to; j++) {
+                if (!matched2[j] && s1.charAt(i) == s2.charAt(j)) {
+                    matched1[i] = matched2[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) return 0.0;
+        int transpositions = 0;
+        for (int i = 0, k = 0; i < s1.length(); i++) {
+            if (!matched1[i]) continue;
+            while (!matched2[k]) k++;
+            if (s1.charAt(i) != s2.charAt(k)) transpositions++;
+            k++;
+        }
+        double m = matches;
+        double jaro = (m / s1.length() + m / s2.length() + (m - transpositions / 2.0) / m) / 3.0;
+        int prefix = 0;
+        while (prefix < Math.min(4, Math.min(s1.length(), s2.length())) && s1.charAt(prefix) == s2.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1.0 - jaro);
+    }
+}
@@ -0,0 +1,183 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link RealDatabaseConnection} on an embedded H2 database in PostgreSQL mode,
+ * so the application and its tests can run the full SQL path without a PostgreSQL server.
+ * <p>
+ * A new database is filled from a psql script such as {@code project.sql}: psql
+ * meta-commands, comments and {@code CREATE/DROP DATABASE} are skipped and the rest is
+ * executed statement by statement. A database in memory lives until the JVM exits, so
+ * {@link #openConnection()} and a reconnect after {@link #closeConnection()} see the same
+ * data; a database in a file keeps its data between runs and the script is only applied
+ * when the file is created.
+ * </p>
+ * <p>
+ * The few PostgreSQL constructs the application uses that H2 does not understand are
+ * rewritten on every connection: {@code INSERT ... RETURNING} becomes a query over
+ * {@code FINAL TABLE (INSERT ...)}, and {@code INTERVAL '1 day'} becomes {@code INTERVAL '1' DAY}.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class EmbeddedDatabaseConnection extends DatabaseConnection {
+    private static final String OPTIONS = ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+    private static final AtomicInteger NEXT_DATABASE = new AtomicInteger();
+    private static final Pattern RETURNING = Pattern.compile("(?is)\\s*(INSERT\\s.*?)\\s+RETURNING\\s+(.+?)[\\s;]*");
+    private static final Pattern INTERVAL = Pattern.compile(
+        "(?i)INTERVAL\\s+'\\s*(\\d+)\\s*(year|month|day|hour|minute|second)s?\\s*'");
+    private static final Pattern SKIPPED = Pattern.compile("(?is)(CREATE|DROP)\\s+DATABASE\\s.*");
+
+    private final String url;
+
+    private EmbeddedDatabaseConnection(String url, Connection connection) {
+        super(connection);
+        this.url = url;
+    }
+
+    /**
+     * Creates a new database in memory and fills it from a psql script.
+     *
+     * @param script The script creating and filling the tables, such as {@code project.sql}
+     * @return A connection with the data of the script loaded
+     * @throws SQLException If a statement of the script fails
+     * @throws IOException If the script cannot be read
+     */
+    public static EmbeddedDatabaseConnection inMemory(Path script) throws SQLException, IOException {
+        return create("jdbc:h2:mem:relief" + NEXT_DATABASE.incrementAndGet() + OPTIONS + ";DB_CLOSE_DELAY=-1",
+            script, true);
+    }
+
+    /**
+     * Opens a database in a file, creating it from a psql script if it does not exist yet.
+     *
+     * @param database The database file, without H2's {@code .mv.db} extension
+     * @param script The script creating and filling the tables of a new database
+     * @return A connection with the data of the database loaded
+     * @throws SQLException If the database cannot be opened or a statement of the script fails
+     * @throws IOException If the script cannot be read
+     */
+    public static EmbeddedDatabaseConnection open(Path database, Path script) throws SQLException, IOException {
+        Path absolute = database.toAbsolutePath();
+        boolean created = !Files.exists(Paths.get(absolute + ".mv.db"));
+        return create("jdbc:h2:file:" + absolute + OPTIONS, script, created);
+    }
+
+    private static EmbeddedDatabaseConnection create(String url, Path script, boolean load)
+            throws SQLException, IOException {
+        Connection connection = translating(DriverManager.getConnection(url));
+        try {
+            if (load) runScript(connection, new String(Files.readAllBytes(script), StandardCharsets.UTF_8));
+            return new EmbeddedDatabaseConnection(url, connection);
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Connection open() throws SQLException {
+        return translating(DriverManager.getConnection(url));
+    }
+
+    /**
+     * Executes the statements of a psql script in one transaction.
+     *
+     * @param connection The connection to execute on
+     * @param script The text of the script
+     * @return The number of statements executed
+     * @throws SQLException If a statement fails; nothing of the script is kept
+     */
+    static int runScript(Connection connection, String script) throws SQLException {
+        String sql = script.replaceAll("(?m)^\\s*(--|\\\\).*$", "");
+        int executed = 0;
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            for (String statement : sql.split(";")) {
+                statement = statement.trim();
+                if (statement.isEmpty() || SKIPPED.matcher(statement).matches()) continue;
+                stmt.execute(statement);
+                executed++;
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        return executed;
+    }
+
+    /**
+     * Rewrites the PostgreSQL constructs of a statement that H2 does not understand.
+     *
+     * @param sql A statement written for PostgreSQL
+     * @return The statement for H2 in PostgreSQL mode
+     */
+    static String translate(String sql) {
+        String translated = INTERVAL.matcher(sql).replaceAll("INTERVAL '$1' $2");
+        Matcher returning = RETURNING.matcher(translated);
+        return returning.matches()
+            ? "SELECT " + returning.group(2) + " FROM FINAL TABLE (" + returning.group(1) + ")"
+            : translated;
+    }
+
+    /**
+     * Wraps a connection so that the statements prepared or executed on it are translated.
+     */
+    private static Connection translating(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(EmbeddedDatabaseConnection.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                String name = method.getName();
+                if (args != null && args.length > 0 && args[0] instanceof String
+                        && (name.equals("prepareStatement") || name.equals("prepareCall") || name.equals("nativeSQL"))) {
+                    args[0] = translate((String) args[0]);
+                }
+                Object result = invoke(connection, method, args);
+                if (name.equals("createStatement")) {
+                    Statement statement = (Statement) result;
+                    return Proxy.newProxyInstance(EmbeddedDatabaseConnection.class.getClassLoader(),
+                        new Class<?>[] {Statement.class}, (stmtProxy, stmtMethod, stmtArgs) -> {
+                            if (stmtMethod.getName().equals("getConnection")) return proxy;
+                            if (stmtArgs != null && stmtArgs.length > 0 && stmtArgs[0] instanceof String
+                                    && (stmtMethod.getName().startsWith("execute")
+                                        || stmtMethod.getName().equals("addBatch"))) {
+                                stmtArgs[0] = translate((String) stmtArgs[0]);
+                            }
+                            return invoke(statement, stmtMethod, stmtArgs);
+                        });
+                }
+                return result;
+            });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * Writes error log entries to a file from a single background thread.
+ * <p>
+ * Callers copy an entry's fields into a preallocated slot of a ring buffer and return
+ * at once; formatting, stack traces included, and all file I/O happen on the writer
+ * thread, which drains the ring in batches and writes each batch through a
+ * {@link FileChannel} in one call. When the ring is full, new entries are dropped and
+ * counted rather than making the caller wait for the disk. Once the file grows past a
+ * size limit it is renamed to {@code name.1} (older files shift up to a fixed count)
+ * and a new file is started.
+ * </p>
+ * <p>
+ * Each entry is one line of {@code key=value} fields, followed by the stack trace of
+ * its exception, if any, on tab-indented lines:
+ * </p>
+ * <pre>
+ * time=2025-04-10T09:15:02.117 level=ERROR thread=session-3 source=DatabaseConnection message="Failed to load database data" error="java.sql.SQLException: Connection refused"
+ * </pre>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class ErrorLogger implements AutoCloseable {
+    /** The file the shared logger writes to. */
+    public static final String DEFAULT_FILE = "data/errorlog.txt";
+    /** The number of entries the shared logger buffers. */
+    public static final int DEFAULT_CAPACITY = 4096;
+    /** The size at which the shared logger's file is rotated. */
+    public static final long DEFAULT_MAX_BYTES = 5L * 1024 * 1024;
+    /** The number of rotated files the shared logger keeps. */
+    public static final int DEFAULT_MAX_FILES = 3;
+
+    private static final int MAX_BATCH = 256;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
+    private static ErrorLogger shared;
+
+    /**
+     * One reusable slot of the ring buffer.
+     */
+    private static final class Entry {
+        long time;
+        String level;
+        String thread;
+        String source;
+        String message;
+        Throwable error;
+    }
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final Entry[] ring;
+    private final int mask;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition written = lock.newCondition();
+    private final AtomicLong dropped = new AtomicLong();
+    private final StringBuilder buffer = new StringBuilder(16 * 1024);
+    private final Thread writer;
+    private long head;
+    private long tail;
+    private boolean closed;
+    private FileChannel channel;
+
+    /**
+     * Constructs a new ErrorLogger and starts its writer thread.
+     *
+     * @param file     the log file, created if missing and appended to otherwise
+     * @param capacity the minimum number of entries buffered; rounded up to a power of two
+     * @param maxBytes the size at which the file is rotated
+     * @param maxFiles the number of rotated files kept
+     */
+    public ErrorLogger(Path file, int capacity, long maxBytes, int maxFiles) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        ring = new Entry[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Entry();
+        }
+        mask = size - 1;
+        writer = new Thread(this::drain, "error-logger");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the logger shared by the whole application, writing to {@link #DEFAULT_FILE}.
+     * It is flushed and closed when the JVM exits.
+     *
+     * @return the shared logger
+     */
+    public static synchronized ErrorLogger getDefault() {
+        if (shared == null) {
+            ErrorLogger logger = new ErrorLogger(Paths.get(DEFAULT_FILE), DEFAULT_CAPACITY,
+                DEFAULT_MAX_BYTES, DEFAULT_MAX_FILES);
+            Runtime.getRuntime().addShutdownHook(new Thread(logger::close, "error-logger-shutdown"));
+            Metrics.gauge("errorlog.pending", logger::getPending);
+            Metrics.gauge("errorlog.dropped", logger::getDropped);
+            shared = logger;
+        }
+        return shared;
+    }
+
+    /**
+     * Sends the records of a {@code java.util.logging} logger to the shared logger
+     * instead of the console.
+     *
+     * @param logger the logger to route
+     */
+    public static void route(Logger logger) {
+        logger.addHandler(getDefault().asHandler());
+        logger.setUseParentHandlers(false);
+    }
+
+    /**
+     * Logs an error.
+     *
+     * @param source  the class or component reporting the error
+     * @param message what was being done when the error happened
+     * @param error   the exception, or null
+     * @return true if the entry was buffered, false if it was dropped
+     */
+    public boolean error(String source, String message, Throwable error) {
+        return log("ERROR", source, message, error);
+    }
+
+    /**
+     * Logs an entry. Never blocks on I/O; if the buffer is full the entry is dropped.
+     *
+     * @param level   the severity, such as {@code ERROR}, {@code WARN} or {@code INFO}
+     * @param source  the class or component reporting the entry
+     * @param message the message
+     * @param error   the exception, or null
+     * @return true if the entry was buffered, false if it was dropped
+     */
+    public boolean log(String level, String source, String message, Throwable error) {
+        long now = System.currentTimeMillis();
+        String thread = Thread.currentThread().getName();
+        lock.lock();
+        try {
+            if (closed || head - tail == ring.length) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            Entry entry = ring[(int) (head & mask)];
+            entry.time = now;
+            entry.level = level;
+            entry.thread = thread;
+            entry.source = source;
+            entry.message = message;
+            entry.error = error;
+            head++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries dropped because the buffer was full or the logger closed.
+     *
+     * @return the dropped count
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of entries buffered but not yet written.
+     *
+     * @return the queue depth
+     */
+    public long getPending() {
+        lock.lock();
+        try {
+            return head - tail;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every entry buffered before this call has been written.
+     *
+     * @param timeoutMillis the longest time to wait
+     * @return true if everything was written, false if the wait timed out
+     */
+    public boolean flush(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            long target = head;
+            while (tail < target && writer.isAlive()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return false;
+                written.awaitNanos(remaining);
+            }
+            return tail >= target;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the remaining entries, stops the writer thread and closes the file.
+     * Entries logged afterwards are dropped.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns a {@code java.util.logging} handler that feeds this logger. SEVERE records
+     * are logged as {@code ERROR}, WARNING as {@code WARN} and the rest as {@code INFO}.
+     *
+     * @return the handler
+     */
+    public java.util.logging.Handler asHandler() {
+        return new java.util.logging.Handler() {
+            private final SimpleFormatter formatter = new SimpleFormatter();
+
+            @Override
+            public void publish(LogRecord record) {
+                if (!isLoggable(record)) return;
+                int level = record.getLevel().intValue();
+                String name = record.getLoggerName();
+                log(level >= Level.SEVERE.intValue() ? "ERROR" : level >= Level.WARNING.intValue() ? "WARN" : "INFO",
+                    name == null ? "" : name.substring(name.lastIndexOf('.') + 1),
+                    formatter.formatMessage(record), record.getThrown());
+            }
+
+            @Override
+            public void flush() {
+                ErrorLogger.this.flush(TimeUnit.SECONDS.toMillis(5));
+            }
+
+            @Override
+            public void close() { }
+        };
+    }
+
+    /**
+     * The writer thread: waits for entries, then formats and writes them a batch at a time.
+     */
+    private void drain() {
+        while (true) {
+            long from;
+            int count;
+            lock.lock();
+            try {
+                while (head == tail && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (head == tail) break;
+                from = tail;
+                count = (int) Math.min(head - tail, MAX_BATCH);
+            } finally {
+                lock.unlock();
+            }
+
+            // Slots from tail up to head are not reused until tail moves past them
+            buffer.setLength(0);
+            for (int i = 0; i < count; i++) {
+                Entry entry = ring[(int) ((from + i) & mask)];
+                format(entry);
+                entry.message = null;
+                entry.error = null;
+            }
+            write();
+
+            lock.lock();
+            try {
+                tail = from + count;
+                written.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        closeChannel();
+        lock.lock();
+        try {
+            written.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void format(Entry entry) {
+        buffer.append("time=")
+            .append(TIME_FORMAT.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.time), ZoneId.systemDefault())))
+            .append(" level=").append(entry.level)
+            .append(" thread=");
+        appendValue(entry.thread);
+        buffer.append(" source=");
+        appendValue(entry.source);
+        buffer.append(" message=");
+        appendValue(entry.message);
+        if (entry.error != null) {
+            buffer.append(" error=");
+            appendValue(entry.error.toString());
+        }
+        buffer.append('\n');
+        if (entry.error != null) {
+            StringWriter trace = new StringWriter();
+            entry.error.printStackTrace(new PrintWriter(trace));
+            for (String line : trace.toString().split("\\R")) {
+                if (line.isEmpty() || line.equals(entry.error.toString())) continue;
+                buffer.append('\t').append(line.trim()).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Appends a field value, quoted if it contains spaces, quotes or line breaks.
+     */
+    private void appendValue(String value) {
+        if (value == null) value = "";
+        boolean quote = value.isEmpty();
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ' ' || c == '"' || c == '=' || c < 0x20;
+        }
+        if (!quote) {
+            buffer.append(value);
+            return;
+        }
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': buffer.append("\\\""); break;
+                case '\\': buffer.append("\\\\"); break;
+                case '\n': buffer.append("\\n"); break;
+                case '\r': buffer.append("\\r"); break;
+                case '\t': buffer.append("\\t"); break;
+                default: buffer.append(c);
+            }
+        }
+        buffer.append('"');
+    }
+
+    private void write() {
+        try {
+            if (channel == null) {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) Files.createDirectories(parent);
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            }
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(buffer));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            if (channel.size() >= maxBytes) rotate();
+        } catch (IOException e) {
+            System.err.println("Error logging failed: " + e.getMessage());
+            closeChannel();
+        }
+    }
+
+    /**
+     * Renames the current file to {@code name.1}, shifting older files up and deleting
+     * the oldest.
+     */
+    private void rotate() throws IOException {
+        closeChannel();
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+                Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error logging failed: " + e.getMessage());
+        }
+        channel = null;
+    }
+}
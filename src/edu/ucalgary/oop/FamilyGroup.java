@@ -1,9 +1,9 @@
 package edu.ucalgary.oop;
 
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a family group in the system, extending the Person class.
@@ -16,11 +16,12 @@ import java.util.List;
  * @see Person
  */
 public class FamilyGroup extends Person {
-    private List<Person> familyMembers;
+    private final List<Person> familyMembers;
     
     /**
      * Constructs a new FamilyGroup with the specified personal information.
-     * Initializes an empty list of family members.
+     * Initializes an empty copy-on-write list of family members, which sessions
+     * sharing the group can read while another session changes it.
      * 
      * @param firstName   the first name of the family group's primary contact
      * @param lastName    the last name of the family group's primary contact
@@ -28,7 +29,7 @@ public class FamilyGroup extends Person {
      */
     public FamilyGroup(String firstName, String lastName, String phoneNumber) {
         super(firstName, lastName, phoneNumber);
-        this.familyMembers = new ArrayList<>();
+        this.familyMembers = new CopyOnWriteArrayList<>();
     }
     
     /**
@@ -57,32 +58,29 @@ public class FamilyGroup extends Person {
     public static int createNewFamilyGroup(UserInterfaceImplied ui) throws SQLException {
         String firstName = ui.getValidatedInput(
             ui.getLanguageSupport().getText("input_firstname"),
-            "^[A-Za-z\\s-]{2,}$",
+            Validators.NAME,
             ui.getLanguageSupport().getText("invalid_name_format")
         );
         if (firstName == null) return 0;
         
         String lastName = ui.getValidatedInput(
             ui.getLanguageSupport().getText("input_lastname"),
-            "^[A-Za-z\\s-]{2,}$",
+            Validators.NAME,
             ui.getLanguageSupport().getText("invalid_name_format")
         );
         if (lastName == null) return 0;
         
         String phone = ui.getValidatedInput(
             ui.getLanguageSupport().getText("input_phone"),
-            "^\\(?(\\d{3})\\)?[-.\\s]?(\\d{3})[-.\\s]?(\\d{4})$",
+            Validators.PHONE,
             ui.getLanguageSupport().getText("invalid_phone_format")
         );
         if (phone == null) return 0;
         
-        ResultSet rs = ui.getDbConnection().getConnection().createStatement()
-            .executeQuery("SELECT COALESCE(MAX(family_group), 0) + 1 FROM Person");
-        rs.next();
-        int newGroupId = rs.getInt(1);
-        
+        int nextGroupId = ui.getDbConnection().getStorage().persons().nextFamilyGroupId();
         FamilyGroup newGroup = new FamilyGroup(firstName, lastName, phone);
-        ui.getFamilyGroups().put(newGroupId, newGroup);
+        // Another session may have read the same next ID; the model hands out distinct ones
+        int newGroupId = ui.getModel().reserveFamilyGroupId(nextGroupId, newGroup);
                 
         ui.showSuccess(String.format(
             ui.getLanguageSupport().getText("family_group_created"),
@@ -102,6 +100,16 @@ public class FamilyGroup extends Person {
         return new ArrayList<>(familyMembers);
     }
     
+    /**
+     * Checks whether a person is a member of this family group.
+     * 
+     * @param member the person to look for
+     * @return true if the person belongs to this group
+     */
+    public boolean hasFamilyMember(Person member) {
+        return familyMembers.contains(member);
+    }
+    
     /**
      * Removes a person from this family group's list of members.
      * 
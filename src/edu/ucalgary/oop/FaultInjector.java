@@ -0,0 +1,565 @@
+package edu.ucalgary.oop;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Makes a database connector slow or unreliable on purpose, to test and benchmark
+ * how the application copes with the networks and servers found in the field.
+ * <p>
+ * {@link #wrap(DatabaseConnector, Class)} returns a proxy for any connector interface,
+ * so the mock and a real {@link DatabaseConnection} can be wrapped alike; connections
+ * it hands out are wrapped too. Each call is named as an operation: connector methods
+ * as {@code connector.<method>}, statements as their metrics name such as
+ * {@code sql.insert.supplyallocation} (see {@link Metrics}), and transaction calls as
+ * {@code connection.commit} or {@code connection.rollback}. The first {@link Rule}
+ * whose prefix matches the operation decides what happens to it:
+ * </p>
+ * <ul>
+ *   <li>a delay drawn from a {@link Delay} distribution before the call;</li>
+ *   <li>a timeout: the call waits, then fails with {@link SQLTimeoutException};</li>
+ *   <li>a connection drop: the call fails, and the connection reports itself closed and
+ *       refuses every later call, as after a network failure;</li>
+ *   <li>a plain failure with {@link SQLTransientException};</li>
+ *   <li>a partial batch failure: only a leading part of the batch is executed, and
+ *       {@link BatchUpdateException} reports the update counts of that part;</li>
+ *   <li>a flapping outage: every call fails during the down part of a repeating cycle.</li>
+ * </ul>
+ * <p>
+ * Connector methods that do not declare {@link SQLException} fail with
+ * {@link IllegalStateException} instead. Entity writes through a {@link JdbcStorage} use
+ * the wrapped connection, but statements that a wrapped connector runs on its own internal
+ * connection, such as loading, are not affected; build the connector over a wrapped
+ * connection for that. Random draws come from one seeded generator, so a single-threaded
+ * run injects the same faults every time.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class FaultInjector {
+    /** SQL state of injected failures: system error. */
+    public static final String STATE_FAILURE = "58000";
+    /** SQL state of injected timeouts: query cancelled. */
+    public static final String STATE_TIMEOUT = "57014";
+    /** SQL state of injected drops and outages: connection failure. */
+    public static final String STATE_CONNECTION_FAILURE = "08006";
+    /** SQL state of calls on a dropped connection: connection does not exist. */
+    public static final String STATE_NO_CONNECTION = "08003";
+
+    /**
+     * The kinds of injected faults, counted by {@link #getCount(Fault)}.
+     */
+    public enum Fault {
+        /** A call was delayed. */
+        DELAY,
+        /** A call timed out. */
+        TIMEOUT,
+        /** A connection was dropped. */
+        DROP,
+        /** A call failed. */
+        FAILURE,
+        /** A batch was only partly executed. */
+        BATCH_FAILURE,
+        /** A call failed during an outage. */
+        OUTAGE
+    }
+
+    /**
+     * A distribution of delays.
+     */
+    @FunctionalInterface
+    public interface Delay {
+        /**
+         * Draws a delay.
+         *
+         * @param random the generator to draw from
+         * @return the delay in nanoseconds, 0 for none
+         */
+        long nextNanos(SplittableRandom random);
+
+        /**
+         * Returns no delay.
+         *
+         * @return the distribution
+         */
+        static Delay none() {
+            return random -> 0;
+        }
+
+        /**
+         * Returns the same delay every time.
+         *
+         * @param delay the delay
+         * @return the distribution
+         */
+        static Delay fixed(Duration delay) {
+            long nanos = delay.toNanos();
+            return random -> nanos;
+        }
+
+        /**
+         * Returns delays spread evenly between two bounds.
+         *
+         * @param min the shortest delay
+         * @param max the longest delay
+         * @return the distribution
+         */
+        static Delay uniform(Duration min, Duration max) {
+            long low = min.toNanos();
+            long high = max.toNanos();
+            return random -> low == high ? low : random.nextLong(low, high + 1);
+        }
+
+        /**
+         * Returns exponentially distributed delays, like the waits of a busy server.
+         *
+         * @param mean the mean delay
+         * @return the distribution
+         */
+        static Delay exponential(Duration mean) {
+            double nanos = mean.toNanos();
+            return random -> (long) (-nanos * Math.log(1 - random.nextDouble()));
+        }
+
+        /**
+         * Returns log-normally distributed delays, like round trips over a network.
+         *
+         * @param median the median delay
+         * @param sigma  the spread; about 0.5 for a steady link, 1 or more for a poor one
+         * @return the distribution
+         */
+        static Delay logNormal(Duration median, double sigma) {
+            double nanos = median.toNanos();
+            return random -> (long) (nanos * Math.exp(sigma * random.nextGaussian()));
+        }
+
+        /**
+         * Adds an occasional long stall to this distribution.
+         *
+         * @param probability the chance of a stall per call
+         * @param spike       the length of a stall
+         * @return the distribution
+         */
+        default Delay withSpikes(double probability, Duration spike) {
+            long nanos = spike.toNanos();
+            return random -> nextNanos(random) + (random.nextDouble() < probability ? nanos : 0);
+        }
+    }
+
+    /**
+     * The faults injected into operations whose names start with a prefix.
+     * Rates are probabilities per call; at most one of timeout, drop and failure
+     * happens to a call.
+     */
+    public static final class Rule {
+        private final String prefix;
+        private volatile Delay delay = Delay.none();
+        private volatile double timeoutRate;
+        private volatile long timeoutNanos;
+        private volatile double dropRate;
+        private volatile double failureRate;
+        private volatile double batchFailureRate;
+        private volatile long upNanos;
+        private volatile long downNanos;
+
+        private Rule(String prefix) {
+            this.prefix = prefix;
+        }
+
+        /**
+         * Delays every matching call.
+         *
+         * @param delay the delay distribution
+         * @return this rule
+         */
+        public Rule delay(Delay delay) {
+            this.delay = delay;
+            return this;
+        }
+
+        /**
+         * Makes calls time out.
+         *
+         * @param rate  the chance per call
+         * @param after how long a timed out call waits before failing
+         * @return this rule
+         */
+        public Rule timeout(double rate, Duration after) {
+            this.timeoutRate = rate;
+            this.timeoutNanos = after.toNanos();
+            return this;
+        }
+
+        /**
+         * Makes calls drop their connection. A connector call that is not made on a
+         * connection, such as {@code getConnection}, fails as if the server refused it.
+         *
+         * @param rate the chance per call
+         * @return this rule
+         */
+        public Rule drop(double rate) {
+            this.dropRate = rate;
+            return this;
+        }
+
+        /**
+         * Makes calls fail.
+         *
+         * @param rate the chance per call
+         * @return this rule
+         */
+        public Rule fail(double rate) {
+            this.failureRate = rate;
+            return this;
+        }
+
+        /**
+         * Makes batches fail part way through.
+         *
+         * @param rate the chance per non-empty batch
+         * @return this rule
+         */
+        public Rule failBatch(double rate) {
+            this.batchFailureRate = rate;
+            return this;
+        }
+
+        /**
+         * Makes the database flap: up for a while, then down for a while, repeating
+         * from the creation of the injector.
+         *
+         * @param up   how long the database stays up
+         * @param down how long the database stays down
+         * @return this rule
+         */
+        public Rule flap(Duration up, Duration down) {
+            this.upNanos = up.toNanos();
+            this.downNanos = down.toNanos();
+            return this;
+        }
+
+        private boolean isDown(long elapsedNanos) {
+            long cycle = upNanos + downNanos;
+            return downNanos > 0 && elapsedNanos % cycle >= upNanos;
+        }
+    }
+
+    private final SplittableRandom random;
+    private final List<Rule> rules = new CopyOnWriteArrayList<>();
+    private final Map<Fault, LongAdder> counts = new EnumMap<>(Fault.class);
+    private final long start = System.nanoTime();
+
+    /**
+     * Constructs a new FaultInjector without rules.
+     *
+     * @param seed the seed of the random draws
+     */
+    public FaultInjector(long seed) {
+        this.random = new SplittableRandom(seed);
+        for (Fault fault : Fault.values()) counts.put(fault, new LongAdder());
+    }
+
+    /**
+     * Adds a rule for operations whose names start with a prefix. Rules are tried in
+     * the order they were added.
+     *
+     * @param prefix the operation prefix, such as {@code sql.insert} or {@code connector.}; empty for all
+     * @return the new rule, to configure
+     */
+    public Rule on(String prefix) {
+        Rule rule = new Rule(prefix);
+        rules.add(rule);
+        return rule;
+    }
+
+    /**
+     * Removes all rules, so calls pass through unchanged.
+     */
+    public void clear() {
+        rules.clear();
+    }
+
+    /**
+     * Returns how many faults of a kind have been injected.
+     *
+     * @param fault the kind of fault
+     * @return the count
+     */
+    public long getCount(Fault fault) {
+        return counts.get(fault).sum();
+    }
+
+    /**
+     * Wraps a connector so that its calls, and the connections it returns, are subject to the rules.
+     *
+     * @param <T>    the connector interface
+     * @param target the connector to wrap
+     * @param type   the interface the proxy implements, such as {@code RealDatabaseConnection.class}
+     * @return the wrapped connector
+     */
+    public <T extends DatabaseConnector> T wrap(T target, Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> {
+                if (method.getDeclaringClass() == Object.class) return invoke(target, method, args);
+                try {
+                    inject("connector." + method.getName(), null);
+                } catch (SQLException e) {
+                    if (!declaresSqlException(method)) throw new IllegalStateException(e.getMessage(), e);
+                    throw e;
+                }
+                Object result = invoke(target, method, args);
+                // Entity writes go through the proxy, so they use the wrapped connection
+                if (result instanceof JdbcStorage) return new JdbcStorage((DatabaseConnector) proxy);
+                return result instanceof Connection ? wrap((Connection) result) : result;
+            }));
+    }
+
+    /**
+     * Wraps a connection so that its statements and transaction calls are subject to the rules.
+     *
+     * @param connection the connection to wrap, or null
+     * @return the wrapped connection, or null
+     */
+    public Connection wrap(Connection connection) {
+        if (connection == null) return null;
+        InjectedConnection handler = new InjectedConnection(connection);
+        handler.proxy = (Connection) Proxy.newProxyInstance(FaultInjector.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, handler);
+        return handler.proxy;
+    }
+
+    private void inject(String operation, InjectedConnection connection) throws SQLException {
+        Rule rule = match(operation);
+        if (rule == null) return;
+        if (rule.isDown(System.nanoTime() - start)) {
+            counts.get(Fault.OUTAGE).increment();
+            Metrics.counter("faults.outage").increment();
+            if (connection != null) connection.drop();
+            throw new SQLNonTransientConnectionException("Injected outage during " + operation,
+                STATE_CONNECTION_FAILURE);
+        }
+        long delay;
+        double draw;
+        synchronized (random) {
+            delay = rule.delay.nextNanos(random);
+            draw = random.nextDouble();
+        }
+        if (delay > 0) {
+            counts.get(Fault.DELAY).increment();
+            sleep(delay, operation);
+        }
+        if ((draw -= rule.timeoutRate) < 0) {
+            counts.get(Fault.TIMEOUT).increment();
+            Metrics.counter("faults.timeout").increment();
+            sleep(rule.timeoutNanos, operation);
+            throw new SQLTimeoutException("Injected timeout in " + operation, STATE_TIMEOUT);
+        }
+        if ((draw -= rule.dropRate) < 0) {
+            counts.get(Fault.DROP).increment();
+            Metrics.counter("faults.drop").increment();
+            if (connection != null) connection.drop();
+            throw new SQLNonTransientConnectionException("Injected connection drop in " + operation,
+                STATE_CONNECTION_FAILURE);
+        }
+        if (draw - rule.failureRate < 0) {
+            counts.get(Fault.FAILURE).increment();
+            Metrics.counter("faults.failure").increment();
+            throw new SQLTransientException("Injected failure in " + operation, STATE_FAILURE);
+        }
+    }
+
+    private Rule match(String operation) {
+        for (Rule rule : rules) {
+            if (operation.startsWith(rule.prefix)) return rule;
+        }
+        return null;
+    }
+
+    private static void sleep(long nanos, String operation) throws SQLException {
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTimeoutException("Interrupted during " + operation, STATE_TIMEOUT, e);
+        }
+    }
+
+    private static boolean declaresSqlException(Method method) {
+        for (Class<?> type : method.getExceptionTypes()) {
+            if (type.isAssignableFrom(SQLException.class)) return true;
+        }
+        return false;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class InjectedConnection implements InvocationHandler {
+        private final Connection connection;
+        private Connection proxy;
+        private volatile boolean dropped;
+
+        InjectedConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        void drop() {
+            if (dropped) return;
+            dropped = true;
+            // The server abandons an open transaction when the client goes away
+            try {
+                if (!connection.getAutoCommit()) connection.rollback();
+            } catch (SQLException e) {
+                // already unusable
+            }
+        }
+
+        void checkOpen() throws SQLException {
+            if (dropped) throw new SQLNonTransientConnectionException("Connection was dropped", STATE_NO_CONNECTION);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "isClosed":
+                    return dropped || connection.isClosed();
+                case "isValid":
+                    return !dropped && connection.isValid((Integer) args[0]);
+                case "close":
+                case "unwrap":
+                case "isWrapperFor":
+                case "equals":
+                case "hashCode":
+                case "toString":
+                    return FaultInjector.invoke(connection, method, args);
+                case "commit":
+                case "rollback":
+                case "setSavepoint":
+                case "releaseSavepoint":
+                    checkOpen();
+                    inject("connection." + method.getName(), this);
+                    return FaultInjector.invoke(connection, method, args);
+                default:
+                    checkOpen();
+                    Object result = FaultInjector.invoke(connection, method, args);
+                    if (result instanceof Statement) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                        return wrapStatement((Statement) result, sql);
+                    }
+                    return result;
+            }
+        }
+
+        private Statement wrapStatement(Statement statement, String sql) {
+            Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            return (Statement) Proxy.newProxyInstance(FaultInjector.class.getClassLoader(), new Class<?>[] {type},
+                new InjectedStatement(this, statement, sql));
+        }
+    }
+
+    private final class InjectedStatement implements InvocationHandler {
+        private final InjectedConnection owner;
+        private final Statement statement;
+        private final String sql;
+        /** Parameter setter calls since the last batch entry, by parameter index. */
+        private final Map<Integer, Object[]> parameters = new LinkedHashMap<>();
+        /** Batch entries: SQL strings, or lists of parameter setter calls. */
+        private final List<Object> batch = new ArrayList<>();
+
+        InjectedStatement(InjectedConnection owner, Statement statement, String sql) {
+            this.owner = owner;
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close") || name.equals("isClosed") || method.getDeclaringClass() == Object.class) {
+                return FaultInjector.invoke(statement, method, args);
+            }
+            owner.checkOpen();
+            if (name.equals("getConnection")) return owner.proxy;
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                    && statement instanceof PreparedStatement) {
+                parameters.put((Integer) args[0], new Object[] {method, args});
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch")) {
+                batch.add(args == null ? new ArrayList<>(parameters.values()) : args[0]);
+            } else if (name.equals("clearBatch")) {
+                batch.clear();
+            } else if (name.equals("executeBatch")) {
+                try {
+                    inject(sql != null ? Metrics.sqlMetricName(sql) : "sql.batch", owner);
+                    return executeBatch(sql != null ? Metrics.sqlMetricName(sql) : "sql.batch");
+                } finally {
+                    batch.clear();
+                }
+            } else if (name.startsWith("execute")) {
+                String statementSql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+                inject(statementSql != null ? Metrics.sqlMetricName(statementSql) : "sql.batch", owner);
+            }
+            return FaultInjector.invoke(statement, method, args);
+        }
+
+        @SuppressWarnings("unchecked")
+        private int[] executeBatch(String operation) throws Throwable {
+            Rule rule = match(operation);
+            int failAt = -1;
+            if (rule != null && !batch.isEmpty()) {
+                synchronized (random) {
+                    if (random.nextDouble() < rule.batchFailureRate) failAt = random.nextInt(batch.size());
+                }
+            }
+            if (failAt < 0) return statement.executeBatch();
+
+            // Run only the entries before the failing one
+            statement.clearBatch();
+            for (int i = 0; i < failAt; i++) {
+                Object entry = batch.get(i);
+                if (entry instanceof String) {
+                    statement.addBatch((String) entry);
+                } else {
+                    for (Object[] call : (List<Object[]>) entry) {
+                        FaultInjector.invoke(statement, (Method) call[0], (Object[]) call[1]);
+                    }
+                    ((PreparedStatement) statement).addBatch();
+                }
+            }
+            int[] updateCounts = failAt > 0 ? statement.executeBatch() : new int[0];
+            counts.get(Fault.BATCH_FAILURE).increment();
+            Metrics.counter("faults.batch_failure").increment();
+            throw new BatchUpdateException("Injected failure at batch entry " + (failAt + 1) + " of " + batch.size()
+                + " in " + operation, STATE_FAILURE, updateCounts);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package edu.ucalgary.oop;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * A change log kept in a local file, for desks without a database and for tests.
+ * <p>
+ * Each event is framed by its length and a CRC-32C checksum. Opening the log reads it
+ * through once to find the last sequence number; a frame that is cut short or fails its
+ * checksum is a write torn by a crash, and it and everything after it are truncated.
+ * Appends reach the operating system at once and the disk on {@link #sync()} or
+ * {@link #close()}.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class FileChangeLog implements ChangeLog {
+    private static final int FRAME_HEADER = 8;
+
+    private final Path file;
+    private final FileChannel channel;
+    private long lastSequence;
+    private long end;
+
+    /**
+     * Opens the log in a file, creating the file if needed.
+     *
+     * @param file the log file
+     * @throws IOException if the file cannot be read or created
+     */
+    public FileChangeLog(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        end = scan(channel.size(), event -> lastSequence = event.getSequence());
+        if (end < channel.size()) {
+            DatabaseConnector.logError("Discarding a torn change event at offset " + end + " of " + file,
+                new IOException("Checksum mismatch"));
+            channel.truncate(end);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ChangeEvent append(Table table, long key,
+                                           ChangeEvent.Operation operation, Map<String, Object> values)
+            throws IOException {
+        ChangeEvent event = new ChangeEvent(lastSequence + 1, LocalDateTime.now(), table, key, operation, values);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            event.writeTo(out);
+        }
+        byte[] payload = bytes.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + payload.length);
+        frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        long position = end;
+        while (frame.hasRemaining()) {
+            position += channel.write(frame, position);
+        }
+        end = position;
+        lastSequence = event.getSequence();
+        return event;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long replay(long afterSequence, Consumer<ChangeEvent> consumer) throws IOException {
+        long limit;
+        synchronized (this) {
+            limit = end;
+        }
+        long[] last = {afterSequence};
+        scan(limit, event -> {
+            if (event.getSequence() > afterSequence) {
+                consumer.accept(event);
+                last[0] = event.getSequence();
+            }
+        });
+        return last[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Writes the appended events to disk, so they survive a crash of the machine.
+     *
+     * @throws IOException if the file cannot be synced
+     */
+    public void sync() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Syncs and closes the file.
+     *
+     * @throws IOException if the file cannot be synced or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) return;
+        channel.force(false);
+        channel.close();
+    }
+
+    /**
+     * Reads the valid frames before a limit.
+     *
+     * @return the offset after the last valid frame
+     */
+    private long scan(long limit, Consumer<ChangeEvent> consumer) throws IOException {
+        long offset = 0;
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(reader)))) {
+            CRC32C crc = new CRC32C();
+            while (offset + FRAME_HEADER <= limit) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || length > limit - offset - FRAME_HEADER) break;
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) break;
+                consumer.accept(ChangeEvent.readFrom(new DataInputStream(new ByteArrayInputStream(payload))));
+                offset += FRAME_HEADER + length;
+            }
+        } catch (EOFException e) {
+            // A frame cut short ends the log
+        }
+        return offset;
+    }
+}
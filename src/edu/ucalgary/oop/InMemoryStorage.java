@@ -0,0 +1,301 @@
+package edu.ucalgary.oop;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The storage engine that keeps every change in memory and never writes to a database,
+ * for training sessions, demonstrations and tests. It starts from the data the connector
+ * loaded and hands out IDs above the highest loaded ones; stored rows are copied from the
+ * connector's entities the first time they are written or read.
+ * <p>
+ * The engine checks the references a database would check, so saving a person at an
+ * unknown location fails as it would with {@link JdbcStorage}. All repositories share one
+ * lock.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class InMemoryStorage implements Storage {
+    /** The name this engine is chosen by. */
+    public static final String NAME = "memory";
+
+    private final DatabaseConnector db;
+    private final Map<Integer, Row> personRows = new HashMap<>();
+    private final Map<Integer, Set<Integer>> personLocations = new HashMap<>();
+    private final Map<Integer, Row> supplyRows = new HashMap<>();
+    private final Map<Integer, Set<Integer>> supplyLocations = new HashMap<>();
+    private final List<Allocation> personAllocations = new ArrayList<>();
+    private final Map<Integer, String> inquiryComments = new HashMap<>();
+    private int nextPersonId;
+    private int nextInquiryId;
+    private int lastFamilyGroupId;
+
+    private final PersonRepository persons = new Persons();
+    private final SupplyRepository supplies = new Supplies();
+    private final InquiryRepository inquiries = new Inquiries();
+
+    /**
+     * Constructs a new InMemoryStorage starting from the connector's loaded data.
+     *
+     * @param db the connector whose data the engine starts from
+     */
+    public InMemoryStorage(DatabaseConnector db) {
+        this.db = db;
+        nextPersonId = maxKey(db.getPersons()) + 1;
+        nextInquiryId = maxKey(db.getInquiries()) + 1;
+        lastFamilyGroupId = maxKey(db.getFamilyGroups());
+        for (Map.Entry<Integer, Location> entry : db.getLocations().entrySet()) {
+            for (DisasterVictim occupant : entry.getValue().getOccupants()) {
+                personLocations.computeIfAbsent(occupant.getId(), k -> new HashSet<>()).add(entry.getKey());
+            }
+            for (Supply supply : entry.getValue().getSupplies()) {
+                supplyLocations.computeIfAbsent(supply.getId(), k -> new HashSet<>()).add(entry.getKey());
+            }
+        }
+        for (Person person : db.getPersons().values()) {
+            for (Supply supply : person.getAllocatedSupplies()) {
+                LocalDateTime date = supply instanceof Water ? ((Water) supply).getAllocationDate() : null;
+                personAllocations.add(new Allocation(supply.getId(), person.getId(), date));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PersonRepository persons() {
+        return persons;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SupplyRepository supplies() {
+        return supplies;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InquiryRepository inquiries() {
+        return inquiries;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    private Row personRow(int personId) {
+        return personRows.computeIfAbsent(personId, id -> {
+            Person person = db.getPersons().get(id);
+            return person == null ? null : new Row(personValues(person), person.getVersion());
+        });
+    }
+
+    private Row supplyRow(int supplyId) {
+        return supplyRows.computeIfAbsent(supplyId, id -> {
+            Supply supply = db.getSupplies().get(id);
+            return supply == null ? null : new Row(new String[] {supply.getType(), supply.getComments()},
+                supply.getVersion());
+        });
+    }
+
+    private void requireLocation(int locationId) throws SQLException {
+        if (!db.getLocations().containsKey(locationId)) throw new SQLException("Invalid location ID: " + locationId);
+    }
+
+    private static int maxKey(Map<Integer, ?> map) {
+        return map.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    private static String[] personValues(Person person) {
+        return new String[] {person.getFirstName(), person.getLastName(), person.getPhoneNumber(),
+            person.getGender(), person.getDateOfBirth()};
+    }
+
+    /**
+     * A stored row: its values and version.
+     */
+    private static final class Row {
+        private String[] values;
+        private int version;
+
+        Row(String[] values, int version) {
+            this.values = values;
+            this.version = version;
+        }
+    }
+
+    /**
+     * An allocation of a supply to a person, at a time or at an unknown time.
+     */
+    private static final class Allocation {
+        private final int supplyId;
+        private final int personId;
+        private final LocalDateTime date;
+
+        Allocation(int supplyId, int personId, LocalDateTime date) {
+            this.supplyId = supplyId;
+            this.personId = personId;
+            this.date = date;
+        }
+    }
+
+    private final class Persons implements PersonRepository {
+        @Override
+        public int insert(Person person, int familyGroupId, String comments) {
+            synchronized (InMemoryStorage.this) {
+                int personId = nextPersonId++;
+                personRows.put(personId, new Row(personValues(person), 0));
+                lastFamilyGroupId = Math.max(lastFamilyGroupId, familyGroupId);
+                return personId;
+            }
+        }
+
+        @Override
+        public void addToLocation(int personId, int locationId) throws SQLException {
+            synchronized (InMemoryStorage.this) {
+                if (personRow(personId) == null) throw new SQLException("Invalid person ID: " + personId);
+                requireLocation(locationId);
+                if (!personLocations.computeIfAbsent(personId, k -> new HashSet<>()).add(locationId)) {
+                    throw new SQLException("Person " + personId + " is already at location " + locationId);
+                }
+            }
+        }
+
+        @Override
+        public boolean update(Person person, int version) {
+            synchronized (InMemoryStorage.this) {
+                Row row = personRow(person.getId());
+                if (row == null || row.version != version) return false;
+                row.values = personValues(person);
+                row.version++;
+                return true;
+            }
+        }
+
+        @Override
+        public int read(int personId, String[] values) throws SQLException {
+            synchronized (InMemoryStorage.this) {
+                Row row = personRow(personId);
+                if (row == null) throw new SQLException("Person not found with ID: " + personId);
+                System.arraycopy(row.values, 0, values, 0, row.values.length);
+                return row.version;
+            }
+        }
+
+        @Override
+        public int nextFamilyGroupId() {
+            synchronized (InMemoryStorage.this) {
+                return lastFamilyGroupId + 1;
+            }
+        }
+    }
+
+    private final class Supplies implements SupplyRepository {
+        @Override
+        public boolean update(Supply supply, int version) {
+            synchronized (InMemoryStorage.this) {
+                Row row = supplyRow(supply.getId());
+                if (row == null || row.version != version) return false;
+                row.values = new String[] {supply.getType() != null ? supply.getType() : "", supply.getComments()};
+                row.version++;
+                return true;
+            }
+        }
+
+        @Override
+        public int read(int supplyId, String[] values) throws SQLException {
+            synchronized (InMemoryStorage.this) {
+                Row row = supplyRow(supplyId);
+                if (row == null) throw new SQLException("Supply not found with ID: " + supplyId);
+                System.arraycopy(row.values, 0, values, 0, row.values.length);
+                return row.version;
+            }
+        }
+
+        @Override
+        public void allocateToPerson(int supplyId, int personId) throws SQLException {
+            synchronized (InMemoryStorage.this) {
+                if (supplyRow(supplyId) == null) throw new SQLException("Invalid supply ID: " + supplyId);
+                if (personRow(personId) == null) throw new SQLException("Invalid person ID: " + personId);
+                personAllocations.add(new Allocation(supplyId, personId, LocalDateTime.now()));
+            }
+        }
+
+        @Override
+        public void allocateToLocation(int supplyId, int locationId) throws SQLException {
+            synchronized (InMemoryStorage.this) {
+                if (supplyRow(supplyId) == null) throw new SQLException("Invalid supply ID: " + supplyId);
+                requireLocation(locationId);
+                supplyLocations.computeIfAbsent(supplyId, k -> new HashSet<>()).add(locationId);
+            }
+        }
+
+        @Override
+        public boolean isAtPersonLocation(int supplyId, int personId) {
+            synchronized (InMemoryStorage.this) {
+                Set<Integer> at = supplyLocations.get(supplyId);
+                Set<Integer> stays = personLocations.get(personId);
+                return at != null && stays != null && !Collections.disjoint(at, stays);
+            }
+        }
+
+        @Override
+        public int removeExpiredWater() {
+            synchronized (InMemoryStorage.this) {
+                LocalDateTime cutoff = LocalDateTime.now().minusDays(1);
+                int removed = 0;
+                for (Iterator<Allocation> it = personAllocations.iterator(); it.hasNext(); ) {
+                    Allocation allocation = it.next();
+                    Row supply = supplyRow(allocation.supplyId);
+                    if (supply != null && "water".equals(supply.values[0])
+                            && allocation.date != null && allocation.date.isBefore(cutoff)) {
+                        it.remove();
+                        removed++;
+                    }
+                }
+                return removed;
+            }
+        }
+    }
+
+    private final class Inquiries implements InquiryRepository {
+        @Override
+        public int insert(Inquiry inquiry, int locationId) throws SQLException {
+            synchronized (InMemoryStorage.this) {
+                requireLocation(locationId);
+                int inquiryId = nextInquiryId++;
+                inquiryComments.put(inquiryId, inquiry.getInquiryMessage());
+                return inquiryId;
+            }
+        }
+
+        @Override
+        public void updateComments(int inquiryId, String comments) {
+            synchronized (InMemoryStorage.this) {
+                if (inquiryComments.containsKey(inquiryId) || db.getInquiries().containsKey(inquiryId)) {
+                    inquiryComments.put(inquiryId, comments);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package edu.ucalgary.oop;
+
+/**
+ * A check applied to a single field of user or imported input.
+ * <p>
+ * Implementations must be stateless so a single instance can be shared by the
+ * CLI and by concurrent import workers.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see Validators
+ */
+@FunctionalInterface
+public interface InputValidator {
+    /**
+     * Checks whether the input is acceptable.
+     *
+     * @param input the input to check, may be null
+     * @return true if the input is valid, false otherwise
+     */
+    boolean isValid(CharSequence input);
+}
@@ -1,9 +1,9 @@
 package edu.ucalgary.oop;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Represents an inquirer in the disaster management system, extending the Person class.
@@ -91,7 +91,7 @@ public class Inquirer extends Person {
         displayInquirerList(ui, persons);
         String input = ui.getValidatedInput(
             ui.getLanguageSupport().getText("select_inquirer_id"),
-            "\\d+",
+            Validators.ID,
             ui.getLanguageSupport().getText("invalid_input")
         );
         if (input == null) {
@@ -119,29 +119,25 @@ public class Inquirer extends Person {
      * @param persons the map of all persons in the system, keyed by their ID
      */
     public void displayInquirerList(UserInterfaceImplied ui, Map<Integer, Person> persons) {
-        System.out.println("\n" + ui.getLanguageSupport().getText("inquirer_table_header"));
-        System.out.println("+" + "-".repeat(20) + "+" + "-".repeat(30) + "+" + "-".repeat(40) + "+");
-        System.out.printf("| %-18s | %-28s | %-38s |\n", 
-            ui.getLanguageSupport().getText("inquirer_table_id"),
-            ui.getLanguageSupport().getText("inquirer_table_name"),
-            ui.getLanguageSupport().getText("inquirer_table_message")
-        );
-        System.out.println("+" + "-".repeat(20) + "+" + "-".repeat(30) + "+" + "-".repeat(40) + "+");
-        persons.forEach((id, person) -> {
-            if (person instanceof Inquirer) {
-                Inquirer inquirer = (Inquirer) person;
+        ui.getOut().println("\n" + ui.getLanguageSupport().getText("inquirer_table_header"));
+        String noMessage = ui.getLanguageSupport().getText("no_message");
+        Iterator<String[]> rows = new TreeMap<>(persons).entrySet().stream()
+            .filter(entry -> entry.getValue() instanceof Inquirer)
+            .map(entry -> {
+                Inquirer inquirer = (Inquirer) entry.getValue();
                 String message = inquirer.getInquiryMessage();
-                if (message != null && message.length() > 35) {
-                    message = message.substring(0, 35) + "...";
-                }
-                System.out.printf("| %-18d | %-28s | %-38s |\n", 
-                    id, 
+                return new String[] {
+                    String.valueOf(entry.getKey()),
                     inquirer.getFullName(),
-                    message != null ? message : ui.getLanguageSupport().getText("no_message")
-                );
-            }
-        });
-        System.out.println("+" + "-".repeat(20) + "+" + "-".repeat(30) + "+" + "-".repeat(40) + "+");
+                    message != null ? message : noMessage
+                };
+            })
+            .iterator();
+        ui.newTable()
+            .addColumn(ui.getLanguageSupport().getText("inquirer_table_id"), 18)
+            .addColumn(ui.getLanguageSupport().getText("inquirer_table_name"), 28)
+            .addColumn(ui.getLanguageSupport().getText("inquirer_table_message"), 38)
+            .render(rows);
     }
 
     /**
@@ -154,35 +150,38 @@ public class Inquirer extends Person {
     public Inquirer createInquirer(UserInterfaceImplied ui) {
         String firstName = ui.getValidatedInput(
             ui.getLanguageSupport().getText("inquirer_firstname"),
-            "^[a-zA-Z]+$",
+            Validators.LETTERS,
             ui.getLanguageSupport().getText("invalid_firstname")
         );
         if (firstName == null) return null;
 
         String lastName = ui.getValidatedInput(
             ui.getLanguageSupport().getText("inquirer_lastname"),
-            "^[a-zA-Z]+$",
+            Validators.LETTERS,
             ui.getLanguageSupport().getText("invalid_lastname")
         );
         if (lastName == null) return null;
 
         String phoneNumber = ui.getValidatedInput(
             ui.getLanguageSupport().getText("inquirer_phone"),
-            "\\d{10}",
+            Validators.PHONE_DIGITS,
             ui.getLanguageSupport().getText("invalid_phone_format")
         );
         if (phoneNumber == null) return null;
+        if (!DuplicateDetector.confirmNotDuplicate(ui, new Inquirer(firstName, lastName, phoneNumber, "", false))) {
+            return null;
+        }
 
         String inquiryMessage = ui.getValidatedInput(
             ui.getLanguageSupport().getText("inquirer_message"),
-            ".+",
+            Validators.NON_EMPTY,
             ui.getLanguageSupport().getText("empty_message")
         );
         if (inquiryMessage == null) return null;
 
         String isVictimInput = ui.getValidatedInput(
             ui.getLanguageSupport().getText("inquirer_is_victim"),
-            "yes|no",
+            Validators.YES_NO,
             ui.getLanguageSupport().getText("invalid_yes_no")
         );
         if (isVictimInput == null) return null;
@@ -192,7 +191,7 @@ public class Inquirer extends Person {
         try {
             int id = saveInquirerToDatabase(ui, inquirer);
             inquirer.setId(id);
-            ui.getPersons().put(id, inquirer);
+            ui.addPerson(id, inquirer);
             ui.showSuccess(String.format(
                 ui.getLanguageSupport().getText("inquirer_created"),
                 id
@@ -216,21 +215,7 @@ public class Inquirer extends Person {
      * @throws SQLException if a database access error occurs
      */
     private int saveInquirerToDatabase(UserInterfaceImplied ui, Inquirer inquirer) throws SQLException {
-        String sql = "INSERT INTO Person (first_name, last_name, phone_number, comments, is_victim) " +
-                     "VALUES (?, ?, ?, ?, ?) RETURNING person_id";
-        try (PreparedStatement ps = ui.getDbConnection().getConnection().prepareStatement(sql)) {
-            ps.setString(1, inquirer.getFirstName());
-            ps.setString(2, inquirer.getLastName());
-            ps.setString(3, inquirer.getPhoneNumber());
-            ps.setString(4, inquirer.getInquiryMessage());
-            ps.setBoolean(5, inquirer.isVictim());
-            
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("person_id");
-            }
-            throw new SQLException("Failed to retrieve generated ID");
-        }
+        return ui.getDbConnection().getStorage().persons().insert(inquirer, 0, inquirer.getInquiryMessage());
     }
 
     /**
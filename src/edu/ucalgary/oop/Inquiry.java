@@ -57,8 +57,19 @@ public class Inquiry {
      * 
      * @return the inquirer object
      */
-    public Inquirer getInquirer() { 
-        return inquirer; 
+    public Inquirer getInquirer() {
+        return inquirer;
+    }
+
+    /**
+     * Sets the inquirer who made this inquiry, as when their record is merged into another.
+     *
+     * @param inquirer the inquirer
+     * @throws NullPointerException if inquirer is null
+     */
+    public void setInquirer(Inquirer inquirer) {
+        if (inquirer == null) throw new NullPointerException("Inquirer cannot be null");
+        this.inquirer = inquirer;
     }
     
     /**
@@ -69,6 +80,17 @@ public class Inquiry {
     public String getInquiryMessage() { 
         return inquiryMessage; 
     }
+
+    /**
+     * Sets the message content of this inquiry.
+     * 
+     * @param inquiryMessage the new inquiry message
+     * @throws NullPointerException if inquiryMessage is null
+     */
+    public void setInquiryMessage(String inquiryMessage) { 
+        if (inquiryMessage == null) throw new NullPointerException("Message cannot be null");
+        this.inquiryMessage = inquiryMessage; 
+    }
     
     /**
      * Sets the ID of the person being sought in this inquiry.
@@ -98,8 +120,8 @@ public class Inquiry {
     public void logInquiry(UserInterfaceImplied ui) {
         try {
             ui.showPrompt(ui.getLanguageSupport().getText("inquiry_type"));
-            System.out.println("1. External Inquirer");
-            System.out.println("2. Disaster Victim");
+            ui.getOut().println("1. External Inquirer");
+            ui.getOut().println("2. Disaster Victim");
             String type = ui.getValidatedInput("Enter your choice (1 or 2): ", "1|2", "Invalid choice. Please enter 1 or 2.");
 
             Inquirer inquirer = null;
@@ -118,16 +140,22 @@ public class Inquiry {
                 }
             } else {
                 // Create a new External Inquirer
-                String firstName = ui.getValidatedInput("Enter first name: ", "^[a-zA-Z\\s'-]+$", "Invalid first name.");
+                String firstName = ui.getValidatedInput("Enter first name: ", Validators.CALLER_NAME, "Invalid first name.");
                 if (firstName == null) return;
-                String lastName = ui.getValidatedInput("Enter last name: ", "^[a-zA-Z\\s'-]+$", "Invalid last name.");
+                String lastName = ui.getValidatedInput("Enter last name: ", Validators.CALLER_NAME, "Invalid last name.");
                 if (lastName == null) return;
-                String phone = ui.getValidatedInput("Enter phone number (e.g., 1234567890): ", "\\d{10}", "Invalid phone number.");
+                String phone = ui.getValidatedInput("Enter phone number (e.g., 1234567890): ", Validators.PHONE_DIGITS, "Invalid phone number.");
                 if (phone == null) return;
-                inquirer = new Inquirer(firstName, lastName, phone, "", false);
-                int id = savePersonToDatabase(inquirer, null, 0, 0, ui.getDbConnection());
-                inquirer.setId(id);
-                ui.getPersons().put(id, inquirer);
+                inquirer = findExistingInquirer(ui, firstName, lastName, phone);
+                if (inquirer == null) {
+                    inquirer = new Inquirer(firstName, lastName, phone, "", false);
+                    int id = ui.getDbConnection().getStorage().persons().insert(inquirer, 0, null);
+                    inquirer.setId(id);
+                    ui.addPerson(id, inquirer);
+                } else {
+                    ui.showSuccess(String.format(ui.getLanguageSupport().getText("existing_inquirer_found"),
+                        inquirer.getFullName(), inquirer.getId()));
+                }
             }
 
             // Select the person being inquired about
@@ -135,16 +163,16 @@ public class Inquiry {
             if (seekingId == -1) return;
 
             // Get inquiry details.
-            String details = ui.getValidatedInput("Enter inquiry details: ", ".+", "Inquiry details cannot be empty.");
+            String details = ui.getValidatedInput("Enter inquiry details: ", Validators.NON_EMPTY, "Inquiry details cannot be empty.");
             if (details == null) return;
             inquirer.setInquiryMessage(details);
 
             // Save the new inquiry.
             Inquiry inquiry = new Inquiry(inquirer, details);
             inquiry.setSeekingId(seekingId);
-            int inquiryId = saveInquiryToDatabase(inquiry, ui.getDbConnection(), ui);
-            inquiry.setId(inquiryId);
-            ui.getInquiries().put(inquiryId, inquiry);
+            // Uses helper method to select a location.
+            inquiry.saveNew(ui.getDbConnection(), selectLocation(ui));
+            inquiry.addToModel(ui.getModel());
             ui.showSuccess(ui.getLanguageSupport().getText("inquiry_logged"));
         } catch (SQLException e) {
             ui.displayError(ui.getLanguageSupport().getText("error_logging_inquiry"));
@@ -162,7 +190,7 @@ public class Inquiry {
             // Ask the user for the new inquiry details.
             String newDetails = ui.getValidatedInput(
                     ui.getLanguageSupport().getText("input_edit_inquiry"),
-                    ".+",
+                    Validators.NON_EMPTY,
                     ui.getLanguageSupport().getText("invalid_inquiry")
             );
             if (newDetails == null) return;
@@ -185,37 +213,57 @@ public class Inquiry {
      * @throws SQLException if a database access error occurs
      */
     private void updateDatabase(UserInterfaceImplied ui) throws SQLException {
-        String sql = "UPDATE Inquiry SET comments = ? WHERE inquiry_id = ?";
-        try (PreparedStatement ps = ui.getDbConnection().getConnection().prepareStatement(sql)) {
-            ps.setString(1, this.inquiryMessage);
-            ps.setInt(2, this.id);
-            ps.executeUpdate();
-        }
+        ui.getDbConnection().getStorage().inquiries().updateComments(this.id, this.inquiryMessage);
     }
 
     /**
-     * Saves a new inquiry to the database.
+     * Saves this new inquiry to the database without prompting, saving its inquirer
+     * first if they have no ID yet. Shared by the interactive menu and batch mode.
      * 
-     * @param inquiry the inquiry object to save
      * @param db the database connection
-     * @param ui the user interface implementation
+     * @param locationId the ID of the location the inquiry was made at
      * @return the generated ID of the newly saved inquiry
      * @throws SQLException if a database access error occurs
      */
-    private int saveInquiryToDatabase(Inquiry inquiry, DatabaseConnector db, UserInterfaceImplied ui) throws SQLException {
-        PreparedStatement ps = db.getConnection().prepareStatement(
-                "INSERT INTO Inquiry (inquirer_id, seeking_id, location_id, date_of_inquiry, comments) " +
-                "VALUES (?, ?, ?, CURRENT_TIMESTAMP, ?) RETURNING inquiry_id");
-        if (inquiry.getInquirer() == null)
-            ps.setNull(1, Types.INTEGER);
-        else 
-            ps.setInt(1, inquiry.getInquirer().getId());
-        ps.setInt(2, inquiry.getSeekingId());
-        ps.setInt(3, selectLocation(ui)); // Uses helper method to select a location.
-        ps.setString(4, inquiry.getInquiryMessage());
-        ResultSet rs = ps.executeQuery();
-        rs.next();
-        return rs.getInt("inquiry_id");
+    public int saveNew(DatabaseConnector db, int locationId) throws SQLException {
+        if (inquirer.getId() == 0) {
+            inquirer.setId(db.getStorage().persons().insert(inquirer, 0, null));
+        }
+        setId(db.getStorage().inquiries().insert(this, locationId));
+        return id;
+    }
+
+    /**
+     * Adds this saved inquiry, and its inquirer if they are new, to the in-memory model.
+     * 
+     * @param model the model to add the inquiry to
+     */
+    public void addToModel(ReliefModel model) {
+        if (!model.getPersons().containsKey(inquirer.getId())) {
+            model.addPerson(inquirer.getId(), inquirer);
+        }
+        model.getInquiries().put(id, this);
+    }
+
+    /**
+     * Looks up an inquirer already registered with the caller's phone number and name,
+     * so repeat callers are not saved again.
+     * 
+     * @param ui the user interface implementation
+     * @param firstName the caller's first name
+     * @param lastName the caller's last name
+     * @param phone the caller's phone number
+     * @return the existing inquirer, or null if there is none
+     */
+    private Inquirer findExistingInquirer(UserInterfaceImplied ui, String firstName, String lastName, String phone) {
+        for (Person person : ui.findPersonsByPhone(phone)) {
+            if (person instanceof Inquirer
+                    && firstName.equalsIgnoreCase(person.getFirstName())
+                    && lastName.equalsIgnoreCase(person.getLastName())) {
+                return (Inquirer) person;
+            }
+        }
+        return null;
     }
 
     /**
@@ -240,43 +288,6 @@ public class Inquiry {
         }
     }
 
-    /**
-     * Saves a person to the database.
-     * 
-     * @param person the person object to save
-     * @param gender the gender of the person
-     * @param familyGroupId the ID of the family group the person belongs to (0 if none)
-     * @param locationId the ID of the person's location (0 if none)
-     * @param db the database connection
-     * @return the generated ID of the newly saved person
-     * @throws SQLException if a database access error occurs
-     */
-    private int savePersonToDatabase(Person person, String gender, int familyGroupId, int locationId, DatabaseConnector db) throws SQLException {
-        PreparedStatement ps = db.getConnection().prepareStatement(
-                "INSERT INTO Person (first_name, last_name, gender, phone_number, family_group) " +
-                "VALUES (?, ?, ?, ?, ?) RETURNING person_id");
-        ps.setString(1, person.getFirstName());
-        ps.setString(2, person.getLastName());
-        ps.setString(3, gender);
-        ps.setString(4, person.getPhoneNumber());
-        if (familyGroupId == 0)
-            ps.setNull(5, Types.INTEGER);
-        else 
-            ps.setInt(5, familyGroupId);
-        ResultSet rs = ps.executeQuery();
-        rs.next();
-        int personId = rs.getInt("person_id");
-
-        if (locationId != 0) {
-            ps = db.getConnection().prepareStatement(
-                    "INSERT INTO PersonLocation (person_id, location_id) VALUES (?, ?)");
-            ps.setInt(1, personId);
-            ps.setInt(2, locationId);
-            ps.executeUpdate();
-        }
-        return personId;
-    }
-
     /**
      * Prompts the user to select a location from the system.
      * 
@@ -292,7 +303,7 @@ public class Inquiry {
         final int MAX_RETRIES = 3;
         while (attempts < MAX_RETRIES) {
             ui.getLocations().forEach((id, loc) -> 
-                    System.out.println(id + ". " + loc.getName() + " (" + loc.getAddress() + ")"));
+                    ui.getOut().println(id + ". " + loc.getName() + " (" + loc.getAddress() + ")"));
             ui.showPrompt(ui.getLanguageSupport().getText("select_location"));
             try {
                 int id = Integer.parseInt(ui.getInput());
@@ -316,7 +327,7 @@ public class Inquiry {
      */
     public void viewInquiries(UserInterfaceImplied ui) {
         ui.getInquiries().forEach((id, inquiry) ->
-            System.out.println(id + ". " + inquiry.getInquiryMessage() +
+            ui.getOut().println(id + ". " + inquiry.getInquiryMessage() +
                 " (By: " + (inquiry.getInquirer() != null ? inquiry.getInquirer().getFullName() : "External") +
                 ", Seeking: " + ui.getPersons().get(inquiry.getSeekingId()).getFullName() + ")"));
     }
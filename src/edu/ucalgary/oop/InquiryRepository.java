@@ -0,0 +1,32 @@
+package edu.ucalgary.oop;
+
+import java.sql.SQLException;
+
+/**
+ * Stores inquiries about missing people.
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see Storage
+ */
+public interface InquiryRepository {
+    /**
+     * Saves a new inquiry, made now.
+     *
+     * @param inquiry    the inquiry to save; its inquirer must already be saved
+     * @param locationId the ID of the location the inquiry was made at
+     * @return the ID of the saved inquiry
+     * @throws SQLException if the inquiry cannot be saved
+     */
+    int insert(Inquiry inquiry, int locationId) throws SQLException;
+
+    /**
+     * Replaces the comments of an inquiry.
+     *
+     * @param inquiryId the ID of the inquiry
+     * @param comments  the new comments
+     * @throws SQLException if the inquiry cannot be written
+     */
+    void updateComments(int inquiryId, String comments) throws SQLException;
+}
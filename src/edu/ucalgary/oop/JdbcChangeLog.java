@@ -0,0 +1,247 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A change log kept in the {@code ChangeEvent} table of the connector's database, so
+ * every desk writing to that database shares one log. The table is created if it does
+ * not exist.
+ * <p>
+ * Events are written over the connector's own connection, so an event is committed or
+ * rolled back together with the change it records when both run in one transaction.
+ * Sequence numbers come from the table's serial column. They are assigned when an event
+ * is inserted, so while another desk's transaction is open a later event may become
+ * visible before an earlier one; a {@link ChangeFeed} waits for such gaps to fill.
+ * </p>
+ * <p>
+ * Events are read a page of {@value #PAGE_SIZE} at a time, each page its own query, so
+ * a long log is never held in memory whatever the driver does with fetch sizes.
+ * </p>
+ * <p>
+ * On PostgreSQL a trigger on the table notifies the {@code change_event} channel of every
+ * event, so a feed can wait for {@link #listen()} instead of polling.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class JdbcChangeLog implements ChangeLog {
+    private static final String CREATE_SQL = "CREATE TABLE IF NOT EXISTS ChangeEvent ("
+        + "sequence BIGSERIAL PRIMARY KEY, changed_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP, "
+        + "table_name VARCHAR NOT NULL, row_key BIGINT NOT NULL, operation VARCHAR NOT NULL, changes BYTEA)";
+    private static final String NOTIFY_SQL = "CREATE OR REPLACE FUNCTION change_event_notify() RETURNS trigger AS $$ "
+        + "BEGIN PERFORM pg_notify('change_event', NEW.sequence::text); RETURN NEW; END; $$ LANGUAGE plpgsql";
+    private static final String TRIGGER_SQL = "CREATE TRIGGER change_event_notify AFTER INSERT ON ChangeEvent "
+        + "FOR EACH ROW EXECUTE FUNCTION change_event_notify()";
+    /** The most events read by one query. */
+    public static final int PAGE_SIZE = 500;
+
+    private final DatabaseConnector db;
+    private final Connection connection;
+
+    /**
+     * Constructs a new JdbcChangeLog, creating its table if needed.
+     *
+     * @param db the connector whose database keeps the log
+     * @throws SQLException if the table cannot be created
+     */
+    public JdbcChangeLog(DatabaseConnector db) throws SQLException {
+        this.db = db;
+        this.connection = null;
+        try (Statement stmt = connection().createStatement()) {
+            stmt.executeUpdate(CREATE_SQL);
+        }
+    }
+
+    /**
+     * Constructs a new JdbcChangeLog on a connection of its own, for a reader such as a
+     * {@link ChangeFeed} that should not share the connector's connection. The log closes
+     * the connection.
+     *
+     * @param connection the connection to the database keeping the log
+     * @throws SQLException if the table cannot be created
+     */
+    public JdbcChangeLog(Connection connection) throws SQLException {
+        this.db = null;
+        this.connection = connection;
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(CREATE_SQL);
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        return connection != null ? connection : db.getConnection();
+    }
+
+    /**
+     * Listens for new events on PostgreSQL, installing the notifying trigger if needed.
+     *
+     * @return a signal that returns once an event has been appended, or null if the
+     *         database is not PostgreSQL and readers must poll
+     * @throws SQLException if the database cannot be listened to
+     */
+    public ChangeFeed.Signal listen() throws SQLException {
+        Connection conn = connection();
+        if (!"PostgreSQL".equals(conn.getMetaData().getDatabaseProductName())) return null;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(NOTIFY_SQL);
+            stmt.executeUpdate("DROP TRIGGER IF EXISTS change_event_notify ON ChangeEvent");
+            stmt.executeUpdate(TRIGGER_SQL);
+        } catch (SQLException e) {
+            // Another desk may be installing it at the same time
+            DatabaseConnector.logError("Failed to install the change event trigger", e);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("LISTEN change_event");
+        }
+        // The driver is only on the runtime class path
+        Object pgConnection;
+        Method getNotifications;
+        try {
+            Class<?> type = Class.forName("org.postgresql.PGConnection");
+            pgConnection = conn.unwrap(type);
+            getNotifications = type.getMethod("getNotifications", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("The PostgreSQL driver cannot receive notifications", e);
+        }
+        return new ChangeFeed.Signal() {
+            @Override
+            public boolean await(long timeoutMillis) throws IOException {
+                try {
+                    Object[] notifications = (Object[]) getNotifications.invoke(pgConnection,
+                        (int) Math.max(1, timeoutMillis));
+                    return notifications != null && notifications.length > 0;
+                } catch (ReflectiveOperationException e) {
+                    throw new IOException("Failed to receive change notifications", e);
+                }
+            }
+
+            @Override
+            public void close() {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("UNLISTEN change_event");
+                } catch (SQLException e) {
+                    DatabaseConnector.logError("Failed to stop listening for change events", e);
+                }
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ChangeEvent append(Table table, long key, ChangeEvent.Operation operation,
+                              Map<String, Object> values) throws IOException {
+        String sql = "INSERT INTO ChangeEvent (table_name, row_key, operation, changes) VALUES (?, ?, ?, ?) "
+            + "RETURNING sequence, changed_at";
+        try (PreparedStatement ps = connection().prepareStatement(sql)) {
+            ps.setString(1, table.getName());
+            ps.setLong(2, key);
+            ps.setString(3, operation.name());
+            ps.setBytes(4, ChangeEvent.encodeValues(values));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Failed to retrieve generated event sequence");
+                return new ChangeEvent(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(), table, key, operation,
+                    values);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to append change event", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long replay(long afterSequence, Consumer<ChangeEvent> consumer) throws IOException {
+        long[] last = {afterSequence};
+        int read;
+        do {
+            read = readPage(last, PAGE_SIZE, consumer);
+        } while (read == PAGE_SIZE);
+        return last[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long replay(long afterSequence, int limit, Consumer<ChangeEvent> consumer) throws IOException {
+        long[] last = {afterSequence};
+        readPage(last, limit, consumer);
+        return last[0];
+    }
+
+    /**
+     * Passes the events after a sequence number, at most a page of them, to a consumer.
+     *
+     * @param last     holds the sequence number to read after, moved on to the last event passed
+     * @param limit    the most events to read
+     * @param consumer the receiver of the events
+     * @return the number of events passed
+     * @throws IOException if the events cannot be read
+     */
+    private int readPage(long[] last, int limit, Consumer<ChangeEvent> consumer) throws IOException {
+        String sql = "SELECT sequence, changed_at, table_name, row_key, operation, changes FROM ChangeEvent "
+            + "WHERE sequence > ? ORDER BY sequence LIMIT ?";
+        int read = 0;
+        try (PreparedStatement ps = connection().prepareStatement(sql)) {
+            ps.setLong(1, last[0]);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Table table = ChangeEvent.tableNamed(rs.getString(3));
+                    if (table == null) throw new IOException("Unknown table " + rs.getString(3));
+                    last[0] = rs.getLong(1);
+                    read++;
+                    consumer.accept(new ChangeEvent(last[0], rs.getTimestamp(2).toLocalDateTime(), table,
+                        rs.getLong(4), ChangeEvent.Operation.valueOf(rs.getString(5)),
+                        ChangeEvent.decodeValues(rs.getBytes(6))));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to read change events", e);
+        }
+        return read;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLastSequence() throws IOException {
+        try (Statement stmt = connection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(sequence), 0) FROM ChangeEvent")) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new IOException("Failed to read change events", e);
+        }
+    }
+
+    /**
+     * Closes the log's own connection. A log on a connector's connection leaves it to the
+     * connector.
+     *
+     * @throws IOException if the connection cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException("Failed to close change log connection", e);
+        }
+    }
+}
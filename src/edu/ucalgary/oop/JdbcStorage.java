@@ -0,0 +1,273 @@
+package edu.ucalgary.oop;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+/**
+ * The storage engine that writes to the tables of {@code project.sql} over the
+ * connector's JDBC connection. Reads that may be repeated go through the connector's
+ * query cache, and every write invalidates the cached reads of its table.
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class JdbcStorage implements Storage {
+    /** The name this engine is chosen by. */
+    public static final String NAME = "jdbc";
+
+    private final DatabaseConnector db;
+    private final PersonRepository persons = new Persons();
+    private final SupplyRepository supplies = new Supplies();
+    private final InquiryRepository inquiries = new Inquiries();
+
+    /**
+     * Constructs a new JdbcStorage.
+     *
+     * @param db the connector whose connection is written to
+     */
+    public JdbcStorage(DatabaseConnector db) {
+        this.db = db;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PersonRepository persons() {
+        return persons;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SupplyRepository supplies() {
+        return supplies;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InquiryRepository inquiries() {
+        return inquiries;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    private static void setDate(PreparedStatement ps, int index, String date) throws SQLException {
+        try {
+            ps.setDate(index, Date.valueOf(date));
+        } catch (IllegalArgumentException e) {
+            ps.setNull(index, Types.DATE);
+        }
+    }
+
+    private static void setId(PreparedStatement ps, int index, int id) throws SQLException {
+        if (id == 0) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, id);
+        }
+    }
+
+    private final class Persons implements PersonRepository {
+        @Override
+        public int insert(Person person, int familyGroupId, String comments) throws SQLException {
+            String sql = "INSERT INTO Person (first_name, last_name, gender, phone_number, date_of_birth, "
+                + "family_group, comments) VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING person_id";
+            try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
+                ps.setString(1, person.getFirstName());
+                ps.setString(2, person.getLastName());
+                ps.setString(3, person.getGender());
+                ps.setString(4, person.getPhoneNumber());
+                setDate(ps, 5, person.getDateOfBirth());
+                setId(ps, 6, familyGroupId);
+                ps.setString(7, comments);
+                try (ResultSet rs = ps.executeQuery()) {
+                    db.invalidate("Person");
+                    if (!rs.next()) throw new SQLException("Failed to retrieve generated person ID");
+                    return rs.getInt("person_id");
+                }
+            }
+        }
+
+        @Override
+        public void addToLocation(int personId, int locationId) throws SQLException {
+            String sql = "INSERT INTO PersonLocation (person_id, location_id) VALUES (?, ?)";
+            try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
+                ps.setInt(1, personId);
+                ps.setInt(2, locationId);
+                ps.executeUpdate();
+                db.invalidate("PersonLocation");
+            }
+        }
+
+        @Override
+        public boolean update(Person person, int version) throws SQLException {
+            String sql = "UPDATE Person SET first_name=?, last_name=?, phone_number=?, gender=?, date_of_birth=?, "
+                + "version=version+1 WHERE person_id=? AND version=?";
+            try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
+                ps.setString(1, person.getFirstName());
+                ps.setString(2, person.getLastName());
+                ps.setString(3, person.getPhoneNumber());
+                ps.setString(4, person.getGender());
+                setDate(ps, 5, person.getDateOfBirth());
+                ps.setInt(6, person.getId());
+                ps.setInt(7, version);
+                if (ps.executeUpdate() == 0) return false;
+                db.invalidate("Person");
+                return true;
+            }
+        }
+
+        @Override
+        public int read(int personId, String[] values) throws SQLException {
+            String sql = "SELECT first_name, last_name, phone_number, gender, date_of_birth, version "
+                + "FROM Person WHERE person_id=?";
+            try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
+                ps.setInt(1, personId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) throw new SQLException("Person not found with ID: " + personId);
+                    for (int i = 0; i < ROW_FIELDS.length; i++) {
+                        values[i] = rs.getString(i + 1);
+                    }
+                    return rs.getInt(ROW_FIELDS.length + 1);
+                }
+            }
+        }
+
+        @Override
+        public int nextFamilyGroupId() throws SQLException {
+            try (Statement stmt = db.getConnection().createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(family_group), 0) + 1 FROM Person")) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private final class Supplies implements SupplyRepository {
+        @Override
+        public boolean update(Supply supply, int version) throws SQLException {
+            String sql = "UPDATE Supply SET type = ?, comments = ?, version = version + 1 "
+                + "WHERE supply_id = ? AND version = ?";
+            try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
+                ps.setString(1, supply.getType() != null ? supply.getType() : "");
+                ps.setString(2, supply.getComments());
+                ps.setInt(3, supply.getId());
+                ps.setInt(4, version);
+                if (SqlExecutionEvent.executeUpdate("supply.update", sql, ps) == 0) return false;
+                db.invalidate("Supply");
+                return true;
+            }
+        }
+
+        @Override
+        public int read(int supplyId, String[] values) throws SQLException {
+            String sql = "SELECT type, comments, version FROM Supply WHERE supply_id = ?";
+            SqlExecutionEvent event = SqlExecutionEvent.begin("supply.reread", sql);
+            try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
+                ps.setInt(1, supplyId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        event.end(0);
+                        throw new SQLException("Supply not found with ID: " + supplyId);
+                    }
+                    values[0] = rs.getString(1);
+                    values[1] = rs.getString(2);
+                    event.end(1);
+                    return rs.getInt(3);
+                }
+            }
+        }
+
+        @Override
+        public void allocateToPerson(int supplyId, int personId) throws SQLException {
+            String sql = "INSERT INTO SupplyAllocation (supply_id, person_id, location_id, allocation_date) "
+                + "VALUES (?, ?, NULL, CURRENT_TIMESTAMP)";
+            try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
+                ps.setInt(1, supplyId);
+                ps.setInt(2, personId);
+                SqlExecutionEvent.executeUpdate("supply.allocate_to_person", sql, ps);
+                db.invalidate("SupplyAllocation");
+            }
+        }
+
+        @Override
+        public void allocateToLocation(int supplyId, int locationId) throws SQLException {
+            String sql = "INSERT INTO SupplyAllocation (supply_id, person_id, location_id, allocation_date) "
+                + "VALUES (?, NULL, ?, CURRENT_TIMESTAMP)";
+            try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
+                ps.setInt(1, supplyId);
+                ps.setInt(2, locationId);
+                SqlExecutionEvent.executeUpdate("supply.allocate_to_location", sql, ps);
+                db.invalidate("SupplyAllocation");
+            }
+        }
+
+        @Override
+        public boolean isAtPersonLocation(int supplyId, int personId) throws SQLException {
+            String sql = "SELECT COUNT(*) AS matches FROM PersonLocation pl "
+                + "JOIN SupplyAllocation sa ON pl.location_id = sa.location_id "
+                + "WHERE pl.person_id = ? AND sa.supply_id = ?";
+            // A validity check must see other desks' latest allocations, so it bypasses the cache
+            QueryCache.Result rs = QueryCache.load(db.getConnection(), sql, personId, supplyId);
+            return rs.size() > 0 && rs.getInt(0, "matches") > 0;
+        }
+
+        @Override
+        public int removeExpiredWater() throws SQLException {
+            String sql = "DELETE FROM SupplyAllocation WHERE supply_id IN "
+                + "(SELECT supply_id FROM Supply WHERE type = 'water') "
+                + "AND allocation_date < CURRENT_TIMESTAMP - INTERVAL '1 day' "
+                + "AND person_id IS NOT NULL";
+            try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
+                int rowsDeleted = SqlExecutionEvent.executeUpdate("water.cleanup_expired", sql, ps);
+                if (rowsDeleted > 0) db.invalidate("SupplyAllocation");
+                return rowsDeleted;
+            }
+        }
+    }
+
+    private final class Inquiries implements InquiryRepository {
+        @Override
+        public int insert(Inquiry inquiry, int locationId) throws SQLException {
+            String sql = "INSERT INTO Inquiry (inquirer_id, seeking_id, location_id, date_of_inquiry, comments) "
+                + "VALUES (?, ?, ?, CURRENT_TIMESTAMP, ?) RETURNING inquiry_id";
+            try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
+                setId(ps, 1, inquiry.getInquirer() == null ? 0 : inquiry.getInquirer().getId());
+                ps.setInt(2, inquiry.getSeekingId());
+                ps.setInt(3, locationId);
+                ps.setString(4, inquiry.getInquiryMessage());
+                try (ResultSet rs = ps.executeQuery()) {
+                    db.invalidate("Inquiry");
+                    if (!rs.next()) throw new SQLException("Failed to retrieve generated inquiry ID");
+                    return rs.getInt("inquiry_id");
+                }
+            }
+        }
+
+        @Override
+        public void updateComments(int inquiryId, String comments) throws SQLException {
+            String sql = "UPDATE Inquiry SET comments = ? WHERE inquiry_id = ?";
+            try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
+                ps.setString(1, comments);
+                ps.setInt(2, inquiryId);
+                ps.executeUpdate();
+                db.invalidate("Inquiry");
+            }
+        }
+    }
+}
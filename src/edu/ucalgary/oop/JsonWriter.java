@@ -0,0 +1,230 @@
+package edu.ucalgary.oop;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes JSON text straight to a character stream as values are produced.
+ * <p>
+ * Nothing is built in memory, so arbitrarily long arrays can be sent while only
+ * the current nesting path is held. Commas and colons are inserted automatically;
+ * the caller only opens and closes objects and arrays and supplies names and values.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class JsonWriter implements Closeable {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    /** Per nesting level, whether the next element is the first one at that level. */
+    private boolean[] first = new boolean[16];
+    private int depth;
+    private boolean afterName;
+
+    /**
+     * Constructs a new JsonWriter.
+     *
+     * @param out the stream to write to; should be buffered
+     */
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Opens an object.
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    /**
+     * Closes the innermost object.
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    /**
+     * Opens an array.
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    /**
+     * Closes the innermost array.
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Writes the name of the next member of the current object.
+     *
+     * @param name the member name
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string value, or null.
+     *
+     * @param value the value
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null) out.write("null"); else string(value);
+        return this;
+    }
+
+    /**
+     * Writes a number value.
+     *
+     * @param value the value
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a boolean value.
+     *
+     * @param value the value
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes a member with a string value.
+     *
+     * @param name  the member name
+     * @param value the value, or null
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter member(String name, String value) throws IOException {
+        return name(name).value(value);
+    }
+
+    /**
+     * Writes a member with a number value.
+     *
+     * @param name  the member name
+     * @param value the value
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter member(String name, long value) throws IOException {
+        return name(name).value(value);
+    }
+
+    /**
+     * Flushes the underlying stream.
+     *
+     * @throws IOException if flushing fails
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Closes the underlying stream.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private JsonWriter open(char bracket) throws IOException {
+        separate();
+        out.write(bracket);
+        if (++depth == first.length) {
+            boolean[] grown = new boolean[depth * 2];
+            System.arraycopy(first, 0, grown, 0, depth);
+            first = grown;
+        }
+        first[depth] = true;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        if (depth == 0) throw new IllegalStateException("Nothing to close");
+        depth--;
+        out.write(bracket);
+        return this;
+    }
+
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (!first[depth]) out.write(',');
+            first[depth] = false;
+        }
+    }
+
+    private void string(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != 0x2028 && c != 0x2029) continue;
+            out.write(value, start, i - start);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    out.write("\\u");
+                    out.write(HEX[(c >> 12) & 0xF]);
+                    out.write(HEX[(c >> 8) & 0xF]);
+                    out.write(HEX[(c >> 4) & 0xF]);
+                    out.write(HEX[c & 0xF]);
+            }
+            start = i + 1;
+        }
+        out.write(value, start, length - start);
+        out.write('"');
+    }
+}
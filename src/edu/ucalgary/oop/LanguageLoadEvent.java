@@ -0,0 +1,32 @@
+package edu.ucalgary.oop;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event for one read of a language file.
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+@Name("edu.ucalgary.oop.LanguageLoad")
+@Label("Language File Load")
+@Category({"Disaster Relief", "Language"})
+@Description("A language file read into memory")
+@StackTrace(false)
+public class LanguageLoadEvent extends Event {
+    @Label("Language Code")
+    String languageCode;
+
+    @Label("Key Count")
+    int keyCount;
+
+    @Label("Fallback")
+    @Description("Whether this load replaced a language whose file was missing")
+    boolean fallback;
+}
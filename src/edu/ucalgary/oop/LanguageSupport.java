@@ -2,6 +2,8 @@ package edu.ucalgary.oop;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Scanner;
@@ -17,6 +19,8 @@ import java.util.Scanner;
 public class LanguageSupport {
     private String languageCode = "en-CA";
     private final Map<String, String> translations = new HashMap<>();
+    private static final Metrics.Histogram GET_TEXT = Metrics.histogram("language.get_text");
+    private static final Metrics.Counter MISSING_KEYS = Metrics.counter("language.missing_keys");
 
     /**
      * Constructs a LanguageSupport object with the specified language code.
@@ -46,6 +50,8 @@ public class LanguageSupport {
             }
             return;
         }
+        LanguageLoadEvent event = new LanguageLoadEvent();
+        event.begin();
         try (Scanner scanner = new Scanner(file)) {
             translations.clear();
             String key = null, value = null;
@@ -62,6 +68,10 @@ public class LanguageSupport {
                     value = null;
                 }
             }
+            event.languageCode = languageCode;
+            event.keyCount = translations.size();
+            event.fallback = isFallback;
+            event.commit();
             System.out.println("Loaded language: " + languageCode);
         } catch (FileNotFoundException e) {
             System.err.println("Error reading language file: " + e.getMessage());
@@ -79,7 +89,14 @@ public class LanguageSupport {
      * @param key The message key.
      * @return The translated string or a placeholder message if not found.
      */
-    public String getText(String key) { return translations.getOrDefault(key, "Missing translation for key: " + key);}
+    public String getText(String key) {
+        long start = GET_TEXT.start();
+        String text = translations.get(key);
+        GET_TEXT.stop(start);
+        if (text != null) return text;
+        MISSING_KEYS.increment();
+        return "Missing translation for key: " + key;
+    }
 
     /**
      * Changes the active language and reloads the appropriate file.
@@ -102,33 +119,45 @@ public class LanguageSupport {
      * Allows the user to choose a language from files in the /data folder.
      */
     public void chooseLanguage() {
+        chooseLanguage(new Scanner(System.in), System.out);
+    }
+
+    /**
+     * Allows the user to choose a language from files in the /data folder,
+     * reading the choice from the given input and printing to the given output.
+     * 
+     * @param scanner The source of the user's choice.
+     * @param out The destination for the prompts.
+     */
+    public void chooseLanguage(Scanner scanner, PrintStream out) {
         File dataDir = new File("data/");
         File[] files = dataDir.listFiles((dir, name) -> name.endsWith(".xml"));
         if (files == null || files.length == 0) {
             System.err.println("No language files found. Using default language.");
             return;
         }
-        System.out.println("Available languages:");
+        Arrays.sort(files);
+        out.println("Available languages:");
         for (int i = 0; i < files.length; i++) {
             String name = files[i].getName().replace(".xml", "");
-            System.out.println((i + 1) + ". " + name);
+            out.println((i + 1) + ". " + name);
         }
-        Scanner scanner = new Scanner(System.in);
         while (true) {
-            System.out.print("Enter the number corresponding to your language: ");
+            out.print("Enter the number corresponding to your language: ");
+            out.flush();
             String input = scanner.nextLine().trim();
             try {
                 int choice = Integer.parseInt(input);
                 if (choice >= 1 && choice <= files.length) {
                     String selected = files[choice - 1].getName().replace(".xml", "");
                     setLanguageCode(selected);
-                    System.out.println("Language set to: " + selected);
+                    out.println("Language set to: " + selected);
                     break;
                 } else {
-                    System.out.println("Invalid choice. Try again.");
+                    out.println("Invalid choice. Try again.");
                 }
             } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a number.");
+                out.println("Invalid input. Please enter a number.");
             }
         }
     }
@@ -0,0 +1,53 @@
+package edu.ucalgary.oop;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event for one phase of loading the database into memory,
+ * such as reading all persons or linking occupants to locations.
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+@Name("edu.ucalgary.oop.LoadPhase")
+@Label("Data Load Phase")
+@Category({"Disaster Relief", "Database"})
+@Description("One phase of loading the relief database into memory")
+@StackTrace(false)
+public class LoadPhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Entity Count")
+    @Description("Rows read in this phase")
+    long entityCount;
+
+    /**
+     * Starts timing a load phase.
+     *
+     * @param phase the name of the phase, such as {@code persons}
+     * @return the started event, to be finished with {@link #end(long)}
+     */
+    public static LoadPhaseEvent begin(String phase) {
+        LoadPhaseEvent event = new LoadPhaseEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Finishes timing the phase and records the event.
+     *
+     * @param entityCount the rows read in the phase
+     */
+    public void end(long entityCount) {
+        this.entityCount = entityCount;
+        commit();
+    }
+}
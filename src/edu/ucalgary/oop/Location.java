@@ -1,10 +1,14 @@
 package edu.ucalgary.oop;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a physical location in the disaster management system.
  * Locations can house disaster victims and store supplies.
+ * Occupant and supply lists are copy-on-write, so sessions sharing a location
+ * can read them while another session adds or removes entries.
  * 
  * @author 30208786
  * @version 1.0
@@ -13,8 +17,8 @@ import java.util.ArrayList;
 public class Location {
     private String name;
     private String address;
-    private ArrayList<DisasterVictim> occupants = new ArrayList<>();
-    private ArrayList<Supply> supplies = new ArrayList<>();
+    private volatile List<DisasterVictim> occupants = new CopyOnWriteArrayList<>();
+    private volatile List<Supply> supplies = new CopyOnWriteArrayList<>();
     
     /**
      * Constructs a new Location with the specified name and address.
@@ -68,7 +72,7 @@ public class Location {
      * 
      * @param occupants the new list of occupants
      */
-    public void setOccupants(ArrayList<DisasterVictim> occupants) { this.occupants = new ArrayList<>(occupants); }
+    public void setOccupants(ArrayList<DisasterVictim> occupants) { this.occupants = new CopyOnWriteArrayList<>(occupants); }
     
     /**
      * Returns a copy of the list of supplies at this location.
@@ -83,7 +87,7 @@ public class Location {
      * 
      * @param supplies the new list of supplies
      */
-    public void setSupplies(ArrayList<Supply> supplies) { this.supplies = new ArrayList<>(supplies); }
+    public void setSupplies(ArrayList<Supply> supplies) { this.supplies = new CopyOnWriteArrayList<>(supplies); }
     
     /**
      * Adds an occupant to this location.
@@ -98,6 +102,14 @@ public class Location {
         this.occupants.add(occupant);
     }
     
+    /**
+     * Checks whether a victim is among the occupants of this location.
+     * 
+     * @param occupant the disaster victim to look for
+     * @return true if the victim occupies this location
+     */
+    public boolean hasOccupant(DisasterVictim occupant) { return occupants.contains(occupant); }
+    
     /**
      * Removes an occupant from this location.
      * 
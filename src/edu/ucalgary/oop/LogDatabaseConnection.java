@@ -0,0 +1,328 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A connector that keeps the data of a shelter in a local {@link LogStore} instead of a
+ * database server, for field deployments without PostgreSQL. Changes are written through
+ * {@link LogStorage}.
+ * <p>
+ * A store is usually prepared where a database is reachable with
+ * {@link #copy(Connection, LogStore)}, and then opened in the field. There is no SQL
+ * connection: {@link #getConnection()} fails, so ad-hoc queries, exports, imports and
+ * batch runs need a database.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class LogDatabaseConnection implements DatabaseConnector {
+    private final LogStore store;
+    private LogStorage storage;
+
+    private Map<Integer, Person> persons = new HashMap<>();
+    private Map<Integer, Location> locations = new HashMap<>();
+    private Map<Integer, Supply> supplies = new HashMap<>();
+    private Map<Integer, Inquiry> inquiries = new HashMap<>();
+    private Map<Integer, MedicalRecord> medicalRecords = new HashMap<>();
+    private Map<Integer, FamilyGroup> familyGroups = new HashMap<>();
+
+    /**
+     * Constructs a new LogDatabaseConnection and loads the data of the store.
+     *
+     * @param store the store the data is kept in; it is closed with the connection
+     */
+    public LogDatabaseConnection(LogStore store) {
+        this.store = store;
+        loadData();
+    }
+
+    /**
+     * Opens the store in a directory and loads its data.
+     *
+     * @param directory the directory of the store, created if needed
+     * @return the connection
+     * @throws IOException if the store cannot be opened
+     */
+    public static LogDatabaseConnection open(Path directory) throws IOException {
+        return new LogDatabaseConnection(LogStore.open(directory));
+    }
+
+    /**
+     * Copies every table of {@code project.sql} from a database into a store.
+     *
+     * @param source the connection to the database
+     * @param store  the store the rows are written to
+     * @return the number of rows copied
+     * @throws SQLException if the database cannot be read
+     * @throws IOException  if the store cannot be written
+     */
+    public static long copy(Connection source, LogStore store) throws SQLException, IOException {
+        return copy(source, sink(store));
+    }
+
+    /**
+     * Reads every table of {@code project.sql} from a database into a sink. Person and
+     * supply rows carry their version after the last column.
+     *
+     * @param source the connection to the database
+     * @param sink   the receiver of the rows
+     * @return the number of rows read
+     * @throws SQLException if the database cannot be read
+     * @throws IOException  if the sink cannot take a row
+     */
+    public static long copy(Connection source, SyntheticDataGenerator.RowSink sink) throws SQLException, IOException {
+        long rows = 0;
+        for (Table table : Table.values()) {
+            String[] columns = table.getColumns();
+            byte[] types = table.getTypes();
+            boolean versioned = table == Table.PERSON || table == Table.SUPPLY;
+            String sql = "SELECT " + String.join(", ", columns) + (versioned ? ", version" : "") + " FROM " + table.getName();
+            try (Statement stmt = source.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    Object[] values = new Object[columns.length + (versioned ? 1 : 0)];
+                    for (int i = 0; i < columns.length; i++) {
+                        switch (types[i]) {
+                            case TableWriter.TYPE_INT:
+                                values[i] = rs.getInt(i + 1);
+                                break;
+                            case TableWriter.TYPE_DATE:
+                                values[i] = rs.getDate(i + 1);
+                                break;
+                            case TableWriter.TYPE_TIMESTAMP:
+                                values[i] = rs.getTimestamp(i + 1);
+                                break;
+                            default:
+                                values[i] = rs.getString(i + 1);
+                                break;
+                        }
+                        if (rs.wasNull()) values[i] = null;
+                    }
+                    if (versioned) values[columns.length] = rs.getInt(columns.length + 1);
+                    sink.row(table, values);
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns a sink that writes generated rows to a store, for tests and benchmarks.
+     *
+     * @param store the store the rows are written to
+     * @return the sink
+     */
+    public static SyntheticDataGenerator.RowSink sink(LogStore store) {
+        return (table, values) -> store.put(table, LogStorage.keyOf(store, table, values), values);
+    }
+
+    /**
+     * Returns the store the data is kept in.
+     *
+     * @return the store
+     */
+    public LogStore getStore() {
+        return store;
+    }
+
+    /**
+     * Always fails: the data is not in an SQL database.
+     *
+     * @throws SQLException always
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        throw new SQLException("The log store has no SQL connection");
+    }
+
+    /**
+     * Closes the store, writing its index file.
+     */
+    @Override
+    public void closeConnection() {
+        try {
+            store.close();
+        } catch (IOException e) {
+            DatabaseConnector.logError("Failed to close log store", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Rows are turned into entities the way {@link DatabaseConnection#loadData()} does it,
+     * and allocations to people are added to the person.
+     * </p>
+     */
+    @Override
+    public void loadData() {
+        persons.clear();
+        locations.clear();
+        supplies.clear();
+        inquiries.clear();
+        medicalRecords.clear();
+        familyGroups.clear();
+        try {
+            LoadPhaseEvent phase = LoadPhaseEvent.begin("persons");
+            Set<Integer> inquirers = new HashSet<>();
+            store.forEach(Table.INQUIRY, (key, values) -> {
+                if (values[1] != null) inquirers.add((Integer) values[1]);
+            });
+            store.forEach(Table.PERSON, (key, values) -> {
+                int id = (Integer) values[0];
+                Person person = inquirers.contains(id)
+                    ? new Inquirer((String) values[1], (String) values[2], (String) values[6], "", true)
+                    : new DisasterVictim((String) values[1], (String) values[2], (String) values[6], "Unknown");
+                person.setId(id);
+                person.setGender((String) values[4]);
+                if (values.length > LogStorage.PERSON_VERSION) person.setVersion((Integer) values[LogStorage.PERSON_VERSION]);
+                if (values[3] != null) person.setDateOfBirth(values[3].toString());
+                persons.put(id, person);
+                if (values[7] != null) {
+                    familyGroups.computeIfAbsent((Integer) values[7], k -> new FamilyGroup("Group", String.valueOf(k), null))
+                        .addFamilyMember(person);
+                }
+            });
+            phase.end(persons.size());
+
+            phase = LoadPhaseEvent.begin("locations");
+            store.forEach(Table.LOCATION, (key, values) ->
+                locations.put((Integer) values[0], new Location((String) values[1], (String) values[2])));
+            phase.end(locations.size());
+
+            phase = LoadPhaseEvent.begin("supplies");
+            store.forEach(Table.SUPPLY, (key, values) -> {
+                Supply supply = Supply.ofType((String) values[1], (String) values[2]);
+                supply.setId((Integer) values[0]);
+                if (values.length > LogStorage.SUPPLY_VERSION) supply.setVersion((Integer) values[LogStorage.SUPPLY_VERSION]);
+                supplies.put(supply.getId(), supply);
+            });
+            phase.end(supplies.size());
+
+            phase = LoadPhaseEvent.begin("inquiries");
+            store.forEach(Table.INQUIRY, (key, values) -> {
+                Inquiry inquiry = new Inquiry(values[1] != null ? (Inquirer) persons.get((Integer) values[1]) : null,
+                    (String) values[5]);
+                inquiry.setId((Integer) values[0]);
+                if (values[2] != null) inquiry.setSeekingId((Integer) values[2]);
+                inquiries.put(inquiry.getId(), inquiry);
+            });
+            phase.end(inquiries.size());
+
+            phase = LoadPhaseEvent.begin("medical records");
+            store.forEach(Table.MEDICAL_RECORD, (key, values) ->
+                medicalRecords.put((Integer) values[0], new MedicalRecord(locations.get((Integer) values[1]),
+                    (String) values[4], values[3].toString().substring(0, 10))));
+            phase.end(medicalRecords.size());
+
+            phase = LoadPhaseEvent.begin("occupants");
+            store.forEach(Table.PERSON_LOCATION, (key, values) -> {
+                Person person = persons.get((Integer) values[0]);
+                Location location = locations.get((Integer) values[1]);
+                if (person instanceof DisasterVictim && location != null) {
+                    location.addOccupant((DisasterVictim) person);
+                }
+            });
+            phase.end(store.count(Table.PERSON_LOCATION));
+
+            phase = LoadPhaseEvent.begin("allocations");
+            store.forEach(Table.SUPPLY_ALLOCATION, (key, values) -> {
+                Supply supply = supplies.get((Integer) values[0]);
+                if (supply == null) return;
+                if (values[1] != null && persons.containsKey((Integer) values[1])) {
+                    if (supply instanceof Water && values[3] != null) {
+                        ((Water) supply).setAllocationDate(((Timestamp) values[3]).toLocalDateTime());
+                    }
+                    persons.get((Integer) values[1]).addAllocatedSupply(supply);
+                } else if (values[2] != null && locations.containsKey((Integer) values[2])) {
+                    locations.get((Integer) values[2]).addSupply(supply);
+                }
+            });
+            phase.end(store.count(Table.SUPPLY_ALLOCATION));
+
+            storage = new LogStorage(store);
+            phase = LoadPhaseEvent.begin("expired water cleanup");
+            cleanupExpiredWater();
+            phase.end(0);
+        } catch (IOException e) {
+            DatabaseConnector.logError("Failed to load log store data", e);
+            throw new RuntimeException("Log store loading failed", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cleanupExpiredWater() {
+        Water.cleanupExpiredWater(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Integer, Person> getPersons() {
+        return new HashMap<>(persons);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Integer, Location> getLocations() {
+        return new HashMap<>(locations);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Integer, Supply> getSupplies() {
+        return new HashMap<>(supplies);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Integer, Inquiry> getInquiries() {
+        return new HashMap<>(inquiries);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Integer, MedicalRecord> getMedicalRecords() {
+        return new HashMap<>(medicalRecords);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Integer, FamilyGroup> getFamilyGroups() {
+        return new HashMap<>(familyGroups);
+    }
+}
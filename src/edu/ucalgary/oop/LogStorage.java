@@ -0,0 +1,333 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The storage engine that writes to a {@link LogStore}, for shelters without a database
+ * server; {@link LogDatabaseConnection} uses it. Rows have the columns of
+ * {@link Table}, and person and supply rows carry their version
+ * after the last column.
+ * <p>
+ * The engine keeps the locations of people and supplies and the highest family group in
+ * memory, built from the store when it is constructed, so location checks do not scan
+ * the log. It checks the references a database would check. All repositories share one lock.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class LogStorage implements Storage {
+    /** The name this engine is chosen by. */
+    public static final String NAME = "log";
+
+    private static final Table PERSON = Table.PERSON;
+    private static final Table LOCATION = Table.LOCATION;
+    private static final Table PERSON_LOCATION = Table.PERSON_LOCATION;
+    private static final Table INQUIRY = Table.INQUIRY;
+    private static final Table SUPPLY = Table.SUPPLY;
+    private static final Table SUPPLY_ALLOCATION = Table.SUPPLY_ALLOCATION;
+    /** The position of the version in person rows. */
+    static final int PERSON_VERSION = 8;
+    /** The position of the version in supply rows. */
+    static final int SUPPLY_VERSION = 3;
+
+    private final LogStore store;
+    private final Map<Integer, Set<Integer>> personLocations = new HashMap<>();
+    private final Map<Integer, Set<Integer>> supplyLocations = new HashMap<>();
+    private int lastFamilyGroupId;
+
+    private final PersonRepository persons = new Persons();
+    private final SupplyRepository supplies = new Supplies();
+    private final InquiryRepository inquiries = new Inquiries();
+
+    /**
+     * Constructs a new LogStorage over a store.
+     *
+     * @param store the store rows are written to
+     * @throws IOException if the store cannot be read
+     */
+    public LogStorage(LogStore store) throws IOException {
+        this.store = store;
+        store.forEach(PERSON, (key, values) -> {
+            if (values[7] != null) lastFamilyGroupId = Math.max(lastFamilyGroupId, (Integer) values[7]);
+        });
+        store.forEach(PERSON_LOCATION, (key, values) ->
+            personLocations.computeIfAbsent((Integer) values[0], k -> new HashSet<>()).add((Integer) values[1]));
+        store.forEach(SUPPLY_ALLOCATION, (key, values) -> {
+            if (values[2] != null) {
+                supplyLocations.computeIfAbsent((Integer) values[0], k -> new HashSet<>()).add((Integer) values[2]);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PersonRepository persons() {
+        return persons;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SupplyRepository supplies() {
+        return supplies;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InquiryRepository inquiries() {
+        return inquiries;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Returns the key a row is stored under: its ID, the person and location of a
+     * person's stay, or the next free key for an allocation.
+     *
+     * @param store  the store the row is written to
+     * @param table  the table of the row
+     * @param values the row values
+     * @return the key of the row
+     */
+    static long keyOf(LogStore store, Table table, Object[] values) {
+        switch (table) {
+            case PERSON_LOCATION:
+                return ChangeEvent.stayKey((Integer) values[0], (Integer) values[1]);
+            case SUPPLY_ALLOCATION:
+                return store.maxKey(table) + 1;
+            default:
+                return (Integer) values[0];
+        }
+    }
+
+    private Object[] get(Table table, int id) throws SQLException {
+        try {
+            return store.get(table, id);
+        } catch (IOException e) {
+            throw new SQLException("Failed to read " + table.getName() + " " + id, e);
+        }
+    }
+
+    private void put(Table table, long key, Object[] values) throws SQLException {
+        try {
+            store.put(table, key, values);
+        } catch (IOException e) {
+            throw new SQLException("Failed to write " + table.getName() + " " + key, e);
+        }
+    }
+
+    private void require(Table table, int id, String what) throws SQLException {
+        if (!store.contains(table, id)) throw new SQLException("Invalid " + what + " ID: " + id);
+    }
+
+    private int nextId(Table table) {
+        return (int) store.maxKey(table) + 1;
+    }
+
+    private static int version(Object[] row, int index) {
+        return row.length > index && row[index] != null ? (Integer) row[index] : 0;
+    }
+
+    private static Date toDate(String date) {
+        try {
+            return date == null ? null : Date.valueOf(date);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    private final class Persons implements PersonRepository {
+        @Override
+        public int insert(Person person, int familyGroupId, String comments) throws SQLException {
+            synchronized (LogStorage.this) {
+                int personId = nextId(PERSON);
+                put(PERSON, personId, new Object[] {personId, person.getFirstName(), person.getLastName(),
+                    toDate(person.getDateOfBirth()), person.getGender(), comments, person.getPhoneNumber(),
+                    familyGroupId == 0 ? null : familyGroupId, 0});
+                lastFamilyGroupId = Math.max(lastFamilyGroupId, familyGroupId);
+                return personId;
+            }
+        }
+
+        @Override
+        public void addToLocation(int personId, int locationId) throws SQLException {
+            synchronized (LogStorage.this) {
+                require(PERSON, personId, "person");
+                require(LOCATION, locationId, "location");
+                if (store.contains(PERSON_LOCATION, ChangeEvent.stayKey(personId, locationId))) {
+                    throw new SQLException("Person " + personId + " is already at location " + locationId);
+                }
+                put(PERSON_LOCATION, ChangeEvent.stayKey(personId, locationId), new Object[] {personId, locationId});
+                personLocations.computeIfAbsent(personId, k -> new HashSet<>()).add(locationId);
+            }
+        }
+
+        @Override
+        public boolean update(Person person, int version) throws SQLException {
+            synchronized (LogStorage.this) {
+                Object[] row = get(PERSON, person.getId());
+                if (row == null || version(row, PERSON_VERSION) != version) return false;
+                row = Arrays.copyOf(row, PERSON_VERSION + 1);
+                row[1] = person.getFirstName();
+                row[2] = person.getLastName();
+                row[3] = toDate(person.getDateOfBirth());
+                row[4] = person.getGender();
+                row[6] = person.getPhoneNumber();
+                row[PERSON_VERSION] = version + 1;
+                put(PERSON, person.getId(), row);
+                return true;
+            }
+        }
+
+        @Override
+        public int read(int personId, String[] values) throws SQLException {
+            synchronized (LogStorage.this) {
+                Object[] row = get(PERSON, personId);
+                if (row == null) throw new SQLException("Person not found with ID: " + personId);
+                values[0] = (String) row[1];
+                values[1] = (String) row[2];
+                values[2] = (String) row[6];
+                values[3] = (String) row[4];
+                values[4] = row[3] == null ? null : row[3].toString();
+                return version(row, PERSON_VERSION);
+            }
+        }
+
+        @Override
+        public int nextFamilyGroupId() {
+            synchronized (LogStorage.this) {
+                return lastFamilyGroupId + 1;
+            }
+        }
+    }
+
+    private final class Supplies implements SupplyRepository {
+        @Override
+        public boolean update(Supply supply, int version) throws SQLException {
+            synchronized (LogStorage.this) {
+                Object[] row = get(SUPPLY, supply.getId());
+                if (row == null || version(row, SUPPLY_VERSION) != version) return false;
+                put(SUPPLY, supply.getId(), new Object[] {supply.getId(),
+                    supply.getType() != null ? supply.getType() : "", supply.getComments(), version + 1});
+                return true;
+            }
+        }
+
+        @Override
+        public int read(int supplyId, String[] values) throws SQLException {
+            synchronized (LogStorage.this) {
+                Object[] row = get(SUPPLY, supplyId);
+                if (row == null) throw new SQLException("Supply not found with ID: " + supplyId);
+                values[0] = (String) row[1];
+                values[1] = (String) row[2];
+                return version(row, SUPPLY_VERSION);
+            }
+        }
+
+        @Override
+        public void allocateToPerson(int supplyId, int personId) throws SQLException {
+            synchronized (LogStorage.this) {
+                require(SUPPLY, supplyId, "supply");
+                require(PERSON, personId, "person");
+                put(SUPPLY_ALLOCATION, store.maxKey(SUPPLY_ALLOCATION) + 1,
+                    new Object[] {supplyId, personId, null, now()});
+            }
+        }
+
+        @Override
+        public void allocateToLocation(int supplyId, int locationId) throws SQLException {
+            synchronized (LogStorage.this) {
+                require(SUPPLY, supplyId, "supply");
+                require(LOCATION, locationId, "location");
+                put(SUPPLY_ALLOCATION, store.maxKey(SUPPLY_ALLOCATION) + 1,
+                    new Object[] {supplyId, null, locationId, now()});
+                supplyLocations.computeIfAbsent(supplyId, k -> new HashSet<>()).add(locationId);
+            }
+        }
+
+        @Override
+        public boolean isAtPersonLocation(int supplyId, int personId) {
+            synchronized (LogStorage.this) {
+                Set<Integer> at = supplyLocations.get(supplyId);
+                Set<Integer> stays = personLocations.get(personId);
+                return at != null && stays != null && !Collections.disjoint(at, stays);
+            }
+        }
+
+        @Override
+        public int removeExpiredWater() throws SQLException {
+            synchronized (LogStorage.this) {
+                Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(1));
+                List<Long> expired = new ArrayList<>();
+                try {
+                    store.forEach(SUPPLY_ALLOCATION, (key, values) -> {
+                        Object[] supply = values[1] == null ? null : store.get(SUPPLY, (Integer) values[0]);
+                        if (supply != null && "water".equals(supply[1]) && values[3] != null
+                                && ((Timestamp) values[3]).before(cutoff)) {
+                            expired.add(key);
+                        }
+                    });
+                    for (long key : expired) {
+                        store.delete(SUPPLY_ALLOCATION, key);
+                    }
+                } catch (IOException e) {
+                    throw new SQLException("Failed to remove expired water allocations", e);
+                }
+                return expired.size();
+            }
+        }
+    }
+
+    private final class Inquiries implements InquiryRepository {
+        @Override
+        public int insert(Inquiry inquiry, int locationId) throws SQLException {
+            synchronized (LogStorage.this) {
+                require(LOCATION, locationId, "location");
+                int inquiryId = nextId(INQUIRY);
+                put(INQUIRY, inquiryId, new Object[] {inquiryId,
+                    inquiry.getInquirer() == null ? null : inquiry.getInquirer().getId(), inquiry.getSeekingId(),
+                    locationId, now(), inquiry.getInquiryMessage()});
+                return inquiryId;
+            }
+        }
+
+        @Override
+        public void updateComments(int inquiryId, String comments) throws SQLException {
+            synchronized (LogStorage.this) {
+                Object[] row = get(INQUIRY, inquiryId);
+                if (row == null) return;
+                row[5] = comments;
+                put(INQUIRY, inquiryId, row);
+            }
+        }
+    }
+}
@@ -0,0 +1,793 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only, log-structured store of table rows kept in a directory, for shelters
+ * without a database server.
+ * <p>
+ * Every write appends a record to the newest segment: a CRC-32C checksum, the record
+ * length, whether the row was written or deleted, its table and key, and the row values.
+ * Segments are memory-mapped files of a fixed size; when one is full the next one is
+ * started. An index in memory maps each live row to the segment and offset of its latest
+ * record, so a read is one lookup and one decode.
+ * </p>
+ * <p>
+ * On close, and after each compaction, the index is written to a compact index file.
+ * Opening reads it back and replays only the records appended since, so startup does not
+ * read the whole log; without a valid index file every segment is replayed. A record whose
+ * checksum does not match ends the replay of its segment: at the end of the log that is a
+ * write torn by a crash, and it is discarded and overwritten by the next write.
+ * </p>
+ * <p>
+ * A background thread syncs the newest segment to disk every sync interval and compacts
+ * the log once at least half of the bytes of the full segments belong to rows that were
+ * since overwritten or deleted. Compaction copies the live records of all full segments to
+ * one new segment that replaces them; writes continue meanwhile. A write survives a crash
+ * of the process as soon as it returns, and a crash of the machine after the next sync.
+ * </p>
+ * <p>
+ * Tables are stored by their position in {@link Table}, so new
+ * tables must be added to the end of that enum. Values may be Integer, Long, String,
+ * {@link Date}, {@link Timestamp} or null.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class LogStore implements AutoCloseable {
+    /** The default size of a segment file, in bytes. */
+    public static final int DEFAULT_SEGMENT_BYTES = 16 << 20;
+    /** The default interval between syncs and compaction checks, in milliseconds. */
+    public static final long DEFAULT_SYNC_MILLIS = 200;
+
+    private static final int SEGMENT_MAGIC = 0x524C5347;
+    private static final int INDEX_MAGIC = 0x524C4958;
+    private static final int FORMAT_VERSION = 1;
+    /** Magic number, format version and the number of the oldest segment the segment replaces. */
+    private static final int SEGMENT_HEADER = 12;
+    /** Checksum and length. */
+    private static final int RECORD_HEADER = 8;
+    /** Operation, table and key. */
+    private static final int RECORD_PREFIX = 10;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final byte TYPE_NULL = 0;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String COMPACT_SUFFIX = ".compact";
+    private static final String INDEX_FILE = "index";
+    private static final Table[] TABLES = Table.values();
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final Object compactionLock = new Object();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final Map<Table, Map<Long, Long>> index =
+        new EnumMap<>(Table.class);
+    private final long[] maxKeys = new long[TABLES.length];
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer scratch = ByteBuffer.allocate(256);
+    private Segment active;
+    private ScheduledExecutorService background;
+    private long compactions;
+    private boolean closed;
+
+    /**
+     * Receives the live rows of a table.
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        /**
+         * Called for each live row, in ascending key order.
+         *
+         * @param key    the key of the row
+         * @param values the row values; the array is not reused
+         * @throws IOException if the row cannot be handled
+         */
+        void row(long key, Object[] values) throws IOException;
+    }
+
+    /**
+     * Opens the store in a directory with the default segment size and sync interval,
+     * creating the directory if needed.
+     *
+     * @param directory the directory of the segment and index files
+     * @return the open store
+     * @throws IOException if the directory cannot be read or created
+     */
+    public static LogStore open(Path directory) throws IOException {
+        return new LogStore(directory, DEFAULT_SEGMENT_BYTES, DEFAULT_SYNC_MILLIS);
+    }
+
+    /**
+     * Constructs a new LogStore over a directory, creating the directory if needed,
+     * and rebuilds the index from the index file and the records written after it.
+     *
+     * @param directory    the directory of the segment and index files
+     * @param segmentBytes the size of a new segment file; no record may be larger
+     * @param syncMillis   the interval between syncs and compaction checks, or 0 to only
+     *                     sync and compact when {@link #sync()} and {@link #compact()} are called
+     * @throws IOException if the directory cannot be read or created
+     */
+    public LogStore(Path directory, int segmentBytes, long syncMillis) throws IOException {
+        if (segmentBytes < SEGMENT_HEADER + RECORD_HEADER + RECORD_PREFIX) {
+            throw new IllegalArgumentException("Segments of " + segmentBytes + " bytes are too small");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        for (Table table : TABLES) {
+            index.put(table, new HashMap<>());
+        }
+        Files.createDirectories(directory);
+        openSegments();
+        if (!readIndex()) replayAll();
+        if (syncMillis > 0) {
+            background = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "log-store");
+                thread.setDaemon(true);
+                return thread;
+            });
+            background.scheduleWithFixedDelay(this::maintain, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes a row, replacing any row with the same key.
+     *
+     * @param table  the table of the row
+     * @param key    the key of the row
+     * @param values the row values
+     * @throws IOException if the row cannot be written
+     */
+    public synchronized void put(Table table, long key, Object[] values) throws IOException {
+        ensureOpen();
+        startRecord(OP_PUT, table, key);
+        ensureScratch(2);
+        scratch.putShort((short) values.length);
+        for (Object value : values) {
+            encode(value);
+        }
+        append(table, key, OP_PUT);
+    }
+
+    /**
+     * Deletes a row.
+     *
+     * @param table the table of the row
+     * @param key   the key of the row
+     * @return true if the row existed
+     * @throws IOException if the deletion cannot be written
+     */
+    public synchronized boolean delete(Table table, long key) throws IOException {
+        ensureOpen();
+        if (!index.get(table).containsKey(key)) return false;
+        startRecord(OP_DELETE, table, key);
+        append(table, key, OP_DELETE);
+        return true;
+    }
+
+    /**
+     * Reads a row.
+     *
+     * @param table the table of the row
+     * @param key   the key of the row
+     * @return the row values, or null if there is no such row
+     * @throws IOException if the stored record is corrupt
+     */
+    public synchronized Object[] get(Table table, long key) throws IOException {
+        ensureOpen();
+        Long location = index.get(table).get(key);
+        return location == null ? null : decode(location);
+    }
+
+    /**
+     * Checks whether a row exists.
+     *
+     * @param table the table of the row
+     * @param key   the key of the row
+     * @return true if the row exists
+     */
+    public synchronized boolean contains(Table table, long key) {
+        return index.get(table).containsKey(key);
+    }
+
+    /**
+     * Passes every live row of a table to a visitor, in ascending key order. The store is
+     * locked while the rows are visited.
+     *
+     * @param table   the table
+     * @param visitor the receiver of the rows
+     * @throws IOException if a stored record is corrupt or the visitor fails
+     */
+    public synchronized void forEach(Table table, RowVisitor visitor) throws IOException {
+        ensureOpen();
+        Map<Long, Long> rows = index.get(table);
+        long[] keys = rows.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        for (long key : keys) {
+            visitor.row(key, decode(rows.get(key)));
+        }
+    }
+
+    /**
+     * Returns the number of live rows of a table.
+     *
+     * @param table the table
+     * @return the number of rows
+     */
+    public synchronized int count(Table table) {
+        return index.get(table).size();
+    }
+
+    /**
+     * Returns the highest key written to a table, so new keys can be chosen above it.
+     *
+     * @param table the table
+     * @return the highest key, or 0 if the table was never written
+     */
+    public synchronized long maxKey(Table table) {
+        return maxKeys[table.ordinal()];
+    }
+
+    /**
+     * Checks whether the store holds no rows at all.
+     *
+     * @return true if every table is empty
+     */
+    public synchronized boolean isEmpty() {
+        return index.values().stream().allMatch(Map::isEmpty);
+    }
+
+    /**
+     * Returns the number of segment files.
+     *
+     * @return the number of segments
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Returns the number of compactions that replaced segments since the store was opened.
+     *
+     * @return the number of compactions
+     */
+    public synchronized long getCompactions() {
+        return compactions;
+    }
+
+    /**
+     * Writes the newest segment to disk, so its records survive a crash of the machine.
+     * Full segments are synced when the next one is started.
+     */
+    public void sync() {
+        MappedByteBuffer buffer;
+        synchronized (this) {
+            if (closed) return;
+            buffer = active.buffer;
+        }
+        buffer.force();
+    }
+
+    /**
+     * Copies the live records of all full segments to one new segment that replaces them,
+     * if at least half of their bytes belong to overwritten or deleted rows. Writes may
+     * continue while the records are copied.
+     *
+     * @return true if segments were replaced
+     * @throws IOException if the new segment cannot be written
+     */
+    public boolean compact() throws IOException {
+        synchronized (compactionLock) {
+            List<Segment> sealed;
+            List<Table> tables = new ArrayList<>();
+            List<long[]> entries = new ArrayList<>();
+            long total = 0;
+            synchronized (this) {
+                if (closed) return false;
+                sealed = new ArrayList<>(segments.headMap(active.number).values());
+                long used = 0;
+                long live = 0;
+                for (Segment segment : sealed) {
+                    used += segment.end - SEGMENT_HEADER;
+                    live += segment.liveBytes;
+                }
+                if (sealed.isEmpty() || used == 0 || live * 2 > used) return false;
+                for (Map.Entry<Table, Map<Long, Long>> table : index.entrySet()) {
+                    for (Map.Entry<Long, Long> row : table.getValue().entrySet()) {
+                        if (segmentOf(row.getValue()) < active.number) {
+                            tables.add(table.getKey());
+                            entries.add(new long[] {row.getKey(), row.getValue()});
+                            total += recordSize(row.getValue());
+                        }
+                    }
+                }
+            }
+            if (SEGMENT_HEADER + total > Integer.MAX_VALUE) {
+                throw new IOException("Live records of " + total + " bytes do not fit in one segment");
+            }
+
+            // Full segments never change, so their records are copied without holding the lock
+            Segment last = sealed.get(sealed.size() - 1);
+            Path temporary = directory.resolve(segmentName(last.number) + COMPACT_SUFFIX);
+            Segment copy = Segment.create(temporary, last.number, sealed.get(0).base, (int) (SEGMENT_HEADER + total));
+            Segment merged = new Segment(segmentFile(last.number), copy.number, copy.base, copy.buffer);
+            long[] locations = new long[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                long from = entries.get(i)[1];
+                Segment source = sealed.get(indexOf(sealed, segmentOf(from)));
+                int size = recordSize(source, offsetOf(from));
+                byte[] bytes = new byte[size];
+                source.buffer.get(offsetOf(from), bytes);
+                merged.buffer.put(merged.end, bytes);
+                locations[i] = location(merged.number, merged.end);
+                merged.end += size;
+            }
+            merged.buffer.force();
+            Files.deleteIfExists(directory.resolve(INDEX_FILE));
+            Files.move(temporary, segmentFile(last.number), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+
+            synchronized (this) {
+                for (int i = 0; i < entries.size(); i++) {
+                    Map<Long, Long> rows = index.get(tables.get(i));
+                    long key = entries.get(i)[0];
+                    Long current = rows.get(key);
+                    // Rows written while copying keep their newer record
+                    if (current != null && current == entries.get(i)[1]) {
+                        rows.put(key, locations[i]);
+                        merged.liveBytes += recordSize(merged, offsetOf(locations[i]));
+                    }
+                }
+                for (Segment segment : sealed) {
+                    segments.remove(segment.number);
+                }
+                segments.put(merged.number, merged);
+                compactions++;
+                writeIndex();
+            }
+            for (Segment segment : sealed) {
+                if (segment != last) deleteSegment(segment.number);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stops the background thread, syncs the newest segment and writes the index file.
+     *
+     * @throws IOException if the index file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (background != null) {
+            background.shutdown();
+            try {
+                background.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (compactionLock) {
+            synchronized (this) {
+                if (closed) return;
+                active.buffer.force();
+                writeIndex();
+                closed = true;
+            }
+        }
+    }
+
+    private void maintain() {
+        try {
+            sync();
+            compact();
+        } catch (IOException | RuntimeException e) {
+            DatabaseConnector.logError("Log store maintenance failed in " + directory, e);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("Log store is closed: " + directory);
+    }
+
+    private void openSegments() throws IOException {
+        TreeMap<Integer, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> listing = Files.newDirectoryStream(directory)) {
+            for (Path file : listing) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(COMPACT_SUFFIX)) {
+                    // A compaction that did not finish; the segments it would have replaced are intact
+                    Files.delete(file);
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    files.put(Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), file);
+                }
+            }
+        }
+        for (int number : new ArrayList<>(files.descendingKeySet())) {
+            if (!files.containsKey(number)) continue;
+            Segment segment = Segment.open(files.get(number), number);
+            // A compaction that replaced its segments but did not get to delete them all
+            for (int superseded : new ArrayList<>(files.subMap(segment.base, number).keySet())) {
+                deleteSegment(superseded);
+                files.remove(superseded);
+            }
+            segments.put(number, segment);
+        }
+        if (segments.isEmpty()) {
+            active = Segment.create(segmentFile(1), 1, 1, segmentBytes);
+            segments.put(1, active);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+    }
+
+    private void replayAll() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.end = replay(segment, SEGMENT_HEADER);
+            if (segment != active && segment.end + RECORD_HEADER <= segment.capacity()
+                    && segment.buffer.getInt(segment.end + 4) != 0) {
+                DatabaseConnector.logError("Corrupt record in " + segment.file + " at offset " + segment.end
+                    + "; the rest of the segment is skipped", new IOException("Checksum mismatch"));
+            }
+        }
+        clearTail();
+    }
+
+    private int replay(Segment segment, int from) throws IOException {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = from;
+        while (offset + RECORD_HEADER <= segment.capacity()) {
+            int length = buffer.getInt(offset + 4);
+            if (length < RECORD_PREFIX || length > segment.capacity() - offset - RECORD_HEADER) break;
+            if (checksum(buffer, offset + 4, length + 4) != buffer.getInt(offset)) break;
+            byte op = buffer.get(offset + RECORD_HEADER);
+            int table = buffer.get(offset + RECORD_HEADER + 1);
+            if ((op != OP_PUT && op != OP_DELETE) || table < 0 || table >= TABLES.length) break;
+            apply(TABLES[table], buffer.getLong(offset + RECORD_HEADER + 2), op, location(segment.number, offset),
+                RECORD_HEADER + length);
+            offset += RECORD_HEADER + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Zeroes whatever a torn write left after the last valid record, so it cannot be
+     * mistaken for records when the space is written again.
+     */
+    private void clearTail() {
+        MappedByteBuffer buffer = active.buffer;
+        byte[] zeros = new byte[4096];
+        for (int offset = active.end; offset < active.capacity(); offset += zeros.length) {
+            int length = Math.min(zeros.length, active.capacity() - offset);
+            boolean dirty = false;
+            for (int i = 0; i < length && !dirty; i++) {
+                dirty = buffer.get(offset + i) != 0;
+            }
+            if (dirty) buffer.put(offset, zeros, 0, length);
+        }
+    }
+
+    private void apply(Table table, long key, byte op, long location, int size) {
+        Long previous = op == OP_PUT ? index.get(table).put(key, location) : index.get(table).remove(key);
+        if (previous != null) {
+            segments.get(segmentOf(previous)).liveBytes -= recordSize(previous);
+        }
+        if (op == OP_PUT) {
+            segments.get(segmentOf(location)).liveBytes += size;
+            maxKeys[table.ordinal()] = Math.max(maxKeys[table.ordinal()], key);
+        }
+    }
+
+    private void startRecord(byte op, Table table, long key) {
+        scratch.clear();
+        scratch.position(RECORD_HEADER);
+        scratch.put(op).put((byte) table.ordinal()).putLong(key);
+    }
+
+    private void append(Table table, long key, byte op) throws IOException {
+        int size = scratch.position();
+        if (size > segmentBytes - SEGMENT_HEADER) {
+            throw new IOException("Record of " + size + " bytes does not fit in a segment of " + segmentBytes);
+        }
+        if (active.end + size > active.capacity()) {
+            active.buffer.force();
+            active = Segment.create(segmentFile(active.number + 1), active.number + 1, active.number + 1,
+                segmentBytes);
+            segments.put(active.number, active);
+        }
+        scratch.putInt(4, size - RECORD_HEADER);
+        crc.reset();
+        crc.update(scratch.array(), 4, size - 4);
+        scratch.putInt(0, (int) crc.getValue());
+        active.buffer.put(active.end, scratch.array(), 0, size);
+        apply(table, key, op, location(active.number, active.end), size);
+        active.end += size;
+    }
+
+    private void ensureScratch(int bytes) {
+        if (scratch.remaining() >= bytes) return;
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(scratch.capacity() * 2, scratch.position() + bytes));
+        scratch.flip();
+        larger.put(scratch);
+        scratch = larger;
+    }
+
+    private void encode(Object value) {
+        if (value == null) {
+            ensureScratch(1);
+            scratch.put(TYPE_NULL);
+        } else if (value instanceof Integer) {
+            ensureScratch(5);
+            scratch.put(TableWriter.TYPE_INT).putInt((Integer) value);
+        } else if (value instanceof Long) {
+            ensureScratch(9);
+            scratch.put(TableWriter.TYPE_LONG).putLong((Long) value);
+        } else if (value instanceof String) {
+            byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            ensureScratch(5 + bytes.length);
+            scratch.put(TableWriter.TYPE_STRING).putInt(bytes.length).put(bytes);
+        } else if (value instanceof Date) {
+            ensureScratch(9);
+            scratch.put(TableWriter.TYPE_DATE).putLong(((Date) value).toLocalDate().toEpochDay());
+        } else if (value instanceof Timestamp) {
+            LocalDateTime time = ((Timestamp) value).toLocalDateTime();
+            ensureScratch(13);
+            scratch.put(TableWriter.TYPE_TIMESTAMP).putLong(time.toEpochSecond(ZoneOffset.UTC)).putInt(time.getNano());
+        } else {
+            throw new IllegalArgumentException("Cannot store a " + value.getClass().getSimpleName());
+        }
+    }
+
+    private Object[] decode(long location) throws IOException {
+        Segment segment = segments.get(segmentOf(location));
+        int offset = offsetOf(location);
+        int length = segment.buffer.getInt(offset + 4);
+        if (checksum(segment.buffer, offset + 4, length + 4) != segment.buffer.getInt(offset)) {
+            throw new IOException("Corrupt record in " + segment.file + " at offset " + offset);
+        }
+        ByteBuffer in = segment.buffer.slice(offset + RECORD_HEADER + RECORD_PREFIX, length - RECORD_PREFIX);
+        Object[] values = new Object[in.getShort()];
+        for (int i = 0; i < values.length; i++) {
+            byte type = in.get();
+            switch (type) {
+                case TYPE_NULL:
+                    break;
+                case TableWriter.TYPE_INT:
+                    values[i] = in.getInt();
+                    break;
+                case TableWriter.TYPE_LONG:
+                    values[i] = in.getLong();
+                    break;
+                case TableWriter.TYPE_STRING: {
+                    byte[] bytes = new byte[in.getInt()];
+                    in.get(bytes);
+                    values[i] = new String(bytes, StandardCharsets.UTF_8);
+                    break;
+                }
+                case TableWriter.TYPE_DATE:
+                    values[i] = Date.valueOf(LocalDate.ofEpochDay(in.getLong()));
+                    break;
+                case TableWriter.TYPE_TIMESTAMP:
+                    values[i] = Timestamp.valueOf(LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC));
+                    break;
+                default:
+                    throw new IOException("Unknown value type " + type + " in " + segment.file + " at offset " + offset);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Reads the index file and replays the records appended after it was written.
+     *
+     * @return false if there is no usable index file, so every segment must be replayed
+     */
+    private boolean readIndex() throws IOException {
+        Path file = directory.resolve(INDEX_FILE);
+        if (!Files.exists(file)) return false;
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (in.limit() < 8 || checksum(in, 0, in.limit() - 4) != in.getInt(in.limit() - 4)
+                    || in.getInt() != INDEX_MAGIC || in.getInt() != FORMAT_VERSION) {
+                throw new IOException("Checksum or format mismatch");
+            }
+            int activeNumber = in.getInt();
+            int activeEnd = in.getInt();
+            int segmentCount = in.getInt();
+            for (int i = 0; i < segmentCount; i++) {
+                Segment segment = segments.get(in.getInt());
+                if (segment == null) throw new IOException("Missing segment");
+                segment.end = in.getInt();
+                segment.liveBytes = in.getLong();
+            }
+            if (segments.headMap(activeNumber, true).size() != segmentCount
+                    || !segments.containsKey(activeNumber)) {
+                throw new IOException("Segments do not match");
+            }
+            for (Table table : TABLES) {
+                maxKeys[table.ordinal()] = in.getLong();
+                Map<Long, Long> rows = index.get(table);
+                int count = in.getInt();
+                for (int i = 0; i < count; i++) {
+                    long key = in.getLong();
+                    long location = in.getLong();
+                    Segment segment = segments.get(segmentOf(location));
+                    if (segment == null || offsetOf(location) >= segment.end) throw new IOException("Bad location");
+                    rows.put(key, location);
+                }
+            }
+            Segment current = segments.get(activeNumber);
+            current.end = replay(current, activeEnd);
+            for (Segment segment : segments.tailMap(activeNumber, false).values()) {
+                segment.end = replay(segment, SEGMENT_HEADER);
+            }
+            clearTail();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            DatabaseConnector.logError("Index file of " + directory + " is unusable; replaying every segment", e);
+            for (Map<Long, Long> rows : index.values()) {
+                rows.clear();
+            }
+            Arrays.fill(maxKeys, 0);
+            for (Segment segment : segments.values()) {
+                segment.end = SEGMENT_HEADER;
+                segment.liveBytes = 0;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Writes the index to a temporary file and moves it over the index file, so a crash
+     * leaves either the old or the new index.
+     */
+    private void writeIndex() throws IOException {
+        int rows = index.values().stream().mapToInt(Map::size).sum();
+        ByteBuffer out = ByteBuffer.allocate(24 + segments.size() * 16 + TABLES.length * 12 + rows * 16);
+        out.putInt(INDEX_MAGIC).putInt(FORMAT_VERSION).putInt(active.number).putInt(active.end);
+        out.putInt(segments.size());
+        for (Segment segment : segments.values()) {
+            out.putInt(segment.number).putInt(segment.end).putLong(segment.liveBytes);
+        }
+        for (Table table : TABLES) {
+            out.putLong(maxKeys[table.ordinal()]);
+            out.putInt(index.get(table).size());
+            for (Map.Entry<Long, Long> row : index.get(table).entrySet()) {
+                out.putLong(row.getKey()).putLong(row.getValue());
+            }
+        }
+        out.putInt(checksum(out, 0, out.position()));
+        out.flip();
+        Path temporary = directory.resolve(INDEX_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(INDEX_FILE), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteSegment(int number) {
+        try {
+            Files.deleteIfExists(segmentFile(number));
+        } catch (IOException e) {
+            // Some platforms refuse to delete mapped files; the next open deletes it
+            DatabaseConnector.logError("Failed to delete replaced segment " + number + " in " + directory, e);
+        }
+    }
+
+    private int recordSize(long location) {
+        return recordSize(segments.get(segmentOf(location)), offsetOf(location));
+    }
+
+    private static int recordSize(Segment segment, int offset) {
+        return RECORD_HEADER + segment.buffer.getInt(offset + 4);
+    }
+
+    private static int indexOf(List<Segment> list, int number) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).number == number) return i;
+        }
+        throw new IllegalStateException("Segment " + number + " is not being compacted");
+    }
+
+    private int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32C check = new CRC32C();
+        check.update(buffer.slice(offset, length));
+        return (int) check.getValue();
+    }
+
+    private Path segmentFile(int number) {
+        return directory.resolve(segmentName(number));
+    }
+
+    private static String segmentName(int number) {
+        return String.format("%08d%s", number, SEGMENT_SUFFIX);
+    }
+
+    private static long location(int segment, int offset) {
+        return ((long) segment << 32) | (offset & 0xffffffffL);
+    }
+
+    private static int segmentOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf(long location) {
+        return (int) location;
+    }
+
+    /**
+     * A memory-mapped segment file and how much of it is used and live.
+     */
+    private static final class Segment {
+        private final Path file;
+        private final int number;
+        private final int base;
+        private final MappedByteBuffer buffer;
+        private int end = SEGMENT_HEADER;
+        private long liveBytes;
+
+        private Segment(Path file, int number, int base, MappedByteBuffer buffer) {
+            this.file = file;
+            this.number = number;
+            this.base = base;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path file, int number, int base, int capacity) throws IOException {
+            Segment segment = new Segment(file, number, base, map(file, capacity));
+            segment.buffer.putInt(0, SEGMENT_MAGIC).putInt(4, FORMAT_VERSION).putInt(8, base);
+            return segment;
+        }
+
+        static Segment open(Path file, int number) throws IOException {
+            MappedByteBuffer buffer = map(file, (int) Files.size(file));
+            if (buffer.capacity() < SEGMENT_HEADER || buffer.getInt(0) != SEGMENT_MAGIC
+                    || buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Not a log segment: " + file);
+            }
+            return new Segment(file, number, buffer.getInt(8), buffer);
+        }
+
+        private static MappedByteBuffer map(Path file, int capacity) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            }
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+    }
+}
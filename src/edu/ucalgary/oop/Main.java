@@ -1,11 +1,54 @@
 package edu.ucalgary.oop;
 
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Scanner;
+
 /**
  * Main entry point for the Disaster Relief Management System.
  * Handles application initialization and lifecycle.
  * 
  * Supports command-line language selection via --lang=xx-YY.
  * Falls back to interactive language menu if not provided.
+ * Passing --dedup scans all persons for duplicates and offers to merge them
+ * instead of starting the menu. Passing --import=file.csv (optionally with
+ * --rejects=file.csv) bulk-imports victims and exits. Passing --export=dir
+ * (optionally with --format=csv|columnar and --parallel) writes every table
+ * to files in that directory and exits. Passing --query="SQL" (optionally with
+ * --page-size=n, --fetch-size=n and --limit=n) streams the query result a page
+ * at a time and exits. Passing --serve=port (or --serve=unix:/path/to.sock)
+ * hosts concurrent operator sessions over TCP or a local socket, all sharing
+ * one copy of the data; TCP sessions are accepted on the loopback interface
+ * only unless --serve-bind=address is given. Passing --http=port serves the
+ * data as a read-only HTTP/JSON API on the loopback interface only; add
+ * --http-bind=address (for example --http-bind=0.0.0.0) to accept other
+ * machines. Combined with --serve, both share the same data. Passing
+ * --batch=file (optionally with --batch-size=n) runs a file of add-victim,
+ * allocate and log-inquiry commands without prompting and exits. Passing
+ * --metrics (optionally with --metrics-interval=seconds) records timings and
+ * counts, writes them to data/metrics.txt periodically and serves them at
+ * /api/metrics when the HTTP API is running. Passing --generate=file.sql
+ * (optionally with --persons=n, --seed=n and --supplies-per-person=x) writes a
+ * synthetic population as a psql script for the tables of project.sql and exits.
+ * Passing --embedded runs any mode on an in-memory H2 database loaded from
+ * project.sql instead of the PostgreSQL server; --embedded=path keeps the
+ * database in a file that is created from project.sql on first use.
+ * Passing --storage=memory keeps every change in memory instead of writing
+ * it to the database; --storage=jdbc is the default. Passing --log=dir runs the
+ * menu, --serve and --http on a local log-structured store in that directory
+ * instead of a database; a new store is first filled from the database chosen
+ * by the other options, so it can be prepared before going to the field.
+ * Passing --change-log=file records every change made to the database as an
+ * event in that file; --change-log=db records them in the database's own
+ * ChangeEvent table, shared by every desk. With --change-log=db the menu, --serve
+ * and --http also apply the changes other desks record there as they happen.
  * 
  * Example: java Main --lang=fr-CA
  * 
@@ -28,39 +71,166 @@ public class Main {
      * 
      * Handles cleanup of resources and error logging.
      *
-     * @param args Command line arguments (supports --lang=xx-YY)
+     * @param args Command line arguments (supports --lang=xx-YY, --dedup, --import=file, --rejects=file,
+     *             --export=dir, --format=csv|columnar, --parallel, --query=sql, --page-size=n,
+     *             --fetch-size=n, --limit=n, --serve=port|unix:path, --serve-bind=address,
+     *             --http=port, --http-bind=address, --batch=file, --batch-size=n, --metrics,
+     *             --metrics-interval=seconds, --generate=file,
+     *             --persons=n, --seed=n, --supplies-per-person=x
+     *             --embedded[=path], --storage=jdbc|memory, --log=dir and --change-log=file|db)
      */
     public static void main(String[] args) {
         try {
             String languageCode = null;
+            boolean dedup = false;
+            String importFile = null;
+            String rejectFile = null;
+            String exportDir = null;
+            DataExporter.Format exportFormat = DataExporter.Format.CSV;
+            boolean parallel = false;
+            String query = null;
+            int pageSize = 50;
+            int fetchSize = 500;
+            long rowLimit = 0;
+            String serve = null;
+            InetAddress serveBind = InetAddress.getLoopbackAddress();
+            int httpPort = -1;
+            InetAddress httpBind = InetAddress.getLoopbackAddress();
+            String batchFile = null;
+            int batchSize = BatchRunner.DEFAULT_BATCH_SIZE;
+            boolean metrics = Metrics.isEnabled();
+            long metricsInterval = 60;
+            String generateFile = null;
+            int persons = 10_000;
+            long seed = 380;
+            double suppliesPerPerson = 2.0;
+            String embedded = null;
+            String storage = JdbcStorage.NAME;
+            String logDir = null;
+            String changeLog = null;
 
-            // Check for command-line argument --lang=xx-YY
+            // Check for command-line arguments
             for (String arg : args) {
                 if (arg.startsWith("--lang=")) {
                     languageCode = arg.substring("--lang=".length());
-                    break;
+                } else if (arg.equals("--dedup")) {
+                    dedup = true;
+                } else if (arg.startsWith("--import=")) {
+                    importFile = arg.substring("--import=".length());
+                } else if (arg.startsWith("--rejects=")) {
+                    rejectFile = arg.substring("--rejects=".length());
+                } else if (arg.startsWith("--export=")) {
+                    exportDir = arg.substring("--export=".length());
+                } else if (arg.startsWith("--format=")) {
+                    exportFormat = DataExporter.Format.valueOf(arg.substring("--format=".length()).toUpperCase());
+                } else if (arg.equals("--parallel")) {
+                    parallel = true;
+                } else if (arg.startsWith("--query=")) {
+                    query = arg.substring("--query=".length());
+                } else if (arg.startsWith("--page-size=")) {
+                    pageSize = Integer.parseInt(arg.substring("--page-size=".length()));
+                } else if (arg.startsWith("--fetch-size=")) {
+                    fetchSize = Integer.parseInt(arg.substring("--fetch-size=".length()));
+                } else if (arg.startsWith("--limit=")) {
+                    rowLimit = Long.parseLong(arg.substring("--limit=".length()));
+                } else if (arg.startsWith("--serve=")) {
+                    serve = arg.substring("--serve=".length());
+                } else if (arg.startsWith("--serve-bind=")) {
+                    serveBind = InetAddress.getByName(arg.substring("--serve-bind=".length()));
+                } else if (arg.startsWith("--http=")) {
+                    httpPort = Integer.parseInt(arg.substring("--http=".length()));
+                } else if (arg.startsWith("--http-bind=")) {
+                    httpBind = InetAddress.getByName(arg.substring("--http-bind=".length()));
+                } else if (arg.startsWith("--batch=")) {
+                    batchFile = arg.substring("--batch=".length());
+                } else if (arg.startsWith("--batch-size=")) {
+                    batchSize = Integer.parseInt(arg.substring("--batch-size=".length()));
+                } else if (arg.equals("--metrics")) {
+                    metrics = true;
+                } else if (arg.startsWith("--metrics-interval=")) {
+                    metricsInterval = Long.parseLong(arg.substring("--metrics-interval=".length()));
+                } else if (arg.startsWith("--generate=")) {
+                    generateFile = arg.substring("--generate=".length());
+                } else if (arg.startsWith("--persons=")) {
+                    persons = Integer.parseInt(arg.substring("--persons=".length()));
+                } else if (arg.startsWith("--seed=")) {
+                    seed = Long.parseLong(arg.substring("--seed=".length()));
+                } else if (arg.startsWith("--supplies-per-person=")) {
+                    suppliesPerPerson = Double.parseDouble(arg.substring("--supplies-per-person=".length()));
+                } else if (arg.equals("--embedded")) {
+                    embedded = "";
+                } else if (arg.startsWith("--embedded=")) {
+                    embedded = arg.substring("--embedded=".length());
+                } else if (arg.startsWith("--storage=")) {
+                    storage = arg.substring("--storage=".length());
+                } else if (arg.startsWith("--log=")) {
+                    logDir = arg.substring("--log=".length());
+                } else if (arg.startsWith("--change-log=")) {
+                    changeLog = arg.substring("--change-log=".length());
                 }
             }
-            // Initialize language support
+            // Enabled before the database is opened, so its connections are instrumented
+            if (metrics) {
+                Metrics.setEnabled(true);
+                Metrics.startDump(Paths.get("data/metrics.txt"), metricsInterval);
+            }
+            // Initialize language support; non-interactive modes do not prompt for a language
             LanguageSupport languageSupport;
             if (languageCode != null) {
                 languageSupport = new LanguageSupport(languageCode);
             } else {
                 languageSupport = new LanguageSupport("en-CA");
-                languageSupport.chooseLanguage();
+                if (importFile == null && exportDir == null && query == null && serve == null && httpPort < 0
+                        && batchFile == null && generateFile == null) {
+                    languageSupport.chooseLanguage();
+                }
+            }
+
+            if (generateFile != null) {
+                runGenerate(languageSupport, Paths.get(generateFile),
+                    new SyntheticDataGenerator(seed, persons).setSuppliesPerPerson(suppliesPerPerson));
+                return;
+            }
+            if (importFile != null) {
+                runImport(languageSupport, connect(embedded, storage, changeLog), importFile,
+                    rejectFile != null ? rejectFile : importFile + ".rejects.csv");
+                return;
+            }
+            if (exportDir != null) {
+                runExport(languageSupport, connect(embedded, storage, changeLog), Paths.get(exportDir), exportFormat, parallel);
+                return;
+            }
+            if (query != null) {
+                runQuery(languageSupport, connect(embedded, storage, changeLog), query, pageSize, fetchSize, rowLimit);
+                return;
+            }
+            if (batchFile != null) {
+                runBatch(languageSupport, connect(embedded, storage, changeLog), batchFile, batchSize);
+                return;
+            }
+            if (serve != null || httpPort >= 0) {
+                runServer(logDir != null ? connectLog(logDir, embedded) : connect(embedded, storage, changeLog), serve,
+                    serveBind, httpBind, httpPort);
+                return;
             }
 
             // Create the user interface with language support
             UserInterfaceImplied ui = new UserInterfaceImplied(languageSupport);
 
-            // Get the singleton database connection instance and set it
-            DatabaseConnector dbConnection = DatabaseConnection.getInstance();
+            // Get the database connection and set it
+            DatabaseConnector dbConnection = logDir != null ? connectLog(logDir, embedded) : connect(embedded, storage, changeLog);
             ui.setDatabaseConnection(dbConnection);
+            ChangeFeed feed = startFeed(dbConnection, ui.getModel());
 
-            // Run the application
-            ui.run();
+            // Run the application, or only the duplicate review when requested
+            if (dedup) {
+                DuplicateDetector.reviewDuplicates(ui);
+            } else {
+                ui.run();
+            }
 
-            // Cleanup: Close the database connection
+            // Cleanup: Stop following other desks and close the database connection
+            if (feed != null) feed.close();
             dbConnection.closeConnection();
         } catch (Exception e) {
             System.err.println("Unexpected error: " + e.getMessage());
@@ -68,4 +238,237 @@ public class Main {
             System.exit(1);
         }
     }
+
+    /**
+     * Connects to the PostgreSQL server, or to an embedded database when requested,
+     * selects the storage engine changes are written to and where they are recorded.
+     *
+     * @param embedded null for the server, empty for a database in memory, or the path of a database file
+     * @param storage the name of the storage engine
+     * @param changeLog null to record nothing, {@code db} for the database's change log, or a log file
+     * @return the connection, with its data loaded
+     * @throws Exception if the database cannot be opened or loaded, or the engine is unknown
+     */
+    private static DatabaseConnection connect(String embedded, String storage, String changeLog) throws Exception {
+        DatabaseConnection dbConnection;
+        if (embedded == null) {
+            dbConnection = DatabaseConnection.getInstance();
+        } else {
+            Path script = Paths.get("project.sql");
+            dbConnection = embedded.isEmpty() ? EmbeddedDatabaseConnection.inMemory(script)
+                : EmbeddedDatabaseConnection.open(Paths.get(embedded), script);
+        }
+        dbConnection.setStorage(Storage.create(storage, dbConnection));
+        if (changeLog != null) {
+            dbConnection.setChangeLog(changeLog.equals("db") ? new JdbcChangeLog(dbConnection)
+                : new FileChangeLog(Paths.get(changeLog)));
+            // Loaded again now the shared log is known, so the feed can start from where the load began
+            if (changeLog.equals("db")) dbConnection.loadData();
+        }
+        return dbConnection;
+    }
+
+    /**
+     * Opens the log-structured store in a directory, first filling a new store from the
+     * PostgreSQL server or embedded database.
+     *
+     * @param directory the directory of the store
+     * @param embedded the database a new store is filled from, as for {@link #connect(String, String, String)}
+     * @return the connection to the store, with its data loaded
+     * @throws Exception if the store cannot be opened or filled
+     */
+    private static LogDatabaseConnection connectLog(String directory, String embedded) throws Exception {
+        LogStore store = LogStore.open(Paths.get(directory));
+        if (store.isEmpty()) {
+            DatabaseConnection source = connect(embedded, JdbcStorage.NAME, null);
+            try {
+                LogDatabaseConnection.copy(source.getConnection(), store);
+            } finally {
+                source.closeConnection();
+            }
+        }
+        return new LogDatabaseConnection(store);
+    }
+
+    /**
+     * Starts applying the changes other desks record in the database's change log to a
+     * model, when changes are recorded there. The feed reads on a connection of its own,
+     * from the last event recorded before the data was loaded, so changes committed while
+     * it loaded are applied too.
+     *
+     * @param dbConnection the connection the model was loaded from
+     * @param model the model to keep current
+     * @return the running feed, or null if the connection records no shared change log
+     * @throws Exception if the change log cannot be read
+     */
+    private static ChangeFeed startFeed(DatabaseConnector dbConnection, ReliefModel model) throws Exception {
+        if (!(dbConnection instanceof DatabaseConnection)) return null;
+        DatabaseConnection db = (DatabaseConnection) dbConnection;
+        if (!(db.getChangeLog() instanceof JdbcChangeLog)) return null;
+        JdbcChangeLog log = new JdbcChangeLog(db.openConnection());
+        ChangeFeed feed = new ChangeFeed(log, model, db.getLoadedSequence(),
+            ChangeFeed.DEFAULT_CAPACITY, ChangeFeed.DEFAULT_POLL_MILLIS);
+        feed.setSignal(log.listen());
+        return feed.start();
+    }
+
+    /**
+     * Imports victims from a CSV file and prints a summary.
+     *
+     * @param languageSupport the language support used for messages
+     * @param dbConnection the database to import into
+     * @param importFile the CSV file to import
+     * @param rejectFile the file rejected rows are written to
+     * @throws Exception if the import fails
+     */
+    private static void runImport(LanguageSupport languageSupport, DatabaseConnector dbConnection,
+                                  String importFile, String rejectFile) throws Exception {
+        try (Reader csv = Files.newBufferedReader(Paths.get(importFile), StandardCharsets.UTF_8);
+             Writer rejects = Files.newBufferedWriter(Paths.get(rejectFile), StandardCharsets.UTF_8)) {
+            ReliefModel model = new ReliefModel(dbConnection);
+            VictimImporter.Result result = new VictimImporter(model).importCsv(csv, rejects, model);
+            System.out.println(String.format(languageSupport.getText("import_summary"),
+                result.getImported(), result.getRejected(), result.getElapsedMillis() / 1000.0,
+                result.getRowsPerMinute()));
+            if (result.getRejected() > 0) {
+                System.out.println(String.format(languageSupport.getText("import_rejects"), rejectFile));
+            }
+        } finally {
+            dbConnection.closeConnection();
+        }
+    }
+
+    /**
+     * Exports every table of the dataset to a directory and prints a summary.
+     *
+     * @param languageSupport the language support used for messages
+     * @param dbConnection the database to export
+     * @param directory the directory the files are written to
+     * @param format the output format
+     * @param parallel whether to export the tables concurrently
+     * @throws Exception if the export fails
+     */
+    private static void runExport(LanguageSupport languageSupport, RealDatabaseConnection dbConnection, Path directory,
+                                  DataExporter.Format format, boolean parallel) throws Exception {
+        try {
+            Files.createDirectories(directory);
+            long start = System.nanoTime();
+            Map<DataExporter.Table, Long> counts = new DataExporter(dbConnection, format, DataExporter.DEFAULT_FETCH_SIZE)
+                .exportAll(directory, Arrays.asList(DataExporter.Table.values()), parallel);
+            for (Map.Entry<DataExporter.Table, Long> entry : counts.entrySet()) {
+                System.out.println(String.format(languageSupport.getText("export_table"),
+                    entry.getKey().getFileName() + "." + format.getExtension(), entry.getValue()));
+            }
+            System.out.println(String.format(languageSupport.getText("export_summary"),
+                counts.size(), directory, (System.nanoTime() - start) / 1_000_000_000.0));
+        } finally {
+            dbConnection.closeConnection();
+        }
+    }
+
+    /**
+     * Writes a synthetic population to a psql script and prints a summary. No database is needed.
+     *
+     * @param languageSupport the language support used for messages
+     * @param file the script to write
+     * @param generator the generator of the population
+     * @throws Exception if writing fails
+     */
+    private static void runGenerate(LanguageSupport languageSupport, Path file,
+                                    SyntheticDataGenerator generator) throws Exception {
+        long start = System.nanoTime();
+        Map<Table, Long> counts = generator.writeSql(file);
+        for (Map.Entry<Table, Long> entry : counts.entrySet()) {
+            System.out.println(String.format(languageSupport.getText("generate_table"),
+                entry.getKey().getName(), entry.getValue()));
+        }
+        System.out.println(String.format(languageSupport.getText("generate_summary"),
+            generator.getPersons(), file, (System.nanoTime() - start) / 1_000_000_000.0));
+    }
+
+    /**
+     * Runs an ad-hoc query and prints its rows a page at a time as they are fetched.
+     *
+     * @param languageSupport the language support used for messages
+     * @param dbConnection the database to query
+     * @param query the SQL query
+     * @param pageSize the number of rows shown before pausing, or 0 to never pause
+     * @param fetchSize the number of rows fetched per round trip
+     * @param rowLimit the maximum number of rows, or 0 for no limit
+     * @throws Exception if the query fails
+     */
+    private static void runQuery(LanguageSupport languageSupport, RealDatabaseConnection dbConnection, String query,
+                                 int pageSize, int fetchSize, long rowLimit) throws Exception {
+        try {
+            QueryPager pager = new QueryPager(languageSupport, new Scanner(System.in), System.out, pageSize);
+            long rows = dbConnection.executeCustomQuery(query, fetchSize, rowLimit, pager);
+            System.out.println(String.format(languageSupport.getText("query_done"), rows));
+        } finally {
+            dbConnection.closeConnection();
+        }
+    }
+
+    /**
+     * Runs a file of commands without prompting and prints a summary.
+     *
+     * @param languageSupport the language support used for messages
+     * @param dbConnection the database the commands change
+     * @param batchFile the command file
+     * @param batchSize the number of commands per transaction
+     * @throws Exception if the command file cannot be read or the database cannot be reached
+     */
+    private static void runBatch(LanguageSupport languageSupport, DatabaseConnector dbConnection,
+                                 String batchFile, int batchSize) throws Exception {
+        ReliefModel model = new ReliefModel(dbConnection);
+        try (Reader commands = Files.newBufferedReader(Paths.get(batchFile), StandardCharsets.UTF_8)) {
+            BatchRunner.Result result = new BatchRunner(model, languageSupport, System.out, batchSize).run(commands);
+            System.out.println(String.format(languageSupport.getText("batch_summary"),
+                result.getSucceeded() + result.getFailed(), result.getSucceeded(), result.getFailed(),
+                result.getBatches(), result.getElapsedSeconds(), result.getCommandsPerSecond()));
+        } finally {
+            model.close();
+            dbConnection.closeConnection();
+        }
+    }
+
+    /**
+     * Hosts operator sessions and/or the HTTP API until the process is stopped.
+     *
+     * @param dbConnection the database shared by all sessions
+     * @param address a TCP port, or {@code unix:} followed by a socket file path, or null for no sessions
+     * @param serveBind the address TCP sessions are accepted on
+     * @param httpBind the address the HTTP API listens on
+     * @param httpPort the port of the HTTP API, or -1 for no API
+     * @throws Exception if a server cannot be started
+     */
+    private static void runServer(DatabaseConnector dbConnection, String address, InetAddress serveBind,
+                                  InetAddress httpBind, int httpPort) throws Exception {
+        ReliefModel model = new ReliefModel(dbConnection);
+        SessionServer server = address == null ? null : address.startsWith("unix:")
+            ? SessionServer.onSocketFile(model, Paths.get(address.substring("unix:".length())))
+            : SessionServer.onPort(model, serveBind, Integer.parseInt(address));
+        ReliefApiServer api = httpPort < 0 ? null : new ReliefApiServer(model, httpBind, httpPort);
+        ChangeFeed feed = startFeed(dbConnection, model);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                if (server != null) server.close();
+            } catch (Exception e) {
+                DatabaseConnector.logError("Failed to stop session server", e);
+            }
+            if (api != null) api.close();
+            if (feed != null) feed.close();
+            model.close();
+            dbConnection.closeConnection();
+        }));
+        if (api != null) {
+            api.start();
+            System.out.println("Serving the HTTP API on " + httpBind.getHostAddress() + " port " + api.getPort());
+        }
+        if (server != null) {
+            System.out.println("Accepting operator sessions on " + server.getAddress());
+            server.run();
+        } else {
+            Thread.currentThread().join();
+        }
+    }
 }
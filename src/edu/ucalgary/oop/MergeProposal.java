@@ -0,0 +1,67 @@
+package edu.ucalgary.oop;
+
+/**
+ * An immutable proposal to merge one person record into another.
+ * <p>
+ * The duplicate record's references (inquiries, medical records, locations and
+ * supply allocations) are re-pointed to the surviving record, and the duplicate
+ * person row is removed once the merge is applied.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see DuplicateDetector
+ */
+public class MergeProposal {
+    private final int survivorId;
+    private final int duplicateId;
+    private final double score;
+
+    /**
+     * Constructs a new MergeProposal.
+     *
+     * @param survivorId  the ID of the person record that is kept
+     * @param duplicateId the ID of the person record that is merged away
+     * @param score       the similarity score between the two records (0.0 to 1.0)
+     */
+    public MergeProposal(int survivorId, int duplicateId, double score) {
+        if (survivorId == duplicateId) {
+            throw new IllegalArgumentException("A person cannot be merged into itself");
+        }
+        this.survivorId = survivorId;
+        this.duplicateId = duplicateId;
+        this.score = score;
+    }
+
+    /**
+     * Returns the ID of the person record that is kept.
+     *
+     * @return the survivor ID
+     */
+    public int getSurvivorId() { return survivorId; }
+
+    /**
+     * Returns the ID of the person record that is merged away.
+     *
+     * @return the duplicate ID
+     */
+    public int getDuplicateId() { return duplicateId; }
+
+    /**
+     * Returns the similarity score between the two records.
+     *
+     * @return the score, between 0.0 and 1.0
+     */
+    public double getScore() { return score; }
+
+    /**
+     * Returns a string representation of this proposal.
+     *
+     * @return a string containing the proposal details
+     */
+    @Override
+    public String toString() {
+        return String.format("MergeProposal{survivor=%d, duplicate=%d, score=%.2f}", survivorId, duplicateId, score);
+    }
+}
@@ -0,0 +1,473 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A process-wide registry of counters, latency histograms and gauges.
+ * <p>
+ * Instrumented code holds its {@link Counter} or {@link Histogram} in a static field
+ * and calls it directly, so a hot path pays no lookup. While metrics are disabled,
+ * which is the default, {@link Histogram#start()} returns 0 without reading the clock,
+ * every recording call returns after one volatile read, and
+ * {@link #instrument(Connection)} hands back the connection unwrapped. Metrics are
+ * enabled with the {@code --metrics} command-line option or the
+ * {@code relief.metrics=true} system property.
+ * </p>
+ * <p>
+ * Histograms bucket values log-linearly, like an HDR histogram: every power of two is
+ * split into 16 equal buckets, so any reported percentile is within
+ * about 6% of the true value while a histogram takes a fixed 8 KB.
+ * Gauges are read only when a snapshot is taken.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public final class Metrics {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+    /** SQL statement histograms kept before new statement shapes share one. */
+    private static final int MAX_SQL_HISTOGRAMS = 200;
+
+    private static volatile boolean enabled = Boolean.getBoolean("relief.metrics");
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> sqlHistograms = new ConcurrentHashMap<>();
+    private static final Counter SQL_ERRORS = counter("sql.errors");
+    private static ScheduledExecutorService dumper;
+
+    private Metrics() { }
+
+    /**
+     * A monotonically increasing count.
+     */
+    public static final class Counter {
+        private final LongAdder count = new LongAdder();
+
+        private Counter() { }
+
+        /**
+         * Adds one, if metrics are enabled.
+         */
+        public void increment() {
+            if (enabled) count.increment();
+        }
+
+        /**
+         * Adds an amount, if metrics are enabled.
+         *
+         * @param amount the amount to add
+         */
+        public void add(long amount) {
+            if (enabled) count.add(amount);
+        }
+
+        /**
+         * Returns the current count.
+         *
+         * @return the count
+         */
+        public long get() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * A distribution of durations in nanoseconds, with log-linear buckets.
+     */
+    public static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        private Histogram() { }
+
+        /**
+         * Starts timing an operation.
+         *
+         * @return the start time to pass to {@link #stop(long)}, or 0 if metrics are disabled
+         */
+        public long start() {
+            return enabled ? System.nanoTime() : 0;
+        }
+
+        /**
+         * Records the time since {@link #start()}. Does nothing if timing was not started.
+         *
+         * @param start the value returned by {@link #start()}
+         */
+        public void stop(long start) {
+            if (start != 0) record(System.nanoTime() - start);
+        }
+
+        /**
+         * Records one value, if metrics are enabled.
+         *
+         * @param nanos the value, in nanoseconds; negative values count as 0
+         */
+        public void record(long nanos) {
+            if (!enabled) return;
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(bucketOf(value));
+            count.increment();
+            sum.add(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        /**
+         * Returns the number of values recorded.
+         *
+         * @return the count
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Returns the largest value recorded.
+         *
+         * @return the maximum, in nanoseconds
+         */
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * Returns the mean of the values recorded.
+         *
+         * @return the mean, in nanoseconds, or 0 if nothing was recorded
+         */
+        public long getMean() {
+            long n = count.sum();
+            return n == 0 ? 0 : sum.sum() / n;
+        }
+
+        /**
+         * Returns an approximate percentile of the values recorded.
+         *
+         * @param percentile the percentile, from 0 to 100
+         * @return the value below which that share of values fall, in nanoseconds
+         */
+        public long getPercentile(double percentile) {
+            long total = 0;
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(midpointOf(i), max.get());
+            }
+            return max.get();
+        }
+
+        private void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            sum.reset();
+            max.set(0);
+        }
+
+        static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) return (int) value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        static long midpointOf(int bucket) {
+            if (bucket < SUB_BUCKETS) return bucket;
+            int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+            long width = 1L << (exponent - SUB_BITS);
+            long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+            return lower + width / 2;
+        }
+    }
+
+    /**
+     * Returns whether metrics are being recorded.
+     *
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording on or off. Connections opened while disabled stay uninstrumented.
+     *
+     * @param on true to record metrics
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Returns the counter with a name, creating it on first use.
+     *
+     * @param name the metric name, such as {@code load.persons}
+     * @return the counter
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, k -> new Counter());
+    }
+
+    /**
+     * Returns the histogram with a name, creating it on first use.
+     *
+     * @param name the metric name, such as {@code load.data}
+     * @return the histogram
+     */
+    public static Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new Histogram());
+    }
+
+    /**
+     * Registers a gauge, replacing any gauge of the same name.
+     *
+     * @param name  the metric name, such as {@code model.persons}
+     * @param value reads the current value; called only when a snapshot is taken
+     */
+    public static void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Sets every counter and histogram back to zero and forgets which histogram each SQL
+     * statement was timed in. Gauges are kept.
+     */
+    public static void reset() {
+        counters.values().forEach(counter -> counter.count.reset());
+        histograms.values().forEach(Histogram::reset);
+        sqlHistograms.clear();
+    }
+
+    /**
+     * Wraps a connection so that every statement it creates records its execution time
+     * in a histogram named after the statement's kind and table, such as
+     * {@code sql.insert.supplyallocation}. Returns the connection itself if metrics are
+     * disabled.
+     *
+     * @param connection the connection to wrap
+     * @return the instrumented connection
+     */
+    public static Connection instrument(Connection connection) {
+        if (!enabled || connection == null || (Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof TimedConnection)) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(Metrics.class.getClassLoader(), new Class<?>[] {Connection.class},
+            new TimedConnection(connection));
+    }
+
+    /**
+     * Hands out timed statements for a wrapped connection.
+     */
+    private static final class TimedConnection implements InvocationHandler {
+        private final Connection connection;
+
+        TimedConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = Metrics.invoke(connection, method, args);
+            if (result instanceof Statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return instrument((Statement) result, sql);
+            }
+            return result;
+        }
+    }
+
+    private static Statement instrument(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof java.sql.CallableStatement ? java.sql.CallableStatement.class
+            : statement instanceof java.sql.PreparedStatement ? java.sql.PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(Metrics.class.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> {
+                if (!method.getName().startsWith("execute")) return invoke(statement, method, args);
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+                Histogram histogram = sqlHistogram(sql);
+                long start = histogram.start();
+                try {
+                    return invoke(statement, method, args);
+                } catch (java.sql.SQLException e) {
+                    SQL_ERRORS.increment();
+                    throw e;
+                } finally {
+                    histogram.stop(start);
+                }
+            });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the histogram for a statement, named from its first keyword and table.
+     */
+    static Histogram sqlHistogram(String sql) {
+        if (sql == null) return histogram("sql.batch");
+        Histogram histogram = sqlHistograms.get(sql);
+        if (histogram != null) return histogram;
+        // Past the cap, statements that differ only in inlined values would grow the map forever
+        if (sqlHistograms.size() >= MAX_SQL_HISTOGRAMS) return histogram("sql.other");
+        histogram = histogram(sqlMetricName(sql));
+        Histogram previous = sqlHistograms.putIfAbsent(sql, histogram);
+        return previous != null ? previous : histogram;
+    }
+
+    static int sqlHistogramCount() {
+        return sqlHistograms.size();
+    }
+
+    static String sqlMetricName(String sql) {
+        String[] words = sql.trim().toLowerCase(Locale.ROOT).split("[\\s(),;]+");
+        String verb = words.length == 0 || words[0].isEmpty() ? "other" : words[0];
+        String table = null;
+        for (int i = 0; i < words.length - 1 && table == null; i++) {
+            if (words[i].equals("from") || words[i].equals("into")
+                    || (words[i].equals("update") && i == 0) || words[i].equals("join")) {
+                table = words[i + 1].replaceAll("[^a-z0-9_]", "");
+            }
+        }
+        return "sql." + verb + (table == null || table.isEmpty() ? "" : "." + table);
+    }
+
+    /**
+     * Writes the current value of every metric as JSON: an object with
+     * {@code counters}, {@code gauges} and {@code histograms} members. Durations are in
+     * microseconds.
+     *
+     * @param json the writer to write the object to
+     * @throws IOException if writing fails
+     */
+    public static void writeJson(JsonWriter json) throws IOException {
+        json.beginObject();
+        json.name("enabled").value(enabled);
+        json.name("counters").beginObject();
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            json.member(entry.getKey(), entry.getValue().get());
+        }
+        json.endObject();
+        json.name("gauges").beginObject();
+        for (Map.Entry<String, LongSupplier> entry : new TreeMap<>(gauges).entrySet()) {
+            json.member(entry.getKey(), entry.getValue().getAsLong());
+        }
+        json.endObject();
+        json.name("histograms").beginObject();
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram histogram = entry.getValue();
+            json.name(entry.getKey()).beginObject();
+            json.member("count", histogram.getCount());
+            json.member("meanMicros", histogram.getMean() / 1000);
+            json.member("p50Micros", histogram.getPercentile(50) / 1000);
+            json.member("p90Micros", histogram.getPercentile(90) / 1000);
+            json.member("p99Micros", histogram.getPercentile(99) / 1000);
+            json.member("maxMicros", histogram.getMax() / 1000);
+            json.endObject();
+        }
+        json.endObject();
+        json.endObject();
+    }
+
+    /**
+     * Writes the current value of every metric as text, one metric per line.
+     *
+     * @param out the writer to write to
+     * @throws IOException if writing fails
+     */
+    public static void writeText(Writer out) throws IOException {
+        StringBuilder text = new StringBuilder("# metrics at ").append(LocalDateTime.now()).append('\n');
+        new TreeMap<>(counters).forEach((name, counter) ->
+            text.append("counter ").append(name).append(' ').append(counter.get()).append('\n'));
+        new TreeMap<>(gauges).forEach((name, gauge) ->
+            text.append("gauge ").append(name).append(' ').append(gauge.getAsLong()).append('\n'));
+        new TreeMap<>(histograms).forEach((name, histogram) -> text.append(String.format(
+            "histogram %s count=%d mean_us=%d p50_us=%d p90_us=%d p99_us=%d max_us=%d%n", name,
+            histogram.getCount(), histogram.getMean() / 1000, histogram.getPercentile(50) / 1000,
+            histogram.getPercentile(90) / 1000, histogram.getPercentile(99) / 1000, histogram.getMax() / 1000)));
+        out.write(text.toString());
+    }
+
+    /**
+     * Writes a snapshot of every metric to a file, replacing it in one step so readers
+     * never see a partial file.
+     *
+     * @param file the file to write
+     * @throws IOException if writing fails
+     */
+    public static void dump(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writeText(out);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Starts writing a snapshot to a file at a fixed interval, and once more when the
+     * JVM exits. Replaces any dump already running.
+     *
+     * @param file            the file to write
+     * @param intervalSeconds the time between snapshots
+     */
+    public static synchronized void startDump(Path file, long intervalSeconds) {
+        if (dumper != null) dumper.shutdownNow();
+        dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runnable write = () -> {
+            try {
+                dump(file);
+            } catch (IOException e) {
+                DatabaseConnector.logError("Failed to write metrics to " + file, e);
+            }
+        };
+        dumper.scheduleAtFixedRate(write, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(write, "metrics-dump-shutdown"));
+    }
+}
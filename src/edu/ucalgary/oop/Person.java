@@ -1,11 +1,7 @@
 package edu.ucalgary.oop;
 
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The Person class represents an individual with basic information, including their name, phone number, gender, 
@@ -21,9 +17,11 @@ public class Person {
     private String firstName;
     private String lastName;
     private String phoneNumber;
+    private long phoneKey = PhoneIndex.NO_KEY;
     private String gender;
     private String dateOfBirth;
-    private ArrayList<Supply> allocatedSupplies = new ArrayList<>();
+    private int version;
+    private final List<Supply> allocatedSupplies = new CopyOnWriteArrayList<>();
 
     /**
      * Constructs a new Person with the specified first name, last name, and phone number.
@@ -36,6 +34,7 @@ public class Person {
         this.firstName = firstName;
         this.lastName = lastName;
         this.phoneNumber = phoneNumber;
+        this.phoneKey = PhoneIndex.normalize(phoneNumber);
     }
 
     /**
@@ -61,6 +60,24 @@ public class Person {
         this.id = id; 
     }
 
+    /**
+     * Gets the row version of the person, as last read from or written to the database.
+     * 
+     * @return the row version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the row version of the person.
+     * 
+     * @param version the row version
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Gets the first name of the person.
      * 
@@ -113,6 +130,16 @@ public class Person {
      */
     public void setPhoneNumber(String phoneNumber) { 
         this.phoneNumber = phoneNumber; 
+        this.phoneKey = PhoneIndex.normalize(phoneNumber);
+    }
+
+    /**
+     * Gets the canonical numeric key of the person's phone number.
+     * 
+     * @return the phone key, or {@link PhoneIndex#NO_KEY} if the person has no usable phone number
+     */
+    public long getPhoneKey() {
+        return phoneKey;
     }
 
     /**
@@ -170,11 +197,12 @@ public class Person {
     }
 
     /**
-     * Gets the list of supplies allocated to the person.
+     * Gets the list of supplies allocated to the person. The list is safe to read while
+     * a change feed updates it.
      * 
      * @return a list of allocated supplies
      */
-    public ArrayList<Supply> getAllocatedSupplies() {
+    public List<Supply> getAllocatedSupplies() {
         return allocatedSupplies;
     }
 
@@ -184,15 +212,7 @@ public class Person {
      * @param e the exception to log
      */
     public static void logError(Exception e) {
-        String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
-        String errorMessage = "[" + timestamp + "] ERROR: " + e.toString();
-        try (FileWriter fw = new FileWriter("data/errorlog.txt", true);
-             PrintWriter pw = new PrintWriter(fw)) {
-             pw.println(errorMessage);
-             e.printStackTrace(pw);
-        } catch (IOException ioe) {
-             System.err.println("Failed to write to error log file: " + ioe.toString());
-        }
+        ErrorLogger.getDefault().error("Person", "Unrecoverable error", e);
         System.err.println("An unrecoverable error occurred. Please check errorlog.txt for details.");
     }
 
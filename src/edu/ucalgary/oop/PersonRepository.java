@@ -0,0 +1,66 @@
+package edu.ucalgary.oop;
+
+import java.sql.SQLException;
+
+/**
+ * Stores people: disaster victims and inquirers, the locations they stay at and
+ * their family groups.
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see Storage
+ */
+public interface PersonRepository {
+    /** The fields {@link #update(Person, int)} writes and {@link #read(int, String[])} reads, in order. */
+    String[] ROW_FIELDS = {"first_name", "last_name", "phone_number", "gender", "date_of_birth"};
+
+    /**
+     * Saves a new person with their name, phone number, gender and date of birth.
+     *
+     * @param person        the person to save; their ID is not changed
+     * @param familyGroupId the ID of the person's family group, or 0 for none
+     * @param comments      comments about the person, or null
+     * @return the ID of the saved person
+     * @throws SQLException if the person cannot be saved
+     */
+    int insert(Person person, int familyGroupId, String comments) throws SQLException;
+
+    /**
+     * Records that a person stays at a location.
+     *
+     * @param personId   the ID of the person
+     * @param locationId the ID of the location
+     * @throws SQLException if the record cannot be saved
+     */
+    void addToLocation(int personId, int locationId) throws SQLException;
+
+    /**
+     * Writes a person's {@link #ROW_FIELDS} if their stored version is still the given one,
+     * and increments the version.
+     *
+     * @param person  the person with the values to write
+     * @param version the version the values are based on
+     * @return true if the person was written, false if their version has moved on
+     * @throws SQLException if the person cannot be written
+     */
+    boolean update(Person person, int version) throws SQLException;
+
+    /**
+     * Reads the stored {@link #ROW_FIELDS} of a person.
+     *
+     * @param personId the ID of the person
+     * @param values   the array the values are stored in
+     * @return the stored version
+     * @throws SQLException if the person does not exist or cannot be read
+     */
+    int read(int personId, String[] values) throws SQLException;
+
+    /**
+     * Returns an ID no family group uses yet.
+     *
+     * @return the next family group ID
+     * @throws SQLException if the family groups cannot be read
+     */
+    int nextFamilyGroupId() throws SQLException;
+}
@@ -0,0 +1,214 @@
+package edu.ucalgary.oop;
+
+import java.util.Arrays;
+
+/**
+ * Normalizes phone numbers to numeric keys and indexes person IDs by those keys.
+ * <p>
+ * A phone number is reduced to its digits, a leading North American country code
+ * is dropped, and the digits are packed into a single {@code long} together with
+ * their count, so "(403) 555-1234", "403.555.1234" and "+1 403 555 1234" all share
+ * one key while numbers with leading zeros stay distinct.
+ * </p>
+ * <p>
+ * The index is an open-addressing hash table of primitive {@code long} keys whose
+ * values are chains of person IDs held in parallel {@code int} arrays, so lookups
+ * do not allocate or compare strings.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class PhoneIndex {
+    /** Key returned for a missing or unusable phone number. */
+    public static final long NO_KEY = -1L;
+    /** E.164 numbers have at most 15 digits. */
+    private static final int MAX_DIGITS = 15;
+    private static final int LENGTH_SHIFT = 50;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int[] NONE = new int[0];
+
+    private long[] keys;
+    private int[] heads;
+    private int size;
+
+    private int[] entryIds;
+    private int[] entryNext;
+    private int entryCount;
+    private int freeEntry = -1;
+
+    /**
+     * Constructs an empty PhoneIndex.
+     */
+    public PhoneIndex() {
+        keys = new long[64];
+        heads = new int[64];
+        Arrays.fill(keys, EMPTY);
+        entryIds = new int[64];
+        entryNext = new int[64];
+    }
+
+    /**
+     * Converts a phone number to its canonical numeric key.
+     *
+     * @param phoneNumber the phone number in any common format, may be null
+     * @return the canonical key, or {@link #NO_KEY} if the number has no digits or too many
+     */
+    public static long normalize(String phoneNumber) {
+        if (phoneNumber == null) return NO_KEY;
+        long value = 0;
+        int digits = 0;
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS + 1) return NO_KEY;
+                value = value * 10 + (c - '0');
+            } else if (Character.isLetter(c)) {
+                return NO_KEY;
+            }
+        }
+        if (digits == 11 && value / 10_000_000_000L == 1) {
+            value -= 10_000_000_000L;
+            digits = 10;
+        }
+        if (digits == 0 || digits > MAX_DIGITS) return NO_KEY;
+        return ((long) digits << LENGTH_SHIFT) | value;
+    }
+
+    /**
+     * Formats a canonical key back into a digit string.
+     *
+     * @param key a key produced by {@link #normalize(String)}
+     * @return the digits of the phone number, or null for {@link #NO_KEY}
+     */
+    public static String format(long key) {
+        if (key == NO_KEY) return null;
+        int digits = (int) (key >>> LENGTH_SHIFT);
+        String value = Long.toString(key & ((1L << LENGTH_SHIFT) - 1));
+        return "0".repeat(digits - value.length()) + value;
+    }
+
+    /**
+     * Adds a person ID under the key of the given phone number.
+     *
+     * @param phoneKey the canonical phone key
+     * @param personId the ID of the person
+     */
+    public void add(long phoneKey, int personId) {
+        if (phoneKey == NO_KEY) return;
+        if ((size + 1) * 4 > keys.length * 3) rehash(keys.length * 2);
+        int slot = slotFor(phoneKey);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = phoneKey;
+            heads[slot] = -1;
+            size++;
+        }
+        int entry = allocateEntry();
+        entryIds[entry] = personId;
+        entryNext[entry] = heads[slot];
+        heads[slot] = entry;
+    }
+
+    /**
+     * Removes a person ID from under the given key.
+     *
+     * @param phoneKey the canonical phone key
+     * @param personId the ID of the person
+     */
+    public void remove(long phoneKey, int personId) {
+        if (phoneKey == NO_KEY) return;
+        int slot = slotFor(phoneKey);
+        if (keys[slot] == EMPTY) return;
+        int previous = -1;
+        for (int entry = heads[slot]; entry != -1; previous = entry, entry = entryNext[entry]) {
+            if (entryIds[entry] == personId) {
+                if (previous == -1) heads[slot] = entryNext[entry];
+                else entryNext[previous] = entryNext[entry];
+                entryNext[entry] = freeEntry;
+                freeEntry = entry;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the IDs of all persons indexed under the given key.
+     *
+     * @param phoneKey the canonical phone key
+     * @return the person IDs, most recently added first; empty if none
+     */
+    public int[] lookup(long phoneKey) {
+        if (phoneKey == NO_KEY) return NONE;
+        int slot = slotFor(phoneKey);
+        if (keys[slot] == EMPTY) return NONE;
+        int count = 0;
+        for (int entry = heads[slot]; entry != -1; entry = entryNext[entry]) count++;
+        if (count == 0) return NONE;
+        int[] result = new int[count];
+        int i = 0;
+        for (int entry = heads[slot]; entry != -1; entry = entryNext[entry]) result[i++] = entryIds[entry];
+        return result;
+    }
+
+    /**
+     * Returns the IDs of all persons whose phone number normalizes to the same key.
+     *
+     * @param phoneNumber the phone number in any common format
+     * @return the person IDs; empty if none
+     */
+    public int[] lookup(String phoneNumber) {
+        return lookup(normalize(phoneNumber));
+    }
+
+    /**
+     * Returns the number of distinct phone keys in the index.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    private int slotFor(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int allocateEntry() {
+        if (freeEntry != -1) {
+            int entry = freeEntry;
+            freeEntry = entryNext[entry];
+            return entry;
+        }
+        if (entryCount == entryIds.length) {
+            entryIds = Arrays.copyOf(entryIds, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+        return entryCount++;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldHeads = heads;
+        keys = new long[capacity];
+        heads = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotFor(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+}
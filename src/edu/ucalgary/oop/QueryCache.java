@@ -0,0 +1,335 @@
+package edu.ucalgary.oop;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Caches the results of read queries until a table they read from is written.
+ * <p>
+ * Entries are keyed by the SQL text and its parameters and evicted least recently
+ * used first once the cache is full. Every entry is tagged with the tables named in
+ * its query, so {@link #invalidate(String...)} drops exactly the entries that read a
+ * written table. Entries also expire after a maximum age, which bounds how stale a
+ * result can be when another process writes to the database.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class QueryCache {
+    private static final Pattern TABLE_REFERENCE =
+        Pattern.compile("\\b(?:FROM|JOIN|INTO|UPDATE)\\s+([A-Za-z_][A-Za-z0-9_]*)", Pattern.CASE_INSENSITIVE);
+    /** The list of a FROM clause, up to the keyword or bracket that ends it. */
+    private static final Pattern FROM_LIST = Pattern.compile("\\bFROM\\s+([^;()]*?)(?=\\b(?:WHERE|JOIN|INNER|LEFT|"
+        + "RIGHT|FULL|CROSS|NATURAL|GROUP|ORDER|HAVING|LIMIT|OFFSET|UNION|FOR|RETURNING)\\b|[;()]|$)",
+        Pattern.CASE_INSENSITIVE);
+    private static final Pattern LEADING_NAME = Pattern.compile("^\\s*([A-Za-z_][A-Za-z0-9_]*)");
+
+    private final int maxEntries;
+    private final long maxAgeMillis;
+    private final LinkedHashMap<String, Entry> entries;
+    private final Map<String, Set<String>> keysByTable = new HashMap<>();
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * The rows returned by a cached query. Instances are immutable and may be shared.
+     */
+    public static class Result {
+        private final String[] columns;
+        private final List<Object[]> rows;
+
+        /**
+         * Constructs a new Result.
+         *
+         * @param columns the column labels
+         * @param rows    the row values, indexed like the columns
+         */
+        public Result(String[] columns, List<Object[]> rows) {
+            this.columns = columns;
+            this.rows = Collections.unmodifiableList(rows);
+        }
+
+        /**
+         * Returns the number of rows.
+         *
+         * @return the row count
+         */
+        public int size() {
+            return rows.size();
+        }
+
+        /**
+         * Returns the value of a column as an integer, treating null as 0 like {@link ResultSet#getInt}.
+         *
+         * @param row    the 0-based row index
+         * @param column the column label, ignoring case
+         * @return the value
+         */
+        public int getInt(int row, String column) {
+            Object value = rows.get(row)[indexOf(column)];
+            return value == null ? 0 : ((Number) value).intValue();
+        }
+
+        /**
+         * Returns the value of a column as text.
+         *
+         * @param row    the 0-based row index
+         * @param column the column label, ignoring case
+         * @return the value, or null for SQL NULL
+         */
+        public String getString(int row, String column) {
+            Object value = rows.get(row)[indexOf(column)];
+            return value == null ? null : value.toString();
+        }
+
+        private int indexOf(String column) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equalsIgnoreCase(column)) return i;
+            }
+            throw new IllegalArgumentException("No column " + column);
+        }
+    }
+
+    private static class Entry {
+        final Result result;
+        final Set<String> tables;
+        final long loadedAt;
+
+        Entry(Result result, Set<String> tables, long loadedAt) {
+            this.result = result;
+            this.tables = tables;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Constructs a new QueryCache.
+     *
+     * @param maxEntries   the maximum number of cached results
+     * @param maxAgeMillis how long a result may be served before it is reloaded
+     */
+    public QueryCache(int maxEntries, long maxAgeMillis) {
+        this.maxEntries = maxEntries;
+        this.maxAgeMillis = maxAgeMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached result of a query, running it on the connection on a miss.
+     *
+     * @param connection the connection used on a miss
+     * @param sql        the query
+     * @param params     the query parameters
+     * @return the query result
+     * @throws SQLException if the query fails
+     */
+    public Result get(Connection connection, String sql, Object... params) throws SQLException {
+        String key = keyOf(sql, params);
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.currentTimeMillis() - entry.loadedAt <= maxAgeMillis) {
+                hits++;
+                return entry.result;
+            }
+            if (entry != null) remove(key);
+            misses++;
+            loadGeneration = generation;
+        }
+
+        Result result = load(connection, sql, params);
+        synchronized (this) {
+            // A write during the load may have changed what the query would return
+            if (generation == loadGeneration) put(key, new Entry(result, tablesOf(sql), System.currentTimeMillis()));
+        }
+        return result;
+    }
+
+    /**
+     * Drops every cached result that reads from one of the given tables.
+     *
+     * @param tables the tables that were written, ignoring case
+     */
+    public synchronized void invalidate(String... tables) {
+        generation++;
+        for (String table : tables) {
+            Set<String> keys = keysByTable.remove(table.toLowerCase(Locale.ROOT));
+            if (keys == null) continue;
+            for (String key : new ArrayList<>(keys)) {
+                if (remove(key)) invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Drops every cached result.
+     */
+    public synchronized void clear() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+        keysByTable.clear();
+    }
+
+    /**
+     * Returns the number of cached results.
+     *
+     * @return the entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of lookups served from the cache.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to run the query.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the fraction of lookups served from the cache.
+     *
+     * @return the hit rate between 0 and 1, or 0 before the first lookup
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Returns a one-line summary of the cache counters.
+     *
+     * @return the summary
+     */
+    public synchronized String getStats() {
+        return String.format("entries=%d hits=%d misses=%d hitRate=%.3f evictions=%d invalidations=%d",
+            entries.size(), hits, misses, getHitRate(), evictions, invalidations);
+    }
+
+    /**
+     * Runs a query and copies its rows into a {@link Result}.
+     *
+     * @param connection the connection to run the query on
+     * @param sql        the query
+     * @param params     the query parameters
+     * @return the query result
+     * @throws SQLException if the query fails
+     */
+    public static Result load(Connection connection, String sql, Object... params) throws SQLException {
+        SqlExecutionEvent event = SqlExecutionEvent.begin("query", sql);
+        int rowCount = -1;
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                String[] columns = new String[metaData.getColumnCount()];
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = metaData.getColumnLabel(i + 1);
+                }
+                List<Object[]> rows = new ArrayList<>();
+                while (rs.next()) {
+                    Object[] row = new Object[columns.length];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+                    rows.add(row);
+                }
+                rowCount = rows.size();
+                return new Result(columns, rows);
+            }
+        } finally {
+            event.end(rowCount);
+        }
+    }
+
+    /**
+     * Returns the tables a statement names after FROM, JOIN, INTO or UPDATE, including
+     * every table of a comma-separated FROM list.
+     *
+     * @param sql the statement
+     * @return the lower-case table names
+     */
+    static Set<String> tablesOf(String sql) {
+        Set<String> tables = new HashSet<>();
+        Matcher matcher = TABLE_REFERENCE.matcher(sql);
+        while (matcher.find()) {
+            tables.add(matcher.group(1).toLowerCase(Locale.ROOT));
+        }
+        Matcher list = FROM_LIST.matcher(sql);
+        while (list.find()) {
+            for (String item : list.group(1).split(",")) {
+                Matcher name = LEADING_NAME.matcher(item);
+                if (name.find()) tables.add(name.group(1).toLowerCase(Locale.ROOT));
+            }
+        }
+        return tables;
+    }
+
+    private static String keyOf(String sql, Object[] params) {
+        return params.length == 0 ? sql : sql + '\u0000' + Arrays.deepToString(params);
+    }
+
+    private void put(String key, Entry entry) {
+        remove(key);
+        entries.put(key, entry);
+        for (String table : entry.tables) {
+            keysByTable.computeIfAbsent(table, t -> new HashSet<>()).add(key);
+        }
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            Map.Entry<String, Entry> victim = eldest.next();
+            eldest.remove();
+            untag(victim.getKey(), victim.getValue());
+            evictions++;
+        }
+    }
+
+    private boolean remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) return false;
+        untag(key, entry);
+        return true;
+    }
+
+    private void untag(String key, Entry entry) {
+        for (String table : entry.tables) {
+            Set<String> keys = keysByTable.get(table);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) keysByTable.remove(table);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package edu.ucalgary.oop;
+
+import java.io.PrintStream;
+import java.util.Scanner;
+
+/**
+ * Prints the rows of a streamed query one page at a time.
+ * <p>
+ * Each row is printed as soon as it arrives. After every full page the operator
+ * is asked whether to continue; answering {@code q} stops the query, so only the
+ * rows that were looked at are ever fetched.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class QueryPager implements RowHandler {
+    private final LanguageSupport languageSupport;
+    private final Scanner input;
+    private final PrintStream out;
+    private final int pageSize;
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * Constructs a new QueryPager.
+     *
+     * @param languageSupport the language support used for prompts
+     * @param input           where the operator's answers are read from
+     * @param out             where the rows are printed
+     * @param pageSize        the number of rows per page, or 0 to print without pausing
+     */
+    public QueryPager(LanguageSupport languageSupport, Scanner input, PrintStream out, int pageSize) {
+        this.languageSupport = languageSupport;
+        this.input = input;
+        this.out = out;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onColumns(String[] columns) {
+        out.println(String.join(" | ", columns));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean onRow(long rowNumber, String[] values) {
+        line.setLength(0);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) line.append(" | ");
+            line.append(values[i]);
+        }
+        out.println(line);
+        if (pageSize > 0 && rowNumber % pageSize == 0) {
+            out.print(String.format(languageSupport.getText("query_more"), rowNumber));
+            out.flush();
+            if (!input.hasNextLine()) return false;
+            return !input.nextLine().trim().equalsIgnoreCase("q");
+        }
+        return true;
+    }
+}
@@ -1,5 +1,6 @@
 package edu.ucalgary.oop;
 
+import java.sql.Connection;
 import java.sql.SQLException;
 
 /**
@@ -22,6 +23,18 @@ public interface RealDatabaseConnection extends DatabaseConnector {
      * @throws SQLException if the query execution fails.
      */
     String executeCustomQuery(String sqlQuery) throws SQLException;
+
+    /**
+     * Executes a custom SQL query and streams its rows to a handler as they are fetched.
+     *
+     * @param sqlQuery The SQL query to execute.
+     * @param fetchSize The number of rows fetched from the database per round trip.
+     * @param rowLimit The maximum number of rows to deliver, or 0 for no limit.
+     * @param handler The handler that receives the column names and each row.
+     * @return The number of rows delivered to the handler.
+     * @throws SQLException if the query execution fails.
+     */
+    long executeCustomQuery(String sqlQuery, int fetchSize, long rowLimit, RowHandler handler) throws SQLException;
     
     /**
      * Updates a record in the database.
@@ -41,4 +54,13 @@ public interface RealDatabaseConnection extends DatabaseConnector {
      * @throws SQLException if any SQL operation fails during association mapping.
      */
     void loadAssociations() throws SQLException;
+
+    /**
+     * Opens a new connection to the same database, independent of the shared one.
+     * The caller is responsible for closing it.
+     *
+     * @return A new open connection.
+     * @throws SQLException if the connection cannot be established.
+     */
+    Connection openConnection() throws SQLException;
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package edu.ucalgary.oop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A field-level three-way merge of one record edited concurrently by two operators.
+ * <p>
+ * Given the field values an edit started from ({@code base}), the values the edit
+ * wants to write ({@code mine}) and the values now in the database ({@code theirs}),
+ * every field changed on only one side takes that side's value. A field both sides
+ * changed to different values is a conflict; conflicts keep the local value unless
+ * the operator chooses otherwise.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see VersionConflictException
+ */
+public class RecordMerge {
+    private final String[] base;
+    private final String[] mine;
+    private final String[] theirs;
+
+    /**
+     * Constructs a new RecordMerge.
+     *
+     * @param base   the field values the edit started from, or null if unknown, in which
+     *               case every field is treated as edited
+     * @param mine   the field values the edit wants to write
+     * @param theirs the field values currently stored
+     */
+    public RecordMerge(String[] base, String[] mine, String[] theirs) {
+        if (mine.length != theirs.length || (base != null && base.length != mine.length)) {
+            throw new IllegalArgumentException("All versions of a record must have the same fields");
+        }
+        this.base = base;
+        this.mine = mine;
+        this.theirs = theirs;
+    }
+
+    /**
+     * Returns the indexes of the fields both sides changed to different values.
+     *
+     * @return the conflicting field indexes, in ascending order
+     */
+    public List<Integer> getConflicts() {
+        List<Integer> conflicts = new ArrayList<>();
+        for (int i = 0; i < mine.length; i++) {
+            if (changedByMe(i) && changedByThem(i) && !Objects.equals(mine[i], theirs[i])) conflicts.add(i);
+        }
+        return conflicts;
+    }
+
+    /**
+     * Returns the merged field values.
+     *
+     * @param keepTheirs for each field, whether a conflict on it is resolved in favour of
+     *                   the stored value; may be null to keep every local value
+     * @return the merged values
+     */
+    public String[] resolve(boolean[] keepTheirs) {
+        String[] merged = new String[mine.length];
+        for (int i = 0; i < mine.length; i++) {
+            if (!changedByMe(i)) {
+                merged[i] = theirs[i];
+            } else if (changedByThem(i) && keepTheirs != null && keepTheirs[i]) {
+                merged[i] = theirs[i];
+            } else {
+                merged[i] = mine[i];
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the local value of a field.
+     *
+     * @param field the field index
+     * @return the value the edit wants to write
+     */
+    public String getMine(int field) {
+        return mine[field];
+    }
+
+    /**
+     * Returns the stored value of a field.
+     *
+     * @param field the field index
+     * @return the value currently in the database
+     */
+    public String getTheirs(int field) {
+        return theirs[field];
+    }
+
+    private boolean changedByMe(int field) {
+        return base == null || !Objects.equals(base[field], mine[field]);
+    }
+
+    private boolean changedByThem(int field) {
+        return base == null || !Objects.equals(base[field], theirs[field]);
+    }
+
+    /**
+     * Lists the conflicts of a merge and asks the operator, field by field, whether to
+     * keep their own value, then returns the merged values.
+     *
+     * @param ui         the user interface implementation used to interact with the user
+     * @param fieldNames the display names of the fields, by index
+     * @param merge      the merge to resolve
+     * @return the merged values
+     */
+    public static String[] resolveWithUser(UserInterfaceImplied ui, String[] fieldNames, RecordMerge merge) {
+        List<Integer> conflicts = merge.getConflicts();
+        boolean[] keepTheirs = new boolean[fieldNames.length];
+        if (!conflicts.isEmpty()) {
+            ui.showSuccess(ui.getLanguageSupport().getText("edit_conflict"));
+        }
+        for (int field : conflicts) {
+            String keep = ui.getValidatedInput(
+                String.format(ui.getLanguageSupport().getText("edit_conflict_field"),
+                    fieldNames[field], merge.getTheirs(field), merge.getMine(field)),
+                Validators.Y_N,
+                ui.getLanguageSupport().getText("invalid_y_n")
+            );
+            keepTheirs[field] = keep != null && "n".equals(keep.toLowerCase());
+        }
+        return merge.resolve(keepTheirs);
+    }
+}
@@ -0,0 +1,313 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A storage engine that records every change another engine makes in a {@link ChangeLog}.
+ * <p>
+ * A change is appended after the inner engine has made it, so a change that fails is
+ * never recorded. If the append fails the error is logged and the change stands: the
+ * log is a record of the data, not its owner. The engine keeps the name of the engine it
+ * records.
+ * </p>
+ * <p>
+ * Bulk work that writes rows with its own statements, {@link VictimImporter} and
+ * {@link DuplicateDetector#applyMerges}, records its changes with {@link #record(ChangeLog,
+ * Table, long, ChangeEvent.Operation, Map)} before it commits, so a log kept in the same
+ * database commits or rolls back with the rows. Changes made by {@code --batch} mode go
+ * through the storage engine and are recorded here.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class RecordingStorage implements Storage {
+    private final Storage storage;
+    private final ChangeLog log;
+    private final PersonRepository persons;
+    private final SupplyRepository supplies;
+    private final InquiryRepository inquiries;
+
+    /**
+     * Constructs a new RecordingStorage.
+     *
+     * @param storage the engine that makes the changes
+     * @param log     the log the changes are recorded in
+     */
+    public RecordingStorage(Storage storage, ChangeLog log) {
+        this.storage = storage;
+        this.log = log;
+        this.persons = new Persons(storage.persons());
+        this.supplies = new Supplies(storage.supplies());
+        this.inquiries = new Inquiries(storage.inquiries());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PersonRepository persons() {
+        return persons;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SupplyRepository supplies() {
+        return supplies;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InquiryRepository inquiries() {
+        return inquiries;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return storage.getName();
+    }
+
+    /**
+     * Returns the engine whose changes are recorded.
+     *
+     * @return the inner engine
+     */
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Returns the log the changes are recorded in.
+     *
+     * @return the change log
+     */
+    public ChangeLog getChangeLog() {
+        return log;
+    }
+
+    private void record(Table table, long key, ChangeEvent.Operation operation,
+                        Map<String, Object> values) {
+        record(log, table, key, operation, values);
+    }
+
+    /**
+     * Appends a change to a log, logging the error if the append fails.
+     *
+     * @param log       the log, or null if changes are not recorded
+     * @param table     the table of the changed row
+     * @param key       the key of the changed row
+     * @param operation what the change did
+     * @param values    the columns the change set
+     */
+    static void record(ChangeLog log, Table table, long key, ChangeEvent.Operation operation,
+                       Map<String, Object> values) {
+        if (log == null) return;
+        try {
+            log.append(table, key, operation, values);
+        } catch (IOException | RuntimeException e) {
+            DatabaseConnector.logError("Failed to record " + operation + " of " + table.getName() + " " + key, e);
+        }
+    }
+
+    /**
+     * Returns the columns of a person insert, as recorded by the storage engine.
+     *
+     * @param personId      the generated ID of the person
+     * @param person        the person
+     * @param familyGroupId the family group, or 0 for none
+     * @param comments      the comments saved with the person
+     * @return the values of the insert event
+     */
+    static Map<String, Object> insertedPerson(int personId, Person person, int familyGroupId, String comments) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("person_id", personId);
+        values.putAll(personColumns(person));
+        values.put("comments", comments);
+        values.put("family_group", familyGroupId == 0 ? null : familyGroupId);
+        values.put("version", 0);
+        return values;
+    }
+
+    /**
+     * Returns the columns of a person's stay at a location.
+     *
+     * @param personId   the ID of the person
+     * @param locationId the ID of the location
+     * @return the values of the stay event
+     */
+    static Map<String, Object> stay(int personId, int locationId) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("person_id", personId);
+        values.put("location_id", locationId);
+        return values;
+    }
+
+    private static Date toDate(String date) {
+        try {
+            return date == null ? null : Date.valueOf(date);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Object> personColumns(Person person) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("first_name", person.getFirstName());
+        values.put("last_name", person.getLastName());
+        values.put("date_of_birth", toDate(person.getDateOfBirth()));
+        values.put("gender", person.getGender());
+        values.put("phone_number", person.getPhoneNumber());
+        return values;
+    }
+
+    private static Map<String, Object> allocation(int supplyId, Integer personId, Integer locationId) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("supply_id", supplyId);
+        values.put("person_id", personId);
+        values.put("location_id", locationId);
+        values.put("allocation_date", Timestamp.valueOf(LocalDateTime.now()));
+        return values;
+    }
+
+    private final class Persons implements PersonRepository {
+        private final PersonRepository persons;
+
+        Persons(PersonRepository persons) {
+            this.persons = persons;
+        }
+
+        @Override
+        public int insert(Person person, int familyGroupId, String comments) throws SQLException {
+            int personId = persons.insert(person, familyGroupId, comments);
+            record(Table.PERSON, personId, ChangeEvent.Operation.INSERT,
+                insertedPerson(personId, person, familyGroupId, comments));
+            return personId;
+        }
+
+        @Override
+        public void addToLocation(int personId, int locationId) throws SQLException {
+            persons.addToLocation(personId, locationId);
+            record(Table.PERSON_LOCATION, ChangeEvent.stayKey(personId, locationId),
+                ChangeEvent.Operation.INSERT, stay(personId, locationId));
+        }
+
+        @Override
+        public boolean update(Person person, int version) throws SQLException {
+            if (!persons.update(person, version)) return false;
+            Map<String, Object> values = personColumns(person);
+            values.put("version", version + 1);
+            record(Table.PERSON, person.getId(), ChangeEvent.Operation.UPDATE, values);
+            return true;
+        }
+
+        @Override
+        public int read(int personId, String[] values) throws SQLException {
+            return persons.read(personId, values);
+        }
+
+        @Override
+        public int nextFamilyGroupId() throws SQLException {
+            return persons.nextFamilyGroupId();
+        }
+    }
+
+    private final class Supplies implements SupplyRepository {
+        private final SupplyRepository supplies;
+
+        Supplies(SupplyRepository supplies) {
+            this.supplies = supplies;
+        }
+
+        @Override
+        public boolean update(Supply supply, int version) throws SQLException {
+            if (!supplies.update(supply, version)) return false;
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("type", supply.getType() != null ? supply.getType() : "");
+            values.put("comments", supply.getComments());
+            values.put("version", version + 1);
+            record(Table.SUPPLY, supply.getId(), ChangeEvent.Operation.UPDATE, values);
+            return true;
+        }
+
+        @Override
+        public int read(int supplyId, String[] values) throws SQLException {
+            return supplies.read(supplyId, values);
+        }
+
+        @Override
+        public void allocateToPerson(int supplyId, int personId) throws SQLException {
+            supplies.allocateToPerson(supplyId, personId);
+            record(Table.SUPPLY_ALLOCATION, supplyId, ChangeEvent.Operation.INSERT,
+                allocation(supplyId, personId, null));
+        }
+
+        @Override
+        public void allocateToLocation(int supplyId, int locationId) throws SQLException {
+            supplies.allocateToLocation(supplyId, locationId);
+            record(Table.SUPPLY_ALLOCATION, supplyId, ChangeEvent.Operation.INSERT,
+                allocation(supplyId, null, locationId));
+        }
+
+        @Override
+        public boolean isAtPersonLocation(int supplyId, int personId) throws SQLException {
+            return supplies.isAtPersonLocation(supplyId, personId);
+        }
+
+        @Override
+        public int removeExpiredWater() throws SQLException {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(1));
+            int removed = supplies.removeExpiredWater();
+            if (removed > 0) {
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("type", "water");
+                values.put(ChangeEvent.ALLOCATED_BEFORE, cutoff);
+                record(Table.SUPPLY_ALLOCATION, 0, ChangeEvent.Operation.DELETE, values);
+            }
+            return removed;
+        }
+    }
+
+    private final class Inquiries implements InquiryRepository {
+        private final InquiryRepository inquiries;
+
+        Inquiries(InquiryRepository inquiries) {
+            this.inquiries = inquiries;
+        }
+
+        @Override
+        public int insert(Inquiry inquiry, int locationId) throws SQLException {
+            int inquiryId = inquiries.insert(inquiry, locationId);
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("inquiry_id", inquiryId);
+            values.put("inquirer_id", inquiry.getInquirer() == null ? null : inquiry.getInquirer().getId());
+            values.put("seeking_id", inquiry.getSeekingId());
+            values.put("location_id", locationId);
+            values.put("date_of_inquiry", Timestamp.valueOf(LocalDateTime.now()));
+            values.put("comments", inquiry.getInquiryMessage());
+            record(Table.INQUIRY, inquiryId, ChangeEvent.Operation.INSERT, values);
+            return inquiryId;
+        }
+
+        @Override
+        public void updateComments(int inquiryId, String comments) throws SQLException {
+            inquiries.updateComments(inquiryId, comments);
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("comments", comments);
+            record(Table.INQUIRY, inquiryId, ChangeEvent.Operation.UPDATE, values);
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package edu.ucalgary.oop;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Serves the relief model as a read-only HTTP/JSON API for partner apps and kiosks.
+ * <p>
+ * The API is built on the JDK's {@code com.sun.net.httpserver} and handles each
+ * request on its own virtual thread where the runtime provides them. Responses are
+ * streamed with a {@link JsonWriter}, so a page is never built in memory first.
+ * Every list is paged with {@code offset} and {@code limit} query parameters
+ * (default {@value #DEFAULT_LIMIT}, at most {@value #MAX_LIMIT}) and returned as
+ * {@code {"offset":..,"limit":..,"total":..,"items":[..]}}, except
+ * {@code /api/allocations}, which reads its page straight from the database and
+ * reports {@code "hasMore"} in place of {@code "total"} so it never has to count the
+ * whole table.
+ * </p>
+ * <p>
+ * The server listens on the loopback interface unless another address is given, so
+ * the unauthenticated API is not reachable from other machines by accident.
+ * </p>
+ * <p>
+ * Endpoints, all {@code GET}:
+ * {@code /api/victims}, {@code /api/victims/{id}}, {@code /api/locations},
+ * {@code /api/locations/{id}}, {@code /api/supplies}, {@code /api/allocations},
+ * {@code /api/inquiries}, {@code /api/search?q=name-or-phone} and {@code /api/metrics},
+ * which reports the {@link Metrics} registry rather than relief data. Allocations are
+ * read through the connector's query cache; everything else comes from the shared
+ * {@link ReliefModel}.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class ReliefApiServer implements AutoCloseable {
+    /** Items per page when the request does not say. */
+    public static final int DEFAULT_LIMIT = 50;
+    /** The largest page a request may ask for. */
+    public static final int MAX_LIMIT = 500;
+
+    private static final String ALLOCATIONS_SQL = "SELECT supply_id, person_id, location_id, allocation_date "
+        + "FROM SupplyAllocation ORDER BY allocation_date, supply_id LIMIT ? OFFSET ?";
+
+    private final ReliefModel model;
+    private final HttpServer server;
+    private final ExecutorService executor = AsyncDataAccess.newVirtualThreadExecutor();
+    private static final Metrics.Histogram REQUESTS = Metrics.histogram("api.request");
+
+    /**
+     * Writes one item of a list as JSON.
+     *
+     * @param <T> the type of the items
+     */
+    @FunctionalInterface
+    private interface ItemWriter<T> {
+        void write(JsonWriter json, T item) throws IOException;
+    }
+
+    /**
+     * Thrown by request handlers to answer with an error status.
+     */
+    private static class HttpError extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Creates a server listening on a TCP port of the loopback interface.
+     *
+     * @param model the model to serve
+     * @param port  the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public ReliefApiServer(ReliefModel model, int port) throws IOException {
+        this(model, InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Creates a server listening on a TCP port of the given address.
+     *
+     * @param model   the model to serve
+     * @param address the address to listen on, or null for every interface
+     * @param port    the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public ReliefApiServer(ReliefModel model, InetAddress address, int port) throws IOException {
+        this.model = model;
+        this.server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        server.createContext("/api/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the bound port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the address and port the server listens on.
+     *
+     * @return the bound address
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Starts answering requests in the background.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops the server, letting requests in progress finish for up to a second.
+     * The model stays open.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = REQUESTS.start();
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                throw new HttpError(405, "Only GET is supported");
+            }
+            String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            if (path.length == 1) {
+                switch (path[0]) {
+                    case "victims": listVictims(exchange, query); return;
+                    case "locations": listLocations(exchange, query); return;
+                    case "supplies": listSupplies(exchange, query); return;
+                    case "allocations": listAllocations(exchange, query); return;
+                    case "inquiries": listInquiries(exchange, query); return;
+                    case "search": search(exchange, query); return;
+                    case "metrics": writeMetrics(exchange); return;
+                    default: break;
+                }
+            } else if (path.length == 2 && "victims".equals(path[0])) {
+                getVictim(exchange, parseId(path[1]));
+                return;
+            } else if (path.length == 2 && "locations".equals(path[0])) {
+                getLocation(exchange, parseId(path[1]));
+                return;
+            }
+            throw new HttpError(404, "No such resource");
+        } catch (HttpError e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (SQLException e) {
+            DatabaseConnector.logError("API request failed: " + exchange.getRequestURI(), e);
+            sendError(exchange, 503, "The database is unavailable");
+        } catch (RuntimeException e) {
+            DatabaseConnector.logError("API request failed: " + exchange.getRequestURI(), e);
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+            REQUESTS.stop(start);
+        }
+    }
+
+    private void listVictims(HttpExchange exchange, Map<String, String> query) throws IOException, HttpError {
+        List<DisasterVictim> victims = new ArrayList<>();
+        for (Person person : sortedById(model.getPersons())) {
+            if (person instanceof DisasterVictim) victims.add((DisasterVictim) person);
+        }
+        writePage(exchange, query, victims, this::writePerson);
+    }
+
+    private void getVictim(HttpExchange exchange, int id) throws IOException, HttpError {
+        Person person = model.getPersons().get(id);
+        if (!(person instanceof DisasterVictim)) throw new HttpError(404, "No victim " + id);
+        try (JsonWriter json = beginResponse(exchange, 200)) {
+            json.beginObject();
+            writePersonFields(json, person);
+            json.name("locations").beginArray();
+            for (Map.Entry<Integer, Location> entry : model.getLocations().entrySet()) {
+                if (entry.getValue().hasOccupant((DisasterVictim) person)) json.value(entry.getKey());
+            }
+            json.endArray();
+            json.name("familyGroups").beginArray();
+            for (Map.Entry<Integer, FamilyGroup> entry : model.getFamilyGroups().entrySet()) {
+                if (entry.getValue().hasFamilyMember(person)) json.value(entry.getKey());
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    private void listLocations(HttpExchange exchange, Map<String, String> query) throws IOException, HttpError {
+        List<Map.Entry<Integer, Location>> locations = new ArrayList<>(model.getLocations().entrySet());
+        locations.sort(Map.Entry.comparingByKey());
+        writePage(exchange, query, locations, (json, entry) -> {
+            json.beginObject();
+            writeLocationFields(json, entry.getKey(), entry.getValue());
+            json.endObject();
+        });
+    }
+
+    private void getLocation(HttpExchange exchange, int id) throws IOException, HttpError {
+        Location location = model.getLocations().get(id);
+        if (location == null) throw new HttpError(404, "No location " + id);
+        try (JsonWriter json = beginResponse(exchange, 200)) {
+            json.beginObject();
+            writeLocationFields(json, id, location);
+            json.name("occupants").beginArray();
+            for (DisasterVictim occupant : location.getOccupants()) {
+                writePerson(json, occupant);
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    private void listSupplies(HttpExchange exchange, Map<String, String> query) throws IOException, HttpError {
+        writePage(exchange, query, sortedById(model.getSupplies()), (json, supply) -> {
+            json.beginObject();
+            json.member("id", supply.getId());
+            json.member("type", supply.getType());
+            json.member("comments", supply.getComments());
+            json.member("version", supply.getVersion());
+            json.endObject();
+        });
+    }
+
+    private void listAllocations(HttpExchange exchange, Map<String, String> query)
+            throws IOException, HttpError, SQLException {
+        int offset = intParam(query, "offset", 0, Integer.MAX_VALUE);
+        int limit = intParam(query, "limit", DEFAULT_LIMIT, MAX_LIMIT);
+        // One row more than the page tells whether another page follows without a COUNT
+        QueryCache.Result rows = model.getDbConnection().query(ALLOCATIONS_SQL, limit + 1, offset);
+        int count = Math.min(rows.size(), limit);
+        try (JsonWriter json = beginResponse(exchange, 200)) {
+            json.beginObject();
+            json.member("offset", offset);
+            json.member("limit", limit);
+            json.name("hasMore").value(rows.size() > limit);
+            json.name("items").beginArray();
+            for (int row = 0; row < count; row++) {
+                json.beginObject();
+                json.member("supplyId", rows.getInt(row, "supply_id"));
+                writeOptionalId(json, "personId", rows.getInt(row, "person_id"));
+                writeOptionalId(json, "locationId", rows.getInt(row, "location_id"));
+                json.member("allocationDate", rows.getString(row, "allocation_date"));
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    private void listInquiries(HttpExchange exchange, Map<String, String> query) throws IOException, HttpError {
+        writePage(exchange, query, sortedById(model.getInquiries()), (json, inquiry) -> {
+            json.beginObject();
+            json.member("id", inquiry.getId());
+            json.member("inquirerId", inquiry.getInquirer().getId());
+            json.member("inquirerName", inquiry.getInquirer().getFullName());
+            writeOptionalId(json, "seekingId", inquiry.getSeekingId());
+            json.member("message", inquiry.getInquiryMessage());
+            json.endObject();
+        });
+    }
+
+    private void search(HttpExchange exchange, Map<String, String> query) throws IOException, HttpError {
+        String q = query.get("q");
+        if (q == null || q.isBlank()) throw new HttpError(400, "Missing query parameter q");
+        List<Person> matches;
+        if (PhoneIndex.normalize(q) != PhoneIndex.NO_KEY) {
+            matches = model.findPersonsByPhone(q);
+        } else {
+            String needle = q.trim().toLowerCase(Locale.ROOT);
+            matches = new ArrayList<>();
+            for (Person person : sortedById(model.getPersons())) {
+                if (person instanceof FamilyGroup) continue;
+                if (person.getFullName().toLowerCase(Locale.ROOT).contains(needle)) matches.add(person);
+            }
+        }
+        writePage(exchange, query, matches, this::writePerson);
+    }
+
+    private void writeMetrics(HttpExchange exchange) throws IOException {
+        try (JsonWriter json = beginResponse(exchange, 200)) {
+            Metrics.writeJson(json);
+        }
+    }
+
+    private void writePerson(JsonWriter json, Person person) throws IOException {
+        json.beginObject();
+        writePersonFields(json, person);
+        json.endObject();
+    }
+
+    private static void writePersonFields(JsonWriter json, Person person) throws IOException {
+        json.member("id", person.getId());
+        json.member("firstName", person.getFirstName());
+        json.member("lastName", person.getLastName());
+        json.member("phoneNumber", person.getPhoneNumber());
+        json.member("gender", person.getGender());
+        json.member("dateOfBirth", person.getDateOfBirth());
+        json.member("version", person.getVersion());
+    }
+
+    private static void writeLocationFields(JsonWriter json, int id, Location location) throws IOException {
+        json.member("id", id);
+        json.member("name", location.getName());
+        json.member("address", location.getAddress());
+        json.member("occupantCount", location.getOccupants().size());
+        json.member("supplyCount", location.getSupplies().size());
+    }
+
+    private static void writeOptionalId(JsonWriter json, String name, int id) throws IOException {
+        json.name(name);
+        if (id == 0) json.value((String) null); else json.value(id);
+    }
+
+    private <T> void writePage(HttpExchange exchange, Map<String, String> query, List<T> items,
+                               ItemWriter<T> writer) throws IOException, HttpError {
+        int offset = intParam(query, "offset", 0, Integer.MAX_VALUE);
+        int limit = intParam(query, "limit", DEFAULT_LIMIT, MAX_LIMIT);
+        int end = (int) Math.min(items.size(), (long) offset + limit);
+        try (JsonWriter json = beginResponse(exchange, 200)) {
+            json.beginObject();
+            json.member("offset", offset);
+            json.member("limit", limit);
+            json.member("total", items.size());
+            json.name("items").beginArray();
+            for (int i = offset; i < end; i++) {
+                writer.write(json, items.get(i));
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    private static <T> List<T> sortedById(Map<Integer, T> map) {
+        List<Map.Entry<Integer, T>> entries = new ArrayList<>(map.entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+        List<T> values = new ArrayList<>(entries.size());
+        for (Map.Entry<Integer, T> entry : entries) {
+            values.add(entry.getValue());
+        }
+        return values;
+    }
+
+    private static JsonWriter beginResponse(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        // A length of 0 sends the body chunked as it is written
+        exchange.sendResponseHeaders(status, 0);
+        return new JsonWriter(new BufferedWriter(
+            new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 8192));
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        try (JsonWriter json = beginResponse(exchange, status)) {
+            json.beginObject().member("error", message).endObject();
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static int intParam(Map<String, String> query, String name, int defaultValue, int max) throws HttpError {
+        String value = query.get(name);
+        if (value == null) return defaultValue;
+        if (!Validators.ID.isValid(value) || value.length() > 9) {
+            throw new HttpError(400, "Parameter " + name + " must be a non-negative integer");
+        }
+        return Math.min(Integer.parseInt(value), max);
+    }
+
+    private static int parseId(String segment) throws HttpError {
+        if (!Validators.ID.isValid(segment) || segment.length() > 9) throw new HttpError(404, "No such resource");
+        return Integer.parseInt(segment);
+    }
+}
@@ -0,0 +1,596 @@
+package edu.ucalgary.oop;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The in-memory entity model shared by all operator sessions in one process.
+ * <p>
+ * The model is loaded once from a {@link DatabaseConnector} and then kept current
+ * by the sessions as they register and edit entities. It also owns the indexes
+ * built over the persons and the connection pool used for asynchronous lookups, so
+ * those exist once per process rather than once per session.
+ * </p>
+ * <p>
+ * Consistency model: the ID maps are concurrent, so lookups never block and see
+ * every completed insert. Occupant, supply and member lists are copy-on-write, so a
+ * reader always iterates a consistent snapshot, possibly one change behind. Changes
+ * that span several locations or family groups, such as moving a victim, go through
+ * this class and hold the striped locks of every location or group involved, so
+ * each such change is atomic with respect to the others: a victim is never seen in
+ * two locations by another writer, nor lost from all of them. Readers of the lists
+ * do not take these locks and may briefly see a move half done. The person indexes
+ * are kept in step with the persons map under the model's monitor.
+ * </p>
+ * <p>
+ * Changes made by other desks arrive as {@link ChangeEvent}s through a {@link ChangeFeed}
+ * and are applied with {@link #apply(ChangeEvent)}. Applying an event this desk made,
+ * or one already applied, leaves the model as it is.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class ReliefModel implements AutoCloseable {
+    private final DatabaseConnector dbConnection;
+    private final Map<Integer, Person> persons;
+    private final Map<Integer, Location> locations;
+    private final Map<Integer, Supply> supplies;
+    private final Map<Integer, Inquiry> inquiries;
+    private final Map<Integer, MedicalRecord> medicalRecords;
+    private final Map<Integer, FamilyGroup> familyGroups;
+    private final StripedLocks locationLocks = new StripedLocks(64);
+    private final StripedLocks familyLocks = new StripedLocks(64);
+    private DuplicateDetector duplicateDetector;
+    private PhoneIndex phoneIndex;
+    private AsyncDataAccess asyncDataAccess;
+
+    /**
+     * Constructs a new ReliefModel from the data already loaded by the connector.
+     *
+     * @param dbConnection the database connector to load from and write through
+     */
+    public ReliefModel(DatabaseConnector dbConnection) {
+        this.dbConnection = dbConnection;
+        this.persons = new ConcurrentHashMap<>(dbConnection.getPersons());
+        this.locations = new ConcurrentHashMap<>(dbConnection.getLocations());
+        this.supplies = new ConcurrentHashMap<>(dbConnection.getSupplies());
+        this.inquiries = new ConcurrentHashMap<>(dbConnection.getInquiries());
+        this.medicalRecords = new ConcurrentHashMap<>(dbConnection.getMedicalRecords());
+        this.familyGroups = new ConcurrentHashMap<>(dbConnection.getFamilyGroups());
+        Metrics.gauge("model.persons", persons::size);
+        Metrics.gauge("model.locations", locations::size);
+        Metrics.gauge("model.supplies", supplies::size);
+        Metrics.gauge("model.inquiries", inquiries::size);
+        Metrics.gauge("model.family_groups", familyGroups::size);
+    }
+
+    /**
+     * Returns the database connector the model was loaded from.
+     *
+     * @return the database connector
+     */
+    public DatabaseConnector getDbConnection() { return dbConnection; }
+
+    /**
+     * Returns the persons indexed by ID.
+     *
+     * @return the live persons map
+     */
+    public Map<Integer, Person> getPersons() { return persons; }
+
+    /**
+     * Returns the locations indexed by ID.
+     *
+     * @return the live locations map
+     */
+    public Map<Integer, Location> getLocations() { return locations; }
+
+    /**
+     * Returns the supplies indexed by ID.
+     *
+     * @return the live supplies map
+     */
+    public Map<Integer, Supply> getSupplies() { return supplies; }
+
+    /**
+     * Returns the inquiries indexed by ID.
+     *
+     * @return the live inquiries map
+     */
+    public Map<Integer, Inquiry> getInquiries() { return inquiries; }
+
+    /**
+     * Returns the medical records indexed by ID.
+     *
+     * @return the live medical records map
+     */
+    public Map<Integer, MedicalRecord> getMedicalRecords() { return medicalRecords; }
+
+    /**
+     * Returns the family groups indexed by ID.
+     *
+     * @return the live family groups map
+     */
+    public Map<Integer, FamilyGroup> getFamilyGroups() { return familyGroups; }
+
+    /**
+     * Adds a newly saved person to the persons map and the person indexes.
+     *
+     * @param id     the ID of the person
+     * @param person the person to add
+     */
+    public synchronized void addPerson(int id, Person person) {
+        persons.put(id, person);
+        if (duplicateDetector != null) duplicateDetector.index(id, person);
+        if (phoneIndex != null) phoneIndex.add(person.getPhoneKey(), id);
+    }
+
+    /**
+     * Removes a person from the persons map and the person indexes.
+     *
+     * @param id the ID of the person to remove
+     */
+    public synchronized void removePerson(int id) {
+        Person person = persons.remove(id);
+        if (duplicateDetector != null) duplicateDetector.remove(id);
+        if (phoneIndex != null && person != null) phoneIndex.remove(person.getPhoneKey(), id);
+    }
+
+    /**
+     * Re-files a person in the person indexes after their name, phone number or date of
+     * birth changed.
+     *
+     * @param person      the person whose details changed
+     * @param previousKey the phone key before the change
+     */
+    public synchronized void reindexPerson(Person person, long previousKey) {
+        if (duplicateDetector != null) duplicateDetector.index(person.getId(), person);
+        if (phoneIndex == null || previousKey == person.getPhoneKey()) return;
+        phoneIndex.remove(previousKey, person.getId());
+        phoneIndex.add(person.getPhoneKey(), person.getId());
+    }
+
+    /**
+     * Folds merged duplicate persons into their survivors, as
+     * {@link DuplicateDetector#applyMerges(List, DatabaseConnector)} did in the database:
+     * their inquiries, stays and allocated supplies pass to the survivor and they are
+     * removed. A survivor named as an inquirer becomes one.
+     *
+     * @param survivors the surviving person ID of each duplicate person ID
+     */
+    public void mergePersons(Map<Integer, Integer> survivors) {
+        survivors.forEach((duplicateId, survivorId) -> {
+            Person duplicate = persons.get(duplicateId);
+            Person survivor = persons.get(survivorId);
+            if (duplicate == null || survivor == null) return;
+            for (Inquiry inquiry : inquiries.values()) {
+                if (inquiry.getSeekingId() == duplicateId) inquiry.setSeekingId(survivorId);
+                if (inquiry.getInquirer() == duplicate) inquiry.setInquirer(asInquirer(survivorId));
+            }
+            survivor = persons.get(survivorId);
+            if (duplicate instanceof DisasterVictim) {
+                DisasterVictim victim = (DisasterVictim) duplicate;
+                for (int locationId : locationsOf(victim)) {
+                    Person stays = survivor;
+                    locationLocks.run(() -> {
+                        Location location = locations.get(locationId);
+                        location.removeOccupant(victim);
+                        if (stays instanceof DisasterVictim && !location.hasOccupant((DisasterVictim) stays)) {
+                            location.addOccupant((DisasterVictim) stays);
+                        }
+                    }, locationId);
+                }
+            }
+            synchronized (survivor) {
+                for (Supply supply : duplicate.getAllocatedSupplies()) {
+                    if (!survivor.getAllocatedSupplies().contains(supply)) survivor.addAllocatedSupply(supply);
+                }
+            }
+            for (int groupId : familyGroupsOf(duplicate)) {
+                familyLocks.run(() -> familyGroups.get(groupId).removeFamilyMember(duplicate), groupId);
+            }
+            removePerson(duplicateId);
+        });
+    }
+
+    /**
+     * Adds a victim to the occupants of a location.
+     *
+     * @param locationId the ID of the location
+     * @param victim     the victim to add
+     */
+    public void addOccupant(int locationId, DisasterVictim victim) {
+        Location location = locations.get(locationId);
+        if (location == null) return;
+        locationLocks.run(() -> {
+            if (!location.hasOccupant(victim)) location.addOccupant(victim);
+        }, locationId);
+    }
+
+    /**
+     * Moves a victim out of every location they occupy and into the given one, atomically
+     * with respect to other moves.
+     *
+     * @param victim     the victim to move
+     * @param locationId the ID of the location to move them to
+     */
+    public void moveOccupant(DisasterVictim victim, int locationId) {
+        Location target = locations.get(locationId);
+        if (target == null) return;
+        boolean moved = false;
+        while (!moved) {
+            Set<Integer> current = locationsOf(victim);
+            int[] ids = toIds(current, locationId);
+            moved = locationLocks.call(() -> {
+                // Another move may have run between the scan and taking the locks
+                if (!current.equals(locationsOf(victim))) return false;
+                for (int id : current) {
+                    if (id != locationId) locations.get(id).removeOccupant(victim);
+                }
+                if (!current.contains(locationId)) target.addOccupant(victim);
+                return true;
+            }, ids);
+        }
+    }
+
+    /**
+     * Adds a supply to the supplies stored at a location.
+     *
+     * @param locationId the ID of the location
+     * @param supply     the supply to add
+     */
+    public void addSupplyToLocation(int locationId, Supply supply) {
+        Location location = locations.get(locationId);
+        if (location == null) return;
+        locationLocks.run(() -> location.addSupply(supply), locationId);
+    }
+
+    /**
+     * Adds a person to a family group, creating a placeholder group if it is not known yet.
+     *
+     * @param groupId the ID of the family group
+     * @param person  the person to add
+     */
+    public void addFamilyMember(int groupId, Person person) {
+        FamilyGroup group = familyGroupFor(groupId);
+        familyLocks.run(() -> {
+            if (!group.hasFamilyMember(person)) group.addFamilyMember(person);
+        }, groupId);
+    }
+
+    /**
+     * Moves a person out of every family group they belong to and into the given one,
+     * atomically with respect to other moves.
+     *
+     * @param person  the person to move
+     * @param groupId the ID of the family group to move them to
+     */
+    public void moveToFamilyGroup(Person person, int groupId) {
+        FamilyGroup target = familyGroupFor(groupId);
+        boolean moved = false;
+        while (!moved) {
+            Set<Integer> current = familyGroupsOf(person);
+            int[] ids = toIds(current, groupId);
+            moved = familyLocks.call(() -> {
+                if (!current.equals(familyGroupsOf(person))) return false;
+                for (int id : current) {
+                    if (id != groupId) familyGroups.get(id).removeFamilyMember(person);
+                }
+                if (!current.contains(groupId)) target.addFamilyMember(person);
+                return true;
+            }, ids);
+        }
+    }
+
+    /**
+     * Registers a new family group under the first free ID at or above a candidate.
+     * Sessions that read the same next ID from the database each get a distinct one.
+     *
+     * @param firstCandidate the lowest ID to try
+     * @param group          the family group to register
+     * @return the ID the group was registered under
+     */
+    public int reserveFamilyGroupId(int firstCandidate, FamilyGroup group) {
+        int id = Math.max(1, firstCandidate);
+        while (familyGroups.putIfAbsent(id, group) != null) {
+            id++;
+        }
+        return id;
+    }
+
+    private FamilyGroup familyGroupFor(int groupId) {
+        return familyGroups.computeIfAbsent(groupId, k -> new FamilyGroup("Group", String.valueOf(k), null));
+    }
+
+    private Set<Integer> locationsOf(DisasterVictim victim) {
+        Set<Integer> ids = new HashSet<>();
+        locations.forEach((id, location) -> {
+            if (location.hasOccupant(victim)) ids.add(id);
+        });
+        return ids;
+    }
+
+    private Set<Integer> familyGroupsOf(Person person) {
+        Set<Integer> ids = new HashSet<>();
+        familyGroups.forEach((id, group) -> {
+            if (group.hasFamilyMember(person)) ids.add(id);
+        });
+        return ids;
+    }
+
+    private static int[] toIds(Set<Integer> current, int target) {
+        int[] ids = new int[current.size() + 1];
+        int i = 0;
+        for (int id : current) {
+            ids[i++] = id;
+        }
+        ids[i] = target;
+        return ids;
+    }
+
+    /**
+     * Applies a change to a person, a person's stay, a supply allocation or an inquiry,
+     * made on this desk or another. A person inserted elsewhere is a victim until an
+     * inquiry names them as its inquirer, as when the data is loaded. Changes to other
+     * tables, and to rows the model does not know, are ignored.
+     *
+     * @param event the change
+     */
+    public void apply(ChangeEvent event) {
+        switch (event.getTable()) {
+            case PERSON:
+                applyPerson(event);
+                break;
+            case PERSON_LOCATION:
+                applyStay(event);
+                break;
+            case SUPPLY_ALLOCATION:
+                applyAllocation(event);
+                break;
+            case INQUIRY:
+                applyInquiry(event);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void applyPerson(ChangeEvent event) {
+        int id = (int) event.getKey();
+        Map<String, Object> values = event.getValues();
+        if (event.getOperation() == ChangeEvent.Operation.DELETE) {
+            Person person = persons.get(id);
+            if (person == null) return;
+            leaveLocations(person);
+            for (int groupId : familyGroupsOf(person)) {
+                familyLocks.run(() -> familyGroups.get(groupId).removeFamilyMember(person), groupId);
+            }
+            removePerson(id);
+            return;
+        }
+        Person person;
+        synchronized (this) {
+            person = persons.get(id);
+            if (person == null) {
+                if (event.getOperation() != ChangeEvent.Operation.INSERT) return;
+                person = new DisasterVictim((String) values.get("first_name"), (String) values.get("last_name"),
+                    (String) values.get("phone_number"), "Unknown");
+                person.setId(id);
+                setPersonColumns(person, values);
+                addPerson(id, person);
+            } else {
+                long previousKey = person.getPhoneKey();
+                if (values.containsKey("first_name")) person.setFirstName((String) values.get("first_name"));
+                if (values.containsKey("last_name")) person.setLastName((String) values.get("last_name"));
+                if (values.containsKey("phone_number")) person.setPhoneNumber((String) values.get("phone_number"));
+                setPersonColumns(person, values);
+                reindexPerson(person, previousKey);
+            }
+        }
+        Object familyGroup = values.get("family_group");
+        if (familyGroup instanceof Integer) moveToFamilyGroup(person, (Integer) familyGroup);
+    }
+
+    private static void setPersonColumns(Person person, Map<String, Object> values) {
+        if (values.containsKey("gender")) person.setGender((String) values.get("gender"));
+        if (values.containsKey("date_of_birth")) {
+            Object dateOfBirth = values.get("date_of_birth");
+            person.setDateOfBirth(dateOfBirth == null ? null : dateOfBirth.toString());
+        }
+        Object version = values.get("version");
+        if (version instanceof Integer && (Integer) version > person.getVersion()) person.setVersion((Integer) version);
+    }
+
+    private void leaveLocations(Person person) {
+        if (!(person instanceof DisasterVictim)) return;
+        DisasterVictim victim = (DisasterVictim) person;
+        for (int locationId : locationsOf(victim)) {
+            locationLocks.run(() -> locations.get(locationId).removeOccupant(victim), locationId);
+        }
+    }
+
+    private void applyStay(ChangeEvent event) {
+        int locationId = ChangeEvent.stayLocationId(event.getKey());
+        Person person = persons.get(ChangeEvent.stayPersonId(event.getKey()));
+        Location location = locations.get(locationId);
+        if (!(person instanceof DisasterVictim) || location == null) return;
+        DisasterVictim victim = (DisasterVictim) person;
+        if (event.getOperation() == ChangeEvent.Operation.DELETE) {
+            locationLocks.run(() -> location.removeOccupant(victim), locationId);
+        } else {
+            addOccupant(locationId, victim);
+        }
+    }
+
+    private void applyAllocation(ChangeEvent event) {
+        Map<String, Object> values = event.getValues();
+        if (event.getOperation() == ChangeEvent.Operation.DELETE) {
+            if (event.getKey() == 0) {
+                removeAllocationsBefore((String) values.get("type"), (Timestamp) values.get(ChangeEvent.ALLOCATED_BEFORE));
+            } else {
+                Supply supply = supplies.get((int) event.getKey());
+                if (supply != null) removeAllocations(supply);
+            }
+            return;
+        }
+        Supply supply = supplies.get((int) event.getKey());
+        if (supply == null) return;
+        Object personId = values.get("person_id");
+        Object locationId = values.get("location_id");
+        if (personId instanceof Integer) {
+            Person person = persons.get(personId);
+            if (person == null) return;
+            synchronized (person) {
+                if (!person.getAllocatedSupplies().contains(supply)) person.addAllocatedSupply(supply);
+            }
+            Object date = values.get("allocation_date");
+            if (supply instanceof Water && date instanceof Timestamp) {
+                ((Water) supply).setAllocationDate(((Timestamp) date).toLocalDateTime());
+            }
+        } else if (locationId instanceof Integer) {
+            Location location = locations.get(locationId);
+            if (location == null) return;
+            locationLocks.run(() -> {
+                if (!location.getSupplies().contains(supply)) location.addSupply(supply);
+            }, (Integer) locationId);
+        }
+    }
+
+    private void removeAllocations(Supply supply) {
+        for (Person person : persons.values()) {
+            synchronized (person) {
+                person.getAllocatedSupplies().remove(supply);
+            }
+        }
+        locations.forEach((id, location) -> locationLocks.run(() -> location.removeSupply(supply), id));
+    }
+
+    private void removeAllocationsBefore(String type, Timestamp before) {
+        if (type == null || before == null) return;
+        for (Person person : persons.values()) {
+            synchronized (person) {
+                person.getAllocatedSupplies().removeIf(supply -> type.equals(supply.getType())
+                    && supply instanceof Water && ((Water) supply).getAllocationDate() != null
+                    && ((Water) supply).getAllocationDate().isBefore(before.toLocalDateTime()));
+            }
+        }
+    }
+
+    private void applyInquiry(ChangeEvent event) {
+        int id = (int) event.getKey();
+        Map<String, Object> values = event.getValues();
+        if (event.getOperation() == ChangeEvent.Operation.DELETE) {
+            inquiries.remove(id);
+            return;
+        }
+        Inquiry inquiry = inquiries.get(id);
+        String comments = (String) values.get("comments");
+        if (inquiry != null) {
+            if (comments != null) inquiry.setInquiryMessage(comments);
+            // A merge of duplicate persons re-points the inquiry to the survivor
+            Object seekingId = values.get("seeking_id");
+            if (seekingId instanceof Integer) inquiry.setSeekingId((Integer) seekingId);
+            Object inquirerId = values.get("inquirer_id");
+            if (inquirerId instanceof Integer && inquiry.getInquirer().getId() != (Integer) inquirerId) {
+                Inquirer inquirer = asInquirer((Integer) inquirerId);
+                if (inquirer != null) inquiry.setInquirer(inquirer);
+            }
+            return;
+        }
+        Object inquirerId = values.get("inquirer_id");
+        if (event.getOperation() != ChangeEvent.Operation.INSERT || !(inquirerId instanceof Integer)) return;
+        Inquirer inquirer = asInquirer((Integer) inquirerId);
+        if (inquirer == null) return;
+        inquiry = new Inquiry(inquirer, comments != null ? comments : "");
+        inquiry.setId(id);
+        Object seekingId = values.get("seeking_id");
+        if (seekingId instanceof Integer) inquiry.setSeekingId((Integer) seekingId);
+        inquiries.putIfAbsent(id, inquiry);
+    }
+
+    /**
+     * Returns the person with an ID as an inquirer. A victim is replaced by an inquirer
+     * with the same details, in their family groups and no longer at a location, as
+     * loading the data would have made them.
+     */
+    private synchronized Inquirer asInquirer(int id) {
+        Person person = persons.get(id);
+        if (person == null || person instanceof Inquirer) return (Inquirer) person;
+        Inquirer inquirer = new Inquirer(person.getFirstName(), person.getLastName(), person.getPhoneNumber(), "", true);
+        inquirer.setId(id);
+        inquirer.setGender(person.getGender());
+        inquirer.setDateOfBirth(person.getDateOfBirth());
+        inquirer.setVersion(person.getVersion());
+        leaveLocations(person);
+        for (int groupId : familyGroupsOf(person)) {
+            familyLocks.run(() -> {
+                familyGroups.get(groupId).removeFamilyMember(person);
+                familyGroups.get(groupId).addFamilyMember(inquirer);
+            }, groupId);
+        }
+        removePerson(id);
+        addPerson(id, inquirer);
+        return inquirer;
+    }
+
+    /**
+     * Finds all persons whose phone number matches the given one in any common format.
+     *
+     * @param phoneNumber the phone number to look up
+     * @return the matching persons, most recently registered first
+     */
+    public List<Person> findPersonsByPhone(String phoneNumber) {
+        int[] ids;
+        synchronized (this) {
+            if (phoneIndex == null) {
+                phoneIndex = new PhoneIndex();
+                persons.forEach((id, person) -> phoneIndex.add(person.getPhoneKey(), id));
+            }
+            ids = phoneIndex.lookup(phoneNumber);
+        }
+        List<Person> result = new ArrayList<>();
+        for (int id : ids) {
+            Person person = persons.get(id);
+            if (person != null) result.add(person);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the duplicate detector for the persons, building its index on first use.
+     *
+     * @return the duplicate detector
+     */
+    public synchronized DuplicateDetector getDuplicateDetector() {
+        if (duplicateDetector == null) duplicateDetector = new DuplicateDetector(persons);
+        return duplicateDetector;
+    }
+
+    /**
+     * Returns the asynchronous data access over the model's connector, creating it on first use.
+     *
+     * @return the asynchronous data access
+     */
+    public synchronized AsyncDataAccess getAsyncDataAccess() {
+        if (asyncDataAccess == null) {
+            asyncDataAccess = new AsyncDataAccess(dbConnection, AsyncDataAccess.DEFAULT_POOL_SIZE);
+        }
+        return asyncDataAccess;
+    }
+
+    /**
+     * Closes the connection pool used for asynchronous lookups.
+     */
+    @Override
+    public synchronized void close() {
+        if (asyncDataAccess != null) asyncDataAccess.close();
+        asyncDataAccess = null;
+    }
+}
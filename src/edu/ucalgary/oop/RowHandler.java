@@ -0,0 +1,34 @@
+package edu.ucalgary.oop;
+
+/**
+ * Receives the rows of a streamed query one at a time.
+ * <p>
+ * Rows are delivered as they are fetched from the database, so a handler that
+ * does not keep them uses the same amount of memory however many rows the query
+ * returns.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see RealDatabaseConnection#executeCustomQuery(String, int, long, RowHandler)
+ */
+@FunctionalInterface
+public interface RowHandler {
+    /**
+     * Called once with the column names before the first row.
+     *
+     * @param columns the column names
+     */
+    default void onColumns(String[] columns) { }
+
+    /**
+     * Called for each row of the result.
+     *
+     * @param rowNumber the 1-based number of the row
+     * @param values    the column values as text; null for SQL NULL. The array may be
+     *                  reused for the next row, so copy it if it must be kept.
+     * @return true to receive the next row, false to stop the query
+     */
+    boolean onRow(long rowNumber, String[] values);
+}
@@ -0,0 +1,202 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Hosts many operator sessions in one process over TCP or a local socket.
+ * <p>
+ * Each connection gets its own thread, its own {@link LanguageSupport} and its own
+ * {@link UserInterfaceImplied} reading from and writing to the connection. All
+ * sessions share one {@link ReliefModel}, and with it one copy of the loaded data
+ * and one connection pool. A session ends when the operator exits or disconnects;
+ * it never ends the process.
+ * </p>
+ * <p>
+ * The sessions write over the database connector's single connection, one statement
+ * at a time. While the server runs, the connector is marked as shared, so work that
+ * would turn off auto-commit for a transaction of its own, such as merging duplicates
+ * or a bulk import, is refused rather than taking in other sessions' statements.
+ * </p>
+ * <p>
+ * Operators connect with any line-based client, for example
+ * {@code nc localhost 7070} or {@code nc -U /run/relief.sock}. Sessions are not
+ * authenticated, so a TCP server listens on the loopback interface unless another
+ * address is given explicitly.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class SessionServer implements AutoCloseable {
+    private final ReliefModel model;
+    private final ServerSocketChannel serverChannel;
+    private final Path socketFile;
+    private final ExecutorService sessions = AsyncDataAccess.newVirtualThreadExecutor();
+    private final Set<SocketChannel> open = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    /**
+     * Creates a server listening on a TCP port of the loopback interface.
+     *
+     * @param model the model shared by all sessions
+     * @param port  the port to listen on, or 0 for any free port
+     * @return the server, not yet accepting sessions
+     * @throws IOException if the port cannot be bound
+     */
+    public static SessionServer onPort(ReliefModel model, int port) throws IOException {
+        return onPort(model, InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Creates a server listening on a TCP port of the given address.
+     *
+     * @param model   the model shared by all sessions
+     * @param address the address to listen on; a wildcard address accepts every interface
+     * @param port    the port to listen on, or 0 for any free port
+     * @return the server, not yet accepting sessions
+     * @throws IOException if the port cannot be bound
+     */
+    public static SessionServer onPort(ReliefModel model, InetAddress address, int port) throws IOException {
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.bind(new InetSocketAddress(address, port));
+        return new SessionServer(model, channel, null);
+    }
+
+    /**
+     * Creates a server listening on a Unix domain socket.
+     *
+     * @param model      the model shared by all sessions
+     * @param socketFile the socket file to create; an existing file is replaced
+     * @return the server, not yet accepting sessions
+     * @throws IOException if the socket cannot be bound
+     */
+    public static SessionServer onSocketFile(ReliefModel model, Path socketFile) throws IOException {
+        Files.deleteIfExists(socketFile);
+        ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        channel.bind(UnixDomainSocketAddress.of(socketFile));
+        return new SessionServer(model, channel, socketFile);
+    }
+
+    private SessionServer(ReliefModel model, ServerSocketChannel serverChannel, Path socketFile) {
+        this.model = model;
+        this.serverChannel = serverChannel;
+        this.socketFile = socketFile;
+        setShared(true);
+    }
+
+    private void setShared(boolean shared) {
+        if (model.getDbConnection() instanceof DatabaseConnection) {
+            ((DatabaseConnection) model.getDbConnection()).setShared(shared);
+        }
+    }
+
+    /**
+     * Returns the address the server listens on.
+     *
+     * @return the bound address
+     * @throws IOException if the address cannot be read
+     */
+    public SocketAddress getAddress() throws IOException {
+        return serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Returns the number of sessions currently connected.
+     *
+     * @return the open session count
+     */
+    public int getActiveSessions() {
+        return open.size();
+    }
+
+    /**
+     * Accepts sessions on the calling thread until the server is closed.
+     *
+     * @throws IOException if accepting fails for a reason other than closing the server
+     */
+    public void run() throws IOException {
+        while (!closed) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            open.add(channel);
+            sessions.execute(() -> serve(channel));
+        }
+    }
+
+    /**
+     * Accepts sessions on a background thread.
+     */
+    public void start() {
+        Thread acceptor = new Thread(() -> {
+            try {
+                run();
+            } catch (IOException e) {
+                if (!closed) DatabaseConnector.logError("Session server stopped accepting", e);
+            }
+        }, "session-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Runs one operator session on a connection.
+     *
+     * @param channel the connection to the operator
+     */
+    private void serve(SocketChannel channel) {
+        try (channel) {
+            Scanner input = new Scanner(Channels.newInputStream(channel), StandardCharsets.UTF_8);
+            PrintStream out = new PrintStream(Channels.newOutputStream(channel), true, StandardCharsets.UTF_8);
+            LanguageSupport languageSupport = new LanguageSupport("en-CA");
+            languageSupport.chooseLanguage(input, out);
+            UserInterfaceImplied ui = new UserInterfaceImplied(languageSupport, input, out);
+            ui.setModel(model);
+            ui.runSession();
+        } catch (IOException e) {
+            // The operator disconnected; nothing to clean up beyond the connection
+        } catch (RuntimeException e) {
+            DatabaseConnector.logError("Operator session failed", e);
+        } finally {
+            open.remove(channel);
+        }
+    }
+
+    /**
+     * Stops accepting sessions and disconnects the open ones. The shared model stays open.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverChannel.close();
+        for (SocketChannel channel : open) {
+            channel.close();
+        }
+        sessions.shutdown();
+        setShared(false);
+        if (socketFile != null) Files.deleteIfExists(socketFile);
+    }
+}
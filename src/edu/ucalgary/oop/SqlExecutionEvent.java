@@ -0,0 +1,85 @@
+package edu.ucalgary.oop;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A JDK Flight Recorder event for one SQL statement run against the relief database.
+ * <p>
+ * The event's duration covers the statement's execution and, for queries read in a
+ * loop, the reading of its rows. Its stack trace shows the menu action or request
+ * that ran it. The event costs almost nothing unless a recording that enables it is
+ * running, for example one started with {@code -XX:StartFlightRecording}.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+@Name("edu.ucalgary.oop.SqlExecution")
+@Label("SQL Execution")
+@Category({"Disaster Relief", "Database"})
+@Description("A SQL statement run against the relief database")
+public class SqlExecutionEvent extends Event {
+    @Label("SQL ID")
+    @Description("A stable name for the statement, such as supply.allocate_to_person")
+    String sqlId;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Row Count")
+    @Description("Rows read or written, or -1 if the statement failed")
+    long rowCount = -1;
+
+    /**
+     * Starts timing a statement.
+     *
+     * @param sqlId a stable name for the statement
+     * @param sql   the statement text
+     * @return the started event, to be finished with {@link #end(long)}
+     */
+    public static SqlExecutionEvent begin(String sqlId, String sql) {
+        SqlExecutionEvent event = new SqlExecutionEvent();
+        event.sqlId = sqlId;
+        event.sql = sql;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Finishes timing the statement and records the event.
+     *
+     * @param rowCount the rows read or written, or -1 if the statement failed
+     */
+    public void end(long rowCount) {
+        this.rowCount = rowCount;
+        commit();
+    }
+
+    /**
+     * Runs an insert, update or delete and records it.
+     *
+     * @param sqlId a stable name for the statement
+     * @param sql   the statement text
+     * @param ps    the statement, prepared from {@code sql} with its parameters set
+     * @return the number of rows written
+     * @throws SQLException if the statement fails
+     */
+    public static int executeUpdate(String sqlId, String sql, PreparedStatement ps) throws SQLException {
+        SqlExecutionEvent event = begin(sqlId, sql);
+        int rows = -1;
+        try {
+            rows = ps.executeUpdate();
+            return rows;
+        } finally {
+            event.end(rows);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package edu.ucalgary.oop;
+
+/**
+ * A storage engine: where the entities write their changes.
+ * <p>
+ * Entities reach the engine through {@link DatabaseConnector#getStorage()} and never
+ * build SQL themselves, so batching, caching and indexing can be done once per engine.
+ * The engine is chosen at startup with {@code --storage=}; see {@link #create(String, DatabaseConnector)}.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public interface Storage {
+    /**
+     * Returns the repository of people.
+     *
+     * @return the person repository
+     */
+    PersonRepository persons();
+
+    /**
+     * Returns the repository of supplies and their allocations.
+     *
+     * @return the supply repository
+     */
+    SupplyRepository supplies();
+
+    /**
+     * Returns the repository of inquiries.
+     *
+     * @return the inquiry repository
+     */
+    InquiryRepository inquiries();
+
+    /**
+     * Returns the name the engine is chosen by.
+     *
+     * @return the engine name
+     */
+    String getName();
+
+    /**
+     * Creates a storage engine by name.
+     *
+     * @param name the engine: {@code jdbc} writes to the connector's database,
+     *             {@code memory} keeps changes in memory only, starting from the
+     *             connector's loaded data
+     * @param db   the connector the engine stores for
+     * @return the engine
+     * @throws IllegalArgumentException if no engine has the name
+     */
+    static Storage create(String name, DatabaseConnector db) {
+        switch (name) {
+            case JdbcStorage.NAME:
+                return new JdbcStorage(db);
+            case InMemoryStorage.NAME:
+                return new InMemoryStorage(db);
+            default:
+                throw new IllegalArgumentException("Unknown storage engine: " + name);
+        }
+    }
+}
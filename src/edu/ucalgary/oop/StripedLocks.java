@@ -0,0 +1,91 @@
+package edu.ucalgary.oop;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A fixed set of locks shared out among many entities by ID.
+ * <p>
+ * Each ID maps to one of a power-of-two number of stripes, so unrelated entities
+ * rarely contend while memory use stays constant however many entities exist.
+ * Operations that span several entities take all their stripes in ascending stripe
+ * order, which rules out deadlock between such operations.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class StripedLocks {
+    private final ReentrantLock[] locks;
+
+    /**
+     * Constructs a new StripedLocks.
+     *
+     * @param stripes the minimum number of stripes; rounded up to a power of two
+     */
+    public StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Returns the stripe an ID maps to.
+     *
+     * @param id the entity ID
+     * @return the stripe index
+     */
+    int stripeOf(int id) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (locks.length - 1);
+    }
+
+    /**
+     * Runs an action while holding the locks of all given IDs and returns its result.
+     *
+     * @param action the action to run
+     * @param ids    the IDs of the entities the action touches
+     * @param <T>    the type of the result
+     * @return the action's result
+     */
+    public <T> T call(Supplier<T> action, int... ids) {
+        int[] stripes = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            stripes[i] = stripeOf(ids[i]);
+        }
+        Arrays.sort(stripes);
+        int count = 0;
+        for (int stripe : stripes) {
+            if (count == 0 || stripes[count - 1] != stripe) stripes[count++] = stripe;
+        }
+        int held = 0;
+        try {
+            while (held < count) {
+                locks[stripes[held]].lock();
+                held++;
+            }
+            return action.get();
+        } finally {
+            while (held > 0) {
+                locks[stripes[--held]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs an action while holding the locks of all given IDs.
+     *
+     * @param action the action to run
+     * @param ids    the IDs of the entities the action touches
+     */
+    public void run(Runnable action, int... ids) {
+        call(() -> {
+            action.run();
+            return null;
+        }, ids);
+    }
+}
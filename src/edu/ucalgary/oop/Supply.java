@@ -1,6 +1,8 @@
 package edu.ucalgary.oop;
 
 import java.sql.*;
+import java.util.Iterator;
+import java.util.stream.IntStream;
 
 /**
  * The Supply class represents a supply item that can be allocated to people or locations.
@@ -15,10 +17,13 @@ import java.sql.*;
  * @since 2025-04-08
  */
 public class Supply {
+    /** How many times an edit is merged and retried before giving up on a busy row. */
+    private static final int MAX_WRITE_ATTEMPTS = 3;
 
     private int id;
     private String type;
     private String comments;
+    private int version;
 
     /**
      * Constructs a new Supply with the specified type and ID.
@@ -46,6 +51,23 @@ public class Supply {
      */
     public Supply() { }
 
+    /**
+     * Creates a supply of the subclass matching a type name stored in the Supply table.
+     *
+     * @param type the stored type name, such as "cot" or "personal item"
+     * @param comments the stored comments, used by cots and personal items
+     * @return the new supply, without an ID
+     */
+    public static Supply ofType(String type, String comments) {
+        switch (type.toLowerCase()) {
+            case "cot": return new Cot(comments);
+            case "blanket": return new Blanket();
+            case "personal item": return new PersonalBelonging(comments);
+            case "water": return new Water();
+            default: return new Supply(type, 1);
+        }
+    }
+
     /**
      * Constructs a new Supply with the specified ID.
      * 
@@ -73,6 +95,24 @@ public class Supply {
         return id;
     }
 
+    /**
+     * Gets the row version of the supply, as last read from or written to the database.
+     * 
+     * @return the row version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the row version of the supply.
+     * 
+     * @param version the row version
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Gets the type of the supply.
      * 
@@ -141,7 +181,7 @@ public class Supply {
             } else if ("l".equals(choice)) {
                 int locationId = selectLocation(ui);  // Changed from DisasterVictim.selectLocation
                 allocateSupplyToLocation(supplyId, locationId, ui.getDbConnection());
-                ui.getLocations().get(locationId).addSupply(supply);
+                ui.getModel().addSupplyToLocation(locationId, supply);
                 ui.showSuccess(ui.getLanguageSupport().getText("supply_allocated"));
             } else {
                 ui.displayError(ui.getLanguageSupport().getText("invalid_choice"));
@@ -161,19 +201,30 @@ public class Supply {
      */
     public void viewSupplies(UserInterfaceImplied ui) {
         try {
-            Statement stmt = ui.getDbConnection().getConnection().createStatement();
-            ResultSet rs = stmt.executeQuery(
+            QueryCache.Result rs = ui.getDbConnection().query(
                 "SELECT s.supply_id, s.type, s.comments, sa.person_id, sa.location_id " +
                 "FROM Supply s LEFT JOIN SupplyAllocation sa ON s.supply_id = sa.supply_id");
-            while (rs.next()) {
-                String allocation = rs.getInt("person_id") != 0 ? 
-                    "Person: " + ui.getPersons().get(rs.getInt("person_id")).getFullName() :
-                    rs.getInt("location_id") != 0 ? 
-                    "Location: " + ui.getLocations().get(rs.getInt("location_id")).getName() : "Unallocated";
-                System.out.println(rs.getInt("supply_id") + ". " + rs.getString("type") +
-                    (rs.getString("comments") != null ? " - " + rs.getString("comments") : "") +
-                    " (" + allocation + ")");
-            }
+            Iterator<String[]> rows = IntStream.range(0, rs.size())
+                .mapToObj(row -> {
+                    int personId = rs.getInt(row, "person_id");
+                    int locationId = rs.getInt(row, "location_id");
+                    String allocation = personId != 0 ? "Person: " + ui.getPersons().get(personId).getFullName()
+                        : locationId != 0 ? "Location: " + ui.getLocations().get(locationId).getName()
+                        : "Unallocated";
+                    return new String[] {
+                        String.valueOf(rs.getInt(row, "supply_id")),
+                        rs.getString(row, "type"),
+                        rs.getString(row, "comments"),
+                        allocation
+                    };
+                })
+                .iterator();
+            ui.newTable()
+                .addColumn(ui.getLanguageSupport().getText("table_id"), 8)
+                .addColumn(ui.getLanguageSupport().getText("supply_table_type"), 20)
+                .addColumn(ui.getLanguageSupport().getText("supply_table_comments"), 40)
+                .addColumn(ui.getLanguageSupport().getText("supply_table_allocation"), 40)
+                .render(rows);
         } catch (SQLException e) {
             ui.logError("Failed to view supplies", e);
             ui.displayError(ui.getLanguageSupport().getText("error_viewing_supplies"));
@@ -197,10 +248,12 @@ public class Supply {
                 ui.displayError(ui.getLanguageSupport().getText("invalid_supply_id"));
                 return;
             }
+            String[] base = {supply.getType(), supply.getComments()};
+            int baseVersion = supply.getVersion();
             // Prompt for the new supply type.
             String newType = ui.getValidatedInput(
                 ui.getLanguageSupport().getText("input_supply_type"),
-                ".+",
+                Validators.NON_EMPTY,
                 ui.getLanguageSupport().getText("invalid_supply_type")
             );
             if (newType != null) {
@@ -209,14 +262,17 @@ public class Supply {
             // Prompt for new comments (optional) for that specific supply.
             String newComments = ui.getValidatedInput(
                 ui.getLanguageSupport().getText("input_supply_comments"),
-                ".*",
+                Validators.ANY,
                 ""
             );
             supply.setComments(newComments);
-            supply.updateDatabase(ui);
+            supply.updateDatabase(ui, base, baseVersion);
             ui.showSuccess(ui.getLanguageSupport().getText("update_successful"));
         } catch (NumberFormatException e) {
             ui.displayError(ui.getLanguageSupport().getText("invalid_input"));
+        } catch (VersionConflictException e) {
+            ui.displayError(ui.getLanguageSupport().getText("edit_conflict_retry"));
+            ui.logError("Supply kept changing while being edited", e);
         } catch (SQLException e) {
             ui.displayError(ui.getLanguageSupport().getText("update_failed"));
             ui.logError("Failed to update supply", e);
@@ -224,27 +280,66 @@ public class Supply {
     }
 
     /**
-     * Updates the supply record in the database with the current type and comments.
+     * Updates the supply record in the database with the current type and comments,
+     * provided nobody changed it since it was loaded. Every field is treated as edited,
+     * so a concurrent change to either field is offered to the user as a conflict.
      * 
      * @param ui the user interface implied, used for database connections
      * @throws SQLException if a database access error occurs during the update
      */
     public void updateDatabase(UserInterfaceImplied ui) throws SQLException {
+        updateDatabase(ui, null, getVersion());
+    }
+
+    /**
+     * Updates the supply record in the database if it is still at the version the edit
+     * started from. If another operator changed it in the meantime, the current row is
+     * read back, merged field by field with this edit, and the write is retried.
+     * If the write fails, the edit is undone when its base is known; if the row kept
+     * changing, the values and version last read back are kept instead.
+     * 
+     * @param ui          the user interface implied, used for database connections
+     * @param base        the type and comments the edit started from, or null if unknown
+     * @param baseVersion the row version the edit started from
+     * @throws VersionConflictException if the row kept changing through every retry
+     * @throws SQLException if a database access error occurs during the update
+     */
+    public void updateDatabase(UserInterfaceImplied ui, String[] base, int baseVersion) throws SQLException {
         if (getId() <= 0) {
             throw new SQLException("Invalid supply ID");
         }
         
-        String sql = "UPDATE Supply SET type = ?, comments = ? WHERE supply_id = ?";
-        try (PreparedStatement ps = ui.getDbConnection().getConnection().prepareStatement(sql)) {
-            ps.setString(1, getType() != null ? getType() : "");
-            ps.setString(2, getComments());
-            ps.setInt(3, getId());
-            int rowsAffected = ps.executeUpdate();
-            
-            if (rowsAffected == 0) {
-                throw new SQLException("Supply not found with ID: " + getId());
+        SupplyRepository repository = ui.getDbConnection().getStorage().supplies();
+        String[] original = base;
+        int version = baseVersion;
+        try {
+            for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS; attempt++) {
+                if (repository.update(this, version)) {
+                    setVersion(version + 1);
+                    return;
+                }
+
+                String[] theirs = new String[SupplyRepository.ROW_FIELDS.length];
+                version = repository.read(getId(), theirs);
+                String[] merged = RecordMerge.resolveWithUser(ui, SupplyRepository.ROW_FIELDS,
+                    new RecordMerge(base, new String[] {getType(), getComments()}, theirs));
+                setType(merged[0]);
+                setComments(merged[1]);
+                base = theirs;
             }
+        } catch (SQLException e) {
+            if (original != null) {
+                setType(original[0]);
+                setComments(original[1]);
+                setVersion(baseVersion);
+            }
+            throw e;
         }
+        // Give up with the other operator's values, which base now holds
+        setType(base[0]);
+        setComments(base[1]);
+        setVersion(version);
+        throw new VersionConflictException("Supply", getId(), version);
     }
 
     /**
@@ -273,10 +368,8 @@ public class Supply {
     /**
      * Checks if a given supply allocation matches a person's location.
      *
-     * <p>This method executes a SQL query to verify whether a specific supply 
-     * allocation is associated with a person's location. It uses the provided 
-     * database connection to prepare and execute the query securely with 
-     * parameters.</p>
+     * <p>This method asks the storage engine whether a specific supply 
+     * allocation is associated with a person's location.</p>
      *
      * @param supplyId the ID of the supply allocation
      * @param personId the ID of the person
@@ -285,16 +378,11 @@ public class Supply {
      * @throws SQLException if a database access error occurs
      */    
     public boolean checkLocationMatch(int supplyId, int personId, DatabaseConnector db) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM PersonLocation pl " +
-                    "JOIN SupplyAllocation sa ON pl.location_id = sa.location_id " +
-                    "WHERE pl.person_id = ? AND sa.supply_id = ?";
-        
-        try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
-            ps.setInt(1, personId);
-            ps.setInt(2, supplyId);
-            ResultSet rs = ps.executeQuery();
-            return rs.next() && rs.getInt(1) > 0;
+        boolean matches = db.getStorage().supplies().isAtPersonLocation(supplyId, personId);
+        if (!matches) {
+            AllocationEvent.begin(supplyId, getType(), personId, 0).rejected("Supply is not at the person's location");
         }
+        return matches;
     }
     
     /**
@@ -310,18 +398,20 @@ public class Supply {
      * @throws SQLException if the person ID or supply ID is invalid, or if a database access error occurs
      */
     public void allocateSupplyToPerson(int supplyId, int personId, DatabaseConnector db) throws SQLException {
-        String sql = "INSERT INTO SupplyAllocation (supply_id, person_id) VALUES (?, ?)";
-        if (!db.getPersons().containsKey(personId)) {
-            throw new SQLException("Invalid person ID: " + personId);
-        }
-        if (!db.getSupplies().containsKey(supplyId)) {
-            throw new SQLException("Invalid supply ID: " + supplyId);
-        }
-        try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
-            ps.setInt(1, supplyId);
-            ps.setInt(2, personId);
-            ps.executeUpdate();
+        AllocationEvent event = AllocationEvent.begin(supplyId, getType(), personId, 0);
+        try {
+            if (!db.getPersons().containsKey(personId)) {
+                throw new SQLException("Invalid person ID: " + personId);
+            }
+            if (!db.getSupplies().containsKey(supplyId)) {
+                throw new SQLException("Invalid supply ID: " + supplyId);
+            }
+            db.getStorage().supplies().allocateToPerson(supplyId, personId);
+        } catch (SQLException e) {
+            event.rejected(e.getMessage());
+            throw e;
         }
+        event.allocated();
     }
 
     /**
@@ -337,28 +427,30 @@ public class Supply {
      * @throws SQLException if the location ID or supply ID is invalid, or if a database access error occurs
      */
     public void allocateSupplyToLocation(int supplyId, int locationId, DatabaseConnector db) throws SQLException {
-        String sql = "INSERT INTO SupplyAllocation (supply_id, location_id) VALUES (?, ?)";
-        if (!db.getLocations().containsKey(locationId)) {
-            throw new SQLException("Invalid location ID: " + locationId);
-        }
-        if (!db.getSupplies().containsKey(supplyId)) {
-            throw new SQLException("Invalid supply ID: " + supplyId);
-        }
-        try (PreparedStatement ps = db.getConnection().prepareStatement(sql)) {
-            ps.setInt(1, supplyId);
-            ps.setInt(2, locationId);
-            ps.executeUpdate();
+        AllocationEvent event = AllocationEvent.begin(supplyId, getType(), 0, locationId);
+        try {
+            if (!db.getLocations().containsKey(locationId)) {
+                throw new SQLException("Invalid location ID: " + locationId);
+            }
+            if (!db.getSupplies().containsKey(supplyId)) {
+                throw new SQLException("Invalid supply ID: " + supplyId);
+            }
+            db.getStorage().supplies().allocateToLocation(supplyId, locationId);
+        } catch (SQLException e) {
+            event.rejected(e.getMessage());
+            throw e;
         }
+        event.allocated();
     }
 
     private int selectLocation(UserInterfaceImplied ui) {
-        System.out.println(ui.getLanguageSupport().getText("available_locations"));
+        ui.getOut().println(ui.getLanguageSupport().getText("available_locations"));
         ui.getLocations().forEach((id, loc) -> 
-            System.out.println(id + ". " + loc.getName() + " (" + loc.getAddress() + ")"));
+            ui.getOut().println(id + ". " + loc.getName() + " (" + loc.getAddress() + ")"));
             
         String locationInput = ui.getValidatedInput(
             ui.getLanguageSupport().getText("select_location"),
-            "^[0-9]+$",
+            Validators.ID,
             ui.getLanguageSupport().getText("invalid_location")
         );
         
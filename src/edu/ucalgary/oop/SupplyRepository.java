@@ -0,0 +1,73 @@
+package edu.ucalgary.oop;
+
+import java.sql.SQLException;
+
+/**
+ * Stores supplies and their allocations to people and locations.
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see Storage
+ */
+public interface SupplyRepository {
+    /** The fields {@link #update(Supply, int)} writes and {@link #read(int, String[])} reads, in order. */
+    String[] ROW_FIELDS = {"type", "comments"};
+
+    /**
+     * Writes a supply's {@link #ROW_FIELDS} if its stored version is still the given one,
+     * and increments the version.
+     *
+     * @param supply  the supply with the values to write
+     * @param version the version the values are based on
+     * @return true if the supply was written, false if its version has moved on
+     * @throws SQLException if the supply cannot be written
+     */
+    boolean update(Supply supply, int version) throws SQLException;
+
+    /**
+     * Reads the stored {@link #ROW_FIELDS} of a supply.
+     *
+     * @param supplyId the ID of the supply
+     * @param values   the array the values are stored in
+     * @return the stored version
+     * @throws SQLException if the supply does not exist or cannot be read
+     */
+    int read(int supplyId, String[] values) throws SQLException;
+
+    /**
+     * Allocates a supply to a person, now.
+     *
+     * @param supplyId the ID of the supply
+     * @param personId the ID of the person
+     * @throws SQLException if the allocation cannot be saved
+     */
+    void allocateToPerson(int supplyId, int personId) throws SQLException;
+
+    /**
+     * Allocates a supply to a location, now.
+     *
+     * @param supplyId   the ID of the supply
+     * @param locationId the ID of the location
+     * @throws SQLException if the allocation cannot be saved
+     */
+    void allocateToLocation(int supplyId, int locationId) throws SQLException;
+
+    /**
+     * Checks whether a supply is allocated to a location the person stays at.
+     *
+     * @param supplyId the ID of the supply
+     * @param personId the ID of the person
+     * @return true if the supply is at one of the person's locations
+     * @throws SQLException if the allocations cannot be read
+     */
+    boolean isAtPersonLocation(int supplyId, int personId) throws SQLException;
+
+    /**
+     * Removes allocations of water to people made more than a day ago.
+     *
+     * @return the number of allocations removed
+     * @throws SQLException if the allocations cannot be removed
+     */
+    int removeExpiredWater() throws SQLException;
+}
@@ -0,0 +1,460 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates a realistic relief population of any size for tests and benchmarks.
+ * <p>
+ * People arrive in households whose sizes follow census proportions; a household
+ * shares a family name drawn from one of several language groups, a family group
+ * and a shelter. About 2% of people are inquirers who log one or two inquiries
+ * about a victim. Supplies are a mix of water, blankets, cots and personal items,
+ * most allocated to a victim or a shelter, and some victims have a medical record.
+ * </p>
+ * <p>
+ * The population is generated in chunks of {@value #CHUNK_PERSONS} people on
+ * several threads. Each chunk draws from its own random stream split from the seed,
+ * and its IDs come from its own range, so the rows are the same for a given seed,
+ * size and reference time whatever the number of threads. Rows are delivered in
+ * chunk order, and only a few chunks are held in memory at once.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class SyntheticDataGenerator {
+    /** People generated per unit of parallel work. */
+    public static final int CHUNK_PERSONS = 4096;
+    /** People per shelter. */
+    public static final int PERSONS_PER_SHELTER = 250;
+
+    /**
+     * Receives the generated rows.
+     */
+    @FunctionalInterface
+    public interface RowSink {
+        /**
+         * Called for each generated row.
+         *
+         * @param table  the table of the row
+         * @param values the column values: Integer, String, {@link Date} or {@link Timestamp}, or
+         *               null for SQL NULL. The array is not reused.
+         * @throws IOException  if writing the row to a file fails
+         * @throws SQLException if writing the row to a database fails
+         */
+        void row(Table table, Object[] values) throws IOException, SQLException;
+    }
+
+    private static final class NamePool {
+        final int weight;
+        final String[] men;
+        final String[] women;
+        final String[] families;
+
+        NamePool(int weight, String[] men, String[] women, String[] families) {
+            this.weight = weight;
+            this.men = men;
+            this.women = women;
+            this.families = families;
+        }
+    }
+
+    private static final NamePool[] NAME_POOLS = {
+        new NamePool(40, new String[] {"James", "Liam", "Noah", "William", "Benjamin", "Lucas", "Ethan", "Owen"},
+            new String[] {"Olivia", "Emma", "Charlotte", "Amelia", "Ava", "Sophie", "Chloe", "Hannah"},
+            new String[] {"Smith", "Brown", "Wilson", "MacDonald", "Campbell", "Anderson", "Taylor", "O'Neill"}),
+        new NamePool(14, new String[] {"Jérôme", "François", "Léo", "Mathis", "Éric", "Gabriel", "Théo", "Benoît"},
+            new String[] {"Chloé", "Léa", "Élodie", "Amélie", "Geneviève", "Zoé", "Maëlle", "Françoise"},
+            new String[] {"Tremblay", "Gagnon", "Côté", "Bouchard", "Gauthier", "Lévesque", "Bélanger", "Pelletier"}),
+        new NamePool(9, new String[] {"Arjun", "Harpreet", "Gurpreet", "Rohan", "Vikram", "Amandeep"},
+            new String[] {"Priya", "Simran", "Ananya", "Jasleen", "Navjot", "Manpreet"},
+            new String[] {"Singh", "Kaur", "Sharma", "Gill", "Patel", "Dhillon"}),
+        new NamePool(8, new String[] {"Wei", "Jun", "Hao", "Ming", "Zhi", "Yong"},
+            new String[] {"Mei", "Xiu", "Ying", "Li", "Hua", "Xin"},
+            new String[] {"Wang", "Li", "Zhang", "Liu", "Chen", "Huang"}),
+        new NamePool(8, new String[] {"Jose", "Mark", "John Paul", "Rafael", "Miguel", "Carlo"},
+            new String[] {"Maricel", "Joy", "Kristine", "Angelica", "Rosario", "Jocelyn"},
+            new String[] {"Santos", "Reyes", "Cruz", "Bautista", "Dela Cruz", "Villanueva"}),
+        new NamePool(7, new String[] {"Cody", "Tyler", "Dakota", "Chayton", "Wade", "Dallas"},
+            new String[] {"Aiyana", "Kayla", "Tala", "Winona", "Shania", "Raven"},
+            new String[] {"Cardinal", "Bear", "Littlechild", "Morningstar", "Whitehead", "Auger"}),
+        new NamePool(5, new String[] {"Mohammed", "Omar", "Yusuf", "Karim", "Tariq", "Bilal"},
+            new String[] {"Fatima", "Aisha", "Layla", "Mariam", "Noor", "Huda"},
+            new String[] {"Haddad", "Khalil", "Nasser", "Al-Sayed", "Abdullah", "Hamdan"}),
+        new NamePool(5, new String[] {"José", "Mateo", "Santiago", "Andrés", "Diego", "Joaquín"},
+            new String[] {"María", "Sofía", "Lucía", "Valentina", "Ximena", "Camila"},
+            new String[] {"García", "Hernández", "Muñoz", "Pérez", "Rodríguez", "Núñez"}),
+        new NamePool(4, new String[] {"Oleksandr", "Taras", "Dmytro", "Andriy", "Bohdan", "Yurii"},
+            new String[] {"Oksana", "Iryna", "Olena", "Kateryna", "Halyna", "Natalia"},
+            new String[] {"Kovalenko", "Shevchenko", "Bondarenko", "Tkachuk", "Melnyk", "Kravets"})
+    };
+    private static final int NAME_POOL_WEIGHT = 100;
+    /** Cumulative share of households of one, two, ... seven people, in thousandths. */
+    private static final int[] HOUSEHOLD_SIZES = {280, 620, 770, 910, 960, 990, 1000};
+    private static final String[] AREA_CODES = {"403", "587", "780", "825", "368"};
+    private static final String[] TOWNS = {"Calgary", "Airdrie", "Cochrane", "Okotoks", "High River", "Canmore",
+        "Strathmore", "Chestermere", "Red Deer", "Lethbridge", "Medicine Hat", "Banff"};
+    private static final String[] SHELTER_KINDS = {"Emergency Shelter", "Community Centre", "Recreation Centre",
+        "High School", "Arena", "Church Hall"};
+    private static final String[] STREETS = {"Main St", "Centre St", "Macleod Trail", "Bow Trail", "Elbow Dr",
+        "1 Ave NE", "17 Ave SW", "Crowchild Trail", "Edmonton Trail", "Railway Ave"};
+    private static final String[] PERSON_COMMENTS = {"Requires wheelchair access", "Speaks French only",
+        "Has a service dog", "Diabetic", "Needs a translator", "Arrived without identification"};
+    private static final String[] ITEM_COLOURS = {"green", "black", "red", "blue", "brown", "grey"};
+    private static final String[] ITEMS = {"leather suitcase", "backpack", "duffel bag", "phone charger",
+        "photo album", "wheelchair", "hearing aid", "teddy bear"};
+    private static final String[] INQUIRY_COMMENTS = {"Seeking spouse", "Looking for parents",
+        "Checking on neighbour", "Daughter missing", "Cherche son frère", "Busca a su madre",
+        "Looking for grandchildren", "Searching for a coworker"};
+    private static final String[] TREATMENTS = {"Broken arm", "Dehydration", "Smoke inhalation", "Minor burns",
+        "Hypothermia", "Sprained ankle", "Insulin refill", "Anxiety support", "Cut requiring stitches"};
+
+    private final long seed;
+    private final int persons;
+    private double suppliesPerPerson = 2.0;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private LocalDateTime referenceTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    /**
+     * Constructs a new SyntheticDataGenerator.
+     *
+     * @param seed    the seed all values are derived from
+     * @param persons the number of people to generate, at least 1
+     */
+    public SyntheticDataGenerator(long seed, int persons) {
+        if (persons < 1) throw new IllegalArgumentException("persons must be at least 1");
+        this.seed = seed;
+        this.persons = persons;
+    }
+
+    /**
+     * Sets the number of supplies generated per person, 2 by default.
+     *
+     * @param suppliesPerPerson the supplies per person
+     * @return this generator
+     */
+    public SyntheticDataGenerator setSuppliesPerPerson(double suppliesPerPerson) {
+        if (suppliesPerPerson < 0) throw new IllegalArgumentException("suppliesPerPerson must not be negative");
+        this.suppliesPerPerson = suppliesPerPerson;
+        return this;
+    }
+
+    /**
+     * Sets the number of threads generating chunks, the number of processors by default.
+     *
+     * @param threads the number of threads
+     * @return this generator
+     */
+    public SyntheticDataGenerator setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * Sets the time that generated dates lie before, the current time by default.
+     *
+     * @param referenceTime the reference time
+     * @return this generator
+     */
+    public SyntheticDataGenerator setReferenceTime(LocalDateTime referenceTime) {
+        this.referenceTime = referenceTime;
+        return this;
+    }
+
+    /**
+     * Returns the number of people generated.
+     *
+     * @return the number of people
+     */
+    public int getPersons() {
+        return persons;
+    }
+
+    /**
+     * Returns the number of shelters generated, one per {@value #PERSONS_PER_SHELTER} people.
+     *
+     * @return the number of shelters
+     */
+    public int getShelters() {
+        return Math.max(2, persons / PERSONS_PER_SHELTER);
+    }
+
+    /**
+     * Generates the population and passes every row to the sink, shelters first and then
+     * chunk by chunk. Rows of a chunk only refer to shelters and to rows of the same chunk,
+     * so they can be inserted in the order received.
+     *
+     * @param sink the receiver of the rows
+     * @throws IOException  if the sink fails to write a row to a file, or generation is interrupted
+     * @throws SQLException if the sink fails to write a row to a database
+     */
+    public void generate(RowSink sink) throws IOException, SQLException {
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom random = root.split();
+        for (int id = 1; id <= getShelters(); id++) {
+            sink.row(Table.LOCATION, new Object[] {id,
+                pick(random, TOWNS) + " " + pick(random, SHELTER_KINDS),
+                (1 + random.nextInt(9999)) + " " + pick(random, STREETS)});
+        }
+
+        int chunks = (persons + CHUNK_PERSONS - 1) / CHUNK_PERSONS;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, chunks));
+        Deque<Future<EnumMap<Table, List<Object[]>>>> window = new ArrayDeque<>();
+        try {
+            int next = 0;
+            while (next < chunks || !window.isEmpty()) {
+                // Split on this thread so each chunk's stream is fixed by the seed
+                while (next < chunks && window.size() < 2 * threads) {
+                    int index = next++;
+                    SplittableRandom chunkRandom = root.split();
+                    window.add(executor.submit(() -> generateChunk(index, chunkRandom)));
+                }
+                for (Map.Entry<Table, List<Object[]>> rows : window.poll().get().entrySet()) {
+                    for (Object[] values : rows.getValue()) sink.row(rows.getKey(), values);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Generation interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException("Generation failed", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the population to a script that {@code psql} runs against the tables of
+     * {@code project.sql}. The script empties the tables, loads each one with a single
+     * {@code COPY} block and moves the ID sequences past the generated IDs. Each table is
+     * streamed to a temporary file next to the script while generating, and the files are
+     * joined at the end.
+     *
+     * @param file the script to write
+     * @return the number of rows written per table
+     * @throws IOException if writing fails
+     */
+    public Map<Table, Long> writeSql(Path file) throws IOException {
+        Map<Table, Long> counts = new EnumMap<>(Table.class);
+        Map<Table, Path> parts = new EnumMap<>(Table.class);
+        Map<Table, TableWriter> writers = new EnumMap<>(Table.class);
+        try {
+            for (Table table : Table.values()) {
+                Path part = file.resolveSibling(file.getFileName() + "." + table.getName() + ".part");
+                parts.put(table, part);
+                writers.put(table, new CopyTableWriter(FileChannel.open(part, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)));
+                writers.get(table).begin(table.getColumns(), table.getTypes());
+                counts.put(table, 0L);
+            }
+            try {
+                generate((table, values) -> {
+                    writeRow(writers.get(table), table, values);
+                    counts.merge(table, 1L, Long::sum);
+                });
+            } catch (SQLException e) {
+                throw new IllegalStateException("File output does not use SQL", e);
+            }
+            for (TableWriter writer : writers.values()) writer.finish();
+
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                StringBuilder truncate = new StringBuilder();
+                for (int i = Table.values().length - 1; i >= 0; i--) {
+                    truncate.append(truncate.length() == 0 ? "" : ", ").append(Table.values()[i].getName());
+                }
+                write(out, "-- Synthetic relief population: seed " + seed + ", " + persons + " persons, "
+                    + "reference time " + referenceTime + "\n-- Run after the CREATE TABLE statements of project.sql\n"
+                    + "BEGIN;\nTRUNCATE " + truncate + " RESTART IDENTITY;\n\n");
+                for (Table table : Table.values()) {
+                    write(out, CopyTableWriter.copyCommand(table.getName(), table.getColumns()));
+                    try (FileChannel in = FileChannel.open(parts.get(table), StandardOpenOption.READ)) {
+                        long size = in.size();
+                        for (long position = 0; position < size; ) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    }
+                    write(out, "\\.\n\n");
+                }
+                StringBuilder sequences = new StringBuilder();
+                for (Table table : Table.values()) {
+                    String id = table.getIdColumn();
+                    if (id == null) continue;
+                    sequences.append("SELECT setval(pg_get_serial_sequence('").append(table.getName().toLowerCase())
+                        .append("', '").append(id).append("'), COALESCE(MAX(").append(id).append("), 1)) FROM ")
+                        .append(table.getName()).append(";\n");
+                }
+                write(out, sequences + "COMMIT;\n");
+            }
+            return counts;
+        } finally {
+            for (TableWriter writer : writers.values()) writer.close();
+            for (Path part : parts.values()) Files.deleteIfExists(part);
+        }
+    }
+
+    /**
+     * Writes one generated row through a table writer.
+     *
+     * @param writer the writer of the row's table
+     * @param table  the table of the row
+     * @param values the row values
+     * @throws IOException if writing fails
+     */
+    static void writeRow(TableWriter writer, Table table, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                writer.writeNull();
+                continue;
+            }
+            switch (table.getType(i)) {
+                case TableWriter.TYPE_INT: writer.writeInt((Integer) value); break;
+                case TableWriter.TYPE_DATE: writer.writeDate((Date) value); break;
+                case TableWriter.TYPE_TIMESTAMP: writer.writeTimestamp((Timestamp) value); break;
+                default: writer.writeString((String) value);
+            }
+        }
+        writer.endRow();
+    }
+
+    private static void write(FileChannel channel, String text) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) channel.write(bytes);
+    }
+
+    private EnumMap<Table, List<Object[]>> generateChunk(int index, SplittableRandom random) {
+        EnumMap<Table, List<Object[]>> rows = new EnumMap<>(Table.class);
+        for (Table table : Table.values()) {
+            if (table != Table.LOCATION) rows.put(table, new ArrayList<>());
+        }
+        int firstId = index * CHUNK_PERSONS + 1;
+        int lastId = Math.min(persons, firstId + CHUNK_PERSONS - 1);
+        int shelters = getShelters();
+        int[] victims = new int[lastId - firstId + 1];
+        int[] victimShelters = new int[victims.length];
+        int victimCount = 0;
+        List<Integer> inquirers = new ArrayList<>();
+
+        for (int id = firstId; id <= lastId; ) {
+            int size = householdSize(random);
+            NamePool pool = namePool(random);
+            String familyName = pick(random, pool.families);
+            boolean inquirer = size == 1 && random.nextInt(100) < 18;
+            Integer familyGroup = size > 1 ? id : null;
+            int shelter = 1 + (int) (shelters * Math.pow(random.nextDouble(), 1.5));
+            for (int member = 0; member < size && id <= lastId; member++, id++) {
+                int gender = random.nextInt(100);
+                String firstName = gender < 49 ? pick(random, pool.men)
+                    : gender < 98 ? pick(random, pool.women)
+                    : pick(random, random.nextBoolean() ? pool.men : pool.women);
+                int age = member < 2 ? 18 + random.nextInt(68) : random.nextInt(18);
+                rows.get(Table.PERSON).add(new Object[] {id, firstName, familyName,
+                    Date.valueOf(referenceTime.toLocalDate().minusYears(age).minusDays(random.nextInt(365))),
+                    gender < 49 ? "man" : gender < 98 ? "woman" : "non-binary",
+                    random.nextInt(100) < 5 ? pick(random, PERSON_COMMENTS) : null,
+                    pick(random, AREA_CODES) + "-" + (200 + random.nextInt(800)) + "-"
+                        + String.format("%04d", random.nextInt(10_000)),
+                    familyGroup});
+                if (inquirer) {
+                    inquirers.add(id);
+                } else {
+                    victims[victimCount] = id;
+                    victimShelters[victimCount++] = shelter;
+                    rows.get(Table.PERSON_LOCATION).add(new Object[] {id, shelter});
+                }
+            }
+        }
+
+        int inquiryId = index * 2 * CHUNK_PERSONS;
+        for (int inquirerId : inquirers) {
+            int count = random.nextInt(4) == 0 ? 2 : 1;
+            for (int i = 0; i < count; i++) {
+                int sought = victimCount > 0 ? random.nextInt(victimCount) : -1;
+                rows.get(Table.INQUIRY).add(new Object[] {++inquiryId, inquirerId,
+                    sought >= 0 ? victims[sought] : null, sought >= 0 ? victimShelters[sought] : null,
+                    before(random, 14 * 24 * 3600), pick(random, INQUIRY_COMMENTS)});
+            }
+        }
+
+        int supplyBlock = (int) Math.ceil(CHUNK_PERSONS * suppliesPerPerson);
+        int supplies = (int) Math.round((lastId - firstId + 1) * suppliesPerPerson);
+        for (int i = 1; i <= supplies; i++) {
+            int supplyId = index * supplyBlock + i;
+            int kind = random.nextInt(100);
+            String type = kind < 40 ? "water" : kind < 65 ? "blanket" : kind < 85 ? "cot" : "personal item";
+            String comments = type.equals("cot")
+                ? (100 + random.nextInt(400)) + " " + (char) ('A' + random.nextInt(8)) + (1 + random.nextInt(30))
+                : type.equals("personal item") ? pick(random, ITEM_COLOURS) + " " + pick(random, ITEMS) : null;
+            rows.get(Table.SUPPLY).add(new Object[] {supplyId, type, comments});
+
+            int target = random.nextInt(100);
+            // Water given to a person expires after a day; spread it over a day and a half
+            Timestamp allocated = before(random, type.equals("water") ? 36 * 3600 : 30 * 24 * 3600);
+            if (target < 65 && victimCount > 0) {
+                rows.get(Table.SUPPLY_ALLOCATION).add(new Object[] {supplyId,
+                    victims[random.nextInt(victimCount)], null, allocated});
+            } else if (target < 90) {
+                rows.get(Table.SUPPLY_ALLOCATION).add(new Object[] {supplyId, null,
+                    1 + random.nextInt(shelters), allocated});
+            }
+        }
+
+        int medicalRecordId = index * CHUNK_PERSONS;
+        for (int i = 0; i < victimCount; i++) {
+            if (random.nextInt(100) >= 12) continue;
+            rows.get(Table.MEDICAL_RECORD).add(new Object[] {++medicalRecordId, victimShelters[i], victims[i],
+                before(random, 30 * 24 * 3600), pick(random, TREATMENTS)});
+        }
+        return rows;
+    }
+
+    private Timestamp before(SplittableRandom random, int maxSeconds) {
+        return Timestamp.valueOf(referenceTime.minusSeconds(random.nextInt(maxSeconds)));
+    }
+
+    private static int householdSize(SplittableRandom random) {
+        int draw = random.nextInt(1000);
+        int size = 1;
+        while (draw >= HOUSEHOLD_SIZES[size - 1]) size++;
+        return size;
+    }
+
+    private static NamePool namePool(SplittableRandom random) {
+        int draw = random.nextInt(NAME_POOL_WEIGHT);
+        for (NamePool pool : NAME_POOLS) {
+            draw -= pool.weight;
+            if (draw < 0) return pool;
+        }
+        return NAME_POOLS[0];
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,101 @@
+package edu.ucalgary.oop;
+
+/**
+ * The tables of {@code project.sql}, in an order that satisfies their foreign keys,
+ * with the columns and column types each one is read and written with.
+ * <p>
+ * {@link LogStore} saves each table as its ordinal, in its records and checkpoints, so
+ * constants must never be reordered or removed; add new tables at the end.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public enum Table {
+    /** Shelters. */
+    LOCATION("Location", new String[] {"location_id", "name", "address"},
+        new byte[] {TableWriter.TYPE_INT, TableWriter.TYPE_STRING, TableWriter.TYPE_STRING}),
+    /** Victims and inquirers. */
+    PERSON("Person", new String[] {"person_id", "first_name", "last_name", "date_of_birth", "gender",
+        "comments", "phone_number", "family_group"},
+        new byte[] {TableWriter.TYPE_INT, TableWriter.TYPE_STRING, TableWriter.TYPE_STRING, TableWriter.TYPE_DATE,
+            TableWriter.TYPE_STRING, TableWriter.TYPE_STRING, TableWriter.TYPE_STRING, TableWriter.TYPE_INT}),
+    /** The shelter each victim stays at. */
+    PERSON_LOCATION("PersonLocation", new String[] {"person_id", "location_id"},
+        new byte[] {TableWriter.TYPE_INT, TableWriter.TYPE_INT}),
+    /** Inquiries about victims. */
+    INQUIRY("Inquiry", new String[] {"inquiry_id", "inquirer_id", "seeking_id", "location_id",
+        "date_of_inquiry", "comments"},
+        new byte[] {TableWriter.TYPE_INT, TableWriter.TYPE_INT, TableWriter.TYPE_INT, TableWriter.TYPE_INT,
+            TableWriter.TYPE_TIMESTAMP, TableWriter.TYPE_STRING}),
+    /** Supplies. */
+    SUPPLY("Supply", new String[] {"supply_id", "type", "comments"},
+        new byte[] {TableWriter.TYPE_INT, TableWriter.TYPE_STRING, TableWriter.TYPE_STRING}),
+    /** Supplies allocated to a victim or a shelter. */
+    SUPPLY_ALLOCATION("SupplyAllocation", new String[] {"supply_id", "person_id", "location_id",
+        "allocation_date"},
+        new byte[] {TableWriter.TYPE_INT, TableWriter.TYPE_INT, TableWriter.TYPE_INT,
+            TableWriter.TYPE_TIMESTAMP}),
+    /** Medical treatment given at a shelter. */
+    MEDICAL_RECORD("MedicalRecord", new String[] {"medical_record_id", "location_id", "person_id",
+        "date_of_treatment", "treatment_details"},
+        new byte[] {TableWriter.TYPE_INT, TableWriter.TYPE_INT, TableWriter.TYPE_INT,
+            TableWriter.TYPE_TIMESTAMP, TableWriter.TYPE_STRING});
+
+    private final String name;
+    private final String[] columns;
+    private final byte[] types;
+
+    Table(String name, String[] columns, byte[] types) {
+        this.name = name;
+        this.columns = columns;
+        this.types = types;
+    }
+
+    /**
+     * Returns the table name used in {@code project.sql}.
+     *
+     * @return the table name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the column names, in the order of the row values.
+     *
+     * @return the column names
+     */
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    /**
+     * Returns the column types, one of the {@code TableWriter.TYPE_} constants per column.
+     *
+     * @return the column types
+     */
+    public byte[] getTypes() {
+        return types.clone();
+    }
+
+    /**
+     * Returns the type of one column without copying the types, for code writing rows.
+     *
+     * @param column the index of the column
+     * @return one of the {@code TableWriter.TYPE_} constants
+     */
+    byte getType(int column) {
+        return types[column];
+    }
+
+    /**
+     * Returns the serial ID column of the table.
+     *
+     * @return the ID column, or null for association tables
+     */
+    public String getIdColumn() {
+        return this == PERSON_LOCATION || this == SUPPLY_ALLOCATION ? null : columns[0];
+    }
+}
@@ -0,0 +1,160 @@
+package edu.ucalgary.oop;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Renders a boxed text table a page at a time.
+ * <p>
+ * Rows are pulled lazily from an iterator, one page at a time, and each page is
+ * formatted into a reused buffer and written to the console in a single call. Column
+ * widths are computed from the header and the rows of the page, up to each column's
+ * maximum; longer values are cut short with {@code ...}. After every full page the
+ * operator is asked whether to continue, so rows after the point where they answer
+ * {@code q} are never produced. With a page size of 0 the whole table is printed
+ * without pausing, still in page-sized writes; the header is repeated only when a
+ * later page needs wider columns.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see QueryPager
+ */
+public class TableRenderer {
+    /** Rows formatted per write when the table is not paged. */
+    private static final int UNPAGED_CHUNK = 1024;
+
+    private final LanguageSupport languageSupport;
+    private final Scanner input;
+    private final PrintStream out;
+    private final int pageSize;
+    private final List<String> headers = new ArrayList<>();
+    private final List<Integer> maxWidths = new ArrayList<>();
+    private final StringBuilder buffer = new StringBuilder(8192);
+
+    /**
+     * Constructs a new TableRenderer with no columns.
+     *
+     * @param languageSupport the language support used for prompts
+     * @param input           where the operator's answers are read from
+     * @param out             where the table is printed
+     * @param pageSize        the number of rows per page, or 0 to print without pausing
+     */
+    public TableRenderer(LanguageSupport languageSupport, Scanner input, PrintStream out, int pageSize) {
+        this.languageSupport = languageSupport;
+        this.input = input;
+        this.out = out;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Adds a column to the right of the existing ones.
+     *
+     * @param header   the column header
+     * @param maxWidth the widest the column may grow, in characters
+     * @return this renderer
+     */
+    public TableRenderer addColumn(String header, int maxWidth) {
+        headers.add(header);
+        maxWidths.add(Math.max(maxWidth, 4));
+        return this;
+    }
+
+    /**
+     * Prints the rows produced by an iterator, pausing after each page.
+     *
+     * @param rows the rows, each with one value per column; null values print as empty
+     * @return the number of rows printed
+     */
+    public long render(Iterator<String[]> rows) {
+        int columns = headers.size();
+        int[] widths = new int[columns];
+        for (int c = 0; c < columns; c++) {
+            widths[c] = Math.min(headers.get(c).length(), maxWidths.get(c));
+        }
+        boolean paged = pageSize > 0;
+        int chunk = paged ? pageSize : UNPAGED_CHUNK;
+        List<String[]> page = new ArrayList<>(Math.min(chunk, UNPAGED_CHUNK));
+        long printed = 0;
+
+        do {
+            page.clear();
+            while (page.size() < chunk && rows.hasNext()) {
+                page.add(clip(rows.next(), columns));
+            }
+            boolean widened = widen(widths, page);
+
+            buffer.setLength(0);
+            if (paged || printed == 0 || widened) appendHeader(widths);
+            for (String[] row : page) {
+                appendRow(widths, row);
+            }
+            printed += page.size();
+            boolean more = rows.hasNext();
+            if ((paged || !more) && !page.isEmpty()) appendSeparator(widths);
+            out.append(buffer);
+            out.flush();
+
+            if (paged && more) {
+                out.print(String.format(languageSupport.getText("query_more"), printed));
+                out.flush();
+                if (!input.hasNextLine() || input.nextLine().trim().equalsIgnoreCase("q")) break;
+            }
+        } while (rows.hasNext());
+        return printed;
+    }
+
+    private String[] clip(String[] row, int columns) {
+        String[] cells = Arrays.copyOf(row, columns);
+        for (int c = 0; c < columns; c++) {
+            String cell = cells[c] == null ? "" : cells[c];
+            int max = maxWidths.get(c);
+            cells[c] = cell.length() > max ? cell.substring(0, max - 3) + "..." : cell;
+        }
+        return cells;
+    }
+
+    private static boolean widen(int[] widths, List<String[]> page) {
+        boolean widened = false;
+        for (String[] row : page) {
+            for (int c = 0; c < widths.length; c++) {
+                if (row[c].length() > widths[c]) {
+                    widths[c] = row[c].length();
+                    widened = true;
+                }
+            }
+        }
+        return widened;
+    }
+
+    private void appendHeader(int[] widths) {
+        appendSeparator(widths);
+        appendRow(widths, headers.toArray(new String[0]));
+        appendSeparator(widths);
+    }
+
+    private void appendSeparator(int[] widths) {
+        buffer.append('+');
+        for (int width : widths) {
+            for (int i = 0; i < width + 2; i++) buffer.append('-');
+            buffer.append('+');
+        }
+        buffer.append(System.lineSeparator());
+    }
+
+    private void appendRow(int[] widths, String[] cells) {
+        buffer.append('|');
+        for (int c = 0; c < widths.length; c++) {
+            String cell = cells[c].length() > widths[c] ? cells[c].substring(0, widths[c]) : cells[c];
+            buffer.append(' ').append(cell);
+            for (int i = cell.length(); i < widths[c]; i++) buffer.append(' ');
+            buffer.append(" |");
+        }
+        buffer.append(System.lineSeparator());
+    }
+}
@@ -0,0 +1,109 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+/**
+ * Receives the rows of one exported table, one value at a time.
+ * <p>
+ * Values are passed column by column in the order given to {@link #begin}, and
+ * each row is closed with {@link #endRow()}. Implementations write to an output
+ * channel as they go and keep only a bounded amount of data in memory.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see DataExporter
+ */
+public interface TableWriter extends AutoCloseable {
+    /** Column type for 32-bit integers. */
+    byte TYPE_INT = 1;
+    /** Column type for 64-bit integers. */
+    byte TYPE_LONG = 2;
+    /** Column type for text. */
+    byte TYPE_STRING = 3;
+    /** Column type for calendar dates. */
+    byte TYPE_DATE = 4;
+    /** Column type for timestamps without time zone. */
+    byte TYPE_TIMESTAMP = 5;
+
+    /**
+     * Starts the table.
+     *
+     * @param columns the column names
+     * @param types   the column types, one of the {@code TYPE_} constants per column
+     * @throws IOException if writing fails
+     */
+    void begin(String[] columns, byte[] types) throws IOException;
+
+    /**
+     * Writes a null value for the next column.
+     *
+     * @throws IOException if writing fails
+     */
+    void writeNull() throws IOException;
+
+    /**
+     * Writes an integer value for the next column.
+     *
+     * @param value the value
+     * @throws IOException if writing fails
+     */
+    void writeInt(int value) throws IOException;
+
+    /**
+     * Writes a long value for the next column.
+     *
+     * @param value the value
+     * @throws IOException if writing fails
+     */
+    void writeLong(long value) throws IOException;
+
+    /**
+     * Writes a text value for the next column.
+     *
+     * @param value the value, not null
+     * @throws IOException if writing fails
+     */
+    void writeString(String value) throws IOException;
+
+    /**
+     * Writes a date value for the next column.
+     *
+     * @param value the value, not null
+     * @throws IOException if writing fails
+     */
+    void writeDate(Date value) throws IOException;
+
+    /**
+     * Writes a timestamp value for the next column.
+     *
+     * @param value the value, not null
+     * @throws IOException if writing fails
+     */
+    void writeTimestamp(Timestamp value) throws IOException;
+
+    /**
+     * Ends the current row.
+     *
+     * @throws IOException if writing fails
+     */
+    void endRow() throws IOException;
+
+    /**
+     * Ends the table and flushes all buffered output.
+     *
+     * @throws IOException if writing fails
+     */
+    void finish() throws IOException;
+
+    /**
+     * Closes the underlying channel.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    void close() throws IOException;
+}
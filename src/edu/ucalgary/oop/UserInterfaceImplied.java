@@ -1,5 +1,6 @@
 package edu.ucalgary.oop;
 
+import java.io.PrintStream;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -17,15 +18,15 @@ import java.util.*;
  */
 public class UserInterfaceImplied implements UserInterface {
     private Scanner scanner;
+    private final PrintStream out;
     private LanguageSupport languageSupport;
     private DatabaseConnector dbConnection;
     private static final int MAX_RETRIES = 3;
-    private Map<Integer, Person> persons;
-    private Map<Integer, Location> locations;
-    private Map<Integer, Supply> supplies;
-    private Map<Integer, Inquiry> inquiries;
-    private Map<Integer, MedicalRecord> medicalRecords;
-    private Map<Integer, FamilyGroup> familyGroups;
+    /** Rows shown per page of a table before asking whether to continue. */
+    public static final int DEFAULT_TABLE_PAGE_SIZE = 40;
+    private ReliefModel model;
+    private boolean ownsModel;
+    private int tablePageSize = DEFAULT_TABLE_PAGE_SIZE;
 
     /**
      * Constructs a new UserInterfaceImplied with default English (Canadian) language support.
@@ -40,46 +41,86 @@ public class UserInterfaceImplied implements UserInterface {
      * @param languageSupport The language support implementation to use for text localization
      */
     public UserInterfaceImplied(LanguageSupport languageSupport) {
-        this.scanner = new Scanner(System.in);
+        this(languageSupport, new Scanner(System.in), System.out);
+    }
+
+    /**
+     * Constructs a new UserInterfaceImplied that reads from and writes to the given streams,
+     * for example those of a remote operator session.
+     * 
+     * @param languageSupport The language support implementation to use for text localization
+     * @param scanner The source of the operator's input
+     * @param out The destination of all output shown to the operator
+     */
+    public UserInterfaceImplied(LanguageSupport languageSupport, Scanner scanner, PrintStream out) {
+        this.scanner = scanner;
+        this.out = out;
         this.languageSupport = languageSupport;
     }
 
     /**
      * Sets the database connection and initializes data structures from the database.
+     * The data is private to this interface; use {@link #setModel(ReliefModel)} to share it.
      * 
      * @param dbConnection The database connection to use for data operations
      */
     public void setDatabaseConnection(DatabaseConnector dbConnection) {
-        this.dbConnection = dbConnection;
-        this.persons = dbConnection.getPersons();
-        this.locations = dbConnection.getLocations();
-        this.supplies = dbConnection.getSupplies();
-        this.inquiries = dbConnection.getInquiries();
-        this.medicalRecords = dbConnection.getMedicalRecords();
-        this.familyGroups = dbConnection.getFamilyGroups();
+        setModel(new ReliefModel(dbConnection));
+        this.ownsModel = true;
+    }
+
+    /**
+     * Uses an entity model shared with other sessions. The model stays open when
+     * this interface exits.
+     * 
+     * @param model The shared entity model
+     */
+    public void setModel(ReliefModel model) {
+        if (ownsModel && this.model != null) this.model.close();
+        this.model = model;
+        this.dbConnection = model.getDbConnection();
+        this.ownsModel = false;
     }
 
     /**
      * Starts the user interface and runs the main application loop.
      * Displays the main menu, processes user choices, and handles errors.
-     * The loop continues until the user chooses to exit or an unrecoverable error occurs.
+     * The loop continues until the user chooses to exit or an unrecoverable error occurs,
+     * in which case the process exits.
      */
     public void run() {
-        while (true) {
-            try {
-                displayMainMenu();
-                String choice = getInput();
-                if (processChoice(choice)) {
-                    scanner.close();
-                    break;
+        if (!runSession()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the main application loop until the user chooses to exit or an
+     * unrecoverable error occurs, without ending the process.
+     * 
+     * @return true if the user exited normally, false after an unrecoverable error
+     */
+    public boolean runSession() {
+        try {
+            while (true) {
+                try {
+                    displayMainMenu();
+                    String choice = getInput();
+                    if (processChoice(choice)) {
+                        return true;
+                    }
+                } catch (NoSuchElementException e) {
+                    // The input ended, e.g. a remote operator disconnected
+                    return false;
+                } catch (Exception e) {
+                    DatabaseConnector.logError("Session ended by an unexpected error", e);
+                    displayError(languageSupport.getText("error_unrecoverable"));
+                    return false;
                 }
-            } catch (Exception e) {
-                System.err.println("Runtime error: " + e.getMessage());
-                e.printStackTrace();
-                displayError(languageSupport.getText("error_unrecoverable"));
-                scanner.close();
-                System.exit(1);
             }
+        } finally {
+            scanner.close();
+            if (ownsModel) model.close();
         }
     }
     
@@ -93,45 +134,45 @@ public class UserInterfaceImplied implements UserInterface {
     private boolean processChoice(String choice) throws SQLException {
         switch (choice) {
             case "1":
-                System.out.println(getLanguageSupport().getText("adding_victim_info"));
+                out.println(getLanguageSupport().getText("adding_victim_info"));
                 new DisasterVictim("", "", "", "Unknown").addDisasterVictim(this);
                 break;
             case "2":
-                System.out.println(getLanguageSupport().getText("viewing_victim_info"));
+                out.println(getLanguageSupport().getText("viewing_victim_info"));
                 viewDisasterVictimInfo();
                 break;
             case "3":
-                System.out.println(getLanguageSupport().getText("editing_victim_info"));
+                out.println(getLanguageSupport().getText("editing_victim_info"));
                 new DisasterVictim("", "", "", "Unknown").editDisasterVictim(this);
                 break;
             case "4":
-                System.out.println(getLanguageSupport().getText("logging_inquiry"));
+                out.println(getLanguageSupport().getText("logging_inquiry"));
                 Inquirer inquirer = new Inquirer().selectInquirer(this);
                 if (inquirer == null) {
-                    System.out.println(getLanguageSupport().getText("inquirer_not_found"));
+                    out.println(getLanguageSupport().getText("inquirer_not_found"));
                     break;
                 }
                 new Inquiry(inquirer, "").logInquiry(this);
                 break;
             case "5":
-                System.out.println(getLanguageSupport().getText("viewing_inquiry"));
+                out.println(getLanguageSupport().getText("viewing_inquiry"));
                 new Inquirer().displayInquirerList(this, getPersons());
                 break;
             case "6":
-                System.out.println(getLanguageSupport().getText("editing_inquiry"));
+                out.println(getLanguageSupport().getText("editing_inquiry"));
                 Inquirer inquirerinput = new Inquirer().selectInquirer(this);
                 new Inquiry(inquirerinput,"").editInquiry(this); 
                 break;
             case "7":
-                System.out.println(getLanguageSupport().getText("allocating_supplies"));
+                out.println(getLanguageSupport().getText("allocating_supplies"));
                 new Supply().allocateSupplies(this);
                 break;
             case "8":
-                System.out.println(getLanguageSupport().getText("viewing_supplies"));
+                out.println(getLanguageSupport().getText("viewing_supplies"));
                 new Supply().viewSupplies(this);
                 break;
             case "9":   
-                System.out.println(getLanguageSupport().getText("editing_supplies"));
+                out.println(getLanguageSupport().getText("editing_supplies"));
                 new Supply().editSupply(this);
                 break;
             case "10":
@@ -149,23 +190,23 @@ public class UserInterfaceImplied implements UserInterface {
      */
     @Override
     public void displayMainMenu() {
-        System.out.println("\n" + languageSupport.getText("Welcome to the Disaster Relief Management System"));
-        System.out.println("-------------------------------------------------------------");
-        System.out.println(languageSupport.getText("Please select an option from the menu below:"));
-        System.out.println("1. " + languageSupport.getText("Add a Disaster victim"));
-        System.out.println("2. " + languageSupport.getText("View Disaster victim information"));
-        System.out.println("3. " + languageSupport.getText("Edit Disaster victim information"));
+        out.println("\n" + languageSupport.getText("Welcome to the Disaster Relief Management System"));
+        out.println("-------------------------------------------------------------");
+        out.println(languageSupport.getText("Please select an option from the menu below:"));
+        out.println("1. " + languageSupport.getText("Add a Disaster victim"));
+        out.println("2. " + languageSupport.getText("View Disaster victim information"));
+        out.println("3. " + languageSupport.getText("Edit Disaster victim information"));
 
-        System.out.println("4. " + languageSupport.getText("Log an inquiry about a victim"));
-        System.out.println("5. " + languageSupport.getText("View inquiries about victims"));
-        System.out.println("6. " + languageSupport.getText("Edit inquiries about victims"));
+        out.println("4. " + languageSupport.getText("Log an inquiry about a victim"));
+        out.println("5. " + languageSupport.getText("View inquiries about victims"));
+        out.println("6. " + languageSupport.getText("Edit inquiries about victims"));
 
-        System.out.println("7. " + languageSupport.getText("Allocate available supplies"));
-        System.out.println("8. " + languageSupport.getText("View current supply inventory and allocations"));
-        System.out.println("9. " + languageSupport.getText("Edit supply inventory and allocations"));
+        out.println("7. " + languageSupport.getText("Allocate available supplies"));
+        out.println("8. " + languageSupport.getText("View current supply inventory and allocations"));
+        out.println("9. " + languageSupport.getText("Edit supply inventory and allocations"));
 
-        System.out.println("10. " + languageSupport.getText("Exit the system"));
-        System.out.println("-------------------------------------------------------------");
+        out.println("10. " + languageSupport.getText("Exit the system"));
+        out.println("-------------------------------------------------------------");
         showPrompt(languageSupport.getText("menu_prompt"));
     }
 
@@ -175,38 +216,37 @@ public class UserInterfaceImplied implements UserInterface {
      */
     @Override
     public void viewDisasterVictimInfo() {
-        System.out.println("\n" + languageSupport.getText("victim_list_header"));
-        System.out.println("+" + "-".repeat(5) + "+" + "-".repeat(20) + "+" + "-".repeat(15) + "+" + "-".repeat(15) + "+" + "-".repeat(12) + "+" + "-".repeat(15) + "+");
-        System.out.printf("| %-3s | %-18s | %-13s | %-13s | %-10s | %-13s |\n", 
-                          languageSupport.getText("table_id"),
-                          languageSupport.getText("table_name"),
-                          languageSupport.getText("table_phone"),
-                          languageSupport.getText("table_gender"),
-                          languageSupport.getText("table_dob"),
-                          languageSupport.getText("table_family_group"));
-        System.out.println("+" + "-".repeat(5) + "+" + "-".repeat(20) + "+" + "-".repeat(15) + "+" + "-".repeat(15) + "+" + "-".repeat(12) + "+" + "-".repeat(15) + "+");
-        
-        persons.forEach((id, person) -> {
-            if (person instanceof DisasterVictim) {
-                // Find the family group
-                String familyGroup = languageSupport.getText("no_family_group");
-                for (Map.Entry<Integer, FamilyGroup> entry : familyGroups.entrySet()) {
-                    if (entry.getValue().getFamilyMembers().contains(person)) {
-                        familyGroup = "Group " + entry.getKey();
-                        break;
-                    }
-                }
-                
-                System.out.printf("| %-3d | %-18s | %-13s | %-13s | %-10s | %-13s |\n", 
-                                 id, 
-                                 person.getFullName(),
-                                 person.getPhoneNumber(),
-                                 (person.getGender() != null ? person.getGender() : "Unknown"),
-                                 (person.getDateOfBirth() != null ? person.getDateOfBirth() : "Unknown"),
-                                 familyGroup);
-            }
+        out.println("\n" + languageSupport.getText("victim_list_header"));
+
+        // One pass over the groups instead of one per victim
+        Map<Person, Integer> groupOf = new IdentityHashMap<>();
+        getFamilyGroups().forEach((groupId, group) -> {
+            for (Person member : group.getFamilyMembers()) groupOf.putIfAbsent(member, groupId);
         });
-        System.out.println("+" + "-".repeat(5) + "+" + "-".repeat(20) + "+" + "-".repeat(15) + "+" + "-".repeat(15) + "+" + "-".repeat(12) + "+" + "-".repeat(15) + "+");
+        String noGroup = languageSupport.getText("no_family_group");
+        Iterator<String[]> rows = new TreeMap<>(getPersons()).entrySet().stream()
+            .filter(entry -> entry.getValue() instanceof DisasterVictim)
+            .map(entry -> {
+                Person person = entry.getValue();
+                Integer groupId = groupOf.get(person);
+                return new String[] {
+                    String.valueOf(entry.getKey()),
+                    person.getFullName(),
+                    person.getPhoneNumber(),
+                    person.getGender() != null ? person.getGender() : "Unknown",
+                    person.getDateOfBirth() != null ? person.getDateOfBirth() : "Unknown",
+                    groupId != null ? "Group " + groupId : noGroup
+                };
+            })
+            .iterator();
+        newTable()
+            .addColumn(languageSupport.getText("table_id"), 8)
+            .addColumn(languageSupport.getText("table_name"), 30)
+            .addColumn(languageSupport.getText("table_phone"), 16)
+            .addColumn(languageSupport.getText("table_gender"), 20)
+            .addColumn(languageSupport.getText("table_dob"), 10)
+            .addColumn(languageSupport.getText("table_family_group"), 20)
+            .render(rows);
     }
 
     /**
@@ -216,8 +256,8 @@ public class UserInterfaceImplied implements UserInterface {
      * @return The multi-line input as a string
      */
     public String getMultiLineInput(String prompt) {
-        System.out.println(prompt);
-        System.out.println(languageSupport.getText("multiline_instruction"));
+        out.println(prompt);
+        out.println(languageSupport.getText("multiline_instruction"));
         
         StringBuilder input = new StringBuilder();
         String line;
@@ -235,7 +275,7 @@ public class UserInterfaceImplied implements UserInterface {
 
     /**
      * Gets input from the user and validates it against a regular expression pattern.
-     * The method will retry up to MAX_RETRIES times if the input is invalid.
+     * The pattern is compiled once and cached by {@link Validators#forRegex(String)}.
      * 
      * @param prompt The prompt to display to the user
      * @param regex The regular expression to validate against
@@ -243,18 +283,31 @@ public class UserInterfaceImplied implements UserInterface {
      * @return The validated input string, or null if validation repeatedly fails
      */
     public String getValidatedInput(String prompt, String regex, String errorMessage) {
+        return getValidatedInput(prompt, Validators.forRegex(regex), errorMessage);
+    }
+
+    /**
+     * Gets input from the user and validates it with the given validator.
+     * The method will retry up to MAX_RETRIES times if the input is invalid.
+     * 
+     * @param prompt The prompt to display to the user
+     * @param validator The validator to check the input with
+     * @param errorMessage The error message to display if validation fails
+     * @return The validated input string, or null if validation repeatedly fails
+     */
+    public String getValidatedInput(String prompt, InputValidator validator, String errorMessage) {
         int attempts = 0;
         while (attempts < MAX_RETRIES) {
-            System.out.print(prompt);
+            out.print(prompt);
             String input = getInput();
-            if (input.matches(regex)) {
+            if (validator.isValid(input)) {
                 return input; // Valid input
             } else {
-                System.out.println(errorMessage);
+                out.println(errorMessage);
                 attempts++;
             }
         }
-        System.out.println("Too many invalid attempts. Returning to the main menu.");
+        out.println("Too many invalid attempts. Returning to the main menu.");
         return null; // Return null after exceeding attempts
     }
 
@@ -270,21 +323,21 @@ public class UserInterfaceImplied implements UserInterface {
      * 
      * @param message The prompt message to display
      */
-    public void showPrompt(String message) { System.out.print(message); }
+    public void showPrompt(String message) { out.print(message); }
     
     /**
      * Displays a success message to the user.
      * 
      * @param message The success message to display
      */
-    public void showSuccess(String message) { System.out.println(message); }
+    public void showSuccess(String message) { out.println(message); }
     
     /**
      * Displays an error message to the user.
      * 
      * @param message The error message to display
      */
-    public void displayError(String message) { System.out.println("Error: " + message); }
+    public void displayError(String message) { out.println("Error: " + message); }
     
     /**
      * Logs an error message with an exception to the system log.
@@ -307,48 +360,123 @@ public class UserInterfaceImplied implements UserInterface {
      * @return The database connection object
      */
     public DatabaseConnector getDbConnection() { return dbConnection; }
+
+    /**
+     * Gets the entity model this interface works on.
+     * 
+     * @return The entity model
+     */
+    public ReliefModel getModel() { return model; }
+
+    /**
+     * Sets how many rows of a table are shown before asking whether to continue.
+     * 
+     * @param tablePageSize The rows per page, or 0 to print tables without pausing
+     */
+    public void setTablePageSize(int tablePageSize) { this.tablePageSize = tablePageSize; }
+
+    /**
+     * Creates a table renderer that pages through this interface's input and output.
+     * 
+     * @return A renderer with no columns yet
+     */
+    public TableRenderer newTable() { return new TableRenderer(languageSupport, scanner, out, tablePageSize); }
+
+    /**
+     * Gets the stream all output shown to the operator is written to.
+     * 
+     * @return The output stream
+     */
+    public PrintStream getOut() { return out; }
+
+    /**
+     * Gets the asynchronous data access for the current database connection,
+     * creating it on first use.
+     *
+     * @return The asynchronous data access
+     */
+    public AsyncDataAccess getAsyncDataAccess() { return model.getAsyncDataAccess(); }
     
     /**
      * Gets the map of person objects indexed by their IDs.
      * 
      * @return The persons map
      */
-    public Map<Integer, Person> getPersons() { return persons; }
+    public Map<Integer, Person> getPersons() { return model.getPersons(); }
+    
+    /**
+     * Adds a newly saved person to the persons map and the duplicate index.
+     * 
+     * @param id The ID of the person
+     * @param person The person to add
+     */
+    public void addPerson(int id, Person person) { model.addPerson(id, person); }
+    
+    /**
+     * Removes a person from the persons map and the duplicate index.
+     * 
+     * @param id The ID of the person to remove
+     */
+    public void removePerson(int id) { model.removePerson(id); }
+    
+    /**
+     * Re-files a person in the phone and duplicate indexes after their name, phone number
+     * or date of birth changed.
+     * 
+     * @param person The person whose details changed
+     * @param previousKey The phone key before the change
+     */
+    public void reindexPerson(Person person, long previousKey) { model.reindexPerson(person, previousKey); }
+    
+    /**
+     * Finds all persons whose phone number matches the given one in any common format.
+     * 
+     * @param phoneNumber The phone number to look up
+     * @return The matching persons, most recently registered first
+     */
+    public List<Person> findPersonsByPhone(String phoneNumber) { return model.findPersonsByPhone(phoneNumber); }
+    
+    /**
+     * Gets the duplicate detector for the loaded persons, building its index on first use.
+     * 
+     * @return The duplicate detector
+     */
+    public DuplicateDetector getDuplicateDetector() { return model.getDuplicateDetector(); }
     
     /**
      * Gets the map of location objects indexed by their IDs.
      * 
      * @return The locations map
      */
-    public Map<Integer, Location> getLocations() { return locations; }
+    public Map<Integer, Location> getLocations() { return model.getLocations(); }
     
     /**
      * Gets the map of supply objects indexed by their IDs.
      * 
      * @return The supplies map
      */
-    public Map<Integer, Supply> getSupplies() { return supplies; }
+    public Map<Integer, Supply> getSupplies() { return model.getSupplies(); }
     
     /**
      * Gets the map of inquiry objects indexed by their IDs.
      * 
      * @return The inquiries map
      */
-    public Map<Integer, Inquiry> getInquiries() { return inquiries; }
+    public Map<Integer, Inquiry> getInquiries() { return model.getInquiries(); }
     
     /**
      * Gets the map of medical record objects indexed by their IDs.
      * 
      * @return The medical records map
      */
-    public Map<Integer, MedicalRecord> getMedicalRecords() { return medicalRecords; }
+    public Map<Integer, MedicalRecord> getMedicalRecords() { return model.getMedicalRecords(); }
     
     /**
      * Gets the map of family group objects indexed by their IDs.
      * 
      * @return The family groups map
      */
-    public Map<Integer, FamilyGroup> getFamilyGroups() { return familyGroups; }
+    public Map<Integer, FamilyGroup> getFamilyGroups() { return model.getFamilyGroups(); }
     
     /**
      * Gets the maximum number of retry attempts for input validation.
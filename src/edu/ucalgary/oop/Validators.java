@@ -0,0 +1,173 @@
+package edu.ucalgary.oop;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Central registry of the input validators used across the system.
+ * <p>
+ * The common field formats (names, phone numbers, dates, IDs, yes/no answers) are
+ * checked by hand-written loops that do not allocate, and any other regular
+ * expression is compiled once and cached, so neither interactive prompts nor bulk
+ * imports recompile patterns for every value.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see InputValidator
+ */
+public class Validators {
+    // Declared first: the pattern-based validators below are built through it
+    private static final Map<String, InputValidator> REGEX_CACHE = new ConcurrentHashMap<>();
+
+    /** Two or more letters, spaces or hyphens, as used for victim and family names. */
+    public static final InputValidator NAME = input -> {
+        if (input == null || input.length() < 2) return false;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (!isAsciiLetter(c) && !isWhitespace(c) && c != '-') return false;
+        }
+        return true;
+    };
+
+    /** One or more letters only, as used for inquirer names. */
+    public static final InputValidator LETTERS = input -> {
+        if (input == null || input.length() == 0) return false;
+        for (int i = 0; i < input.length(); i++) {
+            if (!isAsciiLetter(input.charAt(i))) return false;
+        }
+        return true;
+    };
+
+    /** One or more letters, spaces, apostrophes or hyphens, as used for caller names. */
+    public static final InputValidator CALLER_NAME = input -> {
+        if (input == null || input.length() == 0) return false;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (!isAsciiLetter(c) && !isWhitespace(c) && c != '\'' && c != '-') return false;
+        }
+        return true;
+    };
+
+    /** A ten digit phone number with optional formatting, e.g. "(403) 555-1234" or "403.555.1234". */
+    public static final InputValidator PHONE = input -> {
+        if (input == null) return false;
+        int i = 0, n = input.length();
+        if (i < n && input.charAt(i) == '(') i++;
+        if ((i = skipDigits(input, i, 3)) < 0) return false;
+        if (i < n && input.charAt(i) == ')') i++;
+        if (i < n && isPhoneSeparator(input.charAt(i))) i++;
+        if ((i = skipDigits(input, i, 3)) < 0) return false;
+        if (i < n && isPhoneSeparator(input.charAt(i))) i++;
+        return skipDigits(input, i, 4) == n;
+    };
+
+    /** Exactly ten digits with no formatting. */
+    public static final InputValidator PHONE_DIGITS = input -> input != null && input.length() == 10 && skipDigits(input, 0, 10) == 10;
+
+    /** A date in YYYY-MM-DD form; the calendar values themselves are not checked. */
+    public static final InputValidator DATE = input -> input != null && input.length() == 10
+        && skipDigits(input, 0, 4) == 4 && input.charAt(4) == '-'
+        && skipDigits(input, 5, 2) == 7 && input.charAt(7) == '-'
+        && skipDigits(input, 8, 2) == 10;
+
+    /** One or more digits, as used for entity IDs and menu selections. */
+    public static final InputValidator ID = input -> input != null && input.length() > 0 && skipDigits(input, 0, input.length()) == input.length();
+
+    /** A single y or n in either case. */
+    public static final InputValidator Y_N = input -> input != null && input.length() == 1
+        && "YyNn".indexOf(input.charAt(0)) >= 0;
+
+    /** The lower-case words yes or no. */
+    public static final InputValidator YES_NO = input -> input != null
+        && ("yes".contentEquals(input) || "no".contentEquals(input));
+
+    /** Any non-empty single line. */
+    public static final InputValidator NON_EMPTY = forRegex(".+");
+
+    /** Any single line, including an empty one. */
+    public static final InputValidator ANY = forRegex(".*");
+
+    private static final Map<String, InputValidator> REGISTRY;
+
+    static {
+        Map<String, InputValidator> registry = new HashMap<>();
+        registry.put("name", NAME);
+        registry.put("letters", LETTERS);
+        registry.put("caller_name", CALLER_NAME);
+        registry.put("phone", PHONE);
+        registry.put("phone_digits", PHONE_DIGITS);
+        registry.put("date", DATE);
+        registry.put("id", ID);
+        registry.put("y_n", Y_N);
+        registry.put("yes_no", YES_NO);
+        registry.put("non_empty", NON_EMPTY);
+        registry.put("any", ANY);
+        REGISTRY = Collections.unmodifiableMap(registry);
+    }
+
+    /**
+     * Private constructor; this class only holds static validators.
+     */
+    private Validators() { }
+
+    /**
+     * Returns the validator registered under the given field name.
+     *
+     * @param name the field name, e.g. "phone" or "date"
+     * @return the validator
+     * @throws IllegalArgumentException if no validator is registered under that name
+     */
+    public static InputValidator get(String name) {
+        InputValidator validator = REGISTRY.get(name);
+        if (validator == null) {
+            throw new IllegalArgumentException("No validator registered for: " + name);
+        }
+        return validator;
+    }
+
+    /**
+     * Returns a validator for an arbitrary regular expression, compiling it on first use only.
+     * The whole input must match, as with {@link String#matches(String)}.
+     *
+     * @param regex the regular expression
+     * @return the cached validator for the expression
+     */
+    public static InputValidator forRegex(String regex) {
+        InputValidator cached = REGEX_CACHE.get(regex);
+        if (cached != null) return cached;
+        Pattern pattern = Pattern.compile(regex);
+        return REGEX_CACHE.computeIfAbsent(regex, r -> input -> input != null && pattern.matcher(input).matches());
+    }
+
+    /**
+     * Skips exactly {@code count} ASCII digits starting at {@code from}.
+     *
+     * @return the index after the digits, or -1 if fewer digits were found
+     */
+    private static int skipDigits(CharSequence input, int from, int count) {
+        if (from < 0 || from + count > input.length()) return -1;
+        for (int i = from; i < from + count; i++) {
+            char c = input.charAt(i);
+            if (c < '0' || c > '9') return -1;
+        }
+        return from + count;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /** Matches the regular expression class {@code \s}. */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static boolean isPhoneSeparator(char c) {
+        return c == '-' || c == '.' || isWhitespace(c);
+    }
+}
@@ -0,0 +1,57 @@
+package edu.ucalgary.oop;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown when a row could not be written because other operators kept changing it.
+ * <p>
+ * Edits are written with a compare-and-set on the row's version column. When the
+ * version has moved on, the edit is merged with the current row and retried; this
+ * exception is raised only once those retries are used up.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ * @see RecordMerge
+ */
+public class VersionConflictException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    /** The SQL state used for serialization failures. */
+    public static final String SQL_STATE = "40001";
+
+    private final String table;
+    private final int id;
+
+    /**
+     * Constructs a new VersionConflictException.
+     *
+     * @param table   the table of the row
+     * @param id      the ID of the row
+     * @param version the version the last write attempt expected
+     */
+    public VersionConflictException(String table, int id, int version) {
+        super(table + " " + id + " was changed by another operator (expected version " + version + ")", SQL_STATE);
+        this.table = table;
+        this.id = id;
+    }
+
+    /**
+     * Returns the table of the row that could not be written.
+     *
+     * @return the table name
+     */
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Returns the ID of the row that could not be written.
+     *
+     * @return the row ID
+     */
+    public int getId() {
+        return id;
+    }
+}
@@ -0,0 +1,495 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.*;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Imports disaster victims in bulk from a CSV file.
+ * <p>
+ * The file is read as a stream and cut into batches. Batches are validated and
+ * normalized in parallel on a worker pool while earlier batches are written to
+ * the database, with a fixed number of batches in flight so memory stays bounded
+ * however large the file is. Each batch of Person and PersonLocation rows is
+ * written with JDBC batch inserts and committed as one transaction. Rows that fail
+ * validation are written to a reject file together with their line number and reason.
+ * Once a batch is committed its victims are added to the {@link ReliefModel}, at their
+ * location and in their family group, so they can be found and checked for duplicates
+ * straight away. When the database connection records changes, each person and stay
+ * is appended to its change log before the batch commits, as the storage engine would
+ * have recorded it.
+ * </p>
+ * <p>
+ * The CSV must start with a header naming the columns {@code first_name},
+ * {@code last_name}, {@code phone_number}, {@code date_of_birth}, {@code gender},
+ * {@code location}, {@code family_group} and {@code comments}, in any order. The
+ * location may be given by ID or by name. The family group must be one already
+ * registered; the database does not check it.
+ * </p>
+ *
+ * @author 30208786
+ * @version 1.0
+ * @since 2025-04-10
+ */
+public class VictimImporter {
+    /** Number of rows validated and written together. */
+    public static final int BATCH_SIZE = 1000;
+
+    private static final String[] COLUMNS = {
+        "first_name", "last_name", "phone_number", "date_of_birth", "gender", "location", "family_group", "comments"
+    };
+
+    private final Map<Integer, Location> locations;
+    private final Map<String, Integer> locationsByName = new HashMap<>();
+    private final Set<Integer> familyGroupIds;
+    private final int threads;
+
+    /**
+     * A validated and normalized row ready to be written.
+     */
+    public static class Row {
+        final int line;
+        final String firstName;
+        final String lastName;
+        final String phoneNumber;
+        final String dateOfBirth;
+        final String gender;
+        final int locationId;
+        final int familyGroupId;
+        final String comments;
+
+        Row(int line, String firstName, String lastName, String phoneNumber, String dateOfBirth,
+            String gender, int locationId, int familyGroupId, String comments) {
+            this.line = line;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.phoneNumber = phoneNumber;
+            this.dateOfBirth = dateOfBirth;
+            this.gender = gender;
+            this.locationId = locationId;
+            this.familyGroupId = familyGroupId;
+            this.comments = comments;
+        }
+    }
+
+    /**
+     * Writes a batch of validated rows to storage.
+     */
+    interface BatchWriter {
+        /**
+         * Writes the rows as one unit.
+         *
+         * @param rows the rows to write
+         * @throws SQLException if the batch cannot be written
+         */
+        void write(List<Row> rows) throws SQLException;
+    }
+
+    /**
+     * The outcome of an import run.
+     */
+    public static class Result {
+        private final int imported;
+        private final int rejected;
+        private final long elapsedMillis;
+
+        Result(int imported, int rejected, long elapsedMillis) {
+            this.imported = imported;
+            this.rejected = rejected;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * Returns the number of rows written.
+         *
+         * @return the imported row count
+         */
+        public int getImported() { return imported; }
+
+        /**
+         * Returns the number of rows written to the reject file.
+         *
+         * @return the rejected row count
+         */
+        public int getRejected() { return rejected; }
+
+        /**
+         * Returns the wall-clock duration of the import.
+         *
+         * @return the duration in milliseconds
+         */
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        /**
+         * Returns the throughput over all processed rows.
+         *
+         * @return the rows processed per minute
+         */
+        public long getRowsPerMinute() {
+            return (imported + rejected) * 60_000L / Math.max(1, elapsedMillis);
+        }
+    }
+
+    /** The rows and rejects produced from one batch of records. */
+    private static class Batch {
+        final List<Row> rows = new ArrayList<>();
+        final StringBuilder rejects = new StringBuilder();
+        int rejected;
+    }
+
+    /**
+     * Constructs a new VictimImporter for the locations and family groups of a model,
+     * using one worker thread per processor.
+     *
+     * @param model the model whose locations and family groups the rows may name
+     */
+    public VictimImporter(ReliefModel model) {
+        this(model.getLocations(), model.getFamilyGroups().keySet(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new VictimImporter.
+     *
+     * @param locations      the known locations, keyed by ID, used to resolve the location column
+     * @param familyGroupIds the IDs of the registered family groups
+     * @param threads        the number of validation worker threads
+     */
+    public VictimImporter(Map<Integer, Location> locations, Set<Integer> familyGroupIds, int threads) {
+        this.locations = locations;
+        this.familyGroupIds = familyGroupIds;
+        this.threads = Math.max(1, threads);
+        locations.forEach((id, location) -> {
+            if (location.getName() != null) locationsByName.put(location.getName().trim().toLowerCase(), id);
+        });
+    }
+
+    /**
+     * Imports all rows from the CSV into the model's database and adds them to the model.
+     *
+     * @param csv     the CSV source
+     * @param rejects where rejected rows are written
+     * @param model   the model to add the victims to, written through its database connection
+     * @return the import result
+     * @throws IOException  if reading the CSV or writing rejects fails
+     * @throws SQLException if writing a batch fails; earlier batches stay committed
+     */
+    public Result importCsv(Reader csv, Writer rejects, ReliefModel model) throws IOException, SQLException {
+        DatabaseConnector db = model.getDbConnection();
+        Connection connection = db.getExclusiveConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            return importCsv(csv, rejects,
+                rows -> addToModel(model, rows, writeBatch(connection, db.getChangeLog(), rows)));
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            db.invalidate("Person", "PersonLocation");
+        }
+    }
+
+    /**
+     * Imports all rows from the CSV through the given writer.
+     *
+     * @param csv     the CSV source
+     * @param rejects where rejected rows are written
+     * @param writer  the destination for validated batches
+     * @return the import result
+     * @throws IOException  if reading the CSV or writing rejects fails
+     * @throws SQLException if writing a batch fails
+     */
+    Result importCsv(Reader csv, Writer rejects, BatchWriter writer) throws IOException, SQLException {
+        long start = System.nanoTime();
+        int imported = 0, rejected = 0;
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        Deque<Future<Batch>> inFlight = new ArrayDeque<>();
+        try (CsvReader reader = new CsvReader(csv)) {
+            List<String> header = reader.readRecord();
+            if (header == null) throw new IOException("The import file is empty");
+            int[] columns = mapColumns(header);
+            rejects.write("line,reason," + String.join(",", header) + "\n");
+
+            List<List<String>> records = new ArrayList<>(BATCH_SIZE);
+            int[] lines = new int[BATCH_SIZE];
+            int count = 0;
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                if (record.size() == 1 && record.get(0).trim().isEmpty()) continue;
+                records.add(record);
+                lines[count++] = reader.getRecordLine();
+                if (count == BATCH_SIZE) {
+                    inFlight.add(submit(workers, records, lines, count, columns));
+                    records = new ArrayList<>(BATCH_SIZE);
+                    lines = new int[BATCH_SIZE];
+                    count = 0;
+                    // Bound memory: wait for the oldest batch before reading further ahead
+                    if (inFlight.size() >= threads * 2) {
+                        Batch batch = await(inFlight.poll());
+                        imported += flush(batch, writer, rejects);
+                        rejected += batch.rejected;
+                    }
+                }
+            }
+            if (count > 0) inFlight.add(submit(workers, records, lines, count, columns));
+            while (!inFlight.isEmpty()) {
+                Batch batch = await(inFlight.poll());
+                imported += flush(batch, writer, rejects);
+                rejected += batch.rejected;
+            }
+        } finally {
+            workers.shutdownNow();
+            rejects.flush();
+        }
+        return new Result(imported, rejected, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Future<Batch> submit(ExecutorService workers, List<List<String>> records, int[] lines, int count,
+                                 int[] columns) {
+        return workers.submit(() -> {
+            Batch batch = new Batch();
+            for (int i = 0; i < count; i++) {
+                String reason = validate(lines[i], records.get(i), columns, batch.rows);
+                if (reason != null) {
+                    batch.rejected++;
+                    batch.rejects.append(lines[i]).append(',');
+                    CsvReader.appendField(batch.rejects, reason);
+                    for (String value : records.get(i)) {
+                        batch.rejects.append(',');
+                        CsvReader.appendField(batch.rejects, value);
+                    }
+                    batch.rejects.append('\n');
+                }
+            }
+            return batch;
+        });
+    }
+
+    private static Batch await(Future<Batch> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Validation failed", e.getCause());
+        }
+    }
+
+    private static int flush(Batch batch, BatchWriter writer, Writer rejects) throws IOException, SQLException {
+        rejects.append(batch.rejects);
+        if (!batch.rows.isEmpty()) writer.write(batch.rows);
+        return batch.rows.size();
+    }
+
+    /**
+     * Maps the expected columns to their positions in the header.
+     *
+     * @param header the header record
+     * @return the position of each entry of {@link #COLUMNS}, or -1 if absent
+     * @throws IOException if a name column is missing
+     */
+    static int[] mapColumns(List<String> header) throws IOException {
+        int[] columns = new int[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            columns[c] = -1;
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).trim().equalsIgnoreCase(COLUMNS[c])) columns[c] = i;
+            }
+        }
+        if (columns[0] < 0 || columns[1] < 0) {
+            throw new IOException("The import file must have first_name and last_name columns");
+        }
+        return columns;
+    }
+
+    /**
+     * Validates and normalizes one record, adding it to {@code rows} if it is valid.
+     *
+     * @param line    the line the record started on
+     * @param record  the raw fields
+     * @param columns the column positions from {@link #mapColumns(List)}
+     * @param rows    the list valid rows are added to
+     * @return null if the row is valid, otherwise the reason it was rejected
+     */
+    String validate(int line, List<String> record, int[] columns, List<Row> rows) {
+        String firstName = collapseSpaces(field(record, columns[0]));
+        String lastName = collapseSpaces(field(record, columns[1]));
+        if (!Validators.NAME.isValid(firstName)) return "invalid first name";
+        if (!Validators.NAME.isValid(lastName)) return "invalid last name";
+
+        String phone = field(record, columns[2]);
+        if (phone.isEmpty()) {
+            phone = null;
+        } else if (Validators.PHONE.isValid(phone)) {
+            String digits = PhoneIndex.format(PhoneIndex.normalize(phone));
+            phone = digits.substring(0, 3) + "-" + digits.substring(3, 6) + "-" + digits.substring(6);
+        } else {
+            return "invalid phone number";
+        }
+
+        String dob = field(record, columns[3]);
+        if (dob.isEmpty()) {
+            dob = null;
+        } else {
+            if (!Validators.DATE.isValid(dob)) return "invalid date of birth";
+            try {
+                if (LocalDate.parse(dob).isAfter(LocalDate.now())) return "date of birth is in the future";
+            } catch (DateTimeException e) {
+                return "invalid date of birth";
+            }
+        }
+
+        String gender = normalizeGender(field(record, columns[4]));
+        if (gender == null) return "invalid gender";
+        if (gender.isEmpty()) gender = null;
+
+        int locationId = resolveLocation(field(record, columns[5]));
+        if (locationId < 0) return "unknown location";
+
+        int familyGroupId = 0;
+        String family = field(record, columns[6]);
+        if (!family.isEmpty()) {
+            if (!Validators.ID.isValid(family) || family.length() > 9) return "invalid family group";
+            familyGroupId = Integer.parseInt(family);
+            if (!familyGroupIds.contains(familyGroupId)) return "unknown family group";
+        }
+
+        String comments = field(record, columns[7]);
+        rows.add(new Row(line, firstName, lastName, phone, dob, gender, locationId, familyGroupId,
+            comments.isEmpty() ? null : comments));
+        return null;
+    }
+
+    private static String field(List<String> record, int column) {
+        return column >= 0 && column < record.size() ? record.get(column).trim() : "";
+    }
+
+    private static String collapseSpaces(String value) {
+        return value.replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Maps the gender spellings found in partner spreadsheets onto the values the
+     * registration menu stores.
+     *
+     * @return the stored value, an empty string if none was given, or null if unrecognized
+     */
+    private static String normalizeGender(String gender) {
+        switch (gender.toLowerCase()) {
+            case "": return "";
+            case "m": case "male": case "man": return "man";
+            case "f": case "female": case "woman": return "woman";
+            case "x": case "nb": case "non-binary": case "non-binary person": case "nonbinary": return "non-binary";
+            default: return null;
+        }
+    }
+
+    /**
+     * Resolves the location column by ID or by name.
+     *
+     * @return the location ID, 0 if none was given, or -1 if it is unknown
+     */
+    private int resolveLocation(String value) {
+        if (value.isEmpty()) return 0;
+        if (Validators.ID.isValid(value) && value.length() <= 9) {
+            int id = Integer.parseInt(value);
+            return locations.containsKey(id) ? id : -1;
+        }
+        return locationsByName.getOrDefault(value.toLowerCase(), -1);
+    }
+
+    /**
+     * Adds the victims of a committed batch to the model.
+     *
+     * @param model   the model
+     * @param rows    the rows written
+     * @param victims the victim saved for each row
+     */
+    private static void addToModel(ReliefModel model, List<Row> rows, List<DisasterVictim> victims) {
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            DisasterVictim victim = victims.get(i);
+            model.addPerson(victim.getId(), victim);
+            if (row.locationId != 0) model.addOccupant(row.locationId, victim);
+            if (row.familyGroupId != 0) model.addFamilyMember(row.familyGroupId, victim);
+        }
+    }
+
+    /**
+     * Writes one batch of rows to Person and PersonLocation, records them in the change
+     * log and commits it.
+     *
+     * @param connection the connection, with auto-commit disabled
+     * @param log        the change log, or null if changes are not recorded
+     * @param rows       the rows to write
+     * @return the victim saved for each row, with its generated ID
+     * @throws SQLException if the batch fails; it is rolled back
+     */
+    private static List<DisasterVictim> writeBatch(Connection connection, ChangeLog log, List<Row> rows)
+            throws SQLException {
+        try (PreparedStatement person = connection.prepareStatement(
+                "INSERT INTO Person (first_name, last_name, gender, phone_number, date_of_birth, family_group, comments) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", new String[] {"person_id"});
+             PreparedStatement personLocation = connection.prepareStatement(
+                "INSERT INTO PersonLocation (person_id, location_id) VALUES (?, ?)")) {
+            for (Row row : rows) {
+                person.setString(1, row.firstName);
+                person.setString(2, row.lastName);
+                person.setString(3, row.gender);
+                person.setString(4, row.phoneNumber);
+                if (row.dateOfBirth != null) person.setDate(5, Date.valueOf(row.dateOfBirth));
+                else person.setNull(5, Types.DATE);
+                if (row.familyGroupId != 0) person.setInt(6, row.familyGroupId);
+                else person.setNull(6, Types.INTEGER);
+                person.setString(7, row.comments);
+                person.addBatch();
+            }
+            person.executeBatch();
+
+            int locations = 0;
+            List<DisasterVictim> victims = new ArrayList<>(rows.size());
+            try (ResultSet keys = person.getGeneratedKeys()) {
+                for (Row row : rows) {
+                    if (!keys.next()) throw new SQLException("Missing generated ID for line " + row.line);
+                    DisasterVictim victim = new DisasterVictim(row.firstName, row.lastName, row.phoneNumber, "Unknown");
+                    victim.setId(keys.getInt(1));
+                    victim.setDateOfBirth(row.dateOfBirth);
+                    victim.setGender(row.gender);
+                    victims.add(victim);
+                    if (row.locationId != 0) {
+                        personLocation.setInt(1, victim.getId());
+                        personLocation.setInt(2, row.locationId);
+                        personLocation.addBatch();
+                        locations++;
+                    }
+                }
+            }
+            if (locations > 0) personLocation.executeBatch();
+            for (int i = 0; i < rows.size(); i++) {
+                Row row = rows.get(i);
+                int id = victims.get(i).getId();
+                RecordingStorage.record(log, Table.PERSON, id, ChangeEvent.Operation.INSERT,
+                    RecordingStorage.insertedPerson(id, victims.get(i), row.familyGroupId, row.comments));
+                if (row.locationId != 0) {
+                    RecordingStorage.record(log, Table.PERSON_LOCATION, ChangeEvent.stayKey(id, row.locationId),
+                        ChangeEvent.Operation.INSERT, RecordingStorage.stay(id, row.locationId));
+                }
+            }
+            connection.commit();
+            return victims;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package edu.ucalgary.oop;
 
-import java.sql.*;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -20,6 +20,9 @@ import java.util.logging.Logger;
  */
 public class Water extends Supply {
     private static final Logger LOGGER = Logger.getLogger(Water.class.getName());
+    static {
+        ErrorLogger.route(LOGGER);
+    }
     private LocalDateTime allocationDate;
 
     /**
@@ -70,23 +73,23 @@ public class Water extends Supply {
      * @throws SQLException If a database error occurs or personId is invalid
      */
     public void allocateToPersonWithExpiry(int personId, DatabaseConnector db) throws SQLException {
+        AllocationEvent event = AllocationEvent.begin(getId(), getType(), personId, 0);
         if (getId() == 0) {
+            event.rejected("Water supply ID is not set before allocation");
             throw new SQLException("Water supply ID is not set before allocation");
         }
         if (!db.getPersons().containsKey(personId)) {
+            event.rejected("Invalid person ID: " + personId);
             throw new SQLException("Invalid person ID: " + personId);
         }
 
-        try (PreparedStatement ps = db.getConnection().prepareStatement(
-                "INSERT INTO SupplyAllocation (supply_id, person_id, location_id, allocation_date) " +
-                "VALUES (?, ?, NULL, CURRENT_TIMESTAMP)")) {
-            ps.setInt(1, getId());
-            ps.setInt(2, personId);
-            ps.executeUpdate();
-            
+        try {
+            db.getStorage().supplies().allocateToPerson(getId(), personId);
             this.allocationDate = LocalDateTime.now();
+            event.allocated();
             LOGGER.log(Level.INFO, "Water allocated to person ID {0} successfully.", personId);
         } catch (SQLException e) {
+            event.rejected(e.getMessage());
             LOGGER.log(Level.SEVERE, "Error allocating water to person with ID " + personId, e);
             throw e;
         }
@@ -100,21 +103,22 @@ public class Water extends Supply {
      * @throws SQLException If a database error occurs or locationId is invalid
      */
     public void allocateToLocation(int locationId, DatabaseConnector db) throws SQLException {
+        AllocationEvent event = AllocationEvent.begin(getId(), getType(), 0, locationId);
         if (getId() == 0) {
+            event.rejected("Water supply ID is not set before allocation");
             throw new SQLException("Water supply ID is not set before allocation");
         }
         if (!db.getLocations().containsKey(locationId)) {
+            event.rejected("Invalid location ID: " + locationId);
             throw new SQLException("Invalid location ID: " + locationId);
         }
 
-        try (PreparedStatement ps = db.getConnection().prepareStatement(
-                "INSERT INTO SupplyAllocation (supply_id, person_id, location_id, allocation_date) " +
-                "VALUES (?, NULL, ?, CURRENT_TIMESTAMP)")) {
-            ps.setInt(1, getId());
-            ps.setInt(2, locationId);
-            ps.executeUpdate();
+        try {
+            db.getStorage().supplies().allocateToLocation(getId(), locationId);
+            event.allocated();
             LOGGER.log(Level.INFO, "Water allocated to location ID {0} successfully.", locationId);
         } catch (SQLException e) {
+            event.rejected(e.getMessage());
             LOGGER.log(Level.SEVERE, "Error allocating water to location with ID " + locationId, e);
             throw e;
         }
@@ -128,12 +132,8 @@ public class Water extends Supply {
      * @return The number of expired water supplies removed, or -1 if an error occurs
      */
     public static int cleanupExpiredWater(DatabaseConnector db) {
-        try (PreparedStatement ps = db.getConnection().prepareStatement(
-                "DELETE FROM SupplyAllocation WHERE supply_id IN " +
-                "(SELECT supply_id FROM Supply WHERE type = 'water') " +
-                "AND allocation_date < CURRENT_TIMESTAMP - INTERVAL '1 day' " +
-                "AND person_id IS NOT NULL")) {
-            int rowsDeleted = ps.executeUpdate();
+        try {
+            int rowsDeleted = db.getStorage().supplies().removeExpiredWater();
             LOGGER.log(Level.INFO, "{0} expired water supplies removed from database.", rowsDeleted);
             return rowsDeleted;
         } catch (SQLException e) {
@@ -0,0 +1,89 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncDataAccessTest {
+
+    private AsyncDataAccess async;
+
+    @Before
+    public void setUp() {
+        ConnectionPool pool = new ConnectionPool(() -> (Connection) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> method.getName().equals("getAutoCommit") ? Boolean.TRUE
+                : method.getName().equals("isClosed") ? (Object) Boolean.FALSE : null), 4);
+        async = new AsyncDataAccess(MockDatabaseConnectionImpl.getInstance(), pool);
+    }
+
+    @After
+    public void tearDown() {
+        async.close();
+    }
+
+    @Test
+    public void testIndependentLookupsRunConcurrently() throws Exception {
+        System.out.println("\n=== Test: Independent Lookups Run Concurrently ===");
+        CountDownLatch bothStarted = new CountDownLatch(3);
+        AsyncDataAccess.SqlWork<Boolean> work = connection -> {
+            bothStarted.countDown();
+            try {
+                return bothStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new SQLException(e);
+            }
+        };
+        CompletableFuture<Boolean> locations = async.withConnection(work);
+        CompletableFuture<Boolean> familyGroups = async.withConnection(work);
+        CompletableFuture<Boolean> duplicates = async.supply(() -> {
+            bothStarted.countDown();
+            return true;
+        });
+        CompletableFuture.allOf(locations, familyGroups, duplicates).get(10, TimeUnit.SECONDS);
+        System.out.println("Expected: all three tasks overlapped");
+        System.out.println("Actual: " + (locations.get() && familyGroups.get()));
+        assertTrue(locations.get());
+        assertTrue(familyGroups.get());
+    }
+
+    @Test
+    public void testSqlExceptionCompletesExceptionally() {
+        System.out.println("\n=== Test: SQL Exception Completes Exceptionally ===");
+        CompletableFuture<Object> failing = async.withConnection(connection -> {
+            throw new SQLException("boom");
+        });
+        try {
+            failing.join();
+            fail("Expected the future to fail");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+            assertEquals("boom", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testConnectorWithoutConnectionFailsLookups() {
+        System.out.println("\n=== Test: Connector Without Connection Fails Lookups ===");
+        AsyncDataAccess shared = new AsyncDataAccess(MockDatabaseConnectionImpl.getInstance(), 2);
+        try {
+            assertFalse(shared.isPooled());
+            assertTrue(async.isPooled());
+            shared.loadLocations().join();
+            fail("Expected the lookup to fail without a connection");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        } finally {
+            shared.close();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.Arrays;
+
+public class BatchRunnerTest {
+
+    private MockDatabaseConnectionImpl mockDb;
+    private ReliefModel model;
+    private LanguageSupport languageSupport;
+    private ByteArrayOutputStream output;
+    private int nextId;
+    private int commits;
+    private int savepointRollbacks;
+    private boolean failCommits;
+
+    /**
+     * Builds a model over the mock data whose connection hands out increasing IDs for
+     * inserts and counts commits and savepoint rollbacks.
+     */
+    @Before
+    public void setUp() {
+        mockDb = MockDatabaseConnectionImpl.getInstance();
+        languageSupport = new LanguageSupport("en-CA");
+        output = new ByteArrayOutputStream();
+        nextId = 100;
+        commits = 0;
+        savepointRollbacks = 0;
+        failCommits = false;
+
+        ClassLoader loader = getClass().getClassLoader();
+        DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(loader,
+            new Class<?>[] {DatabaseMetaData.class}, (proxy, method, args) -> {
+                if (!method.getName().equals("getColumns")) return null;
+                return Proxy.newProxyInstance(loader, new Class<?>[] {ResultSet.class},
+                    (rs, rsMethod, rsArgs) -> rsMethod.getName().equals("next") ? false : null);
+            });
+        Savepoint savepoint = (Savepoint) Proxy.newProxyInstance(loader,
+            new Class<?>[] {Savepoint.class}, (proxy, method, args) -> null);
+        boolean[] autoCommit = {true};
+        Connection connection = (Connection) Proxy.newProxyInstance(loader,
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getMetaData": return metaData;
+                    case "getAutoCommit": return autoCommit[0];
+                    case "setAutoCommit": autoCommit[0] = (Boolean) args[0]; return null;
+                    case "setSavepoint": return savepoint;
+                    case "rollback":
+                        if (args != null) savepointRollbacks++;
+                        return null;
+                    case "commit":
+                        if (failCommits) throw new SQLException("Connection lost");
+                        commits++;
+                        return null;
+                    case "prepareStatement": return statement(loader);
+                    default: return null;
+                }
+            });
+        DatabaseConnector connector = (DatabaseConnector) Proxy.newProxyInstance(loader,
+            new Class<?>[] {DatabaseConnector.class}, (proxy, method, args) -> {
+                if (method.getName().equals("getConnection") || method.getName().equals("getExclusiveConnection")) {
+                    return connection;
+                }
+                if (method.getName().equals("getStorage")) return new JdbcStorage((DatabaseConnector) proxy);
+                try {
+                    return method.invoke(mockDb, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        model = new ReliefModel(connector);
+        // Fresh locations and groups, so committed commands do not change the shared mock's
+        model.getLocations().replaceAll((id, location) -> new Location(location.getName(), location.getAddress()));
+        model.getFamilyGroups().replaceAll((id, group) -> new FamilyGroup("Group", String.valueOf(id), null));
+    }
+
+    private PreparedStatement statement(ClassLoader loader) {
+        return (PreparedStatement) Proxy.newProxyInstance(loader, new Class<?>[] {PreparedStatement.class},
+            (ps, method, args) -> {
+                switch (method.getName()) {
+                    case "executeUpdate": return 1;
+                    case "executeQuery":
+                        int id = nextId++;
+                        return Proxy.newProxyInstance(loader, new Class<?>[] {ResultSet.class},
+                            (rs, rsMethod, rsArgs) -> {
+                                switch (rsMethod.getName()) {
+                                    case "next": return true;
+                                    case "getInt": return id;
+                                    default: return null;
+                                }
+                            });
+                    default: return null;
+                }
+            });
+    }
+
+    @After
+    public void tearDown() {
+        model.close();
+    }
+
+    private BatchRunner.Result run(int batchSize, String... lines) throws Exception {
+        BatchRunner runner = new BatchRunner(model, languageSupport, new PrintStream(output, true), batchSize);
+        return runner.run(new StringReader(String.join("\n", lines)));
+    }
+
+    @Test
+    public void testTokenizeHonoursQuotes() {
+        System.out.println("\n=== Test: Tokenize Honours Quotes ===");
+        System.out.println("Expected: [add-victim, first=Ana, comments=needs \"insulin\" daily]");
+        System.out.println("Actual: " + BatchRunner.tokenize("add-victim  first=Ana comments=\"needs \\\"insulin\\\" daily\""));
+        assertEquals(Arrays.asList("add-victim", "first=Ana", "comments=needs \"insulin\" daily"),
+            BatchRunner.tokenize("add-victim  first=Ana comments=\"needs \\\"insulin\\\" daily\""));
+    }
+
+    @Test
+    public void testCommandsAreCommittedInBatches() throws Exception {
+        System.out.println("\n=== Test: Commands Are Committed In Batches ===");
+        BatchRunner.Result result = run(2,
+            "# five new arrivals",
+            "add-victim first=Ana last=Diaz phone=403-555-0101 gender=Woman location=1",
+            "add-victim first=Ben last=Diaz phone=403-555-0102 gender=Man location=1 dob=2001-02-03",
+            "",
+            "add-victim first=Cal last=Diaz phone=403-555-0103 gender=Man location=2 group=1",
+            "add-victim first=Dee last=Diaz phone=403-555-0104 gender=Woman location=2 comments=\"arrived late\"",
+            "allocate supply=1 location=2");
+        System.out.println("Expected: 5 succeeded in 3 batches");
+        System.out.println("Actual: " + result.getSucceeded() + " succeeded in " + result.getBatches() + " batches");
+        assertEquals(5, result.getSucceeded());
+        assertEquals(0, result.getFailed());
+        assertEquals(3, result.getBatches());
+        assertEquals(3, commits);
+        assertEquals(4L, (long) result.getSucceededByCommand().get("add-victim"));
+
+        DisasterVictim ana = (DisasterVictim) model.getPersons().get(100);
+        assertEquals("Ana", ana.getFirstName());
+        assertTrue(model.getLocations().get(1).hasOccupant(ana));
+        assertTrue(model.getFamilyGroups().get(1).hasFamilyMember(model.getPersons().get(102)));
+        assertTrue(model.getLocations().get(2).getSupplies().contains(model.getSupplies().get(1)));
+    }
+
+    @Test
+    public void testFailingCommandsAreReportedAndSkipped() throws Exception {
+        System.out.println("\n=== Test: Failing Commands Are Reported And Skipped ===");
+        BatchRunner.Result result = run(10,
+            "add-victim first=Ana last=Diaz phone=403-555-0101 gender=Woman location=1",
+            "add-victim first=Ben last=Diaz phone=12 gender=Man location=1",
+            "evacuate everyone",
+            "log-inquiry first=Eve last=Moss phone=4035550199 seeking=1 location=9 details=\"looking for John\"",
+            "log-inquiry first=Eve last=Moss phone=4035550199 seeking=1 location=1 details=\"looking for John\"");
+        String printed = output.toString();
+        System.out.println("Expected: 2 succeeded, 3 failed");
+        System.out.println("Actual: " + result.getSucceeded() + " succeeded, " + result.getFailed() + " failed");
+        System.out.print(printed);
+        assertEquals(2, result.getSucceeded());
+        assertEquals(3, result.getFailed());
+        assertEquals(3, savepointRollbacks);
+        assertTrue(printed.contains("Line 2: Invalid phone=12"));
+        assertTrue(printed.contains("Line 3: Unknown command evacuate"));
+        assertTrue(printed.contains("Line 4: Invalid location ID: 9"));
+
+        Inquiry inquiry = model.getInquiries().get(102);
+        assertNotNull(inquiry);
+        assertEquals("Eve", inquiry.getInquirer().getFirstName());
+        assertSame(inquiry.getInquirer(), model.getPersons().get(101));
+    }
+
+    @Test
+    public void testMalformedLineDoesNotStopTheFile() throws Exception {
+        System.out.println("\n=== Test: Malformed Line Does Not Stop The File ===");
+        BatchRunner.Result result = run(10,
+            "add-victim first=Ana last=Diaz phone=403-555-0101 gender=Woman location=1",
+            "add-victim first=Ben last=Diaz phone=403-555-0102 gender=Man location=1 comments=\"arrived late",
+            "add-victim first=Cal last=Diaz phone=403-555-0103 gender=Man location=2");
+        String printed = output.toString();
+        System.out.println("Expected: 2 succeeded, 1 failed");
+        System.out.println("Actual: " + result.getSucceeded() + " succeeded, " + result.getFailed() + " failed");
+        System.out.print(printed);
+        assertEquals(2, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertTrue(printed.contains("Line 2: Unclosed quote"));
+        assertEquals("Cal", model.getPersons().get(101).getFirstName());
+    }
+
+    @Test
+    public void testFailedCommitLeavesModelUntouched() throws Exception {
+        System.out.println("\n=== Test: Failed Commit Leaves Model Untouched ===");
+        failCommits = true;
+        int persons = model.getPersons().size();
+        BatchRunner.Result result = run(5,
+            "add-victim first=Ana last=Diaz phone=403-555-0101 gender=Woman location=1",
+            "allocate supply=3 location=1");
+        System.out.println("Expected: 0 succeeded, 2 failed, " + persons + " persons");
+        System.out.println("Actual: " + result.getSucceeded() + " succeeded, " + result.getFailed() + " failed, "
+            + model.getPersons().size() + " persons");
+        assertEquals(0, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertEquals(persons, model.getPersons().size());
+        assertFalse(model.getLocations().get(1).getSupplies().contains(model.getSupplies().get(3)));
+        assertTrue(output.toString().contains("A batch of 2 commands was rolled back"));
+    }
+}
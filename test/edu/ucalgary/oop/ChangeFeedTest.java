@@ -0,0 +1,261 @@
+package edu.ucalgary.oop;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class ChangeFeedTest {
+
+    /**
+     * A change log in memory that replays the events it is given in sequence order, as a
+     * shared log does once their transactions commit.
+     */
+    private static class ReplayLog implements ChangeLog {
+        private final List<ChangeEvent> events = new ArrayList<>();
+        private final AtomicInteger handed = new AtomicInteger();
+
+        synchronized void add(long sequence, int personId) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("first_name", "Person " + personId);
+            events.add(new ChangeEvent(sequence, LocalDateTime.now(), Table.PERSON, personId,
+                ChangeEvent.Operation.INSERT, values));
+        }
+
+        @Override
+        public ChangeEvent append(Table table, long key, ChangeEvent.Operation operation,
+                                  Map<String, Object> values) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long replay(long afterSequence, Consumer<ChangeEvent> consumer) {
+            List<ChangeEvent> copy;
+            synchronized (this) {
+                copy = new ArrayList<>(events);
+            }
+            copy.sort((a, b) -> Long.compare(a.getSequence(), b.getSequence()));
+            long last = afterSequence;
+            for (ChangeEvent event : copy) {
+                if (event.getSequence() <= afterSequence) continue;
+                consumer.accept(event);
+                handed.incrementAndGet();
+                last = event.getSequence();
+            }
+            return last;
+        }
+
+        @Override
+        public synchronized long getLastSequence() {
+            return events.isEmpty() ? 0 : events.get(events.size() - 1).getSequence();
+        }
+
+        @Override
+        public void close() { }
+    }
+
+    @Test
+    public void testOtherDesksChangesReachTheModel() throws SQLException, IOException, InterruptedException {
+        System.out.println("\n=== Test: Other Desks' Changes Reach The Model ===");
+        EmbeddedDatabaseConnection db = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        db.setChangeLog(new JdbcChangeLog(db));
+        ReliefModel model = new ReliefModel(db);
+        ChangeFeed feed = new ChangeFeed(new JdbcChangeLog(db.openConnection()), model,
+            db.getChangeLog().getLastSequence(), ChangeFeed.DEFAULT_CAPACITY, 10).start();
+        try {
+            // Written as another desk would, without touching this desk's model
+            DisasterVictim victim = new DisasterVictim("Freda", "Ng", "403-555-0101", "Flood");
+            int id = victim.saveNew(db, "Woman", 2, 0, "Needs insulin");
+            db.getStorage().supplies().allocateToPerson(3, id);
+            Inquirer caller = new Inquirer("Omar", "Haddad", "403-555-0123", "", false);
+            Inquiry inquiry = new Inquiry(caller, "Looking for Freda");
+            inquiry.setSeekingId(id);
+            int inquiryId = inquiry.saveNew(db, 1);
+            Person raman = db.getPersons().get(2);
+            raman.setPhoneNumber("403-555-0199");
+            db.getStorage().persons().update(raman, 0);
+            long last = db.getChangeLog().getLastSequence();
+            boolean caughtUp = feed.awaitSequence(last, 5000);
+
+            Person freda = model.getPersons().get(id);
+            Inquiry seen = model.getInquiries().get(inquiryId);
+            System.out.println("Expected: Freda at location 2 with supply 3, Omar's inquiry, Raman's new phone");
+            System.out.println("Actual: caught up " + caughtUp + ", " + freda + ", inquiry " + seen
+                + ", Raman " + model.getPersons().get(2).getPhoneNumber());
+            assertTrue(caughtUp);
+            assertEquals("Freda Ng", freda.getFullName());
+            assertTrue(model.getLocations().get(2).hasOccupant((DisasterVictim) freda));
+            assertEquals(Collections.singletonList(model.getSupplies().get(3)), freda.getAllocatedSupplies());
+            assertEquals("Looking for Freda", seen.getInquiryMessage());
+            assertEquals(id, seen.getSeekingId());
+            assertTrue(model.getPersons().get(seen.getInquirer().getId()) instanceof Inquirer);
+            assertEquals("403-555-0199", model.getPersons().get(2).getPhoneNumber());
+            assertEquals(2, model.findPersonsByPhone("403-555-0199").get(0).getId());
+            assertEquals(1, model.getPersons().get(2).getVersion());
+
+            int persons = model.getPersons().size();
+            db.getChangeLog().replay(0, model::apply);
+            assertEquals(persons, model.getPersons().size());
+            assertEquals(1, freda.getAllocatedSupplies().size());
+        } finally {
+            feed.close();
+            model.close();
+            db.closeConnection();
+        }
+    }
+
+    @Test
+    public void testImportsAndMergesReachTheModel() throws Exception {
+        System.out.println("\n=== Test: Imports And Merges Reach The Model ===");
+        EmbeddedDatabaseConnection db = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        db.setChangeLog(new JdbcChangeLog(db));
+        ReliefModel model = new ReliefModel(db);
+        ReliefModel desk = new ReliefModel(db);
+        ChangeFeed feed = new ChangeFeed(new JdbcChangeLog(db.openConnection()), model,
+            db.getChangeLog().getLastSequence(), ChangeFeed.DEFAULT_CAPACITY, 10).start();
+        try {
+            // Imported and then merged into Raman, as another desk would
+            new VictimImporter(desk).importCsv(new StringReader("first_name,last_name,phone_number,date_of_birth,"
+                + "gender,location,family_group,comments\nFreda,Ng,403-555-0101,1990-01-01,F,1,1,\n"),
+                new StringWriter(), desk);
+            boolean imported = feed.awaitSequence(db.getChangeLog().getLastSequence(), 5000);
+            Person freda = model.getPersons().get(6);
+            Inquiry inquiry = new Inquiry((Inquirer) model.getPersons().get(3), "Looking for Freda");
+            inquiry.setSeekingId(6);
+            int inquiryId = inquiry.saveNew(db, 1);
+            DuplicateDetector.applyMerges(Collections.singletonList(new MergeProposal(2, 6, 0.9)), db);
+            boolean merged = feed.awaitSequence(db.getChangeLog().getLastSequence(), 5000);
+
+            System.out.println("Expected: Freda imported at location 1, then merged into Raman");
+            System.out.println("Actual: imported " + imported + " as " + freda + ", merged " + merged
+                + ", inquiry seeking " + model.getInquiries().get(inquiryId).getSeekingId());
+            assertTrue(imported);
+            assertEquals("Freda Ng", freda.getFullName());
+            assertTrue(merged);
+            assertNull(model.getPersons().get(6));
+            assertFalse(model.getLocations().get(1).hasOccupant((DisasterVictim) freda));
+            assertTrue(model.getLocations().get(1).hasOccupant((DisasterVictim) model.getPersons().get(2)));
+            assertEquals(2, model.getInquiries().get(inquiryId).getSeekingId());
+        } finally {
+            feed.close();
+            desk.close();
+            model.close();
+            db.closeConnection();
+        }
+    }
+
+    @Test
+    public void testSharedLogIsReadInPagesFromTheLoad() throws SQLException, IOException {
+        System.out.println("\n=== Test: Shared Log Is Read In Pages From The Load ===");
+        EmbeddedDatabaseConnection db = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        try {
+            JdbcChangeLog log = new JdbcChangeLog(db);
+            db.setChangeLog(log);
+            int events = JdbcChangeLog.PAGE_SIZE * 2 + 3;
+            for (int i = 1; i <= events; i++) {
+                log.append(Table.PERSON, 1000 + i, ChangeEvent.Operation.INSERT, Collections.emptyMap());
+            }
+            db.loadData();
+            List<Long> all = new ArrayList<>();
+            long last = log.replay(0, event -> all.add(event.getSequence()));
+            List<Long> page = new ArrayList<>();
+            long pageEnd = log.replay(4, 10, event -> page.add(event.getSequence()));
+            System.out.println("Expected: " + events + " events in order, a page of 10 from event 5, loaded at "
+                + events);
+            System.out.println("Actual: " + all.size() + " events up to " + last + ", a page of " + page.size()
+                + " up to " + pageEnd + ", loaded at " + db.getLoadedSequence());
+            assertEquals(events, all.size());
+            for (int i = 0; i < events; i++) {
+                assertEquals(i + 1, (long) all.get(i));
+            }
+            assertEquals(events, last);
+            assertEquals(10, page.size());
+            assertEquals(5, (long) page.get(0));
+            assertEquals(14, pageEnd);
+            assertEquals(events, db.getLoadedSequence());
+        } finally {
+            db.closeConnection();
+        }
+    }
+
+    @Test
+    public void testFullQueueHoldsBackTheReaderAndOrderIsKept() throws InterruptedException {
+        System.out.println("\n=== Test: Full Queue Holds Back The Reader And Order Is Kept ===");
+        ReplayLog log = new ReplayLog();
+        for (int i = 1; i <= 50; i++) {
+            log.add(i, 1000 + i);
+        }
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> applied = Collections.synchronizedList(new ArrayList<>());
+        ReliefModel model = new ReliefModel(MockDatabaseConnectionImpl.getInstance()) {
+            @Override
+            public void apply(ChangeEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                applied.add(event.getSequence());
+                super.apply(event);
+            }
+        };
+        ChangeFeed feed = new ChangeFeed(log, model, 0, 4, 10).start();
+        try {
+            TimeUnit.MILLISECONDS.sleep(200);
+            int handedWhileBlocked = log.handed.get();
+            release.countDown();
+            boolean caughtUp = feed.awaitSequence(50, 5000);
+            System.out.println("Expected: at most 5 events read while the model is blocked, all 50 applied in order");
+            System.out.println("Actual: " + handedWhileBlocked + " read while blocked, " + applied.size()
+                + " applied");
+            assertTrue(handedWhileBlocked <= 5);
+            assertTrue(caughtUp);
+            for (int i = 0; i < 50; i++) {
+                assertEquals(i + 1, (long) applied.get(i));
+            }
+            assertEquals("Person 1050", model.getPersons().get(1050).getFirstName());
+        } finally {
+            feed.close();
+            model.close();
+        }
+    }
+
+    @Test
+    public void testReaderWaitsAtAGapInTheSequence() throws IOException, InterruptedException {
+        System.out.println("\n=== Test: Reader Waits At A Gap In The Sequence ===");
+        ReplayLog log = new ReplayLog();
+        log.add(1, 1001);
+        log.add(2, 1002);
+        log.add(4, 1004);
+        ReliefModel model = new ReliefModel(MockDatabaseConnectionImpl.getInstance());
+        ChangeFeed feed = new ChangeFeed(log, model, 0, ChangeFeed.DEFAULT_CAPACITY, 10);
+        try {
+            int beforeGap = feed.poll();
+            int stillWaiting = feed.poll();
+            log.add(3, 1003);
+            int afterFill = feed.poll();
+            System.out.println("Expected: 2 events before the gap, none while it is open, 2 once event 3 commits");
+            System.out.println("Actual: " + beforeGap + ", " + stillWaiting + ", " + afterFill);
+            assertEquals(2, beforeGap);
+            assertEquals(0, stillWaiting);
+            assertEquals(2, afterFill);
+        } finally {
+            feed.close();
+            model.close();
+        }
+    }
+}
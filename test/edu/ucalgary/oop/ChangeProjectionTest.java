@@ -0,0 +1,145 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class ChangeProjectionTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("projection");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testProjectionFollowsTheDatabase() throws SQLException, IOException {
+        System.out.println("\n=== Test: Projection Follows The Database ===");
+        EmbeddedDatabaseConnection db = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        try {
+            db.setChangeLog(new JdbcChangeLog(db));
+            ChangeProjection projection = ChangeProjection.load(db.getConnection(), db.getChangeLog());
+            int loaded = projection.count(Table.PERSON);
+            DisasterVictim victim = new DisasterVictim("Freda", "Ng", "403-555-0101", "Flood");
+            int id = victim.saveNew(db, "Woman", 2, 0, "Needs insulin");
+            Person raman = db.getPersons().get(2);
+            raman.setPhoneNumber("403-555-0199");
+            db.getStorage().persons().update(raman, 0);
+            db.updateRecord("Supply", 1, "comments", "Wool");
+            long applied = projection.catchUp(db.getChangeLog());
+            System.out.println("Expected: 5 persons loaded, 4 events applied, 6 persons after");
+            System.out.println("Actual: " + loaded + " persons loaded, " + applied + " events applied, "
+                + projection.count(Table.PERSON) + " persons after");
+            assertEquals(5, loaded);
+            assertEquals(4, applied);
+            assertEquals(6, projection.count(Table.PERSON));
+            assertEquals("Freda", projection.get(Table.PERSON, id).get("first_name"));
+            assertNotNull(projection.get(Table.PERSON_LOCATION, ChangeEvent.stayKey(id, 2)));
+            Map<String, Object> person = projection.get(Table.PERSON, 2);
+            assertEquals("403-555-0199", person.get("phone_number"));
+            assertEquals(1, person.get("version"));
+            assertEquals("Wool", projection.get(Table.SUPPLY, 1).get("comments"));
+            assertEquals(1, projection.get(Table.SUPPLY, 1).get("version"));
+            assertEquals(0, projection.catchUp(db.getChangeLog()));
+        } finally {
+            db.closeConnection();
+        }
+    }
+
+    @Test
+    public void testRebuildReplaysOnlyEventsAfterTheSnapshot() throws IOException {
+        System.out.println("\n=== Test: Rebuild Replays Only Events After The Snapshot ===");
+        Path snapshot = directory.resolve("projection.snapshot");
+        ChangeProjection projection = new ChangeProjection().snapshotEvery(snapshot, 2);
+        try (FileChangeLog log = new FileChangeLog(directory.resolve("changes.log"))) {
+            for (int id = 1; id <= 5; id++) {
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("person_id", id);
+                values.put("first_name", "Person " + id);
+                log.append(Table.PERSON, id, ChangeEvent.Operation.INSERT, values);
+            }
+            log.append(Table.PERSON, 3, ChangeEvent.Operation.DELETE, Collections.emptyMap());
+            projection.catchUp(log);
+            long snapshotAt = ChangeProjection.readSnapshot(snapshot).getSequence();
+            ChangeProjection rebuilt = ChangeProjection.rebuild(snapshot, log);
+            System.out.println("Expected: snapshot at event 6, 4 persons rebuilt at event 6");
+            System.out.println("Actual: snapshot at event " + snapshotAt + ", "
+                + rebuilt.count(Table.PERSON) + " persons rebuilt at event "
+                + rebuilt.getSequence());
+            assertEquals(6, snapshotAt);
+            assertEquals(6, rebuilt.getSequence());
+            assertEquals(4, rebuilt.count(Table.PERSON));
+            assertNull(rebuilt.get(Table.PERSON, 3));
+            assertEquals("Person 5", rebuilt.get(Table.PERSON, 5).get("first_name"));
+        }
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(snapshot, bytes);
+        try {
+            ChangeProjection.readSnapshot(snapshot);
+            fail("Expected a damaged snapshot to be refused");
+        } catch (IOException e) {
+            assertEquals("Checksum mismatch in snapshot " + snapshot, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testExpiredWaterDeleteRemovesOldPersonAllocations() {
+        System.out.println("\n=== Test: Expired Water Delete Removes Old Person Allocations ===");
+        ChangeProjection projection = new ChangeProjection();
+        LocalDateTime now = LocalDateTime.of(2025, 4, 10, 12, 0);
+        long sequence = 0;
+        String[] types = {"water", "water", "blanket", "water"};
+        for (int supplyId = 1; supplyId <= types.length; supplyId++) {
+            Map<String, Object> supply = new LinkedHashMap<>();
+            supply.put("supply_id", supplyId);
+            supply.put("type", types[supplyId - 1]);
+            projection.apply(new ChangeEvent(++sequence, now, Table.SUPPLY, supplyId,
+                ChangeEvent.Operation.INSERT, supply));
+            Map<String, Object> allocation = new LinkedHashMap<>();
+            allocation.put("supply_id", supplyId);
+            allocation.put("person_id", supplyId == 4 ? null : 1);
+            allocation.put("location_id", supplyId == 4 ? 1 : null);
+            allocation.put("allocation_date", Timestamp.valueOf(now.minusDays(supplyId == 2 ? 0 : 3)));
+            projection.apply(new ChangeEvent(++sequence, now, Table.SUPPLY_ALLOCATION,
+                supplyId, ChangeEvent.Operation.INSERT, allocation));
+        }
+        Map<String, Object> expired = new LinkedHashMap<>();
+        expired.put("type", "water");
+        expired.put(ChangeEvent.ALLOCATED_BEFORE, Timestamp.valueOf(now.minusDays(1)));
+        ChangeEvent delete = new ChangeEvent(++sequence, now, Table.SUPPLY_ALLOCATION, 0,
+            ChangeEvent.Operation.DELETE, expired);
+        boolean applied = projection.apply(delete);
+        boolean again = projection.apply(delete);
+        System.out.println("Expected: only the old water given to a person removed, 3 allocations left");
+        System.out.println("Actual: " + projection.count(Table.SUPPLY_ALLOCATION)
+            + " allocations left");
+        assertTrue(applied);
+        assertFalse(again);
+        assertEquals(3, projection.count(Table.SUPPLY_ALLOCATION));
+        assertNull(projection.get(Table.SUPPLY_ALLOCATION, 1));
+        assertNotNull(projection.get(Table.SUPPLY_ALLOCATION, 4));
+    }
+}
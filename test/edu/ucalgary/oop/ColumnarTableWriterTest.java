@@ -0,0 +1,91 @@
+package edu.ucalgary.oop;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.List;
+
+public class ColumnarTableWriterTest {
+
+    private static final String[] COLUMNS = {"id", "name", "date_of_birth", "allocation_date", "total"};
+    private static final byte[] TYPES = {TableWriter.TYPE_INT, TableWriter.TYPE_STRING, TableWriter.TYPE_DATE,
+        TableWriter.TYPE_TIMESTAMP, TableWriter.TYPE_LONG};
+
+    private byte[] write(int rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TableWriter writer = new ColumnarTableWriter(Channels.newChannel(bytes))) {
+            writer.begin(COLUMNS, TYPES);
+            for (int i = 0; i < rows; i++) {
+                writer.writeInt(i - 5);
+                if (i % 3 == 0) writer.writeNull(); else writer.writeString("Person " + i + " é");
+                writer.writeDate(Date.valueOf("1960-01-01"));
+                if (i % 7 == 0) writer.writeNull(); else writer.writeTimestamp(new Timestamp(1_700_000_000_000L + i));
+                writer.writeLong(Long.MAX_VALUE - i);
+                writer.endRow();
+            }
+            writer.finish();
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testRoundTripAcrossRowGroups() throws IOException {
+        System.out.println("\n=== Test: Round Trip Across Row Groups ===");
+        int rows = ColumnarTableWriter.ROW_GROUP_SIZE * 2 + 17;
+        List<Object[]> read = ColumnarTableWriter.readAll(Channels.newChannel(new ByteArrayInputStream(write(rows))));
+        assertArrayEquals(COLUMNS, read.get(0));
+        System.out.println("Expected rows: " + rows);
+        System.out.println("Actual rows: " + (read.size() - 1));
+        assertEquals(rows + 1, read.size());
+        for (int i = 0; i < rows; i++) {
+            Object[] row = read.get(i + 1);
+            assertEquals(i - 5, row[0]);
+            assertEquals(i % 3 == 0 ? null : "Person " + i + " é", row[1]);
+            assertEquals(Date.valueOf("1960-01-01"), row[2]);
+            assertEquals(i % 7 == 0 ? null : new Timestamp(1_700_000_000_000L + i), row[3]);
+            assertEquals(Long.MAX_VALUE - i, row[4]);
+        }
+    }
+
+    @Test
+    public void testEmptyTable() throws IOException {
+        System.out.println("\n=== Test: Empty Table ===");
+        List<Object[]> read = ColumnarTableWriter.readAll(Channels.newChannel(new ByteArrayInputStream(write(0))));
+        assertEquals(1, read.size());
+    }
+
+    @Test
+    public void testSmallerThanCsv() throws IOException {
+        System.out.println("\n=== Test: Smaller Than CSV ===");
+        int rows = 10_000;
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        try (TableWriter writer = new CsvTableWriter(Channels.newChannel(csv))) {
+            writer.begin(COLUMNS, TYPES);
+            for (int i = 0; i < rows; i++) {
+                writer.writeInt(i - 5);
+                if (i % 3 == 0) writer.writeNull(); else writer.writeString("Person " + i + " é");
+                writer.writeDate(Date.valueOf("1960-01-01"));
+                if (i % 7 == 0) writer.writeNull(); else writer.writeTimestamp(new Timestamp(1_700_000_000_000L + i));
+                writer.writeLong(Long.MAX_VALUE - i);
+                writer.endRow();
+            }
+            writer.finish();
+        }
+        int columnar = write(rows).length;
+        System.out.println("CSV bytes: " + csv.size());
+        System.out.println("Columnar bytes: " + columnar);
+        assertTrue(columnar < csv.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        System.out.println("\n=== Test: Rejects Other Files ===");
+        ColumnarTableWriter.readAll(Channels.newChannel(new ByteArrayInputStream("a,b\n".getBytes())));
+    }
+}
@@ -0,0 +1,106 @@
+package edu.ucalgary.oop;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionPoolTest {
+
+    private AtomicInteger opened;
+    private AtomicInteger closed;
+    private ConnectionPool pool;
+
+    private Connection newConnection() {
+        opened.incrementAndGet();
+        boolean[] isClosed = {false};
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close": isClosed[0] = true; closed.incrementAndGet(); return null;
+                    case "isClosed": return isClosed[0];
+                    case "getAutoCommit": return true;
+                    default: return null;
+                }
+            });
+    }
+
+    @Before
+    public void setUp() {
+        opened = new AtomicInteger();
+        closed = new AtomicInteger();
+        pool = new ConnectionPool(this::newConnection, 2);
+    }
+
+    @Test
+    public void testReleasedConnectionIsReused() throws SQLException {
+        System.out.println("\n=== Test: Released Connection Is Reused ===");
+        Connection first = pool.borrow();
+        pool.release(first);
+        Connection second = pool.borrow();
+        System.out.println("Expected connections opened: 1");
+        System.out.println("Actual connections opened: " + opened.get());
+        assertSame(first, second);
+        assertEquals(1, opened.get());
+    }
+
+    @Test
+    public void testBorrowWaitsWhenPoolIsExhausted() throws Exception {
+        System.out.println("\n=== Test: Borrow Waits When Pool Is Exhausted ===");
+        Connection first = pool.borrow();
+        pool.borrow();
+        assertEquals(0, pool.getAvailable());
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.borrow();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        try {
+            waiting.get(100, TimeUnit.MILLISECONDS);
+            fail("Borrow should wait while both connections are in use");
+        } catch (TimeoutException expected) {
+            // still waiting
+        }
+        pool.release(first);
+        assertSame(first, waiting.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testClosedConnectionIsDiscarded() throws SQLException {
+        System.out.println("\n=== Test: Closed Connection Is Discarded ===");
+        Connection first = pool.borrow();
+        first.close();
+        pool.release(first);
+        Connection second = pool.borrow();
+        assertNotSame(first, second);
+        assertEquals(2, opened.get());
+    }
+
+    @Test
+    public void testCloseClosesIdleConnections() throws SQLException {
+        System.out.println("\n=== Test: Close Closes Idle Connections ===");
+        Connection idle = pool.borrow();
+        Connection busy = pool.borrow();
+        pool.release(idle);
+        pool.close();
+        assertEquals(1, closed.get());
+        pool.release(busy);
+        assertEquals(2, closed.get());
+    }
+
+    @Test(expected = SQLException.class)
+    public void testBorrowAfterCloseFails() throws SQLException {
+        System.out.println("\n=== Test: Borrow After Close Fails ===");
+        pool.close();
+        pool.borrow();
+    }
+}
@@ -0,0 +1,45 @@
+package edu.ucalgary.oop;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+public class CopyTableWriterTest {
+
+    @Test
+    public void testValuesAreTabSeparatedAndEscaped() throws IOException {
+        System.out.println("\n=== Test: Values Are Tab Separated And Escaped ===");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (CopyTableWriter writer = new CopyTableWriter(Channels.newChannel(bytes))) {
+            writer.begin(new String[] {"id", "comments", "date_of_birth", "date", "family_group"},
+                new byte[] {TableWriter.TYPE_INT, TableWriter.TYPE_STRING, TableWriter.TYPE_DATE,
+                    TableWriter.TYPE_TIMESTAMP, TableWriter.TYPE_INT});
+            writer.writeInt(1);
+            writer.writeString("Côté\tC:\\bags\nrow 2");
+            writer.writeDate(Date.valueOf("1990-05-01"));
+            writer.writeTimestamp(Timestamp.valueOf("2025-04-10 12:00:00"));
+            writer.writeNull();
+            writer.endRow();
+            writer.finish();
+        }
+        String text = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        System.out.println("Expected: 1\\tCôté\\\\tC:\\\\\\\\bags\\\\nrow 2\\t1990-05-01\\t2025-04-10 12:00:00.0\\t\\\\N");
+        System.out.print("Actual: " + text);
+        assertEquals("1\tCôté\\tC:\\\\bags\\nrow 2\t1990-05-01\t2025-04-10 12:00:00.0\t\\N\n", text);
+    }
+
+    @Test
+    public void testCopyCommandListsColumns() {
+        System.out.println("\n=== Test: Copy Command Lists Columns ===");
+        String command = CopyTableWriter.copyCommand("PersonLocation", new String[] {"person_id", "location_id"});
+        System.out.println("Expected: COPY PersonLocation (person_id, location_id) FROM stdin;");
+        System.out.print("Actual: " + command);
+        assertEquals("COPY PersonLocation (person_id, location_id) FROM stdin;\n", command);
+    }
+}
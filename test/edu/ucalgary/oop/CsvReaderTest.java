@@ -0,0 +1,64 @@
+package edu.ucalgary.oop;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+public class CsvReaderTest {
+
+    @Test
+    public void testSimpleRecords() throws IOException {
+        System.out.println("\n=== Test: Simple Records ===");
+        CsvReader reader = new CsvReader(new StringReader("a,b,c\n1,2,3\n"));
+        assertEquals(Arrays.asList("a", "b", "c"), reader.readRecord());
+        List<String> second = reader.readRecord();
+        System.out.println("Expected: [1, 2, 3]");
+        System.out.println("Actual: " + second);
+        assertEquals(Arrays.asList("1", "2", "3"), second);
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    public void testQuotedFieldsWithCommasQuotesAndNewlines() throws IOException {
+        System.out.println("\n=== Test: Quoted Fields ===");
+        CsvReader reader = new CsvReader(new StringReader("\"Smith, Jr.\",\"says \"\"hi\"\"\",\"two\nlines\"\r\nnext,row\r\n"));
+        List<String> record = reader.readRecord();
+        System.out.println("Actual: " + record);
+        assertEquals(Arrays.asList("Smith, Jr.", "says \"hi\"", "two\nlines"), record);
+        assertEquals(1, reader.getRecordLine());
+        assertEquals(Arrays.asList("next", "row"), reader.readRecord());
+        assertEquals(3, reader.getRecordLine());
+    }
+
+    @Test
+    public void testEmptyFieldsAndNoTrailingNewline() throws IOException {
+        System.out.println("\n=== Test: Empty Fields And No Trailing Newline ===");
+        CsvReader reader = new CsvReader(new StringReader(",x,"));
+        assertEquals(Arrays.asList("", "x", ""), reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnterminatedQuote() throws IOException {
+        System.out.println("\n=== Test: Unterminated Quote ===");
+        new CsvReader(new StringReader("\"open,field\n")).readRecord();
+    }
+
+    @Test
+    public void testAppendFieldRoundTrip() throws IOException {
+        System.out.println("\n=== Test: Append Field Round Trip ===");
+        StringBuilder line = new StringBuilder();
+        CsvReader.appendField(line, "plain");
+        line.append(',');
+        CsvReader.appendField(line, "needs \"quotes\", really");
+        line.append(',');
+        CsvReader.appendField(line, null);
+        System.out.println("Written: " + line);
+        assertEquals(Arrays.asList("plain", "needs \"quotes\", really", ""),
+            new CsvReader(new StringReader(line.toString())).readRecord());
+    }
+}
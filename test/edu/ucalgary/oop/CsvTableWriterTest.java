@@ -0,0 +1,71 @@
+package edu.ucalgary.oop;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+public class CsvTableWriterTest {
+
+    private static final String[] COLUMNS = {"person_id", "first_name", "date_of_birth", "comments"};
+    private static final byte[] TYPES = {TableWriter.TYPE_INT, TableWriter.TYPE_STRING,
+        TableWriter.TYPE_DATE, TableWriter.TYPE_STRING};
+
+    @Test
+    public void testHeaderRowsAndNulls() throws IOException {
+        System.out.println("\n=== Test: Header, Rows And Nulls ===");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TableWriter writer = new CsvTableWriter(Channels.newChannel(bytes))) {
+            writer.begin(COLUMNS, TYPES);
+            writer.writeInt(1);
+            writer.writeString("Aurélie");
+            writer.writeDate(Date.valueOf("1985-03-15"));
+            writer.writeString("Speaks only French, no English");
+            writer.endRow();
+            writer.writeInt(2);
+            writer.writeString("Raman");
+            writer.writeNull();
+            writer.writeNull();
+            writer.endRow();
+            writer.finish();
+        }
+        String csv = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        String expected = "person_id,first_name,date_of_birth,comments\n"
+            + "1,Aurélie,1985-03-15,\"Speaks only French, no English\"\n"
+            + "2,Raman,,\n";
+        System.out.println("Expected:\n" + expected);
+        System.out.println("Actual:\n" + csv);
+        assertEquals(expected, csv);
+    }
+
+    @Test
+    public void testOutputLargerThanBufferIsReadableBack() throws IOException {
+        System.out.println("\n=== Test: Output Larger Than Buffer ===");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int rows = 20_000;
+        try (TableWriter writer = new CsvTableWriter(Channels.newChannel(bytes))) {
+            writer.begin(new String[] {"id", "allocation_date"},
+                new byte[] {TableWriter.TYPE_LONG, TableWriter.TYPE_TIMESTAMP});
+            for (int i = 0; i < rows; i++) {
+                writer.writeLong(i);
+                writer.writeTimestamp(Timestamp.valueOf("2025-01-15 10:00:00"));
+                writer.endRow();
+            }
+            writer.finish();
+        }
+        CsvReader reader = new CsvReader(new StringReader(new String(bytes.toByteArray(), StandardCharsets.UTF_8)));
+        assertEquals(Arrays.asList("id", "allocation_date"), reader.readRecord());
+        int count = 0;
+        while (reader.readRecord() != null) count++;
+        System.out.println("Expected rows: " + rows);
+        System.out.println("Actual rows: " + count);
+        assertEquals(rows, count);
+    }
+}
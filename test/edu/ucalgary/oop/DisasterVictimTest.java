@@ -4,6 +4,17 @@ import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Scanner;
+
 public class DisasterVictimTest {
     private DisasterVictim victim;
     private MockDatabaseConnection dbConnector;
@@ -263,4 +274,59 @@ public class DisasterVictimTest {
         System.out.println("Actual: " + victim.getFirstName());
         assertEquals(nonAsciiName, victim.getFirstName());
     }
+
+    @Test
+    public void testEditGivenUpAfterConflictsKeepsTheStoredValues() throws SQLException, IOException {
+        System.out.println("\n=== Test: Edit Given Up After Conflicts Keeps The Stored Values ===");
+        EmbeddedDatabaseConnection db = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        try {
+            // Another operator changes the phone number just before every write
+            int[] rivalWrites = {0};
+            ClassLoader loader = getClass().getClassLoader();
+            PersonRepository persons = db.getStorage().persons();
+            PersonRepository contended = (PersonRepository) Proxy.newProxyInstance(loader,
+                new Class<?>[] {PersonRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("update")) {
+                        try (PreparedStatement ps = db.getConnection().prepareStatement(
+                                "UPDATE Person SET phone_number = ?, version = version + 1 WHERE person_id = 2")) {
+                            ps.setString(1, "403-555-010" + ++rivalWrites[0]);
+                            ps.executeUpdate();
+                        }
+                    }
+                    return invoke(method, persons, args);
+                });
+            Storage storage = db.getStorage();
+            Storage contendedStorage = (Storage) Proxy.newProxyInstance(loader, new Class<?>[] {Storage.class},
+                (proxy, method, args) -> method.getName().equals("persons") ? contended : invoke(method, storage, args));
+            DatabaseConnector contendedDb = (DatabaseConnector) Proxy.newProxyInstance(loader,
+                new Class<?>[] {DatabaseConnector.class}, (proxy, method, args) ->
+                    method.getName().equals("getStorage") ? contendedStorage : invoke(method, db, args));
+            UserInterfaceImplied editor = new UserInterfaceImplied(new LanguageSupport("en-CA"),
+                new Scanner("2\n403-555-0199\ny\ny\ny\n"), new PrintStream(new ByteArrayOutputStream()));
+            editor.setDatabaseConnection(contendedDb);
+            DisasterVictim raman = (DisasterVictim) editor.getPersons().get(2);
+
+            raman.performEdit(editor);
+
+            String[] stored = new String[PersonRepository.ROW_FIELDS.length];
+            int storedVersion = persons.read(2, stored);
+            System.out.println("Expected: 3 rival writes, model holds " + stored[2] + " at version " + storedVersion);
+            System.out.println("Actual: " + rivalWrites[0] + " rival writes, model holds " + raman.getPhoneNumber()
+                + " at version " + raman.getVersion());
+            assertEquals(3, rivalWrites[0]);
+            assertEquals("403-555-0103", stored[2]);
+            assertEquals(stored[2], raman.getPhoneNumber());
+            assertEquals(storedVersion, raman.getVersion());
+        } finally {
+            db.closeConnection();
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
 }
\ No newline at end of file
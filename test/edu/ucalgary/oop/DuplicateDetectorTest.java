@@ -0,0 +1,197 @@
+package edu.ucalgary.oop;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DuplicateDetectorTest {
+    private Map<Integer, Person> persons;
+    private DuplicateDetector detector;
+
+    @Before
+    public void setUp() {
+        persons = new HashMap<>();
+        persons.put(1, victim(1, "Aurélie", "Dupont", "403-555-1234", "1985-03-15"));
+        persons.put(2, victim(2, "Aurelie", "Dupont", "(403) 555-1234", "1985-03-15"));
+        persons.put(3, victim(3, "Raman", "Narayan", null, "1980-06-22"));
+        persons.put(4, victim(4, "Chinoso", "Nwosu", "555-9876", null));
+        persons.put(5, victim(5, "Aurelie", "Dupond", "4035551234", null));
+        detector = new DuplicateDetector(persons);
+    }
+
+    private DisasterVictim victim(int id, String first, String last, String phone, String dob) {
+        DisasterVictim victim = new DisasterVictim(first, last, phone, "Unknown");
+        victim.setId(id);
+        victim.setDateOfBirth(dob);
+        return victim;
+    }
+
+    @Test
+    public void testScoreIdenticalPersons() {
+        System.out.println("\n=== Test: Score Identical Persons ===");
+        double score = DuplicateDetector.score(persons.get(1), persons.get(2));
+        System.out.println("Expected: 1.0");
+        System.out.println("Actual: " + score);
+        assertEquals(1.0, score, 0.0001);
+    }
+
+    @Test
+    public void testScoreDifferentDateOfBirth() {
+        System.out.println("\n=== Test: Score Different Date Of Birth ===");
+        Person other = victim(9, "Aurelie", "Dupont", "403-555-1234", "1990-01-01");
+        double score = DuplicateDetector.score(persons.get(1), other);
+        System.out.println("Expected: 0.0");
+        System.out.println("Actual: " + score);
+        assertEquals(0.0, score, 0.0001);
+    }
+
+    @Test
+    public void testScoreUnrelatedPersons() {
+        System.out.println("\n=== Test: Score Unrelated Persons ===");
+        double score = DuplicateDetector.score(persons.get(3), persons.get(4));
+        System.out.println("Expected: below " + DuplicateDetector.MATCH_THRESHOLD);
+        System.out.println("Actual: " + score);
+        assertTrue(score < DuplicateDetector.MATCH_THRESHOLD);
+    }
+
+    @Test
+    public void testFindMatchesForNewRegistration() {
+        System.out.println("\n=== Test: Find Matches For New Registration ===");
+        Person candidate = victim(0, "Raman", "Narayan", "4035550000", "1980-06-22");
+        List<MergeProposal> matches = detector.findMatches(candidate);
+        System.out.println("Expected: one match on ID 3");
+        System.out.println("Actual: " + matches);
+        assertEquals(1, matches.size());
+        assertEquals(3, matches.get(0).getSurvivorId());
+    }
+
+    @Test
+    public void testFindMatchesNoneForNewPerson() {
+        System.out.println("\n=== Test: Find Matches None For New Person ===");
+        Person candidate = victim(0, "Chanida", "Chaiyapong", "555-6543", null);
+        List<MergeProposal> matches = detector.findMatches(candidate);
+        System.out.println("Expected: no matches");
+        System.out.println("Actual: " + matches);
+        assertTrue(matches.isEmpty());
+    }
+
+    @Test
+    public void testFindAllDuplicatesKeepsEarliestRecord() {
+        System.out.println("\n=== Test: Find All Duplicates Keeps Earliest Record ===");
+        List<MergeProposal> proposals = detector.findAllDuplicates();
+        System.out.println("Expected: proposals merging 2 and 5 into 1");
+        System.out.println("Actual: " + proposals);
+        assertFalse(proposals.isEmpty());
+        Map<Integer, Integer> survivors = DuplicateDetector.resolveSurvivors(proposals);
+        assertEquals(Integer.valueOf(1), survivors.get(2));
+        assertEquals(Integer.valueOf(1), survivors.get(5));
+        assertFalse(survivors.containsKey(3));
+    }
+
+    @Test
+    public void testIndexAndRemove() {
+        System.out.println("\n=== Test: Index And Remove ===");
+        Person added = victim(6, "Chanida", "Chaiyapong", "555-6543", null);
+        detector.index(6, added);
+        Person candidate = victim(0, "Chanida", "Chaiyapong", "555-6543", null);
+        assertEquals(1, detector.findMatches(candidate).size());
+        detector.remove(6);
+        System.out.println("Expected: no matches after removal");
+        System.out.println("Actual: " + detector.findMatches(candidate));
+        assertTrue(detector.findMatches(candidate).isEmpty());
+    }
+
+    @Test
+    public void testIndexFollowsEditedNameAndDateOfBirth() {
+        System.out.println("\n=== Test: Index Follows Edited Name And Date Of Birth ===");
+        DisasterVictim edited = (DisasterVictim) persons.get(4);
+        edited.setFirstName("Chanida");
+        edited.setLastName("Chaiyapong");
+        edited.setPhoneNumber(null);
+        edited.setDateOfBirth("1990-01-01");
+        detector.index(4, edited);
+        Person renamed = victim(0, "Chanida", "Chaiyapong", null, "1990-01-01");
+        Person former = victim(0, "Chinoso", "Nwosu", null, "1990-01-01");
+        System.out.println("Expected: the edited record found under its new name only");
+        System.out.println("Actual: " + detector.findMatches(renamed) + ", " + detector.findMatches(former));
+        assertEquals(4, detector.findMatches(renamed).get(0).getSurvivorId());
+        assertTrue(detector.findMatches(former).isEmpty());
+    }
+
+    @Test
+    public void testNamesOutsideTheLatinAlphabetAreIndexed() {
+        System.out.println("\n=== Test: Names Outside The Latin Alphabet Are Indexed ===");
+        persons.put(6, victim(6, "Ola", "Ødegaard", null, "1975-02-01"));
+        persons.put(7, victim(7, "Anna", "Łukasz", null, null));
+        persons.put(8, victim(8, "Wei", "王", null, null));
+        DuplicateDetector withForeignNames = new DuplicateDetector(persons);
+        List<MergeProposal> matches = withForeignNames.findMatches(victim(0, "Ola", "Ødegaard", null, "1975-02-01"));
+        System.out.println("Expected: Ø, Ł and 王 indexed, one match on ID 6");
+        System.out.println("Actual: " + DuplicateDetector.soundex("ødegaard") + ", "
+            + DuplicateDetector.soundex("łukasz") + ", " + DuplicateDetector.soundex("王") + ", " + matches);
+        assertEquals("Ø326", DuplicateDetector.soundex("ødegaard"));
+        assertEquals("Ł220", DuplicateDetector.soundex("łukasz"));
+        assertEquals("王000", DuplicateDetector.soundex("王"));
+        assertEquals(1, matches.size());
+        assertEquals(6, matches.get(0).getSurvivorId());
+    }
+
+    @Test
+    public void testResolveSurvivorsFollowsChains() {
+        System.out.println("\n=== Test: Resolve Survivors Follows Chains ===");
+        List<MergeProposal> proposals = Arrays.asList(
+            new MergeProposal(7, 9, 0.9),
+            new MergeProposal(4, 7, 0.9));
+        Map<Integer, Integer> survivors = DuplicateDetector.resolveSurvivors(proposals);
+        System.out.println("Expected: {7=4, 9=4}");
+        System.out.println("Actual: " + survivors);
+        assertEquals(Integer.valueOf(4), survivors.get(7));
+        assertEquals(Integer.valueOf(4), survivors.get(9));
+    }
+
+    @Test
+    public void testSoundexAndJaroWinkler() {
+        System.out.println("\n=== Test: Soundex And Jaro-Winkler ===");
+        assertEquals("R163", DuplicateDetector.soundex("robert"));
+        assertEquals("R163", DuplicateDetector.soundex("rupert"));
+        assertEquals(0.961, DuplicateDetector.jaroWinkler("martha", "marhta"), 0.001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeProposalIntoItself() {
+        System.out.println("\n=== Test: Merge Proposal Into Itself ===");
+        new MergeProposal(1, 1, 1.0);
+    }
+
+    @Test
+    public void testDuplicatesSharingAShelterMergeIntoOneStay() throws Exception {
+        System.out.println("\n=== Test: Duplicates Sharing A Shelter Merge Into One Stay ===");
+        EmbeddedDatabaseConnection db = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        try {
+            // Persons 2 and 5 both stay at location 2; the survivor, person 1, only at location 1
+            int merged = DuplicateDetector.applyMerges(Arrays.asList(new MergeProposal(1, 2, 0.9),
+                new MergeProposal(1, 5, 0.9)), db);
+            List<String> stays = new ArrayList<>();
+            try (Statement stmt = db.getConnection().createStatement();
+                 ResultSet rs = stmt.executeQuery(
+                     "SELECT person_id, location_id FROM PersonLocation ORDER BY person_id, location_id")) {
+                while (rs.next()) stays.add(rs.getInt(1) + "@" + rs.getInt(2));
+            }
+            System.out.println("Expected: 2 merged, stays [1@1, 1@2]");
+            System.out.println("Actual: " + merged + " merged, stays " + stays);
+            assertEquals(2, merged);
+            assertEquals(Arrays.asList("1@1", "1@2"), stays);
+        } finally {
+            db.closeConnection();
+        }
+    }
+}
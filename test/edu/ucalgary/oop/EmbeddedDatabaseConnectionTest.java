@@ -0,0 +1,135 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.stream.Stream;
+
+public class EmbeddedDatabaseConnectionTest {
+
+    private static final Path SCRIPT = Paths.get("project.sql");
+
+    private EmbeddedDatabaseConnection db;
+
+    @Before
+    public void setUp() throws SQLException, IOException {
+        db = EmbeddedDatabaseConnection.inMemory(SCRIPT);
+    }
+
+    @After
+    public void tearDown() {
+        db.closeConnection();
+    }
+
+    @Test
+    public void testProjectScriptIsLoaded() {
+        System.out.println("\n=== Test: Project Script Is Loaded ===");
+        System.out.println("Expected: 5 persons, 2 locations, 7 supplies, 3 inquiries, 2 medical records");
+        System.out.println("Actual: " + db.getPersons().size() + " persons, " + db.getLocations().size() + " locations, "
+            + db.getSupplies().size() + " supplies, " + db.getInquiries().size() + " inquiries, "
+            + db.getMedicalRecords().size() + " medical records");
+        assertEquals(5, db.getPersons().size());
+        assertEquals(2, db.getLocations().size());
+        assertEquals(7, db.getSupplies().size());
+        assertEquals(3, db.getInquiries().size());
+        assertEquals(2, db.getMedicalRecords().size());
+        assertEquals(2, db.getLocations().get(2).getOccupants().size());
+        assertTrue(db.getSupplies().get(1) instanceof Water);
+    }
+
+    @Test
+    public void testInsertReturningGivesGeneratedId() throws SQLException {
+        System.out.println("\n=== Test: Insert Returning Gives Generated Id ===");
+        try (PreparedStatement ps = db.getConnection().prepareStatement(
+                "INSERT INTO Person (first_name, last_name) VALUES (?, ?) RETURNING person_id")) {
+            ps.setString(1, "Freda");
+            ps.setString(2, "Ng");
+            ResultSet rs = ps.executeQuery();
+            assertTrue(rs.next());
+            System.out.println("Expected: 6");
+            System.out.println("Actual: " + rs.getInt("person_id"));
+            assertEquals(6, rs.getInt("person_id"));
+        }
+    }
+
+    @Test
+    public void testExpiredWaterIsCleanedUp() throws SQLException {
+        System.out.println("\n=== Test: Expired Water Is Cleaned Up ===");
+        try (Statement stmt = db.getConnection().createStatement()) {
+            stmt.executeUpdate("INSERT INTO SupplyAllocation (supply_id, person_id, allocation_date) "
+                + "VALUES (6, 2, TIMESTAMP '2025-01-01 08:00:00')");
+        }
+        int removed = Water.cleanupExpiredWater(db);
+        System.out.println("Expected: 1 removed");
+        System.out.println("Actual: " + removed + " removed");
+        assertEquals(1, removed);
+    }
+
+    @Test
+    public void testReconnectSeesSameDatabase() throws SQLException {
+        System.out.println("\n=== Test: Reconnect Sees Same Database ===");
+        db.updateRecord("Location", 1, "name", "Telus Convention Centre");
+        try (Connection other = db.openConnection();
+             ResultSet rs = other.createStatement().executeQuery("SELECT name FROM Location WHERE location_id = 1")) {
+            assertTrue(rs.next());
+            assertEquals("Telus Convention Centre", rs.getString(1));
+        }
+        db.closeConnection();
+        Connection reopened = db.getConnection();
+        System.out.println("Expected: open connection, 5 persons after reloading");
+        System.out.println("Actual: closed " + reopened.isClosed() + ", " + db.getPersons().size() + " persons");
+        assertFalse(reopened.isClosed());
+        assertEquals(5, db.getPersons().size());
+        assertEquals("Telus Convention Centre", db.getLocations().get(1).getName());
+    }
+
+    @Test
+    public void testFileDatabaseKeepsDataBetweenRuns() throws SQLException, IOException {
+        System.out.println("\n=== Test: File Database Keeps Data Between Runs ===");
+        Path directory = Files.createTempDirectory("embedded");
+        try {
+            EmbeddedDatabaseConnection first = EmbeddedDatabaseConnection.open(directory.resolve("relief"), SCRIPT);
+            try (Statement stmt = first.getConnection().createStatement()) {
+                stmt.executeUpdate("INSERT INTO Location (name, address) VALUES ('Field kit', '1 Main St')");
+            }
+            first.closeConnection();
+            EmbeddedDatabaseConnection second = EmbeddedDatabaseConnection.open(directory.resolve("relief"), SCRIPT);
+            System.out.println("Expected: 3 locations, script not applied twice");
+            System.out.println("Actual: " + second.getLocations().size() + " locations, "
+                + second.getPersons().size() + " persons");
+            assertEquals(3, second.getLocations().size());
+            assertEquals(5, second.getPersons().size());
+            second.closeConnection();
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testTranslateRewritesPostgresConstructs() {
+        System.out.println("\n=== Test: Translate Rewrites Postgres Constructs ===");
+        String insert = EmbeddedDatabaseConnection.translate(
+            "INSERT INTO Person (first_name) VALUES (?) RETURNING person_id");
+        String delete = EmbeddedDatabaseConnection.translate(
+            "DELETE FROM SupplyAllocation WHERE allocation_date < CURRENT_TIMESTAMP - INTERVAL '2 days'");
+        System.out.println("Expected: SELECT person_id FROM FINAL TABLE (INSERT ...), INTERVAL '2' day");
+        System.out.println("Actual: " + insert + "; " + delete);
+        assertEquals("SELECT person_id FROM FINAL TABLE (INSERT INTO Person (first_name) VALUES (?))", insert);
+        assertEquals("DELETE FROM SupplyAllocation WHERE allocation_date < CURRENT_TIMESTAMP - INTERVAL '2' day", delete);
+        assertEquals("SELECT * FROM Person", EmbeddedDatabaseConnection.translate("SELECT * FROM Person"));
+    }
+}
@@ -0,0 +1,125 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+public class ErrorLoggerTest {
+
+    private Path directory;
+    private Path file;
+    private ErrorLogger logger;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("errorlog");
+        file = directory.resolve("errorlog.txt");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (logger != null) logger.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testEntryIsWrittenWithStructuredFields() throws IOException {
+        System.out.println("\n=== Test: Entry Is Written With Structured Fields ===");
+        logger = new ErrorLogger(file, 16, 1 << 20, 2);
+        logger.error("DatabaseConnection", "Failed to load \"data\"", new SQLException("Connection refused"));
+        assertTrue(logger.flush(5000));
+        String text = read(file);
+        System.out.println("Expected: one line with level, source, message and error fields");
+        System.out.print("Actual: " + text);
+        assertTrue(text.startsWith("time="));
+        assertTrue(text.contains(" level=ERROR thread=main source=DatabaseConnection"));
+        assertTrue(text.contains(" message=\"Failed to load \\\"data\\\"\""));
+        assertTrue(text.contains(" error=\"java.sql.SQLException: Connection refused\"\n"));
+        assertTrue(text.contains("\tat edu.ucalgary.oop.ErrorLoggerTest.testEntryIsWrittenWithStructuredFields"));
+    }
+
+    @Test
+    public void testConcurrentEntriesAreAllWrittenOrCounted() throws Exception {
+        System.out.println("\n=== Test: Concurrent Entries Are All Written Or Counted ===");
+        logger = new ErrorLogger(file, 64, 1 << 20, 2);
+        int threads = 8;
+        int perThread = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    logger.log("WARN", "Test", "entry " + i, null);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+        assertTrue(logger.flush(5000));
+        long lines = read(file).split("\n").length;
+        System.out.println("Expected written + dropped: " + threads * perThread);
+        System.out.println("Actual: " + lines + " + " + logger.getDropped());
+        assertEquals(threads * perThread, lines + logger.getDropped());
+    }
+
+    @Test
+    public void testFileIsRotatedPastSizeLimit() throws IOException {
+        System.out.println("\n=== Test: File Is Rotated Past Size Limit ===");
+        logger = new ErrorLogger(file, 16, 200, 2);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 3; i++) {
+                logger.error("Test", "round " + round + " entry " + i, null);
+            }
+            assertTrue(logger.flush(5000));
+        }
+        System.out.println("Expected: errorlog.txt.1 and .2 kept, .3 removed");
+        System.out.println("Actual: .1=" + Files.exists(directory.resolve("errorlog.txt.1"))
+            + " .2=" + Files.exists(directory.resolve("errorlog.txt.2"))
+            + " .3=" + Files.exists(directory.resolve("errorlog.txt.3")));
+        assertTrue(read(directory.resolve("errorlog.txt.1")).contains("round 3"));
+        assertTrue(read(directory.resolve("errorlog.txt.2")).contains("round 2"));
+        assertFalse(Files.exists(directory.resolve("errorlog.txt.3")));
+    }
+
+    @Test
+    public void testJavaUtilLoggingRecordsAreRouted() throws IOException {
+        System.out.println("\n=== Test: Java Util Logging Records Are Routed ===");
+        logger = new ErrorLogger(file, 16, 1 << 20, 2);
+        Logger jul = Logger.getLogger("edu.ucalgary.oop.ErrorLoggerTest.Routed");
+        jul.setUseParentHandlers(false);
+        jul.addHandler(logger.asHandler());
+        jul.log(Level.INFO, "{0} expired water supplies removed", 4);
+        jul.log(Level.SEVERE, "Failed to cleanup expired water", new SQLException("timeout"));
+        assertTrue(logger.flush(5000));
+        String text = read(file);
+        System.out.println("Expected: an INFO and an ERROR entry from source Routed");
+        System.out.print("Actual: " + text);
+        assertTrue(text.contains("level=INFO thread=main source=Routed message=\"4 expired water supplies removed\""));
+        assertTrue(text.contains("level=ERROR thread=main source=Routed message=\"Failed to cleanup expired water\""
+            + " error=\"java.sql.SQLException: timeout\""));
+    }
+}
@@ -0,0 +1,262 @@
+package edu.ucalgary.oop;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class FaultInjectorTest {
+
+    private List<String> executed;
+    private int opened;
+
+    /**
+     * Opens a connection whose statements succeed and record what they executed:
+     * one line per statement, or per batch entry with its first parameter.
+     */
+    private Connection openFake() {
+        opened++;
+        boolean[] closed = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        closed[0] = true;
+                        return null;
+                    case "isClosed":
+                        return closed[0];
+                    case "getAutoCommit":
+                        return true;
+                    case "prepareStatement":
+                        return prepareFake((String) args[0]);
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    private PreparedStatement prepareFake(String sql) {
+        Object[] parameter = new Object[1];
+        List<Object> batch = new ArrayList<>();
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {PreparedStatement.class}, (ps, method, args) -> {
+                switch (method.getName()) {
+                    case "setInt":
+                        parameter[0] = args[1];
+                        return null;
+                    case "addBatch":
+                        batch.add(parameter[0]);
+                        return null;
+                    case "clearBatch":
+                        batch.clear();
+                        return null;
+                    case "executeBatch":
+                        int[] counts = new int[batch.size()];
+                        for (int i = 0; i < counts.length; i++) {
+                            executed.add(sql + " " + batch.get(i));
+                            counts[i] = 1;
+                        }
+                        batch.clear();
+                        return counts;
+                    case "executeUpdate":
+                        executed.add(sql);
+                        return 1;
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    @Before
+    public void setUp() {
+        executed = new ArrayList<>();
+        opened = 0;
+    }
+
+    @Test
+    public void testDelayAppliesOnlyToMatchingStatements() throws SQLException {
+        System.out.println("\n=== Test: Delay Applies Only To Matching Statements ===");
+        FaultInjector injector = new FaultInjector(1);
+        injector.on("sql.insert").delay(FaultInjector.Delay.fixed(Duration.ofMillis(40)));
+        Connection connection = injector.wrap(openFake());
+        long start = System.nanoTime();
+        connection.prepareStatement("UPDATE Supply SET comments = ?").executeUpdate();
+        long update = System.nanoTime() - start;
+        start = System.nanoTime();
+        connection.prepareStatement("INSERT INTO Supply (type) VALUES (?)").executeUpdate();
+        long insert = System.nanoTime() - start;
+        System.out.println("Expected: update not delayed, insert delayed 40 ms");
+        System.out.println("Actual: update " + update / 1_000_000 + " ms, insert " + insert / 1_000_000 + " ms");
+        assertTrue(update < 30_000_000);
+        assertTrue(insert >= 40_000_000);
+        assertEquals(1, injector.getCount(FaultInjector.Fault.DELAY));
+        assertEquals(2, executed.size());
+    }
+
+    @Test
+    public void testDistributionsAreSeeded() {
+        System.out.println("\n=== Test: Distributions Are Seeded ===");
+        FaultInjector.Delay delay = FaultInjector.Delay.logNormal(Duration.ofMillis(20), 0.5)
+            .withSpikes(0.1, Duration.ofSeconds(1));
+        SplittableRandom first = new SplittableRandom(9);
+        SplittableRandom second = new SplittableRandom(9);
+        long sum = 0;
+        int spikes = 0;
+        for (int i = 0; i < 1000; i++) {
+            long nanos = delay.nextNanos(first);
+            assertEquals(nanos, delay.nextNanos(second));
+            if (nanos >= 1_000_000_000) spikes++;
+            else sum += nanos;
+        }
+        long mean = sum / (1000 - spikes);
+        System.out.println("Expected: ~100 spikes, mean outside spikes ~22 ms");
+        System.out.println("Actual: " + spikes + " spikes, mean " + mean / 1_000_000 + " ms");
+        assertTrue(spikes > 60 && spikes < 140);
+        assertTrue(mean > 18_000_000 && mean < 27_000_000);
+    }
+
+    @Test
+    public void testTimeoutWaitsThenFails() throws SQLException {
+        System.out.println("\n=== Test: Timeout Waits Then Fails ===");
+        FaultInjector injector = new FaultInjector(1);
+        injector.on("sql.").timeout(1.0, Duration.ofMillis(30));
+        Connection connection = injector.wrap(openFake());
+        long start = System.nanoTime();
+        try {
+            connection.prepareStatement("DELETE FROM Supply").executeUpdate();
+            fail("Expected a timeout");
+        } catch (SQLTimeoutException e) {
+            long waited = System.nanoTime() - start;
+            System.out.println("Expected: SQLTimeoutException 57014 after 30 ms");
+            System.out.println("Actual: " + e.getSQLState() + " after " + waited / 1_000_000 + " ms");
+            assertEquals(FaultInjector.STATE_TIMEOUT, e.getSQLState());
+            assertTrue(waited >= 30_000_000);
+        }
+        assertTrue(executed.isEmpty());
+    }
+
+    @Test
+    public void testDroppedConnectionIsDiscardedByPool() throws SQLException {
+        System.out.println("\n=== Test: Dropped Connection Is Discarded By Pool ===");
+        FaultInjector injector = new FaultInjector(1);
+        FaultInjector.Rule rule = injector.on("sql.").drop(1.0);
+        try (ConnectionPool pool = new ConnectionPool(() -> injector.wrap(openFake()), 1)) {
+            Connection connection = pool.borrow();
+            try {
+                connection.prepareStatement("DELETE FROM Supply").executeUpdate();
+                fail("Expected a dropped connection");
+            } catch (SQLNonTransientConnectionException e) {
+                assertEquals(FaultInjector.STATE_CONNECTION_FAILURE, e.getSQLState());
+            }
+            assertTrue(connection.isClosed());
+            try {
+                connection.prepareStatement("DELETE FROM Supply");
+                fail("Expected the dropped connection to refuse statements");
+            } catch (SQLNonTransientConnectionException e) {
+                assertEquals(FaultInjector.STATE_NO_CONNECTION, e.getSQLState());
+            }
+            pool.release(connection);
+            rule.drop(0);
+            Connection fresh = pool.borrow();
+            fresh.prepareStatement("DELETE FROM Supply").executeUpdate();
+            System.out.println("Expected: second borrow opens a new connection that works");
+            System.out.println("Actual: opened " + opened + ", executed " + executed);
+            assertNotSame(connection, fresh);
+            assertEquals(2, opened);
+            assertEquals(1, executed.size());
+            pool.release(fresh);
+        }
+    }
+
+    @Test
+    public void testPartialBatchFailureExecutesLeadingEntries() throws SQLException {
+        System.out.println("\n=== Test: Partial Batch Failure Executes Leading Entries ===");
+        FaultInjector injector = new FaultInjector(4);
+        injector.on("sql.insert.supplyallocation").failBatch(1.0);
+        Connection connection = injector.wrap(openFake());
+        PreparedStatement ps = connection.prepareStatement("INSERT INTO SupplyAllocation (supply_id) VALUES (?)");
+        for (int i = 1; i <= 10; i++) {
+            ps.setInt(1, i);
+            ps.addBatch();
+        }
+        try {
+            ps.executeBatch();
+            fail("Expected a batch failure");
+        } catch (BatchUpdateException e) {
+            int done = e.getUpdateCounts().length;
+            System.out.println("Expected: the first k of 10 entries executed, k < 10");
+            System.out.println("Actual: " + done + " executed: " + executed);
+            assertTrue(done < 10);
+            assertEquals(done, executed.size());
+            for (int i = 0; i < done; i++) assertTrue(executed.get(i).endsWith(" " + (i + 1)));
+        }
+        assertEquals(1, injector.getCount(FaultInjector.Fault.BATCH_FAILURE));
+
+        injector.clear();
+        executed.clear();
+        ps.setInt(1, 11);
+        ps.addBatch();
+        assertEquals(1, ps.executeBatch().length);
+        assertEquals(1, executed.size());
+    }
+
+    @Test
+    public void testOutageFailsEveryCallWhileDown() {
+        System.out.println("\n=== Test: Outage Fails Every Call While Down ===");
+        FaultInjector injector = new FaultInjector(1);
+        injector.on("").flap(Duration.ZERO, Duration.ofHours(1));
+        MockDatabaseConnection connector = injector.wrap(MockDatabaseConnectionImpl.getInstance(),
+            MockDatabaseConnection.class);
+        int failures = 0;
+        for (int i = 0; i < 3; i++) {
+            try {
+                connector.getConnection();
+            } catch (SQLException e) {
+                assertTrue(e instanceof SQLNonTransientConnectionException);
+                failures++;
+            }
+        }
+        System.out.println("Expected: 3 failures during the outage");
+        System.out.println("Actual: " + failures + " failures");
+        assertEquals(3, failures);
+        assertEquals(3, injector.getCount(FaultInjector.Fault.OUTAGE));
+    }
+
+    @Test
+    public void testWrappedMockConnectorFailsOnlyMatchingCalls() {
+        System.out.println("\n=== Test: Wrapped Mock Connector Fails Only Matching Calls ===");
+        FaultInjector injector = new FaultInjector(1);
+        injector.on("connector.getConnection").fail(1.0);
+        injector.on("connector.loadData").fail(1.0);
+        MockDatabaseConnection mock = injector.wrap(MockDatabaseConnectionImpl.getInstance(),
+            MockDatabaseConnection.class);
+        try {
+            mock.getConnection();
+            fail("Expected an injected SQLException");
+        } catch (SQLException e) {
+            assertEquals(FaultInjector.STATE_FAILURE, e.getSQLState());
+        }
+        try {
+            mock.loadData();
+            fail("Expected an injected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+        System.out.println("Expected: 3 persons, 2 failures");
+        System.out.println("Actual: " + mock.getPersons().size() + " persons, "
+            + injector.getCount(FaultInjector.Fault.FAILURE) + " failures");
+        assertEquals(3, mock.getPersons().size());
+        assertEquals(2, injector.getCount(FaultInjector.Fault.FAILURE));
+    }
+}
@@ -0,0 +1,96 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FileChangeLogTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("changes", ".log");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static Map<String, Object> person(String firstName) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("first_name", firstName);
+        values.put("date_of_birth", Date.valueOf("1990-05-01"));
+        values.put("family_group", null);
+        values.put("version", 0);
+        return values;
+    }
+
+    @Test
+    public void testEventsReplayAfterReopen() throws IOException {
+        System.out.println("\n=== Test: Events Replay After Reopen ===");
+        Map<String, Object> allocation = new LinkedHashMap<>();
+        allocation.put("supply_id", 4);
+        allocation.put("allocation_date", Timestamp.valueOf("2025-04-10 12:00:00.123456789"));
+        try (FileChangeLog log = new FileChangeLog(file)) {
+            log.append(Table.PERSON, 6, ChangeEvent.Operation.INSERT, person("Freda"));
+            log.append(Table.PERSON_LOCATION, ChangeEvent.stayKey(6, 2),
+                ChangeEvent.Operation.INSERT, new LinkedHashMap<>());
+            log.append(Table.SUPPLY_ALLOCATION, 4, ChangeEvent.Operation.INSERT, allocation);
+        }
+        List<ChangeEvent> events = new ArrayList<>();
+        long last;
+        long sequence;
+        try (FileChangeLog log = new FileChangeLog(file)) {
+            sequence = log.getLastSequence();
+            last = log.replay(1, events::add);
+        }
+        System.out.println("Expected: 3 events kept, events 2 and 3 replayed after 1");
+        System.out.println("Actual: " + sequence + " events kept, replayed " + events);
+        assertEquals(3, sequence);
+        assertEquals(3, last);
+        assertEquals(2, events.size());
+        assertEquals(2, events.get(0).getSequence());
+        assertEquals(ChangeEvent.stayKey(6, 2), events.get(0).getKey());
+        assertEquals(Table.SUPPLY_ALLOCATION, events.get(1).getTable());
+        assertEquals(allocation, events.get(1).getValues());
+    }
+
+    @Test
+    public void testTornTailIsDiscarded() throws IOException {
+        System.out.println("\n=== Test: Torn Tail Is Discarded ===");
+        try (FileChangeLog log = new FileChangeLog(file)) {
+            log.append(Table.PERSON, 6, ChangeEvent.Operation.INSERT, person("Freda"));
+            log.append(Table.PERSON, 7, ChangeEvent.Operation.INSERT, person("Raman"));
+        }
+        long intact = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 5, 6}, StandardOpenOption.APPEND);
+        List<ChangeEvent> events = new ArrayList<>();
+        try (FileChangeLog log = new FileChangeLog(file)) {
+            assertEquals(intact, Files.size(file));
+            ChangeEvent next = log.append(Table.PERSON, 8, ChangeEvent.Operation.DELETE,
+                new LinkedHashMap<>());
+            log.replay(0, events::add);
+            System.out.println("Expected: torn write dropped, next event numbered 3, 3 events replayed");
+            System.out.println("Actual: next event numbered " + next.getSequence() + ", " + events.size()
+                + " events replayed");
+            assertEquals(3, next.getSequence());
+        }
+        assertEquals(3, events.size());
+        assertEquals("Raman", events.get(1).getValues().get("first_name"));
+        assertEquals(ChangeEvent.Operation.DELETE, events.get(2).getOperation());
+    }
+}
@@ -0,0 +1,106 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecorderEventsTest {
+
+    private Recording recording;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("relief", ".jfr");
+        recording = new Recording();
+        recording.enable("edu.ucalgary.oop.SqlExecution");
+        recording.enable("edu.ucalgary.oop.Allocation");
+        recording.enable("edu.ucalgary.oop.LanguageLoad");
+        recording.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        recording.close();
+        Files.deleteIfExists(file);
+    }
+
+    private List<RecordedEvent> stop(String eventName) throws IOException {
+        recording.stop();
+        recording.dump(file);
+        List<RecordedEvent> events = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getEventType().getName().equals(eventName)) events.add(event);
+        }
+        return events;
+    }
+
+    private static PreparedStatement statementWritingRows(int rows) {
+        return (PreparedStatement) Proxy.newProxyInstance(FlightRecorderEventsTest.class.getClassLoader(),
+            new Class<?>[] {PreparedStatement.class},
+            (proxy, method, args) -> method.getName().equals("executeUpdate") ? rows : null);
+    }
+
+    @Test
+    public void testSqlExecutionRecordsIdAndRowCount() throws Exception {
+        System.out.println("\n=== Test: SQL Execution Records Id And Row Count ===");
+        String sql = "DELETE FROM SupplyAllocation WHERE person_id IS NOT NULL";
+        SqlExecutionEvent.executeUpdate("water.cleanup_expired", sql, statementWritingRows(3));
+        List<RecordedEvent> events = stop("edu.ucalgary.oop.SqlExecution");
+        System.out.println("Expected: one event, water.cleanup_expired, 3 rows");
+        System.out.println("Actual: " + events);
+        assertEquals(1, events.size());
+        assertEquals("water.cleanup_expired", events.get(0).getString("sqlId"));
+        assertEquals(sql, events.get(0).getString("sql"));
+        assertEquals(3, events.get(0).getLong("rowCount"));
+        assertNotNull(events.get(0).getStackTrace());
+    }
+
+    @Test
+    public void testRejectedAllocationRecordsReason() throws IOException {
+        System.out.println("\n=== Test: Rejected Allocation Records Reason ===");
+        Supply cot = new Cot("Folding cot");
+        try {
+            cot.allocateSupplyToLocation(1, 99, MockDatabaseConnectionImpl.getInstance());
+            fail("Expected an invalid location");
+        } catch (SQLException e) {
+            // recorded below
+        }
+        List<RecordedEvent> events = stop("edu.ucalgary.oop.Allocation");
+        System.out.println("Expected: one rejected allocation of supply 1 to location 99");
+        System.out.println("Actual: " + events);
+        assertEquals(1, events.size());
+        assertEquals("rejected", events.get(0).getString("decision"));
+        assertEquals("Invalid location ID: 99", events.get(0).getString("reason"));
+        assertEquals(1, events.get(0).getInt("supplyId"));
+        assertEquals(99, events.get(0).getInt("locationId"));
+    }
+
+    @Test
+    public void testLanguageLoadRecordsKeyCount() throws IOException {
+        System.out.println("\n=== Test: Language Load Records Key Count ===");
+        LanguageSupport languageSupport = new LanguageSupport("fr-CA");
+        List<RecordedEvent> events = stop("edu.ucalgary.oop.LanguageLoad");
+        System.out.println("Expected: one fr-CA load with every key");
+        System.out.println("Actual: " + events);
+        assertEquals(1, events.size());
+        assertEquals("fr-CA", events.get(0).getString("languageCode"));
+        assertFalse(events.get(0).getBoolean("fallback"));
+        assertTrue(events.get(0).getInt("keyCount") > 100);
+        assertNotEquals("Missing translation for key: batch_error", languageSupport.getText("batch_error"));
+    }
+}
@@ -0,0 +1,108 @@
+package edu.ucalgary.oop;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+public class InMemoryStorageTest {
+
+    @Test
+    public void testPersonsStartFromLoadedData() throws SQLException {
+        System.out.println("\n=== Test: Persons Start From Loaded Data ===");
+        Storage storage = new InMemoryStorage(MockDatabaseConnectionImpl.getInstance());
+        DisasterVictim copy = new DisasterVictim("John", "Doe", "555-0000", "Unknown");
+        copy.setId(1);
+        copy.setGender("Male");
+        boolean first = storage.persons().update(copy, 0);
+        boolean stale = storage.persons().update(copy, 0);
+        String[] values = new String[PersonRepository.ROW_FIELDS.length];
+        int version = storage.persons().read(1, values);
+        int id = storage.persons().insert(new DisasterVictim("Freda", "Ng", "555-0101", "Flood"), 5, null);
+        storage.persons().addToLocation(id, 1);
+        System.out.println("Expected: version 1 with the new phone, new person 4, next family group 6");
+        System.out.println("Actual: version " + version + " with " + values[2] + ", new person " + id
+            + ", next family group " + storage.persons().nextFamilyGroupId());
+        assertTrue(first);
+        assertFalse(stale);
+        assertEquals(1, version);
+        assertEquals("555-0000", values[2]);
+        assertEquals(4, id);
+        assertEquals(6, storage.persons().nextFamilyGroupId());
+        assertEquals("555-1234", MockDatabaseConnectionImpl.getInstance().getPersons().get(1).getPhoneNumber());
+        try {
+            storage.persons().addToLocation(id, 99);
+            fail("Expected an unknown location to be refused");
+        } catch (SQLException e) {
+            assertEquals("Invalid location ID: 99", e.getMessage());
+        }
+        try {
+            storage.persons().read(99, values);
+            fail("Expected an unknown person to be refused");
+        } catch (SQLException e) {
+            assertEquals("Person not found with ID: 99", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSuppliesTrackLocationsAndExpiry() throws SQLException {
+        System.out.println("\n=== Test: Supplies Track Locations And Expiry ===");
+        MockDatabaseConnectionImpl mock = MockDatabaseConnectionImpl.generated(
+            new SyntheticDataGenerator(1, 500).setReferenceTime(LocalDateTime.of(2025, 4, 10, 12, 0)));
+        long water = mock.getPersons().values().stream()
+            .flatMap(p -> p.getAllocatedSupplies().stream()).filter(s -> s instanceof Water).count();
+        Storage storage = new InMemoryStorage(mock);
+        int removed = storage.supplies().removeExpiredWater();
+        int again = storage.supplies().removeExpiredWater();
+
+        Storage small = new InMemoryStorage(MockDatabaseConnectionImpl.getInstance());
+        boolean cotWithJohn = small.supplies().isAtPersonLocation(1, 1);
+        boolean waterWithJohn = small.supplies().isAtPersonLocation(3, 1);
+        small.supplies().allocateToLocation(3, 1);
+        System.out.println("Expected: " + water + " expired water allocations removed once; cot with John, water after allocation");
+        System.out.println("Actual: " + removed + " then " + again + "; " + cotWithJohn + ", " + waterWithJohn
+            + " then " + small.supplies().isAtPersonLocation(3, 1));
+        assertTrue(water > 0);
+        assertEquals(water, removed);
+        assertEquals(0, again);
+        assertTrue(cotWithJohn);
+        assertFalse(waterWithJohn);
+        assertTrue(small.supplies().isAtPersonLocation(3, 1));
+        assertEquals(1, MockDatabaseConnectionImpl.getInstance().getLocations().get(2).getSupplies().size());
+    }
+
+    @Test
+    public void testSelectedEngineKeepsChangesOutOfDatabase() throws SQLException, IOException {
+        System.out.println("\n=== Test: Selected Engine Keeps Changes Out Of Database ===");
+        EmbeddedDatabaseConnection db = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        try {
+            db.setStorage(Storage.create("memory", db));
+            int id = new DisasterVictim("Freda", "Ng", "403-555-0101", "Flood").saveNew(db, "Woman", 1, 0, null);
+            int rows;
+            try (Statement stmt = db.getConnection().createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM Person")) {
+                rs.next();
+                rows = rs.getInt(1);
+            }
+            System.out.println("Expected: memory engine, person 6 saved, 5 rows in the database");
+            System.out.println("Actual: " + db.getStorage().getName() + " engine, person " + id + " saved, "
+                + rows + " rows in the database");
+            assertEquals(InMemoryStorage.NAME, db.getStorage().getName());
+            assertEquals(6, id);
+            assertEquals(5, rows);
+        } finally {
+            db.closeConnection();
+        }
+        try {
+            Storage.create("tape", MockDatabaseConnectionImpl.getInstance());
+            fail("Expected an unknown engine to be refused");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown storage engine: tape", e.getMessage());
+        }
+    }
+}
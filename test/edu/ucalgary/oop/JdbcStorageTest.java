@@ -0,0 +1,115 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class JdbcStorageTest {
+
+    private EmbeddedDatabaseConnection db;
+    private Storage storage;
+
+    @Before
+    public void setUp() throws SQLException, IOException {
+        db = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        storage = db.getStorage();
+    }
+
+    @After
+    public void tearDown() {
+        db.closeConnection();
+    }
+
+    private String queryOne(String sql) throws SQLException {
+        try (Statement stmt = db.getConnection().createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    @Test
+    public void testSavedVictimIsWrittenWithLocationAndComments() throws SQLException {
+        System.out.println("\n=== Test: Saved Victim Is Written With Location And Comments ===");
+        DisasterVictim victim = new DisasterVictim("Freda", "Ng", "403-555-0101", "Flood");
+        victim.setDateOfBirth("1990-05-01");
+        int id = victim.saveNew(db, "Woman", 2, 1, "Needs insulin");
+        String[] values = new String[PersonRepository.ROW_FIELDS.length];
+        int version = storage.persons().read(id, values);
+        System.out.println("Expected: ID 6 at location 2, comments saved, version 0");
+        System.out.println("Actual: ID " + id + " at location " + queryOne("SELECT location_id FROM PersonLocation "
+            + "WHERE person_id = 6") + ", comments " + queryOne("SELECT comments FROM Person WHERE person_id = 6")
+            + ", version " + version);
+        assertEquals(6, id);
+        assertEquals("2", queryOne("SELECT location_id FROM PersonLocation WHERE person_id = 6"));
+        assertEquals("Needs insulin", queryOne("SELECT comments FROM Person WHERE person_id = 6"));
+        assertArrayEquals(new String[] {"Freda", "Ng", "403-555-0101", "Woman", "1990-05-01"}, values);
+        assertEquals(0, version);
+    }
+
+    @Test
+    public void testUpdateChecksVersion() throws SQLException {
+        System.out.println("\n=== Test: Update Checks Version ===");
+        Person person = db.getPersons().get(2);
+        person.setPhoneNumber("403-555-0199");
+        boolean first = storage.persons().update(person, 0);
+        boolean stale = storage.persons().update(person, 0);
+        String[] values = new String[PersonRepository.ROW_FIELDS.length];
+        int version = storage.persons().read(2, values);
+        System.out.println("Expected: first write succeeds, stale write refused, version 1");
+        System.out.println("Actual: first " + first + ", stale " + stale + ", version " + version);
+        assertTrue(first);
+        assertFalse(stale);
+        assertEquals(1, version);
+        assertEquals("403-555-0199", values[2]);
+    }
+
+    @Test
+    public void testSupplyAllocationsAndLocationMatch() throws SQLException {
+        System.out.println("\n=== Test: Supply Allocations And Location Match ===");
+        boolean atShelter = storage.supplies().isAtPersonLocation(5, 1);
+        boolean elsewhere = storage.supplies().isAtPersonLocation(7, 1);
+        storage.supplies().allocateToLocation(2, 2);
+        boolean moved = storage.supplies().isAtPersonLocation(2, 2);
+        System.out.println("Expected: supply 5 at person 1's location, 7 not, 2 after allocation");
+        System.out.println("Actual: " + atShelter + ", " + elsewhere + ", " + moved);
+        assertTrue(atShelter);
+        assertFalse(elsewhere);
+        assertTrue(moved);
+        assertEquals(3, storage.persons().nextFamilyGroupId());
+    }
+
+    @Test
+    public void testLocationMatchSeesOtherConnectionsWrites() throws SQLException {
+        System.out.println("\n=== Test: Location Match Sees Other Connections' Writes ===");
+        boolean before = storage.supplies().isAtPersonLocation(7, 1);
+        try (Connection other = db.openConnection(); Statement stmt = other.createStatement()) {
+            stmt.executeUpdate("INSERT INTO SupplyAllocation (supply_id, location_id, allocation_date) "
+                + "VALUES (7, 1, CURRENT_TIMESTAMP + INTERVAL '1' SECOND)");
+        }
+        boolean after = storage.supplies().isAtPersonLocation(7, 1);
+        System.out.println("Expected: supply 7 not at person 1's location, then there once another desk moves it");
+        System.out.println("Actual: " + before + ", " + after);
+        assertFalse(before);
+        assertTrue(after);
+    }
+
+    @Test
+    public void testInquiryIsSavedAndUpdated() throws SQLException {
+        System.out.println("\n=== Test: Inquiry Is Saved And Updated ===");
+        Inquiry inquiry = new Inquiry((Inquirer) db.getPersons().get(3), "Seeking neighbour");
+        inquiry.setSeekingId(2);
+        int id = storage.inquiries().insert(inquiry, 2);
+        storage.inquiries().updateComments(id, "Found at the university");
+        System.out.println("Expected: inquiry 4 with updated comments");
+        System.out.println("Actual: inquiry " + id + ": " + queryOne("SELECT comments FROM Inquiry WHERE inquiry_id = 4"));
+        assertEquals(4, id);
+        assertEquals("Found at the university", queryOne("SELECT comments FROM Inquiry WHERE inquiry_id = 4"));
+    }
+}
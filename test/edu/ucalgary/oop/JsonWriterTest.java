@@ -0,0 +1,58 @@
+package edu.ucalgary.oop;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+public class JsonWriterTest {
+
+    @Test
+    public void testNestedStructuresGetSeparators() throws IOException {
+        System.out.println("\n=== Test: Nested Structures Get Separators ===");
+        StringWriter out = new StringWriter();
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject()
+            .member("id", 7)
+            .name("tags").beginArray().value("a").value(true).value((String) null).endArray()
+            .name("empty").beginObject().endObject()
+            .endObject();
+        json.flush();
+        String expected = "{\"id\":7,\"tags\":[\"a\",true,null],\"empty\":{}}";
+        System.out.println("Expected: " + expected);
+        System.out.println("Actual: " + out);
+        assertEquals(expected, out.toString());
+    }
+
+    @Test
+    public void testStringsAreEscaped() throws IOException {
+        System.out.println("\n=== Test: Strings Are Escaped ===");
+        StringWriter out = new StringWriter();
+        new JsonWriter(out).value("Say \"hi\"\\\n\tAurélie\u0001 ").flush();
+        String expected = "\"Say \\\"hi\\\"\\\\\\n\\tAurélie\\u0001\\u2028\"";
+        System.out.println("Expected: " + expected);
+        System.out.println("Actual: " + out);
+        assertEquals(expected, out.toString());
+    }
+
+    @Test
+    public void testDeepNestingGrowsTheStack() throws IOException {
+        System.out.println("\n=== Test: Deep Nesting Grows The Stack ===");
+        StringWriter out = new StringWriter();
+        JsonWriter json = new JsonWriter(out);
+        for (int i = 0; i < 40; i++) json.beginArray().value(i);
+        for (int i = 0; i < 40; i++) json.endArray();
+        json.flush();
+        System.out.println("Expected prefix: [0,[1,[2");
+        System.out.println("Actual prefix: " + out.toString().substring(0, 10));
+        assertTrue(out.toString().startsWith("[0,[1,[2,"));
+        assertTrue(out.toString().endsWith("]]]"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosingTooManyLevelsFails() throws IOException {
+        System.out.println("\n=== Test: Closing Too Many Levels Fails ===");
+        new JsonWriter(new StringWriter()).beginArray().endArray().endArray();
+    }
+}
@@ -0,0 +1,144 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public class LogDatabaseConnectionTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("logdb");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    private LogDatabaseConnection copyOfProjectData() throws SQLException, IOException {
+        EmbeddedDatabaseConnection source = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        LogStore store = LogStore.open(directory);
+        try {
+            LogDatabaseConnection.copy(source.getConnection(), store);
+        } finally {
+            source.closeConnection();
+        }
+        return new LogDatabaseConnection(store);
+    }
+
+    @Test
+    public void testCopiedDatabaseLoadsLikeTheOriginal() throws SQLException, IOException {
+        System.out.println("\n=== Test: Copied Database Loads Like The Original ===");
+        EmbeddedDatabaseConnection original = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        LogDatabaseConnection copy = copyOfProjectData();
+        try {
+            System.out.println("Expected: " + original.getPersons().size() + " persons, "
+                + original.getLocations().size() + " locations, " + original.getSupplies().size() + " supplies, "
+                + original.getInquiries().size() + " inquiries");
+            System.out.println("Actual: " + copy.getPersons().size() + " persons, " + copy.getLocations().size()
+                + " locations, " + copy.getSupplies().size() + " supplies, " + copy.getInquiries().size()
+                + " inquiries");
+            assertEquals(original.getPersons().size(), copy.getPersons().size());
+            assertEquals(original.getLocations().size(), copy.getLocations().size());
+            assertEquals(original.getSupplies().size(), copy.getSupplies().size());
+            assertEquals(original.getInquiries().size(), copy.getInquiries().size());
+            assertEquals(original.getMedicalRecords().size(), copy.getMedicalRecords().size());
+            assertEquals(original.getFamilyGroups().keySet(), copy.getFamilyGroups().keySet());
+            for (Person person : original.getPersons().values()) {
+                Person copied = copy.getPersons().get(person.getId());
+                assertEquals(person.getClass(), copied.getClass());
+                assertEquals(person.getFullName(), copied.getFullName());
+                assertEquals(person.getDateOfBirth(), copied.getDateOfBirth());
+            }
+            assertEquals(LogStorage.NAME, copy.getStorage().getName());
+        } finally {
+            original.closeConnection();
+            copy.closeConnection();
+        }
+    }
+
+    @Test
+    public void testChangesSurviveReopen() throws SQLException, IOException {
+        System.out.println("\n=== Test: Changes Survive Reopen ===");
+        LogDatabaseConnection db = copyOfProjectData();
+        DisasterVictim victim = new DisasterVictim("Freda", "Ng", "403-555-0101", "Flood");
+        victim.setDateOfBirth("1990-05-01");
+        int id = victim.saveNew(db, "Woman", 2, 0, "Needs insulin");
+        Person raman = db.getPersons().get(2);
+        raman.setPhoneNumber("403-555-0199");
+        boolean updated = db.getStorage().persons().update(raman, raman.getVersion());
+        db.getStorage().supplies().allocateToLocation(2, 2);
+        db.closeConnection();
+
+        LogDatabaseConnection reopened = LogDatabaseConnection.open(directory);
+        try {
+            Person freda = reopened.getPersons().get(id);
+            System.out.println("Expected: Freda saved as 6 at location 2, Raman at version 1 with the new phone");
+            System.out.println("Actual: " + freda.getFullName() + " saved as " + id + ", Raman at version "
+                + reopened.getPersons().get(2).getVersion() + " with " + reopened.getPersons().get(2).getPhoneNumber());
+            assertEquals(6, id);
+            assertTrue(updated);
+            assertEquals("1990-05-01", freda.getDateOfBirth());
+            assertEquals(1, reopened.getPersons().get(2).getVersion());
+            assertEquals("403-555-0199", reopened.getPersons().get(2).getPhoneNumber());
+            assertTrue(reopened.getStorage().supplies().isAtPersonLocation(2, id));
+            assertEquals(3, reopened.getStorage().persons().nextFamilyGroupId());
+            try {
+                reopened.getStorage().persons().addToLocation(id, 99);
+                fail("Expected an unknown location to be refused");
+            } catch (SQLException e) {
+                assertEquals("Invalid location ID: 99", e.getMessage());
+            }
+            try {
+                reopened.getConnection();
+                fail("Expected the log store to have no SQL connection");
+            } catch (SQLException e) {
+                assertEquals("The log store has no SQL connection", e.getMessage());
+            }
+        } finally {
+            reopened.closeConnection();
+        }
+    }
+
+    @Test
+    public void testGeneratedPopulationLoadsAndExpiresWater() throws SQLException, IOException {
+        System.out.println("\n=== Test: Generated Population Loads And Expires Water ===");
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(1, 2000)
+            .setReferenceTime(LocalDateTime.of(2025, 4, 10, 12, 0));
+        MockDatabaseConnectionImpl mock = MockDatabaseConnectionImpl.generated(generator);
+        LogStore store = LogStore.open(directory);
+        generator.generate(LogDatabaseConnection.sink(store));
+        long allocations = store.count(Table.SUPPLY_ALLOCATION);
+        LogDatabaseConnection db = new LogDatabaseConnection(store);
+        try {
+            long water = mock.getPersons().values().stream()
+                .flatMap(p -> p.getAllocatedSupplies().stream()).filter(s -> s instanceof Water).count();
+            System.out.println("Expected: " + mock.getPersons().size() + " persons, " + water
+                + " expired water allocations removed on load");
+            System.out.println("Actual: " + db.getPersons().size() + " persons, "
+                + (allocations - store.count(Table.SUPPLY_ALLOCATION)) + " removed");
+            assertEquals(mock.getPersons().size(), db.getPersons().size());
+            assertEquals(mock.getLocations().size(), db.getLocations().size());
+            assertEquals(mock.getInquiries().size(), db.getInquiries().size());
+            assertTrue(water > 0);
+            assertEquals(water, allocations - store.count(Table.SUPPLY_ALLOCATION));
+        } finally {
+            db.closeConnection();
+        }
+    }
+}
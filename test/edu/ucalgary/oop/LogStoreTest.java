@@ -0,0 +1,173 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.stream.Stream;
+
+public class LogStoreTest {
+
+    private static final Table PERSON = Table.PERSON;
+    private static final Table SUPPLY = Table.SUPPLY;
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("logstore");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    private static Object[] person(int id, String phone) {
+        return new Object[] {id, "Freda", "Ng", Date.valueOf("1990-05-01"), "Woman", null, phone, 2, 0};
+    }
+
+    @Test
+    public void testRowsSurviveReopen() throws IOException {
+        System.out.println("\n=== Test: Rows Survive Reopen ===");
+        LogStore store = new LogStore(directory, 4096, 0);
+        store.put(PERSON, 1, person(1, "403-555-0101"));
+        store.put(PERSON, 2, person(2, "403-555-0102"));
+        store.put(SUPPLY, 7, new Object[] {7, "water", null, 3L, Timestamp.valueOf("2025-04-10 12:30:00.5")});
+        store.put(PERSON, 1, person(1, "403-555-0199"));
+        boolean deleted = store.delete(PERSON, 2);
+        boolean again = store.delete(PERSON, 2);
+        store.close();
+
+        LogStore reopened = new LogStore(directory, 4096, 0);
+        Object[] freda = reopened.get(PERSON, 1);
+        Object[] water = reopened.get(SUPPLY, 7);
+        System.out.println("Expected: person 1 with the new phone, person 2 deleted, highest person key 2");
+        System.out.println("Actual: person 1 with " + freda[6] + ", person 2 " + reopened.get(PERSON, 2)
+            + ", highest person key " + reopened.maxKey(PERSON));
+        assertTrue(deleted);
+        assertFalse(again);
+        assertArrayEquals(person(1, "403-555-0199"), freda);
+        assertNull(reopened.get(PERSON, 2));
+        assertArrayEquals(new Object[] {7, "water", null, 3L, Timestamp.valueOf("2025-04-10 12:30:00.5")}, water);
+        assertEquals(1, reopened.count(PERSON));
+        assertEquals(2, reopened.maxKey(PERSON));
+        reopened.close();
+    }
+
+    @Test
+    public void testReplaysSegmentsWithoutIndexFile() throws IOException {
+        System.out.println("\n=== Test: Replays Segments Without Index File ===");
+        LogStore store = new LogStore(directory, 4096, 0);
+        for (int id = 1; id <= 300; id++) {
+            store.put(PERSON, id, person(id, "403-555-" + id));
+        }
+        int segments = store.getSegmentCount();
+        store.close();
+        Files.delete(directory.resolve("index"));
+
+        LogStore reopened = new LogStore(directory, 4096, 0);
+        System.out.println("Expected: 300 persons over several segments");
+        System.out.println("Actual: " + reopened.count(PERSON) + " persons over " + segments + " segments");
+        assertTrue(segments > 1);
+        assertEquals(300, reopened.count(PERSON));
+        assertEquals("403-555-300", reopened.get(PERSON, 300)[6]);
+        reopened.close();
+    }
+
+    @Test
+    public void testTornWriteIsDiscarded() throws IOException {
+        System.out.println("\n=== Test: Torn Write Is Discarded ===");
+        LogStore crashed = new LogStore(directory, 4096, 0);
+        crashed.put(PERSON, 1, person(1, "403-555-0101"));
+        crashed.put(PERSON, 2, person(2, "403-555-0102"));
+        crashed.put(PERSON, 3, person(3, "403-555-0103"));
+        // The process dies without closing: no index file, and the last record is half written
+        try (FileChannel segment = FileChannel.open(directory.resolve("00000001.seg"), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = ByteBuffer.allocate(4096);
+            segment.read(bytes, 0);
+            int last = 4095;
+            while (bytes.get(last) == 0) last--;
+            segment.write(ByteBuffer.wrap(new byte[] {(byte) ~bytes.get(last)}), last);
+        }
+
+        LogStore recovered = new LogStore(directory, 4096, 0);
+        int survivors = recovered.count(PERSON);
+        recovered.put(PERSON, 4, person(4, "403-555-0104"));
+        recovered.close();
+        LogStore reopened = new LogStore(directory, 4096, 0);
+        System.out.println("Expected: 2 persons after the crash, then person 4 written after them");
+        System.out.println("Actual: " + survivors + " persons, then " + reopened.count(PERSON) + " with person 3 "
+            + (reopened.contains(PERSON, 3) ? "present" : "absent"));
+        assertEquals(2, survivors);
+        assertEquals(3, reopened.count(PERSON));
+        assertFalse(reopened.contains(PERSON, 3));
+        assertEquals("403-555-0104", reopened.get(PERSON, 4)[6]);
+        reopened.close();
+    }
+
+    @Test
+    public void testCompactionDropsOverwrittenAndDeletedRows() throws IOException {
+        System.out.println("\n=== Test: Compaction Drops Overwritten And Deleted Rows ===");
+        LogStore store = new LogStore(directory, 4096, 0);
+        for (int round = 0; round < 40; round++) {
+            for (int id = 1; id <= 10; id++) {
+                store.put(PERSON, id, person(id, "round " + round));
+            }
+        }
+        store.delete(PERSON, 3);
+        int before = store.getSegmentCount();
+        boolean compacted = store.compact();
+        int after = store.getSegmentCount();
+        boolean again = store.compact();
+        store.put(PERSON, 11, person(11, "after"));
+        store.close();
+        Files.delete(directory.resolve("index"));
+
+        LogStore reopened = new LogStore(directory, 4096, 0);
+        System.out.println("Expected: " + before + " segments compacted to 2, 10 persons without person 3");
+        System.out.println("Actual: " + after + " segments, " + reopened.count(PERSON) + " persons, person 3 "
+            + (reopened.contains(PERSON, 3) ? "present" : "absent"));
+        assertTrue(before > 2);
+        assertTrue(compacted);
+        assertFalse(again);
+        assertEquals(2, after);
+        assertEquals(10, reopened.count(PERSON));
+        assertFalse(reopened.contains(PERSON, 3));
+        assertEquals("round 39", reopened.get(PERSON, 10)[6]);
+        assertEquals("after", reopened.get(PERSON, 11)[6]);
+        reopened.close();
+    }
+
+    @Test
+    public void testSustainsTensOfThousandsOfWritesPerSecond() throws IOException {
+        System.out.println("\n=== Test: Sustains Tens Of Thousands Of Writes Per Second ===");
+        LogStore store = LogStore.open(directory);
+        int writes = 100_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < writes; i++) {
+            store.put(PERSON, i % 20_000, person(i % 20_000, "403-555-" + i));
+        }
+        double perSecond = writes / ((System.nanoTime() - start) / 1e9);
+        store.close();
+        System.out.println("Expected: at least 20000 writes per second");
+        System.out.println("Actual: " + Math.round(perSecond) + " writes per second");
+        assertTrue(perSecond >= 20_000);
+        LogStore reopened = LogStore.open(directory);
+        assertEquals(20_000, reopened.count(PERSON));
+        reopened.close();
+    }
+}
@@ -0,0 +1,152 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class MetricsTest {
+
+    private Connection connection;
+
+    /**
+     * Builds a connection whose statements succeed, except those touching the table Broken.
+     */
+    @Before
+    public void setUp() {
+        Metrics.setEnabled(true);
+        Metrics.reset();
+        connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                if (!method.getName().equals("prepareStatement")) return null;
+                String sql = (String) args[0];
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PreparedStatement.class},
+                    (ps, psMethod, psArgs) -> {
+                        if (!psMethod.getName().equals("executeUpdate")) return null;
+                        if (sql.contains("Broken")) throw new SQLException("relation does not exist");
+                        return 1;
+                    });
+            });
+    }
+
+    @After
+    public void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void testHistogramPercentilesAreWithinBucketError() {
+        System.out.println("\n=== Test: Histogram Percentiles Are Within Bucket Error ===");
+        Metrics.Histogram histogram = Metrics.histogram("test.latency");
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1000);
+        }
+        System.out.println("Expected p50 ~5000000 ns, p99 ~9900000 ns");
+        System.out.println("Actual p50 " + histogram.getPercentile(50) + " ns, p99 " + histogram.getPercentile(99) + " ns");
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5_000_500, histogram.getMean());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_000, histogram.getPercentile(50), 5_000_000 * 0.07);
+        assertEquals(9_900_000, histogram.getPercentile(99), 9_900_000 * 0.07);
+        assertEquals(10_000_000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testDisabledMetricsRecordNothing() {
+        System.out.println("\n=== Test: Disabled Metrics Record Nothing ===");
+        Metrics.setEnabled(false);
+        Metrics.Histogram histogram = Metrics.histogram("test.latency");
+        Metrics.Counter counter = Metrics.counter("test.events");
+        long start = histogram.start();
+        histogram.stop(start);
+        histogram.record(1000);
+        counter.increment();
+        System.out.println("Expected: start 0, nothing recorded, connection unwrapped");
+        System.out.println("Actual: start " + start + ", " + histogram.getCount() + " values, " + counter.get() + " events");
+        assertEquals(0, start);
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, counter.get());
+        assertSame(connection, Metrics.instrument(connection));
+    }
+
+    @Test
+    public void testInstrumentedStatementsAreTimedByTable() throws SQLException {
+        System.out.println("\n=== Test: Instrumented Statements Are Timed By Table ===");
+        Connection instrumented = Metrics.instrument(connection);
+        try (PreparedStatement ps = instrumented.prepareStatement(
+                "INSERT INTO SupplyAllocation (supply_id, person_id) VALUES (?, ?)")) {
+            ps.setInt(1, 1);
+            ps.executeUpdate();
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = instrumented.prepareStatement("DELETE FROM Broken")) {
+            ps.executeUpdate();
+            fail("Expected the statement to fail");
+        } catch (SQLException e) {
+            // counted below
+        }
+        long inserts = Metrics.histogram("sql.insert.supplyallocation").getCount();
+        System.out.println("Expected: 2 timed inserts, 1 SQL error");
+        System.out.println("Actual: " + inserts + " timed inserts, " + Metrics.counter("sql.errors").get() + " SQL errors");
+        assertEquals(2, inserts);
+        assertEquals(1, Metrics.histogram("sql.delete.broken").getCount());
+        assertEquals(1, Metrics.counter("sql.errors").get());
+    }
+
+    @Test
+    public void testSqlMetricNames() {
+        System.out.println("\n=== Test: SQL Metric Names ===");
+        String select = Metrics.sqlMetricName("SELECT COUNT(*) AS matches FROM PersonLocation pl JOIN SupplyAllocation sa");
+        System.out.println("Expected: sql.select.personlocation");
+        System.out.println("Actual: " + select);
+        assertEquals("sql.select.personlocation", select);
+        assertEquals("sql.update.person", Metrics.sqlMetricName("UPDATE Person SET version = version + 1"));
+        assertEquals("sql.begin", Metrics.sqlMetricName("BEGIN"));
+    }
+
+    @Test
+    public void testSqlHistogramsStopGrowingAtTheCap() {
+        System.out.println("\n=== Test: SQL Histograms Stop Growing At The Cap ===");
+        for (int i = 0; i < 500; i++) {
+            Metrics.sqlHistogram("SELECT * FROM Person WHERE person_id = " + i);
+        }
+        int cached = Metrics.sqlHistogramCount();
+        Metrics.Histogram late = Metrics.sqlHistogram("SELECT * FROM Person WHERE person_id = 1000");
+        System.out.println("Expected: at most 200 statements cached, later ones timed as sql.other");
+        System.out.println("Actual: " + cached + " cached");
+        assertTrue(cached <= 200);
+        assertEquals(cached, Metrics.sqlHistogramCount());
+        assertSame(Metrics.histogram("sql.other"), late);
+    }
+
+    @Test
+    public void testDumpWritesEveryMetric() throws IOException {
+        System.out.println("\n=== Test: Dump Writes Every Metric ===");
+        Metrics.counter("test.events").add(3);
+        Metrics.gauge("test.queue", () -> 7);
+        Metrics.histogram("test.latency").record(2_000_000);
+        Path file = Files.createTempFile("metrics", ".txt");
+        try {
+            Metrics.dump(file);
+            String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            System.out.println("Expected: counter, gauge and histogram lines");
+            System.out.print("Actual: " + text);
+            assertTrue(text.startsWith("# metrics at "));
+            assertTrue(text.contains("counter test.events 3\n"));
+            assertTrue(text.contains("gauge test.queue 7\n"));
+            assertTrue(text.contains("histogram test.latency count=1 mean_us=2000 "));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -21,6 +21,13 @@ public interface MockDatabaseConnection extends DatabaseConnector {
      * Populates the mock database with test data.
      */
     void populateTestData();
+
+    /**
+     * Replaces the mock data with a generated population.
+     *
+     * @param generator The generator of the population.
+     */
+    void populate(SyntheticDataGenerator generator);
     
     /**
      * Simulates a database failure scenario.
@@ -4,6 +4,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
@@ -50,6 +51,18 @@ public class MockDatabaseConnectionImpl implements MockDatabaseConnection {
         return instance;
     }
     
+    /**
+     * Creates a mock that is not shared with other tests, filled with a generated population.
+     *
+     * @param generator The generator of the population.
+     * @return The new mock.
+     */
+    public static MockDatabaseConnectionImpl generated(SyntheticDataGenerator generator) {
+        MockDatabaseConnectionImpl mock = new MockDatabaseConnectionImpl();
+        mock.populate(generator);
+        return mock;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -149,6 +162,89 @@ public class MockDatabaseConnectionImpl implements MockDatabaseConnection {
         hospital.addSupply(water1);
     }
     
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Rows are turned into entities the way {@link DatabaseConnection#loadData()} does it.
+     * People become inquirers when an inquiry names them, and allocations are added to
+     * the person or location they were made to.
+     * </p>
+     */
+    @Override
+    public void populate(SyntheticDataGenerator generator) {
+        reset();
+        try {
+            generator.generate((table, values) -> {
+                switch (table) {
+                    case LOCATION:
+                        locations.put((Integer) values[0], new Location((String) values[1], (String) values[2]));
+                        break;
+                    case PERSON: {
+                        DisasterVictim victim = new DisasterVictim((String) values[1], (String) values[2],
+                            (String) values[6], "Unknown");
+                        victim.setId((Integer) values[0]);
+                        victim.setDateOfBirth(values[3].toString());
+                        victim.setGender((String) values[4]);
+                        persons.put(victim.getId(), victim);
+                        if (values[7] != null) {
+                            familyGroups.computeIfAbsent((Integer) values[7],
+                                k -> new FamilyGroup("Group", String.valueOf(k), null)).addFamilyMember(victim);
+                        }
+                        break;
+                    }
+                    case PERSON_LOCATION:
+                        locations.get((Integer) values[1]).addOccupant((DisasterVictim) persons.get((Integer) values[0]));
+                        break;
+                    case INQUIRY: {
+                        Person person = persons.get((Integer) values[1]);
+                        Inquirer inquirer;
+                        if (person instanceof Inquirer) {
+                            inquirer = (Inquirer) person;
+                        } else {
+                            inquirer = new Inquirer(person.getFirstName(), person.getLastName(),
+                                person.getPhoneNumber(), "", true);
+                            inquirer.setId(person.getId());
+                            inquirer.setDateOfBirth(person.getDateOfBirth());
+                            inquirer.setGender(person.getGender());
+                            persons.put(inquirer.getId(), inquirer);
+                        }
+                        Inquiry inquiry = new Inquiry(inquirer, (String) values[5]);
+                        inquiry.setId((Integer) values[0]);
+                        if (values[2] != null) inquiry.setSeekingId((Integer) values[2]);
+                        inquiries.put(inquiry.getId(), inquiry);
+                        break;
+                    }
+                    case SUPPLY: {
+                        Supply supply = Supply.ofType((String) values[1], (String) values[2]);
+                        supply.setId((Integer) values[0]);
+                        supplies.put(supply.getId(), supply);
+                        break;
+                    }
+                    case SUPPLY_ALLOCATION: {
+                        Supply supply = supplies.get((Integer) values[0]);
+                        if (values[1] != null) {
+                            if (supply instanceof Water) {
+                                ((Water) supply).setAllocationDate(((Timestamp) values[3]).toLocalDateTime());
+                            }
+                            persons.get((Integer) values[1]).addAllocatedSupply(supply);
+                        } else {
+                            locations.get((Integer) values[2]).addSupply(supply);
+                        }
+                        break;
+                    }
+                    case MEDICAL_RECORD:
+                        medicalRecords.put((Integer) values[0], new MedicalRecord(locations.get((Integer) values[1]),
+                            (String) values[4], values[3].toString().substring(0, 10)));
+                        break;
+                    default:
+                        break;
+                }
+            });
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Failed to generate test data", e);
+        }
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -224,4 +224,16 @@ public class PersonTest {
         System.out.println("Actual output: " + person.getPhoneNumber());
         assertEquals(intlPhone, person.getPhoneNumber());
     }
+
+    @Test
+    public void testPhoneKeyFollowsPhoneNumber() {
+        System.out.println("\n=== Test: Phone Key Follows Phone Number ===");
+        long before = person.getPhoneKey();
+        person.setPhoneNumber("+1-403-123-4567");
+        System.out.println("Expected output: " + before);
+        System.out.println("Actual output: " + person.getPhoneKey());
+        assertEquals(before, person.getPhoneKey());
+        person.setPhoneNumber(null);
+        assertEquals(PhoneIndex.NO_KEY, person.getPhoneKey());
+    }
 }
\ No newline at end of file
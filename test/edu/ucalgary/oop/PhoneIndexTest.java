@@ -0,0 +1,96 @@
+package edu.ucalgary.oop;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PhoneIndexTest {
+    private PhoneIndex index;
+
+    @Before
+    public void setUp() {
+        index = new PhoneIndex();
+    }
+
+    @Test
+    public void testNormalizeEquivalentFormats() {
+        System.out.println("\n=== Test: Normalize Equivalent Formats ===");
+        long expected = PhoneIndex.normalize("4035551234");
+        System.out.println("Expected key: " + expected);
+        for (String phone : new String[] {"(403) 555-1234", "403.555.1234", "+1 403 555 1234", "1-403-555-1234"}) {
+            System.out.println("Actual key for " + phone + ": " + PhoneIndex.normalize(phone));
+            assertEquals(expected, PhoneIndex.normalize(phone));
+        }
+    }
+
+    @Test
+    public void testNormalizeKeepsLeadingZeros() {
+        System.out.println("\n=== Test: Normalize Keeps Leading Zeros ===");
+        long withZero = PhoneIndex.normalize("0123456");
+        long withoutZero = PhoneIndex.normalize("123456");
+        System.out.println("Expected: different keys");
+        System.out.println("Actual: " + withZero + " and " + withoutZero);
+        assertNotEquals(withZero, withoutZero);
+        assertEquals("0123456", PhoneIndex.format(withZero));
+    }
+
+    @Test
+    public void testNormalizeRejectsUnusableNumbers() {
+        System.out.println("\n=== Test: Normalize Rejects Unusable Numbers ===");
+        assertEquals(PhoneIndex.NO_KEY, PhoneIndex.normalize(null));
+        assertEquals(PhoneIndex.NO_KEY, PhoneIndex.normalize(""));
+        assertEquals(PhoneIndex.NO_KEY, PhoneIndex.normalize("unknown"));
+        assertEquals(PhoneIndex.NO_KEY, PhoneIndex.normalize("2023-01-01x"));
+        assertEquals(PhoneIndex.NO_KEY, PhoneIndex.normalize("12345678901234567"));
+    }
+
+    @Test
+    public void testLookupReturnsAllPersonsForKey() {
+        System.out.println("\n=== Test: Lookup Returns All Persons For Key ===");
+        index.add(PhoneIndex.normalize("403-555-1234"), 1);
+        index.add(PhoneIndex.normalize("(403) 555-1234"), 7);
+        index.add(PhoneIndex.normalize("555-9876"), 2);
+        int[] ids = index.lookup("4035551234");
+        System.out.println("Expected: [7, 1]");
+        System.out.println("Actual: " + java.util.Arrays.toString(ids));
+        assertArrayEquals(new int[] {7, 1}, ids);
+        assertEquals(0, index.lookup("555-0000").length);
+    }
+
+    @Test
+    public void testRemoveSinglePerson() {
+        System.out.println("\n=== Test: Remove Single Person ===");
+        long key = PhoneIndex.normalize("555-6543");
+        index.add(key, 3);
+        index.add(key, 4);
+        index.remove(key, 3);
+        System.out.println("Expected: [4]");
+        System.out.println("Actual: " + java.util.Arrays.toString(index.lookup(key)));
+        assertArrayEquals(new int[] {4}, index.lookup(key));
+    }
+
+    @Test
+    public void testGrowsBeyondInitialCapacity() {
+        System.out.println("\n=== Test: Grows Beyond Initial Capacity ===");
+        for (int i = 0; i < 10_000; i++) {
+            index.add(PhoneIndex.normalize(String.valueOf(4_030_000_000L + i)), i);
+        }
+        System.out.println("Expected size: 10000");
+        System.out.println("Actual size: " + index.size());
+        assertEquals(10_000, index.size());
+        assertArrayEquals(new int[] {9_999}, index.lookup("4030009999"));
+    }
+
+    @Test
+    public void testUserInterfaceFindsPersonByPhone() {
+        System.out.println("\n=== Test: User Interface Finds Person By Phone ===");
+        MockDatabaseConnection db = MockDatabaseConnectionImpl.getInstance();
+        db.reset();
+        db.populateTestData();
+        UserInterfaceImplied ui = new UserInterfaceImplied(new LanguageSupport("en-CA"));
+        ui.setDatabaseConnection(db);
+        System.out.println("Expected: Jane Smith");
+        System.out.println("Actual: " + ui.findPersonsByPhone("555 5678"));
+        assertEquals("Jane Smith", ui.findPersonsByPhone("555 5678").get(0).getFullName());
+    }
+}
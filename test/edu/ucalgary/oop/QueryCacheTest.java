@@ -0,0 +1,138 @@
+package edu.ucalgary.oop;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+public class QueryCacheTest {
+
+    private static final String SUPPLIES =
+        "SELECT s.supply_id, s.type FROM Supply s LEFT JOIN SupplyAllocation sa ON s.supply_id = sa.supply_id";
+    private static final String PERSON = "SELECT person_id, first_name FROM Person WHERE person_id = ?";
+
+    private QueryCache cache;
+    private int executions;
+    private Connection connection;
+
+    /**
+     * Builds a connection whose every query returns two rows of (id, name) and counts executions.
+     */
+    @Before
+    public void setUp() {
+        cache = new QueryCache(3, 60_000);
+        executions = 0;
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {ResultSetMetaData.class}, (proxy, method, args) -> {
+                if (method.getName().equals("getColumnCount")) return 2;
+                if (method.getName().equals("getColumnLabel")) return (Integer) args[0] == 1 ? "id" : "name";
+                return null;
+            });
+        connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                if (!method.getName().equals("prepareStatement")) return null;
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PreparedStatement.class},
+                    (ps, psMethod, psArgs) -> {
+                        if (!psMethod.getName().equals("executeQuery")) return null;
+                        executions++;
+                        int[] row = {0};
+                        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {ResultSet.class},
+                            (rs, rsMethod, rsArgs) -> {
+                                switch (rsMethod.getName()) {
+                                    case "getMetaData": return metaData;
+                                    case "next": return ++row[0] <= 2;
+                                    case "getObject": return (Integer) rsArgs[0] == 1 ? (Object) row[0] : "row" + row[0];
+                                    default: return null;
+                                }
+                            });
+                    });
+            });
+    }
+
+    @Test
+    public void testRepeatedQueryIsServedFromCache() throws SQLException {
+        System.out.println("\n=== Test: Repeated Query Is Served From Cache ===");
+        QueryCache.Result first = cache.get(connection, SUPPLIES);
+        QueryCache.Result second = cache.get(connection, SUPPLIES);
+        System.out.println("Expected executions: 1");
+        System.out.println("Actual executions: " + executions);
+        assertEquals(1, executions);
+        assertSame(first, second);
+        assertEquals(2, second.size());
+        assertEquals(2, second.getInt(1, "ID"));
+        assertEquals("row1", second.getString(0, "name"));
+        assertEquals(0.5, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void testParametersArePartOfTheKey() throws SQLException {
+        System.out.println("\n=== Test: Parameters Are Part Of The Key ===");
+        cache.get(connection, PERSON, 1);
+        cache.get(connection, PERSON, 2);
+        cache.get(connection, PERSON, 1);
+        assertEquals(2, executions);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testInvalidationDropsOnlyEntriesReadingTheTable() throws SQLException {
+        System.out.println("\n=== Test: Invalidation Is Precise ===");
+        cache.get(connection, SUPPLIES);
+        cache.get(connection, PERSON, 1);
+        cache.invalidate("supplyallocation");
+        cache.get(connection, PERSON, 1);
+        System.out.println("Expected executions after person re-read: 2");
+        System.out.println("Actual executions: " + executions);
+        assertEquals(2, executions);
+        cache.get(connection, SUPPLIES);
+        assertEquals(3, executions);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws SQLException {
+        System.out.println("\n=== Test: Least Recently Used Is Evicted ===");
+        cache.get(connection, PERSON, 1);
+        cache.get(connection, PERSON, 2);
+        cache.get(connection, PERSON, 3);
+        cache.get(connection, PERSON, 1);
+        cache.get(connection, PERSON, 4);
+        assertEquals(3, cache.size());
+        int before = executions;
+        cache.get(connection, PERSON, 1);
+        assertEquals(before, executions);
+        cache.get(connection, PERSON, 2);
+        assertEquals(before + 1, executions);
+    }
+
+    @Test
+    public void testExpiredEntriesAreReloaded() throws SQLException {
+        System.out.println("\n=== Test: Expired Entries Are Reloaded ===");
+        cache = new QueryCache(10, -1);
+        cache.get(connection, SUPPLIES);
+        cache.get(connection, SUPPLIES);
+        assertEquals(2, executions);
+    }
+
+    @Test
+    public void testTablesOf() {
+        System.out.println("\n=== Test: Tables Of ===");
+        assertEquals(new HashSet<>(Arrays.asList("supply", "supplyallocation")), QueryCache.tablesOf(SUPPLIES));
+        assertEquals(new HashSet<>(Arrays.asList("person")),
+            QueryCache.tablesOf("update Person set first_name = ? where person_id = ?"));
+        assertEquals(new HashSet<>(Arrays.asList("personlocation", "supplyallocation", "location")),
+            QueryCache.tablesOf("SELECT COUNT(*) FROM PersonLocation pl, SupplyAllocation AS sa, Location "
+                + "WHERE pl.location_id = sa.location_id"));
+        assertEquals(new HashSet<>(Arrays.asList("person", "inquiry")),
+            QueryCache.tablesOf("select * from Person p where exists (select 1 from Inquiry i, Person q "
+                + "where i.inquirer_id = p.person_id)"));
+    }
+}
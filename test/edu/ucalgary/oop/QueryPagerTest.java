@@ -0,0 +1,68 @@
+package edu.ucalgary.oop;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+public class QueryPagerTest {
+
+    private LanguageSupport languageSupport;
+    private ByteArrayOutputStream output;
+
+    @Before
+    public void setUp() {
+        languageSupport = new LanguageSupport("en-CA");
+        output = new ByteArrayOutputStream();
+    }
+
+    private long feed(QueryPager pager, int rows) {
+        pager.onColumns(new String[] {"supply_id", "person_id"});
+        String[] values = new String[2];
+        long delivered = 0;
+        for (int i = 1; i <= rows; i++) {
+            values[0] = String.valueOf(i);
+            values[1] = i % 2 == 0 ? null : "7";
+            delivered = i;
+            if (!pager.onRow(i, values)) break;
+        }
+        return delivered;
+    }
+
+    @Test
+    public void testStopsWhenOperatorQuits() {
+        System.out.println("\n=== Test: Stops When Operator Quits ===");
+        QueryPager pager = new QueryPager(languageSupport, new Scanner(new StringReader("\nq\n")),
+            new PrintStream(output, true), 3);
+        long delivered = feed(pager, 1_000_000);
+        System.out.println("Expected rows delivered: 6");
+        System.out.println("Actual rows delivered: " + delivered);
+        assertEquals(6, delivered);
+        String text = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(text.startsWith("supply_id | person_id"));
+        assertTrue(text.contains("2 | null"));
+        assertTrue(text.contains("6 rows shown"));
+    }
+
+    @Test
+    public void testNoPausingWithoutPageSize() {
+        System.out.println("\n=== Test: No Pausing Without Page Size ===");
+        QueryPager pager = new QueryPager(languageSupport, new Scanner(new StringReader("")),
+            new PrintStream(output, true), 0);
+        assertEquals(250, feed(pager, 250));
+        assertFalse(new String(output.toByteArray(), StandardCharsets.UTF_8).contains("rows shown"));
+    }
+
+    @Test
+    public void testStopsAtEndOfInput() {
+        System.out.println("\n=== Test: Stops At End Of Input ===");
+        QueryPager pager = new QueryPager(languageSupport, new Scanner(new StringReader("")),
+            new PrintStream(output, true), 10);
+        assertEquals(10, feed(pager, 100));
+    }
+}
@@ -0,0 +1,67 @@
+package edu.ucalgary.oop;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class RecordMergeTest {
+
+    private static final String[] BASE = {"John", "Doe", "555-1234", "Man", "1980-01-01"};
+
+    @Test
+    public void testDisjointEditsAreBothKept() {
+        System.out.println("\n=== Test: Disjoint Edits Are Both Kept ===");
+        String[] mine = {"Jon", "Doe", "555-1234", "Man", "1980-01-01"};
+        String[] theirs = {"John", "Doe", "555-9999", "Man", "1980-01-01"};
+        RecordMerge merge = new RecordMerge(BASE, mine, theirs);
+        String[] merged = merge.resolve(null);
+        System.out.println("Expected: [Jon, Doe, 555-9999, Man, 1980-01-01]");
+        System.out.println("Actual: " + Arrays.toString(merged));
+        assertEquals(Collections.emptyList(), merge.getConflicts());
+        assertArrayEquals(new String[] {"Jon", "Doe", "555-9999", "Man", "1980-01-01"}, merged);
+    }
+
+    @Test
+    public void testSameFieldChangedDifferentlyIsAConflict() {
+        System.out.println("\n=== Test: Same Field Changed Differently Is A Conflict ===");
+        String[] mine = {"John", "Doe", "555-1111", "Man", "1980-01-01"};
+        String[] theirs = {"John", "Doe", "555-2222", "Man", "1980-01-01"};
+        RecordMerge merge = new RecordMerge(BASE, mine, theirs);
+        System.out.println("Expected conflicts: [2]");
+        System.out.println("Actual conflicts: " + merge.getConflicts());
+        assertEquals(Collections.singletonList(2), merge.getConflicts());
+        assertEquals("555-1111", merge.resolve(null)[2]);
+        boolean[] keepTheirs = new boolean[BASE.length];
+        keepTheirs[2] = true;
+        assertEquals("555-2222", merge.resolve(keepTheirs)[2]);
+    }
+
+    @Test
+    public void testSameChangeOnBothSidesIsNotAConflict() {
+        System.out.println("\n=== Test: Same Change On Both Sides Is Not A Conflict ===");
+        String[] both = {"John", "Doe", "555-1234", null, "1980-01-01"};
+        RecordMerge merge = new RecordMerge(BASE, both, both.clone());
+        System.out.println("Expected conflicts: []");
+        System.out.println("Actual conflicts: " + merge.getConflicts());
+        assertTrue(merge.getConflicts().isEmpty());
+        assertNull(merge.resolve(null)[3]);
+    }
+
+    @Test
+    public void testUnknownBaseTreatsEveryDifferenceAsConflict() {
+        System.out.println("\n=== Test: Unknown Base Treats Every Difference As Conflict ===");
+        RecordMerge merge = new RecordMerge(null, new String[] {"Cot", "Bed 4"}, new String[] {"Cot", "Bed 7"});
+        System.out.println("Expected conflicts: [1]");
+        System.out.println("Actual conflicts: " + merge.getConflicts());
+        assertEquals(Collections.singletonList(1), merge.getConflicts());
+        assertArrayEquals(new String[] {"Cot", "Bed 4"}, merge.resolve(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMismatchedFieldCountsAreRejected() {
+        System.out.println("\n=== Test: Mismatched Field Counts Are Rejected ===");
+        new RecordMerge(BASE, new String[] {"a"}, new String[] {"b"});
+    }
+}
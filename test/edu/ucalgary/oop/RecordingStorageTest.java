@@ -0,0 +1,86 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RecordingStorageTest {
+
+    private EmbeddedDatabaseConnection db;
+
+    @Before
+    public void setUp() throws SQLException, IOException {
+        db = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        db.setChangeLog(new JdbcChangeLog(db));
+    }
+
+    @After
+    public void tearDown() {
+        db.closeConnection();
+    }
+
+    private List<ChangeEvent> events() throws IOException {
+        List<ChangeEvent> events = new ArrayList<>();
+        db.getChangeLog().replay(0, events::add);
+        return events;
+    }
+
+    @Test
+    public void testChangesAreRecordedInTheDatabase() throws SQLException, IOException {
+        System.out.println("\n=== Test: Changes Are Recorded In The Database ===");
+        DisasterVictim victim = new DisasterVictim("Freda", "Ng", "403-555-0101", "Flood");
+        int id = victim.saveNew(db, "Woman", 2, 0, "Needs insulin");
+        Person raman = db.getPersons().get(2);
+        raman.setPhoneNumber("403-555-0199");
+        db.getStorage().persons().update(raman, 0);
+        db.getStorage().supplies().allocateToPerson(3, id);
+        db.updateRecord("Inquiry", 1, "comments", "Found at shelter");
+        List<ChangeEvent> events = events();
+        System.out.println("Expected: person insert, stay insert, person update, allocation insert, inquiry update");
+        System.out.println("Actual: " + events);
+        assertEquals(5, events.size());
+        assertEquals(JdbcStorage.NAME, db.getStorage().getName());
+        assertEquals(Table.PERSON, events.get(0).getTable());
+        assertEquals(ChangeEvent.Operation.INSERT, events.get(0).getOperation());
+        assertEquals(id, events.get(0).getKey());
+        assertEquals("Needs insulin", events.get(0).getValues().get("comments"));
+        assertEquals(ChangeEvent.stayKey(id, 2), events.get(1).getKey());
+        assertEquals(ChangeEvent.Operation.UPDATE, events.get(2).getOperation());
+        assertEquals(1, events.get(2).getValues().get("version"));
+        assertEquals("403-555-0199", events.get(2).getValues().get("phone_number"));
+        assertEquals(id, events.get(3).getValues().get("person_id"));
+        assertEquals(Table.INQUIRY, events.get(4).getTable());
+        assertEquals("Found at shelter", events.get(4).getValues().get("comments"));
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i + 1, events.get(i).getSequence());
+        }
+    }
+
+    @Test
+    public void testFailedChangesAreNotRecorded() throws SQLException, IOException {
+        System.out.println("\n=== Test: Failed Changes Are Not Recorded ===");
+        Person raman = db.getPersons().get(2);
+        boolean stale = db.getStorage().persons().update(raman, 5);
+        try {
+            db.getStorage().persons().addToLocation(2, 99);
+            fail("Expected an unknown location to be refused");
+        } catch (SQLException e) {
+            // Refused by the database
+        }
+        boolean missing = db.updateRecord("Inquiry", 99, "comments", "Nobody");
+        List<ChangeEvent> events = events();
+        System.out.println("Expected: stale update and missing row refused, nothing recorded");
+        System.out.println("Actual: stale " + stale + ", missing " + missing + ", " + events.size() + " recorded");
+        assertFalse(stale);
+        assertFalse(missing);
+        assertTrue(events.isEmpty());
+        assertEquals(0, db.getChangeLog().getLastSequence());
+    }
+}
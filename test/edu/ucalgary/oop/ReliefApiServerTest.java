@@ -0,0 +1,151 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class ReliefApiServerTest {
+
+    private ReliefModel model;
+    private ReliefApiServer server;
+    private int status;
+
+    @Before
+    public void setUp() throws IOException {
+        MockDatabaseConnectionImpl mockDb = MockDatabaseConnectionImpl.getInstance();
+        mockDb.populateTestData();
+        model = new ReliefModel(mockDb);
+        server = new ReliefApiServer(model, 0);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+        model.close();
+    }
+
+    private String get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path)
+            .openConnection();
+        connection.setReadTimeout(10_000);
+        status = connection.getResponseCode();
+        InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.transferTo(out);
+        body.close();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testVictimsArePaged() throws IOException {
+        System.out.println("\n=== Test: Victims Are Paged ===");
+        String body = get("/api/victims?offset=1&limit=1");
+        System.out.println("Expected: one victim of two, Jane Smith");
+        System.out.println("Actual: " + body);
+        assertEquals(200, status);
+        assertTrue(body.startsWith("{\"offset\":1,\"limit\":1,\"total\":2,\"items\":[{\"id\":2,"));
+        assertTrue(body.contains("\"firstName\":\"Jane\""));
+        assertFalse(body.contains("\"firstName\":\"John\""));
+    }
+
+    @Test
+    public void testVictimDetailListsLocationsAndGroups() throws IOException {
+        System.out.println("\n=== Test: Victim Detail Lists Locations And Groups ===");
+        String body = get("/api/victims/1");
+        System.out.println("Expected: John Doe at location 1 in family group 1");
+        System.out.println("Actual: " + body);
+        assertEquals(200, status);
+        assertTrue(body.contains("\"firstName\":\"John\""));
+        assertTrue(body.contains("\"locations\":[1]"));
+        assertTrue(body.contains("\"familyGroups\":[1]"));
+    }
+
+    @Test
+    public void testSearchByNameAndPhone() throws IOException {
+        System.out.println("\n=== Test: Search By Name And Phone ===");
+        String byName = get("/api/search?q=smith");
+        String byPhone = get("/api/search?q=555-1234");
+        System.out.println("Expected: Jane Smith by name, John Doe by phone");
+        System.out.println("Actual: " + byName + " / " + byPhone);
+        assertTrue(byName.contains("\"total\":1") && byName.contains("\"lastName\":\"Smith\""));
+        assertTrue(byPhone.contains("\"total\":1") && byPhone.contains("\"lastName\":\"Doe\""));
+    }
+
+    @Test
+    public void testErrorsAreReportedAsJson() throws IOException {
+        System.out.println("\n=== Test: Errors Are Reported As JSON ===");
+        get("/api/victims/99");
+        System.out.println("Expected status for unknown victim: 404");
+        System.out.println("Actual status: " + status);
+        assertEquals(404, status);
+        String body = get("/api/supplies?limit=many");
+        System.out.println("Expected status for bad limit: 400");
+        System.out.println("Actual status: " + status);
+        assertEquals(400, status);
+        assertTrue(body.startsWith("{\"error\":"));
+        get("/api/search");
+        assertEquals(400, status);
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        System.out.println("\n=== Test: Concurrent Requests ===");
+        List<CompletableFuture<String>> requests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String path = i % 2 == 0 ? "/api/locations" : "/api/inquiries";
+            requests.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return get(path);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            String body = requests.get(i).get(30, TimeUnit.SECONDS);
+            assertTrue(body.contains(i % 2 == 0 ? "\"name\":\"Main Shelter\"" : "\"inquirerName\":\"Bob Johnson\""));
+        }
+        System.out.println("Expected: 50 requests answered");
+        System.out.println("Actual: " + requests.size() + " requests answered");
+    }
+
+    @Test
+    public void testMetricsEndpointReportsRegistry() throws IOException {
+        System.out.println("\n=== Test: Metrics Endpoint Reports Registry ===");
+        Metrics.setEnabled(true);
+        try {
+            get("/api/victims");
+            String body = get("/api/metrics");
+            System.out.println("Expected: model gauges and the API request histogram");
+            System.out.println("Actual: " + body);
+            assertEquals(200, status);
+            assertTrue(body.startsWith("{\"enabled\":true,"));
+            assertTrue(body.contains("\"model.locations\":2"));
+            assertTrue(body.contains("\"api.request\":{\"count\":"));
+        } finally {
+            Metrics.setEnabled(false);
+            Metrics.reset();
+        }
+    }
+
+    @Test
+    public void testListensOnLoopbackByDefault() {
+        System.out.println("\n=== Test: Listens On Loopback By Default ===");
+        System.out.println("Expected: a loopback address");
+        System.out.println("Actual: " + server.getAddress());
+        assertTrue(server.getAddress().getAddress().isLoopbackAddress());
+    }
+}
@@ -0,0 +1,200 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public class ReliefModelTest {
+
+    private static final int LOCATIONS = 5;
+
+    private MockDatabaseConnectionImpl mockDb;
+    private ReliefModel model;
+
+    @Before
+    public void setUp() {
+        mockDb = MockDatabaseConnectionImpl.getInstance();
+        model = new ReliefModel(mockDb);
+        // The model holds its own copies, so clearing them leaves the shared mock intact
+        model.getLocations().clear();
+        model.getFamilyGroups().clear();
+        for (int id = 1; id <= LOCATIONS; id++) {
+            model.getLocations().put(id, new Location("Shelter " + id, id + " Main St"));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        model.close();
+    }
+
+    private int countLocationsOf(DisasterVictim victim) {
+        int count = 0;
+        for (Location location : model.getLocations().values()) {
+            if (location.hasOccupant(victim)) count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void testMoveOccupantLeavesVictimInOneLocation() {
+        System.out.println("\n=== Test: Move Occupant Leaves Victim In One Location ===");
+        DisasterVictim victim = new DisasterVictim("John", "Doe", "555-1234", "Unknown");
+        model.addOccupant(1, victim);
+        model.moveOccupant(victim, 3);
+        System.out.println("Expected: only in location 3");
+        System.out.println("Actual locations occupied: " + countLocationsOf(victim));
+        assertTrue(model.getLocations().get(3).hasOccupant(victim));
+        assertEquals(1, countLocationsOf(victim));
+    }
+
+    @Test
+    public void testConcurrentMovesNeverDuplicateOrLoseVictims() throws Exception {
+        System.out.println("\n=== Test: Concurrent Moves Never Duplicate Or Lose Victims ===");
+        List<DisasterVictim> victims = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            DisasterVictim victim = new DisasterVictim("Victim", "No" + i, "555-0000", "Unknown");
+            victims.add(victim);
+            model.addOccupant(1 + i % LOCATIONS, victim);
+        }
+        List<CompletableFuture<Void>> sessions = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            sessions.add(CompletableFuture.runAsync(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 2_000; i++) {
+                    DisasterVictim victim = victims.get(random.nextInt(victims.size()));
+                    model.moveOccupant(victim, 1 + random.nextInt(LOCATIONS));
+                }
+            }));
+        }
+        CompletableFuture.allOf(sessions.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+
+        int total = 0;
+        for (Location location : model.getLocations().values()) {
+            total += location.getOccupants().size();
+        }
+        System.out.println("Expected total occupants: " + victims.size());
+        System.out.println("Actual total occupants: " + total);
+        assertEquals(victims.size(), total);
+        for (DisasterVictim victim : victims) {
+            assertEquals(1, countLocationsOf(victim));
+        }
+    }
+
+    @Test
+    public void testMoveToFamilyGroupCreatesPlaceholderGroup() {
+        System.out.println("\n=== Test: Move To Family Group Creates Placeholder Group ===");
+        DisasterVictim victim = new DisasterVictim("Jane", "Smith", "555-5678", "Unknown");
+        model.addFamilyMember(1, victim);
+        model.moveToFamilyGroup(victim, 2);
+        System.out.println("Expected: member of group 2 only");
+        System.out.println("Actual: group 1 = " + model.getFamilyGroups().get(1).hasFamilyMember(victim)
+            + ", group 2 = " + model.getFamilyGroups().get(2).hasFamilyMember(victim));
+        assertFalse(model.getFamilyGroups().get(1).hasFamilyMember(victim));
+        assertTrue(model.getFamilyGroups().get(2).hasFamilyMember(victim));
+    }
+
+    @Test
+    public void testReserveFamilyGroupIdSkipsTakenIds() throws Exception {
+        System.out.println("\n=== Test: Reserve Family Group ID Skips Taken IDs ===");
+        List<CompletableFuture<Integer>> reservations = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            FamilyGroup group = new FamilyGroup("Family", "No" + i, "555-0000");
+            reservations.add(CompletableFuture.supplyAsync(() -> model.reserveFamilyGroupId(5, group)));
+        }
+        java.util.Set<Integer> ids = new java.util.HashSet<>();
+        for (CompletableFuture<Integer> reservation : reservations) {
+            ids.add(reservation.get(10, TimeUnit.SECONDS));
+        }
+        System.out.println("Expected distinct IDs: 10");
+        System.out.println("Actual distinct IDs: " + ids.size());
+        assertEquals(10, ids.size());
+        assertEquals(10, model.getFamilyGroups().size());
+    }
+
+    private static ChangeEvent event(Table table, long key, ChangeEvent.Operation operation,
+                                     Map<String, Object> values) {
+        return new ChangeEvent(1, LocalDateTime.now(), table, key, operation, values);
+    }
+
+    @Test
+    public void testAppliedEventsAreIdempotentAndDeletesRemove() {
+        System.out.println("\n=== Test: Applied Events Are Idempotent And Deletes Remove ===");
+        Map<String, Object> person = new LinkedHashMap<>();
+        person.put("first_name", "Freda");
+        person.put("last_name", "Ng");
+        person.put("phone_number", "403-555-0101");
+        person.put("family_group", 1);
+        ChangeEvent insert = event(Table.PERSON, 100, ChangeEvent.Operation.INSERT, person);
+        ChangeEvent stay = event(Table.PERSON_LOCATION, ChangeEvent.stayKey(100, 2),
+            ChangeEvent.Operation.INSERT, Collections.emptyMap());
+        model.apply(insert);
+        model.apply(stay);
+        Person freda = model.getPersons().get(100);
+        model.apply(insert);
+        model.apply(stay);
+        System.out.println("Expected: one Freda, at one location and in one family group");
+        System.out.println("Actual: same object " + (freda == model.getPersons().get(100)) + ", at "
+            + countLocationsOf((DisasterVictim) freda) + " location(s), group of "
+            + model.getFamilyGroups().get(1).getFamilyMembers().size());
+        assertSame(freda, model.getPersons().get(100));
+        assertEquals(1, countLocationsOf((DisasterVictim) freda));
+        assertEquals(1, model.getFamilyGroups().get(1).getFamilyMembers().size());
+        assertEquals(1, model.findPersonsByPhone("4035550101").size());
+
+        model.apply(event(Table.PERSON_LOCATION, ChangeEvent.stayKey(100, 2),
+            ChangeEvent.Operation.DELETE, Collections.emptyMap()));
+        assertEquals(0, countLocationsOf((DisasterVictim) freda));
+        model.apply(event(Table.PERSON, 100, ChangeEvent.Operation.DELETE,
+            Collections.emptyMap()));
+        assertNull(model.getPersons().get(100));
+        assertTrue(model.getFamilyGroups().get(1).getFamilyMembers().isEmpty());
+        assertTrue(model.findPersonsByPhone("4035550101").isEmpty());
+    }
+
+    @Test
+    public void testMergePersonsPassesReferencesToTheSurvivor() {
+        System.out.println("\n=== Test: Merge Persons Passes References To The Survivor ===");
+        DisasterVictim survivor = new DisasterVictim("Freda", "Ng", "403-555-0101", "Flood");
+        survivor.setId(100);
+        DisasterVictim duplicate = new DisasterVictim("Freda", "Ng", "4035550101", "Flood");
+        duplicate.setId(101);
+        Supply blanket = new Blanket();
+        duplicate.addAllocatedSupply(blanket);
+        model.addPerson(100, survivor);
+        model.addPerson(101, duplicate);
+        model.addOccupant(2, duplicate);
+        model.addFamilyMember(1, duplicate);
+        Inquirer caller = new Inquirer("Omar", "Haddad", "403-555-0123", "", false);
+        caller.setId(102);
+        model.addPerson(102, caller);
+        Inquiry inquiry = new Inquiry(caller, "Looking for Freda");
+        inquiry.setSeekingId(101);
+        model.getInquiries().put(100, inquiry);
+        model.getDuplicateDetector();
+
+        model.mergePersons(Collections.singletonMap(101, 100));
+        System.out.println("Expected: the inquiry, stay and blanket on Freda 100, Freda 101 gone");
+        System.out.println("Actual: seeking " + inquiry.getSeekingId() + ", survivor at "
+            + countLocationsOf(survivor) + " location(s), supplies " + survivor.getAllocatedSupplies());
+        assertEquals(100, inquiry.getSeekingId());
+        assertTrue(model.getLocations().get(2).hasOccupant(survivor));
+        assertFalse(model.getLocations().get(2).hasOccupant(duplicate));
+        assertEquals(Collections.singletonList(blanket), survivor.getAllocatedSupplies());
+        assertTrue(model.getFamilyGroups().get(1).getFamilyMembers().isEmpty());
+        assertNull(model.getPersons().get(101));
+        assertEquals(Collections.singletonList(survivor), model.findPersonsByPhone("4035550101"));
+        assertTrue(model.getDuplicateDetector().findAllDuplicates().isEmpty());
+    }
+}
@@ -0,0 +1,133 @@
+package edu.ucalgary.oop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class SessionServerTest {
+
+    private ReliefModel model;
+    private SessionServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        model = new ReliefModel(MockDatabaseConnectionImpl.getInstance());
+        server = SessionServer.onPort(model, 0);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+        model.close();
+    }
+
+    private String converse(String input) throws IOException {
+        int port = ((InetSocketAddress) server.getAddress()).getPort();
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(10_000);
+            OutputStream toServer = socket.getOutputStream();
+            toServer.write(input.getBytes(StandardCharsets.UTF_8));
+            toServer.flush();
+            socket.shutdownOutput();
+            InputStream fromServer = socket.getInputStream();
+            ByteArrayOutputStream transcript = new ByteArrayOutputStream();
+            fromServer.transferTo(transcript);
+            return transcript.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testSessionsRunConcurrentlyWithTheirOwnLanguage() throws Exception {
+        System.out.println("\n=== Test: Sessions Run Concurrently ===");
+        List<CompletableFuture<String>> sessions = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String language = i % 2 == 0 ? "1" : "2";
+            sessions.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return converse(language + "\n2\n10\n");
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+        for (int i = 0; i < sessions.size(); i++) {
+            String transcript = sessions.get(i).get(30, TimeUnit.SECONDS);
+            assertTrue(transcript.contains("John Doe"));
+            if (i % 2 == 0) {
+                assertTrue(transcript.contains("Language set to: en-CA"));
+                assertTrue(transcript.contains("Thank you for using the Disaster Relief Management System."));
+            } else {
+                assertTrue(transcript.contains("Language set to: fr-CA"));
+            }
+        }
+        System.out.println("Expected: 8 sessions completed");
+        System.out.println("Actual: " + sessions.size() + " sessions completed");
+    }
+
+    @Test
+    public void testDisconnectEndsOnlyThatSession() throws Exception {
+        System.out.println("\n=== Test: Disconnect Ends Only That Session ===");
+        String abandoned = converse("1\n");
+        assertTrue(abandoned.contains("Please select an option"));
+        String transcript = converse("1\n10\n");
+        assertTrue(transcript.contains("Thank you for using the Disaster Relief Management System."));
+    }
+
+    @Test
+    public void testSessionsShareTheModel() throws Exception {
+        System.out.println("\n=== Test: Sessions Share The Model ===");
+        Person added = new DisasterVictim("Shared", "Person", "403-555-0000", "Unknown");
+        model.addPerson(9999, added);
+        assertTrue(converse("1\n2\n10\n").contains("Shared Person"));
+    }
+
+    @Test
+    public void testTransactionsAreRefusedWhileSessionsShareTheConnection() throws Exception {
+        System.out.println("\n=== Test: Transactions Are Refused While Sessions Share The Connection ===");
+        EmbeddedDatabaseConnection db = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        ReliefModel hosted = new ReliefModel(db);
+        SessionServer hosting = SessionServer.onPort(hosted, 0);
+        List<MergeProposal> merge = Collections.singletonList(new MergeProposal(1, 5, 0.9));
+        try {
+            try {
+                DuplicateDetector.applyMerges(merge, db);
+                fail("Expected the merge to be refused while sessions share the connection");
+            } catch (SQLException e) {
+                System.out.println("Expected: refused while hosting, allowed afterwards");
+                System.out.println("Actual: " + e.getMessage());
+            }
+            assertTrue(db.getConnection().getAutoCommit());
+            hosting.close();
+            assertEquals(1, DuplicateDetector.applyMerges(merge, db));
+        } finally {
+            hosting.close();
+            hosted.close();
+            db.closeConnection();
+        }
+    }
+
+    @Test
+    public void testListensOnLoopbackByDefault() throws IOException {
+        System.out.println("\n=== Test: Listens On Loopback By Default ===");
+        System.out.println("Expected: a loopback address");
+        System.out.println("Actual: " + server.getAddress());
+        assertTrue(((InetSocketAddress) server.getAddress()).getAddress().isLoopbackAddress());
+    }
+}
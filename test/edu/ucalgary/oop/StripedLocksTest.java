@@ -0,0 +1,58 @@
+package edu.ucalgary.oop;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class StripedLocksTest {
+
+    @Test
+    public void testStripeOfStaysWithinRange() {
+        System.out.println("\n=== Test: Stripe Of Stays Within Range ===");
+        StripedLocks locks = new StripedLocks(10);
+        for (int id = -1000; id <= 1000; id++) {
+            int stripe = locks.stripeOf(id);
+            assertTrue("Stripe out of range for " + id, stripe >= 0 && stripe < 16);
+        }
+        System.out.println("Expected: every stripe in [0, 16)");
+        System.out.println("Actual: all within range");
+    }
+
+    @Test
+    public void testCallReturnsResultWithRepeatedIds() {
+        System.out.println("\n=== Test: Call Returns Result With Repeated IDs ===");
+        StripedLocks locks = new StripedLocks(4);
+        String result = locks.call(() -> "done", 3, 3, 7, 3);
+        System.out.println("Expected: done");
+        System.out.println("Actual: " + result);
+        assertEquals("done", result);
+    }
+
+    @Test
+    public void testOpposingLockOrdersDoNotDeadlock() throws Exception {
+        System.out.println("\n=== Test: Opposing Lock Orders Do Not Deadlock ===");
+        StripedLocks locks = new StripedLocks(64);
+        int[] counter = {0};
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            boolean forward = t % 2 == 0;
+            tasks.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (forward) {
+                        locks.run(() -> counter[0]++, 1, 2, 3);
+                    } else {
+                        locks.run(() -> counter[0]++, 3, 2, 1);
+                    }
+                }
+            }));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        System.out.println("Expected count: 80000");
+        System.out.println("Actual count: " + counter[0]);
+        assertEquals(80_000, counter[0]);
+    }
+}
@@ -0,0 +1,124 @@
+package edu.ucalgary.oop;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class SyntheticDataGeneratorTest {
+
+    private static final LocalDateTime REFERENCE = LocalDateTime.of(2025, 4, 10, 12, 0);
+
+    private static SyntheticDataGenerator generator(long seed, int persons) {
+        return new SyntheticDataGenerator(seed, persons).setReferenceTime(REFERENCE);
+    }
+
+    private static List<String> rows(SyntheticDataGenerator generator) throws IOException, SQLException {
+        List<String> rows = new ArrayList<>();
+        generator.generate((table, values) -> rows.add(table + Arrays.toString(values)));
+        return rows;
+    }
+
+    @Test
+    public void testSameSeedGivesSameRowsOnAnyNumberOfThreads() throws Exception {
+        System.out.println("\n=== Test: Same Seed Gives Same Rows On Any Number Of Threads ===");
+        List<String> single = rows(generator(7, 10_000).setThreads(1));
+        List<String> parallel = rows(generator(7, 10_000).setThreads(4));
+        List<String> otherSeed = rows(generator(8, 10_000).setThreads(4));
+        System.out.println("Expected: identical rows for seed 7, different rows for seed 8");
+        System.out.println("Actual: " + single.size() + " and " + parallel.size() + " rows, equal "
+            + single.equals(parallel) + "; seed 8 equal " + single.equals(otherSeed));
+        assertEquals(single, parallel);
+        assertNotEquals(single, otherSeed);
+    }
+
+    @Test
+    public void testPopulationHasRealisticShape() throws Exception {
+        System.out.println("\n=== Test: Population Has Realistic Shape ===");
+        Map<Table, Integer> counts = new EnumMap<>(Table.class);
+        int[] inFamily = new int[1];
+        int[] nonAscii = new int[1];
+        Set<Object> inquirers = new HashSet<>();
+        generator(1, 20_000).generate((table, values) -> {
+            counts.merge(table, 1, Integer::sum);
+            if (table == Table.PERSON) {
+                if (values[7] != null) inFamily[0]++;
+                if (!((String) values[1] + values[2]).chars().allMatch(c -> c < 128)) nonAscii[0]++;
+                assertTrue(Validators.PHONE.isValid((String) values[6]));
+            } else if (table == Table.INQUIRY) {
+                inquirers.add(values[1]);
+            }
+        });
+        System.out.println("Expected: 20000 persons, 80 shelters, ~89% in families, ~2% inquirers, some accented names");
+        System.out.println("Actual: " + counts + ", " + inFamily[0] + " in families, " + nonAscii[0] + " accented");
+        assertEquals(20_000, (int) counts.get(Table.PERSON));
+        assertEquals(80, (int) counts.get(Table.LOCATION));
+        assertEquals(40_000, (int) counts.get(Table.SUPPLY));
+        assertTrue(inFamily[0] > 16_000 && inFamily[0] < 19_000);
+        assertTrue(nonAscii[0] > 500);
+        assertTrue(inquirers.size() > 300 && inquirers.size() < 500);
+        assertTrue(counts.get(Table.MEDICAL_RECORD) > 1000);
+        assertEquals(20_000 - counts.get(Table.PERSON_LOCATION), inquirers.size());
+    }
+
+    @Test
+    public void testGeneratedMockIsConsistent() {
+        System.out.println("\n=== Test: Generated Mock Is Consistent ===");
+        MockDatabaseConnectionImpl mock = MockDatabaseConnectionImpl.generated(generator(3, 5000));
+        long inquirers = mock.getPersons().values().stream().filter(p -> p instanceof Inquirer).count();
+        long occupants = mock.getLocations().values().stream().mapToLong(l -> l.getOccupants().size()).sum();
+        System.out.println("Expected: 5000 consistent persons, every victim housed");
+        System.out.println("Actual: " + mock.getPersons().size() + " persons, " + inquirers + " inquirers, "
+            + occupants + " occupants, consistent " + mock.validateDataConsistency());
+        assertEquals(5000, mock.getPersons().size());
+        assertTrue(inquirers > 0);
+        assertEquals(5000 - inquirers, occupants);
+        assertTrue(mock.validateDataConsistency());
+        assertNotSame(MockDatabaseConnectionImpl.getInstance(), mock);
+        assertEquals(3, MockDatabaseConnectionImpl.getInstance().getPersons().size());
+    }
+
+    @Test
+    public void testSqlScriptHasOneCopyBlockPerTable() throws IOException {
+        System.out.println("\n=== Test: SQL Script Has One Copy Block Per Table ===");
+        Path directory = Files.createTempDirectory("generated");
+        Path file = directory.resolve("population.sql");
+        try {
+            Map<Table, Long> counts = generator(5, 3000).writeSql(file);
+            String script = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            System.out.println("Expected: TRUNCATE, 7 COPY blocks with the counted rows, setval, COMMIT");
+            System.out.println("Actual: " + counts);
+            assertTrue(script.contains("TRUNCATE MedicalRecord, SupplyAllocation, Supply, Inquiry, PersonLocation, "
+                + "Person, Location RESTART IDENTITY;"));
+            for (Table table : Table.values()) {
+                String header = CopyTableWriter.copyCommand(table.getName(), table.getColumns());
+                int start = script.indexOf(header) + header.length();
+                int end = script.indexOf("\\.\n", start);
+                long lines = script.substring(start, end).chars().filter(c -> c == '\n').count();
+                assertEquals(table.getName(), (long) counts.get(table), lines);
+            }
+            assertTrue(script.contains("SELECT setval(pg_get_serial_sequence('person', 'person_id'), "
+                + "COALESCE(MAX(person_id), 1)) FROM Person;"));
+            assertTrue(script.endsWith("COMMIT;\n"));
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(1, files.count());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package edu.ucalgary.oop;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class TableRendererTest {
+
+    private LanguageSupport languageSupport;
+    private ByteArrayOutputStream output;
+
+    @Before
+    public void setUp() {
+        languageSupport = new LanguageSupport("en-CA");
+        output = new ByteArrayOutputStream();
+    }
+
+    private TableRenderer renderer(String answers, int pageSize) {
+        Scanner input = new Scanner(new ByteArrayInputStream(answers.getBytes(StandardCharsets.UTF_8)));
+        return new TableRenderer(languageSupport, input, new PrintStream(output, true, StandardCharsets.UTF_8), pageSize)
+            .addColumn("ID", 5)
+            .addColumn("Name", 12);
+    }
+
+    private String printed() {
+        return output.toString(StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+    }
+
+    @Test
+    public void testWidthsFollowTheData() {
+        System.out.println("\n=== Test: Widths Follow The Data ===");
+        renderer("", 0).render(Arrays.asList(
+            new String[] {"1", "Jo"},
+            new String[] {"22", null}).iterator());
+        String expected = "+----+------+\n"
+            + "| ID | Name |\n"
+            + "+----+------+\n"
+            + "| 1  | Jo   |\n"
+            + "| 22 |      |\n"
+            + "+----+------+\n";
+        System.out.println("Expected:\n" + expected);
+        System.out.println("Actual:\n" + printed());
+        assertEquals(expected, printed());
+    }
+
+    @Test
+    public void testLongValuesAreClipped() {
+        System.out.println("\n=== Test: Long Values Are Clipped ===");
+        renderer("", 0).render(Arrays.<String[]>asList(new String[] {"1", "Bartholomew Montgomery"}).iterator());
+        System.out.println("Expected: Bartholom...");
+        System.out.println("Actual:\n" + printed());
+        assertTrue(printed().contains("| Bartholom... |"));
+    }
+
+    @Test
+    public void testPagingStopsProducingRowsOnQuit() {
+        System.out.println("\n=== Test: Paging Stops Producing Rows On Quit ===");
+        AtomicInteger produced = new AtomicInteger();
+        Iterator<String[]> rows = IntStream.range(0, 100_000)
+            .mapToObj(i -> {
+                produced.incrementAndGet();
+                return new String[] {String.valueOf(i), "Person " + i};
+            })
+            .iterator();
+        long shown = renderer("\nq\n", 10).render(rows);
+        System.out.println("Expected rows shown: 20");
+        System.out.println("Actual rows shown: " + shown + ", produced: " + produced.get());
+        assertEquals(20, shown);
+        assertTrue(produced.get() <= 21);
+        assertTrue(printed().contains("| 19 "));
+        assertFalse(printed().contains("| 20 "));
+    }
+
+    @Test
+    public void testEmptyTablePrintsHeaderOnly() {
+        System.out.println("\n=== Test: Empty Table Prints Header Only ===");
+        long shown = renderer("", 10).render(java.util.Collections.<String[]>emptyIterator());
+        System.out.println("Expected rows shown: 0");
+        System.out.println("Actual rows shown: " + shown);
+        assertEquals(0, shown);
+        assertEquals("+----+------+\n| ID | Name |\n+----+------+\n", printed());
+    }
+}
@@ -0,0 +1,88 @@
+package edu.ucalgary.oop;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ValidatorsTest {
+
+    private void assertSameAsRegex(InputValidator validator, String regex, String... inputs) {
+        for (String input : inputs) {
+            boolean expected = input.matches(regex);
+            System.out.println("Input '" + input + "' expected: " + expected + ", actual: " + validator.isValid(input));
+            assertEquals("Mismatch for '" + input + "'", expected, validator.isValid(input));
+        }
+    }
+
+    @Test
+    public void testNameMatchesOriginalRegex() {
+        System.out.println("\n=== Test: Name Matches Original Regex ===");
+        assertSameAsRegex(Validators.NAME, "^[A-Za-z\\s-]{2,}$",
+            "Jo", "J", "", "Mary-Ann", "De La Cruz", "O'Neil", "Aurélie", "abc1", "  ");
+    }
+
+    @Test
+    public void testCallerNameMatchesOriginalRegex() {
+        System.out.println("\n=== Test: Caller Name Matches Original Regex ===");
+        assertSameAsRegex(Validators.CALLER_NAME, "^[a-zA-Z\\s'-]+$",
+            "O'Neil", "A", "", "Smith-Jones", "R2D2");
+        assertSameAsRegex(Validators.LETTERS, "^[a-zA-Z]+$", "Bob", "", "Bob Smith", "b");
+    }
+
+    @Test
+    public void testPhoneMatchesOriginalRegex() {
+        System.out.println("\n=== Test: Phone Matches Original Regex ===");
+        assertSameAsRegex(Validators.PHONE, "^\\(?(\\d{3})\\)?[-.\\s]?(\\d{3})[-.\\s]?(\\d{4})$",
+            "(403) 555-1234", "403.555.1234", "4035551234", "403-555-1234", "(403555-1234",
+            "403 555 123", "403--555-1234", "555-1234", "(403)) 555-1234", "403-555-12345", "");
+        assertSameAsRegex(Validators.PHONE_DIGITS, "\\d{10}", "4035551234", "403555123", "403-555-1234");
+    }
+
+    @Test
+    public void testDateAndIdMatchOriginalRegex() {
+        System.out.println("\n=== Test: Date And ID Match Original Regex ===");
+        assertSameAsRegex(Validators.DATE, "^\\d{4}-\\d{2}-\\d{2}$",
+            "2025-04-10", "2025-4-10", "2025/04/10", "20250410", "2025-04-100");
+        assertSameAsRegex(Validators.ID, "\\d+", "1", "42", "", "-1", "4a");
+    }
+
+    @Test
+    public void testYesNoValidators() {
+        System.out.println("\n=== Test: Yes No Validators ===");
+        assertSameAsRegex(Validators.Y_N, "^[YyNn]$", "y", "N", "yes", "", "x");
+        assertSameAsRegex(Validators.YES_NO, "yes|no", "yes", "no", "Yes", "y");
+    }
+
+    @Test
+    public void testNullInputIsInvalid() {
+        System.out.println("\n=== Test: Null Input Is Invalid ===");
+        assertFalse(Validators.NAME.isValid(null));
+        assertFalse(Validators.PHONE.isValid(null));
+        assertFalse(Validators.YES_NO.isValid(null));
+        assertFalse(Validators.NON_EMPTY.isValid(null));
+    }
+
+    @Test
+    public void testForRegexIsCached() {
+        System.out.println("\n=== Test: For Regex Is Cached ===");
+        InputValidator first = Validators.forRegex("^[0-6]$");
+        InputValidator second = Validators.forRegex("^[0-6]$");
+        System.out.println("Expected: same instance");
+        System.out.println("Actual: " + (first == second));
+        assertSame(first, second);
+        assertTrue(first.isValid("3"));
+        assertFalse(first.isValid("7"));
+    }
+
+    @Test
+    public void testRegistryLookup() {
+        System.out.println("\n=== Test: Registry Lookup ===");
+        assertSame(Validators.PHONE, Validators.get("phone"));
+        assertSame(Validators.DATE, Validators.get("date"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegistryUnknownName() {
+        System.out.println("\n=== Test: Registry Unknown Name ===");
+        Validators.get("postal_code");
+    }
+}
@@ -0,0 +1,167 @@
+package edu.ucalgary.oop;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+public class VictimImporterTest {
+    private static final String HEADER = "first_name,last_name,phone_number,date_of_birth,gender,location,family_group,comments\n";
+    private VictimImporter importer;
+    private List<VictimImporter.Row> written;
+    private StringWriter rejects;
+
+    @Before
+    public void setUp() {
+        Map<Integer, Location> locations = new HashMap<>();
+        locations.put(1, new Location("TELUS", "136 8 Ave SE"));
+        locations.put(2, new Location("University of Calgary", "2500 University Dr NW"));
+        importer = new VictimImporter(locations, new HashSet<>(Arrays.asList(1, 2)), 2);
+        written = new ArrayList<>();
+        rejects = new StringWriter();
+    }
+
+    private VictimImporter.Result run(String csv) throws IOException, SQLException {
+        return importer.importCsv(new StringReader(csv), rejects, rows -> {
+            synchronized (written) {
+                written.addAll(rows);
+            }
+        });
+    }
+
+    @Test
+    public void testValidRowsAreNormalized() throws Exception {
+        System.out.println("\n=== Test: Valid Rows Are Normalized ===");
+        VictimImporter.Result result = run(HEADER
+            + "Aurelie,Dupont,(403) 555-1234,1985-03-15,Non-binary person,TELUS,1,Speaks only French\n"
+            + " Raman , Narayan ,,,M,2,,\n");
+        System.out.println("Expected: 2 imported, 0 rejected");
+        System.out.println("Actual: " + result.getImported() + " imported, " + result.getRejected() + " rejected");
+        assertEquals(2, result.getImported());
+        assertEquals(0, result.getRejected());
+        VictimImporter.Row first = written.get(0);
+        assertEquals("403-555-1234", first.phoneNumber);
+        assertEquals("non-binary", first.gender);
+        assertEquals(1, first.locationId);
+        assertEquals(1, first.familyGroupId);
+        VictimImporter.Row second = written.get(1);
+        assertEquals("Raman", second.firstName);
+        assertEquals("man", second.gender);
+        assertEquals(2, second.locationId);
+        assertNull(second.phoneNumber);
+        assertNull(second.dateOfBirth);
+    }
+
+    @Test
+    public void testInvalidRowsGoToRejectFile() throws Exception {
+        System.out.println("\n=== Test: Invalid Rows Go To Reject File ===");
+        VictimImporter.Result result = run(HEADER
+            + "A,Dupont,,,,,,\n"
+            + "Chinoso,Nwosu,555-98,,,,,\n"
+            + "Chanida,Chaiyapong,,2025-02-30,,,,\n"
+            + "Nathalie,Dupont,,,,Nowhere,,\n"
+            + "Freda,Ng,,,,,7,\n"
+            + "Valid,Person,,,,,,\n");
+        String output = rejects.toString();
+        System.out.println("Reject file:\n" + output);
+        assertEquals(1, result.getImported());
+        assertEquals(5, result.getRejected());
+        assertTrue(output.contains("2,invalid first name"));
+        assertTrue(output.contains("3,invalid phone number"));
+        assertTrue(output.contains("4,invalid date of birth"));
+        assertTrue(output.contains("5,unknown location"));
+        assertTrue(output.contains("6,unknown family group"));
+    }
+
+    @Test
+    public void testRowOrderIsPreservedAcrossBatches() throws Exception {
+        System.out.println("\n=== Test: Row Order Is Preserved Across Batches ===");
+        StringBuilder csv = new StringBuilder(HEADER);
+        int rows = VictimImporter.BATCH_SIZE * 5 + 17;
+        for (int i = 0; i < rows; i++) {
+            csv.append("Person,Number,403555").append(String.format("%04d", i % 10000)).append(",,,,,row ").append(i).append('\n');
+        }
+        VictimImporter.Result result = run(csv.toString());
+        System.out.println("Expected: " + rows + " rows in order");
+        System.out.println("Actual: " + result.getImported());
+        assertEquals(rows, result.getImported());
+        for (int i = 0; i < rows; i++) {
+            assertEquals("row " + i, written.get(i).comments);
+        }
+    }
+
+    @Test
+    public void testImportThroughput() throws Exception {
+        System.out.println("\n=== Test: Import Throughput ===");
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 60_000; i++) {
+            csv.append("Evacuee,Family,403-555-").append(String.format("%04d", i % 10000))
+               .append(",1990-01-01,F,TELUS,").append(i % 2 + 1).append(",\n");
+        }
+        EmbeddedDatabaseConnection db = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        ReliefModel model = new ReliefModel(db);
+        try {
+            VictimImporter.Result result = new VictimImporter(model).importCsv(new StringReader(csv.toString()),
+                rejects, model);
+            int stored;
+            try (Statement stmt = db.getConnection().createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM Person WHERE last_name = 'Family'")) {
+                rs.next();
+                stored = rs.getInt(1);
+            }
+            System.out.println("Expected: at least 50000 rows/min written to the database");
+            System.out.println("Actual: " + result.getRowsPerMinute() + " rows/min, " + stored + " persons stored");
+            assertEquals(60_000, result.getImported());
+            assertEquals(60_000, stored);
+            assertTrue(result.getRowsPerMinute() >= 50_000);
+        } finally {
+            model.close();
+            db.closeConnection();
+        }
+    }
+
+    @Test
+    public void testImportedVictimsJoinTheModel() throws Exception {
+        System.out.println("\n=== Test: Imported Victims Join The Model ===");
+        EmbeddedDatabaseConnection db = EmbeddedDatabaseConnection.inMemory(Paths.get("project.sql"));
+        ReliefModel model = new ReliefModel(db);
+        try {
+            model.getDuplicateDetector();
+            new VictimImporter(model).importCsv(new StringReader(HEADER + "Freda,Ng,403-555-0101,1990-01-01,F,2,1,\n"),
+                rejects, model);
+            List<Person> found = model.findPersonsByPhone("4035550101");
+            DisasterVictim again = new DisasterVictim("Freda", "Ng", "403-555-0101", "Flood");
+            again.setDateOfBirth("1990-01-01");
+            System.out.println("Expected: Freda in the model, at location 2, in group 1 and flagged on re-entry");
+            System.out.println("Actual: " + found);
+            assertEquals(1, found.size());
+            DisasterVictim freda = (DisasterVictim) found.get(0);
+            assertEquals(6, freda.getId());
+            assertTrue(model.getLocations().get(2).hasOccupant(freda));
+            assertTrue(model.getFamilyGroups().get(1).hasFamilyMember(freda));
+            assertEquals(6, model.getDuplicateDetector().findMatches(again).get(0).getSurvivorId());
+        } finally {
+            model.close();
+            db.closeConnection();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingNameColumns() throws Exception {
+        System.out.println("\n=== Test: Missing Name Columns ===");
+        run("phone_number,location\n403-555-1234,1\n");
+    }
+}